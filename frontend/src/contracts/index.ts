@@ -44,6 +44,23 @@ export type ReplayJob = Schemas['ReplayJob']
 export type ReplayJobStatus = Schemas['ReplayJobStatus']
 export type ReplaySource = NonNullable<Schemas['ReplaySource']>
 export type ReplayJobCreateRequest = Schemas['ReplayJobCreateRequest']
+export type EnsembleJob = Schemas['EnsembleJob']
+export type EnsembleJobStatus = Schemas['EnsembleJobStatus']
+export type EnsembleSample = Schemas['EnsembleSample']
+export type EnsembleJobCreateRequest = Schemas['EnsembleJobCreateRequest']
+export type SweepJob = Schemas['SweepJob']
+export type SweepJobStatus = Schemas['SweepJobStatus']
+export type SweepPointOutcome = Schemas['SweepPointOutcome']
+export type SweepPointResult = Schemas['SweepPointResult']
+export type SweepJobCreateRequest = Schemas['SweepJobCreateRequest']
+export type StabilityMapJob = Schemas['StabilityMapJob']
+export type StabilityMapJobStatus = Schemas['StabilityMapJobStatus']
+export type StabilityMapJobCreateRequest = Schemas['StabilityMapJobCreateRequest']
+export type StabilityOutcome = Schemas['StabilityOutcome']
+export type StabilityCell = Schemas['StabilityCell']
+export type StabilityTile = Schemas['StabilityTile']
+export type TurboRequest = Schemas['TurboRequest']
+export type TurboState = Schemas['TurboState']
 export type TrajectoryInfo = Schemas['TrajectoryInfo']
 export type SimulationHealthStatus = Schemas['SimulationHealthStatus']
 export type DriftTrend = Schemas['DriftTrend']
@@ -110,6 +110,28 @@ export interface paths {
         patch?: never;
         trace?: never;
     };
+    "/experiments/{id}/turbo": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                id: components["parameters"]["ExperimentId"];
+            };
+            cookie?: never;
+        };
+        get?: never;
+        /**
+         * 显式开启或关闭 turbo 运行
+         * @description turbo 运行跳过实时节拍与展示发布；没有 WebSocket 订阅者时自动处于 turbo，订阅者连接后切回展示。
+         */
+        put: operations["setExperimentTurbo"];
+        post?: never;
+        delete?: never;
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
     "/queue": {
         parameters: {
             query?: never;
@@ -262,6 +284,186 @@ export interface paths {
         patch?: never;
         trace?: never;
     };
+    "/ensemble-jobs": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path?: never;
+            cookie?: never;
+        };
+        get?: never;
+        put?: never;
+        /**
+         * 创建集合积分任务
+         * @description 以一份基础配置与 members - 1 组位置扰动(加上未扰动的参照成员)一起积分，只返回相对参照成员的
+         *     发散统计，不创建实验、不写归档。积分方案须为固定步长方案，引力须为直接求和。
+         *     返回 202/QUEUED；待处理任务达到 4 个时返回 429。
+         */
+        post: operations["createEnsembleJob"];
+        delete?: never;
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
+    "/ensemble-jobs/{jobId}": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        /** 查询集合积分任务进度与发散统计 */
+        get: operations["getEnsembleJob"];
+        put?: never;
+        post?: never;
+        /**
+         * 删除集合积分任务
+         * @description 排队或运行中任务进入 CANCELLED，已终态任务保持原终态。
+         */
+        delete: operations["deleteEnsembleJob"];
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
+    "/sweep-jobs": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path?: never;
+            cookie?: never;
+        };
+        get?: never;
+        put?: never;
+        /**
+         * 创建参数扫描任务
+         * @description 把基础配置在 timeStepsSeconds × softeningLengthsMeters 网格上展开，各网格点并行积分到基础配置的结束条件，
+         *     只返回结果表，不创建实验、不写归档。网格为空时取基础配置的对应值；最多 1024 个网格点。
+         *     返回 202/QUEUED；未结束任务达到 4 个时返回 429。
+         */
+        post: operations["createSweepJob"];
+        delete?: never;
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
+    "/sweep-jobs/{jobId}": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        /** 查询参数扫描任务进度与已得出的结果 */
+        get: operations["getSweepJob"];
+        put?: never;
+        post?: never;
+        /**
+         * 删除参数扫描任务
+         * @description 排队或运行中任务进入 CANCELLED，已终态任务保持原终态。
+         */
+        delete: operations["deleteSweepJob"];
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
+    "/sweep-jobs/{jobId}/results": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        /**
+         * 查询或导出参数扫描结果表
+         * @description 按 sortBy/order 排序、按 outcome 筛选；format=csv 时以附件返回同样的行。能量漂移按绝对值排序，缺失值总在最后。
+         */
+        get: operations["getSweepResults"];
+        put?: never;
+        post?: never;
+        delete?: never;
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
+    "/stability-map-jobs": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path?: never;
+            cookie?: never;
+        };
+        get?: never;
+        put?: never;
+        /**
+         * 创建稳定性地图任务
+         * @description 改写 bodyId 初始位置或速度在 plane 上的两个分量，取值铺满 [uMin, uMax] × [vMin, vMax]，每个单元积分到 horizonSeconds，
+         *     判定逃逸、碰撞或存活(可选平均 MEGNO)。缩放级别 zoom 下定义域切成 2^zoom × 2^zoom 块瓦片，每块 16 × 16 个单元，
+         *     各瓦片并行计算并缓存在磁盘上；已缓存的瓦片直接计入完成。积分方案须为固定步长方案，单个任务最多 256 块瓦片。
+         *     返回 202/QUEUED；范围内瓦片全部命中缓存时直接为 COMPLETED；未结束任务达到 4 个时返回 429。
+         */
+        post: operations["createStabilityMapJob"];
+        delete?: never;
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
+    "/stability-map-jobs/{jobId}": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        /** 查询稳定性地图任务进度与已完成的瓦片坐标 */
+        get: operations["getStabilityMapJob"];
+        put?: never;
+        post?: never;
+        /**
+         * 删除稳定性地图任务
+         * @description 排队或运行中任务进入 CANCELLED，已终态任务保持原终态；已完成的瓦片保留在缓存中。
+         */
+        delete: operations["deleteStabilityMapJob"];
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
+    "/stability-maps/{mapId}/tiles/{z}/{x}/{y}": {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                mapId: string;
+                z: number;
+                x: number;
+                y: number;
+            };
+            cookie?: never;
+        };
+        /** 读取已缓存的稳定性地图瓦片 */
+        get: operations["getStabilityTile"];
+        put?: never;
+        post?: never;
+        delete?: never;
+        options?: never;
+        head?: never;
+        patch?: never;
+        trace?: never;
+    };
 }
 export type webhooks = Record<string, never>;
 export interface components {
@@ -291,6 +493,7 @@ export interface components {
         /** @description maxSteps 与 targetSimulationTimeSeconds 至少提供一个作为结束条件。 */
         SimulationConfig: {
             name?: string;
+            /** @description DIRECT 最多 100 个天体，BARNES_HUT、FMM 与 AUTO 最多 10000 个 */
             bodies: components["schemas"]["BodySpec"][];
             /** Format: double */
             timeStepSeconds: number;
@@ -305,6 +508,52 @@ export interface components {
             maxSteps?: number | null;
             /** Format: double */
             targetSimulationTimeSeconds?: number | null;
+            /**
+             * @description 积分方案，缺失时为 RK4。RK4 每步 4 次力计算；LEAPFROG 为踢-漂-踢辛方法，每步 1 次力计算且能量误差有界；YOSHIDA4、YOSHIDA6、FOREST_RUTH 为高阶辛方法，每步分别 3、7、3 次力计算；DOPRI45 为自适应步长方法，timeStepSeconds 为步长上限；HERMITE 为四阶 Hermite 块时间步方法，timeStepSeconds 为最大块步长；WISDOM_HOLMAN 为民主日心坐标下的二阶混合变量辛方法，以质量最大的天体为中心精确求解开普勒运动，每步 1 次力计算，适合单一天体占主导质量的系统。
+             * @enum {string}
+             */
+            integrator?: "RK4" | "LEAPFROG" | "YOSHIDA4" | "YOSHIDA6" | "FOREST_RUTH" | "DOPRI45" | "HERMITE" | "WISDOM_HOLMAN";
+            /**
+             * Format: double
+             * @description 自适应方案的相对误差容差，缺失时为 1e-10
+             */
+            relativeTolerance?: number | null;
+            /**
+             * Format: double
+             * @description 自适应方案的无量纲绝对容差，分别乘以初始最大天体间距与最大速度；缺失时为 1e-10
+             */
+            absoluteTolerance?: number | null;
+            /**
+             * @description 引力求解方式，缺失时为 DIRECT。DIRECT 逐对求和；BARNES_HUT 为八叉树近似，精度由 openingAngle 控制；FMM 为快速多极子，精度由 expansionOrder 控制；AUTO 按天体数量选择（不超过 100 为 DIRECT，不超过 2000 为 BARNES_HUT，否则 FMM）。近似求解不能与 HERMITE 同用。
+             * @enum {string}
+             */
+            forceSolver?: "DIRECT" | "BARNES_HUT" | "FMM" | "AUTO";
+            /**
+             * Format: double
+             * @description Barnes-Hut 张角 theta，缺失时为 0.5；越小越精确、越慢
+             */
+            openingAngle?: number | null;
+            /**
+             * Format: int32
+             * @description 快速多极子展开阶数，缺失时为 4；越大越精确、越慢
+             */
+            expansionOrder?: number | null;
+            /** @description 是否同时积分变分方程，在指标中给出最大 Lyapunov 指数与 MEGNO；缺失时为 false。只支持固定步长积分方案与 DIRECT 引力求解 */
+            chaosIndicators?: boolean | null;
+            /** @description 是否用解析开普勒解推进两体配置与动力学孤立的束缚双星，孤立期间双星作为复合天体参与其余积分；缺失时为 false。不能与 chaosIndicators 同时开启 */
+            analyticBinaries?: boolean | null;
+            /**
+             * Format: double
+             * @description 逃逸天体的退役半径(m)，缺失时不启用。天体相对其余天体非束缚、向外运动且与其余天体质心的距离超过该值时，改由双曲开普勒轨道解析推进，不再参与引力计算与近距离检测，其余天体按减少后的数量继续积分。必须大于软化长度，不能与 chaosIndicators 同时开启
+             */
+            escapeRetirementRadiusMeters?: number | null;
+            /** @description 是否把进入近距离事件的天体对切换到 Kustaanheimo-Stiefel 正则化坐标积分，直到两者远离；全局步长保持不变而近心点仍被解析。需要正的软化长度，缺失时为 false。不能与 chaosIndicators 同时开启 */
+            regularizedEncounters?: boolean | null;
+            /**
+             * Format: int32
+             * @description 并行时间分片(parareal)的分片数，2 到 64；缺失时逐步串行推进。开启时以分片数个时间片为一个窗口：大步长蛙跳粗积分给出各片起点，配置的积分方案作为细积分在各片上并行推进，迭代修正至片边界收敛后按步回放。结果只在收敛容差内与串行推进一致，从检查点续跑不能逐位复现，因此只用于参数扫描，创建或编辑实验时拒绝。只支持固定步长积分方案，不能与 chaosIndicators 同时开启
+             */
+            pararealSlices?: number | null;
         };
         Preset: {
             /** @enum {string} */
@@ -317,7 +566,7 @@ export interface components {
             /** @description JSON 指针风格路径，例如 bodies[2].massKg */
             field: string;
             /** @enum {string} */
-            code: "BODY_COUNT_OUT_OF_RANGE" | "DUPLICATE_BODY_ID" | "MISSING_BODY_NAME" | "INVALID_COLOR" | "INVALID_MASS" | "NON_FINITE_VALUE" | "COINCIDENT_BODIES" | "INVALID_TIME_STEP" | "INVALID_GRAVITATIONAL_CONSTANT" | "INVALID_SOFTENING_LENGTH" | "MISSING_END_CONDITION" | "MAX_STEPS_OUT_OF_RANGE" | "TARGET_TIME_OUT_OF_RANGE" | "TIME_STEP_TOO_LARGE" | "INITIAL_DISTANCE_TOO_SMALL" | "INITIAL_SPEED_HIGH" | "SOFTENING_TOO_SMALL" | "SOFTENING_TOO_LARGE";
+            code: "BODY_COUNT_OUT_OF_RANGE" | "DUPLICATE_BODY_ID" | "MISSING_BODY_NAME" | "INVALID_COLOR" | "INVALID_MASS" | "NON_FINITE_VALUE" | "COINCIDENT_BODIES" | "INVALID_TIME_STEP" | "INVALID_GRAVITATIONAL_CONSTANT" | "INVALID_SOFTENING_LENGTH" | "MISSING_END_CONDITION" | "MAX_STEPS_OUT_OF_RANGE" | "TARGET_TIME_OUT_OF_RANGE" | "TIME_STEP_TOO_LARGE" | "INITIAL_DISTANCE_TOO_SMALL" | "INITIAL_SPEED_HIGH" | "SOFTENING_TOO_SMALL" | "SOFTENING_TOO_LARGE" | "INVALID_INTEGRATOR" | "INVALID_TOLERANCE" | "INVALID_FORCE_SOLVER" | "INVALID_OPENING_ANGLE" | "INVALID_EXPANSION_ORDER" | "INVALID_CHAOS_INDICATORS" | "INVALID_ANALYTIC_BINARIES" | "INVALID_ESCAPE_RETIREMENT" | "INVALID_REGULARIZATION" | "INVALID_PARAREAL" | "WISDOM_HOLMAN_RECOMMENDED";
             message: string;
             /** @enum {string} */
             severity: "ERROR" | "WARNING";
@@ -375,6 +624,15 @@ export interface components {
             initialMinimumPairBodyIds: string[];
             /** Format: double */
             softeningToInitialDistanceRatio?: number | null;
+            /** @enum {string} */
+            integrator?: "RK4" | "LEAPFROG" | "YOSHIDA4" | "YOSHIDA6" | "FOREST_RUTH" | "DOPRI45" | "HERMITE" | "WISDOM_HOLMAN";
+            /** @description 积分方案稳态下每步力计算次数 */
+            forceEvaluationsPerStep?: number;
+            /**
+             * Format: int64
+             * @description 预计步数乘以每步力计算次数，运行时间的主要成本尺度
+             */
+            estimatedForceEvaluations?: number | null;
         };
         ValidationResult: {
             /** @description 不存在 ERROR 级问题时为 true */
@@ -499,6 +757,21 @@ export interface components {
             stepsPerSecond?: number | null;
             /** Format: double */
             elapsedWallClockSeconds?: number | null;
+            /**
+             * Format: double
+             * @description 近似引力求解的抽样相对力误差(均方根)，直接求和时为 null
+             */
+            forceErrorEstimate?: number | null;
+            /**
+             * Format: double
+             * @description 由变分方程得到的有限时间最大 Lyapunov 指数(1/s)，从本次运行(或续跑)开始起算；未开启 chaosIndicators 时为 null
+             */
+            lyapunovExponentPerSecond?: number | null;
+            /**
+             * Format: double
+             * @description 平均 MEGNO 指标 <Y>；规则运动趋于 2，混沌运动随时间线性增长。未开启 chaosIndicators 时为 null
+             */
+            megno?: number | null;
         };
         /**
          * @description 近遇生命周期阶段；诊断事件固定为 FINAL
@@ -765,6 +1038,18 @@ export interface components {
             /** @description 仅 RESTART 可携带新配置；其他动作必须为 null */
             config?: components["schemas"]["SimulationConfig"] | null;
         };
+        TurboRequest: {
+            enabled: boolean;
+        };
+        TurboState: {
+            /** Format: uuid */
+            id: string;
+            /** @description 当前是否以 turbo 运行（显式请求或无人订阅） */
+            turbo: boolean;
+            turboRequested: boolean;
+            /** Format: int32 */
+            viewers: number;
+        };
         QueueReorderRequest: {
             experimentIds: string[];
         };
@@ -859,27 +1144,314 @@ export interface components {
              */
             expiresAt: string;
         };
-        ApiError: {
-            /** @enum {string} */
-            code: "VALIDATION_FAILED" | "INVALID_RETRY_CONTEXT" | "EXPERIMENT_NOT_FOUND" | "ILLEGAL_STATE_TRANSITION" | "EXPERIMENT_NOT_EDITABLE" | "QUEUE_CONFLICT" | "UNSUPPORTED_ACTION_PAYLOAD" | "MALFORMED_REQUEST" | "STORAGE_FAILURE" | "REPLAY_QUEUE_FULL" | "REPLAY_JOB_NOT_FOUND" | "INTERNAL_ERROR";
-            message: string;
+        /** @enum {string} */
+        EnsembleJobStatus: "QUEUED" | "RUNNING" | "COMPLETED" | "CANCELLED" | "FAILED";
+        EnsembleJobCreateRequest: {
+            config: components["schemas"]["SimulationConfig"];
+            /** @description 成员数量，含未扰动的参照成员 */
+            members: number;
+            /**
+             * Format: double
+             * @description 位置扰动每个分量的标准差(m)
+             */
+            perturbationMeters: number;
+            /**
+             * Format: int64
+             * @description 积分步数；缺省时取 maxSteps 或目标时间对应的步数
+             */
+            steps?: number | null;
+            /**
+             * Format: int64
+             * @description 采样步距；缺省时约 100 个采样点，最多 1000 个
+             */
+            sampleIntervalSteps?: number | null;
+            /**
+             * Format: int64
+             * @description 扰动随机种子；缺省时随机
+             */
+            seed?: number | null;
+        };
+        EnsembleSample: {
+            /** Format: int64 */
+            step: number;
+            /** Format: double */
+            simulationTimeSeconds: number;
+            /** @description 仍然有效的成员数(含参照成员) */
+            aliveMembers: number;
+            /**
+             * Format: double
+             * @description 各扰动成员与参照成员位置差范数(m)的自然对数平均值
+             */
+            meanLogDivergence?: number | null;
+            /** Format: double */
+            medianDivergenceMeters?: number | null;
+            /** Format: double */
+            maxDivergenceMeters?: number | null;
+        };
+        EnsembleJob: {
+            /** Format: uuid */
+            jobId: string;
+            configName?: string;
+            memberCount: number;
+            /** Format: double */
+            perturbationMeters: number;
+            /** Format: int64 */
+            seed: number;
+            /** Format: int64 */
+            sampleIntervalSteps: number;
+            status: components["schemas"]["EnsembleJobStatus"];
+            /** Format: int64 */
+            completedSteps?: number;
+            /** Format: int64 */
+            totalSteps?: number;
+            /** Format: double */
+            progress: number;
+            samples: components["schemas"]["EnsembleSample"][];
+            /** @description 已失效(间距过小或出现非有限值)的成员数 */
+            failedMembers?: number;
+            /**
+             * Format: double
+             * @description 有限时间 Lyapunov 指数估计(1/s)，完成后给出
+             */
+            lyapunovEstimatePerSecond?: number | null;
+            error?: string | null;
             /** Format: date-time */
-            timestamp: string;
-            issues?: components["schemas"]["ValidationIssue"][] | null;
+            createdAt: string;
+            /** Format: date-time */
+            updatedAt: string;
+            /**
+             * Format: date-time
+             * @description 终态结果在内存中的保留截止时间
+             */
+            expiresAt?: string | null;
         };
-    };
-    responses: {
-        /** @description 请求非法 */
-        BadRequest: {
-            headers: {
-                [name: string]: unknown;
-            };
-            content: {
-                "application/json": components["schemas"]["ApiError"];
-            };
+        /** @enum {string} */
+        SweepJobStatus: "QUEUED" | "RUNNING" | "COMPLETED" | "CANCELLED" | "FAILED";
+        /** @enum {string} */
+        SweepPointOutcome: "COMPLETED" | "FAILED";
+        SweepJobCreateRequest: {
+            config: components["schemas"]["SimulationConfig"];
+            /** @description 时间步长网格(s)；缺省时取基础配置的时间步长 */
+            timeStepsSeconds?: number[] | null;
+            /** @description 软化长度网格(m)；缺省时取基础配置的软化长度 */
+            softeningLengthsMeters?: number[] | null;
         };
-        /** @description 资源不存在 */
-        NotFound: {
+        SweepPointResult: {
+            /** @description 网格点序号，时间步长为外层、软化长度为内层 */
+            index: number;
+            /** Format: double */
+            timeStepSeconds: number;
+            /** Format: double */
+            softeningLengthMeters: number;
+            outcome: components["schemas"]["SweepPointOutcome"];
+            /** Format: int64 */
+            steps: number;
+            /** Format: double */
+            simulationTimeSeconds: number;
+            /** Format: double */
+            finalRelativeEnergyDrift?: number | null;
+            /**
+             * Format: double
+             * @description 全程最近两体距离(m)
+             */
+            minimumPairDistanceMeters: number;
+            /** Format: double */
+            wallTimeSeconds: number;
+            /** Format: int64 */
+            failureStep?: number | null;
+            error?: string | null;
+            /**
+             * Format: int32
+             * @description 最后一个并行时间分片窗口收敛所用的迭代次数，最多等于分片数；未开启 pararealSlices 或没有完成窗口时为 null
+             */
+            pararealIterations?: number | null;
+            /**
+             * Format: double
+             * @description 最后一个并行时间分片窗口的实测加速比，即各片细积分耗时之和除以窗口墙钟耗时；小于 1 表示并行不划算。未开启 pararealSlices 时为 null
+             */
+            pararealSpeedup?: number | null;
+        };
+        SweepJob: {
+            /** Format: uuid */
+            jobId: string;
+            configName?: string;
+            timeStepsSeconds: number[];
+            softeningLengthsMeters: number[];
+            status: components["schemas"]["SweepJobStatus"];
+            completedPoints: number;
+            totalPoints: number;
+            /** Format: double */
+            progress: number;
+            results: components["schemas"]["SweepPointResult"][];
+            error?: string | null;
+            /** Format: date-time */
+            createdAt: string;
+            /** Format: date-time */
+            updatedAt: string;
+            /**
+             * Format: date-time
+             * @description 终态结果在内存中的保留截止时间
+             */
+            expiresAt?: string | null;
+        };
+        /** @enum {string} */
+        StabilityMapJobStatus: "QUEUED" | "RUNNING" | "COMPLETED" | "CANCELLED" | "FAILED";
+        /** @enum {string} */
+        StabilityOutcome: "SURVIVED" | "ESCAPED" | "COLLIDED";
+        StabilityMapJobCreateRequest: {
+            config: components["schemas"]["SimulationConfig"];
+            /** @description 被改写初始条件的天体 */
+            bodyId: string;
+            /** @enum {string} */
+            quantity: "POSITION" | "VELOCITY";
+            /** @enum {string} */
+            plane: "XY" | "XZ" | "YZ";
+            /**
+             * Format: double
+             * @description 横轴下界(m 或 m/s)
+             */
+            uMin: number;
+            /** Format: double */
+            uMax: number;
+            /**
+             * Format: double
+             * @description 纵轴下界(m 或 m/s)
+             */
+            vMin: number;
+            /** Format: double */
+            vMax: number;
+            /**
+             * Format: double
+             * @description 每个单元积分的时限(s)
+             */
+            horizonSeconds: number;
+            /**
+             * Format: double
+             * @description 逃逸半径(m)；缺省时取初始系统尺度的 10 倍
+             */
+            escapeRadiusMeters?: number | null;
+            /**
+             * Format: double
+             * @description 碰撞距离(m)；缺省时取近距离事件阈值
+             */
+            collisionDistanceMeters?: number | null;
+            /**
+             * @description 是否计算平均 MEGNO；开启后逐单元积分变分方程，明显更慢
+             * @default false
+             */
+            megno?: boolean;
+            /** @default 0 */
+            zoom?: number;
+            /** @description 瓦片列号下界(含)；缺省时为 0 */
+            xMin?: number | null;
+            /** @description 瓦片列号上界(含)；缺省时为 2^zoom - 1 */
+            xMax?: number | null;
+            yMin?: number | null;
+            yMax?: number | null;
+        };
+        StabilityMapJob: {
+            /** Format: uuid */
+            jobId: string;
+            /** @description 由影响结果的定义内容散列得出，配置名称与结束条件不参与 */
+            mapId: string;
+            configName?: string;
+            bodyId: string;
+            /** @enum {string} */
+            quantity: "POSITION" | "VELOCITY";
+            /** @enum {string} */
+            plane: "XY" | "XZ" | "YZ";
+            /** Format: double */
+            uMin: number;
+            /** Format: double */
+            uMax: number;
+            /** Format: double */
+            vMin: number;
+            /** Format: double */
+            vMax: number;
+            /** Format: double */
+            horizonSeconds: number;
+            megno: boolean;
+            zoom: number;
+            /** @description 瓦片每边单元数 */
+            tileSize: number;
+            xMin: number;
+            xMax: number;
+            yMin: number;
+            yMax: number;
+            status: components["schemas"]["StabilityMapJobStatus"];
+            /** @description 已可读取的瓦片数，含缓存命中 */
+            completedTiles: number;
+            /** @description 创建时已在缓存中的瓦片数 */
+            cachedTiles: number;
+            totalTiles: number;
+            /** Format: double */
+            progress: number;
+            /** @description 已可读取的瓦片坐标 "z/x/y"，按完成先后排列；轮询时只需读取新出现的坐标 */
+            tiles: string[];
+            error?: string | null;
+            /** Format: date-time */
+            createdAt: string;
+            /** Format: date-time */
+            updatedAt: string;
+            /**
+             * Format: date-time
+             * @description 终态任务在内存中的保留截止时间；瓦片缓存不过期
+             */
+            expiresAt?: string | null;
+        };
+        StabilityCell: {
+            outcome: components["schemas"]["StabilityOutcome"];
+            /**
+             * Format: double
+             * @description 逃逸或碰撞时刻(s)；存活时为 null
+             */
+            eventTimeSeconds?: number | null;
+            /**
+             * Format: double
+             * @description 时限内的平均 MEGNO；未请求或不可用时为 null
+             */
+            megno?: number | null;
+        };
+        StabilityTile: {
+            mapId: string;
+            zoom: number;
+            /** @description 瓦片列号，向右递增 */
+            x: number;
+            /** @description 瓦片行号，自 vMax 向下递增 */
+            y: number;
+            size: number;
+            /** Format: double */
+            uMin: number;
+            /** Format: double */
+            uMax: number;
+            /** Format: double */
+            vMin: number;
+            /** Format: double */
+            vMax: number;
+            /** @description size × size 个单元，按行优先排列，第 0 行在 vMax 一侧，取值位于格子中心 */
+            cells: components["schemas"]["StabilityCell"][];
+        };
+        ApiError: {
+            /** @enum {string} */
+            code: "VALIDATION_FAILED" | "INVALID_RETRY_CONTEXT" | "EXPERIMENT_NOT_FOUND" | "ILLEGAL_STATE_TRANSITION" | "EXPERIMENT_NOT_EDITABLE" | "QUEUE_CONFLICT" | "UNSUPPORTED_ACTION_PAYLOAD" | "MALFORMED_REQUEST" | "STORAGE_FAILURE" | "REPLAY_QUEUE_FULL" | "REPLAY_JOB_NOT_FOUND" | "ENSEMBLE_QUEUE_FULL" | "ENSEMBLE_JOB_NOT_FOUND" | "SWEEP_QUEUE_FULL" | "SWEEP_JOB_NOT_FOUND" | "STABILITY_MAP_QUEUE_FULL" | "STABILITY_MAP_JOB_NOT_FOUND" | "STABILITY_TILE_NOT_FOUND" | "INTERNAL_ERROR";
+            message: string;
+            /** Format: date-time */
+            timestamp: string;
+            issues?: components["schemas"]["ValidationIssue"][] | null;
+        };
+    };
+    responses: {
+        /** @description 请求非法 */
+        BadRequest: {
+            headers: {
+                [name: string]: unknown;
+            };
+            content: {
+                "application/json": components["schemas"]["ApiError"];
+            };
+        };
+        /** @description 资源不存在 */
+        NotFound: {
             headers: {
                 [name: string]: unknown;
             };
@@ -1117,6 +1689,34 @@ export interface operations {
             409: components["responses"]["Conflict"];
         };
     };
+    setExperimentTurbo: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                id: components["parameters"]["ExperimentId"];
+            };
+            cookie?: never;
+        };
+        requestBody: {
+            content: {
+                "application/json": components["schemas"]["TurboRequest"];
+            };
+        };
+        responses: {
+            /** @description 更新后的 turbo 状态 */
+            200: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["TurboState"];
+                };
+            };
+            400: components["responses"]["BadRequest"];
+            404: components["responses"]["NotFound"];
+        };
+    };
     reorderQueue: {
         parameters: {
             query?: never;
@@ -1356,4 +1956,359 @@ export interface operations {
             };
         };
     };
+    createEnsembleJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path?: never;
+            cookie?: never;
+        };
+        requestBody: {
+            content: {
+                "application/json": components["schemas"]["EnsembleJobCreateRequest"];
+            };
+        };
+        responses: {
+            /** @description 任务已入队 */
+            202: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["EnsembleJob"];
+                };
+            };
+            400: components["responses"]["BadRequest"];
+            /** @description 待处理集合积分任务已达上限 */
+            429: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    getEnsembleJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        requestBody?: never;
+        responses: {
+            /** @description 集合积分任务 */
+            200: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["EnsembleJob"];
+                };
+            };
+            /** @description 任务不存在或已过期 */
+            404: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    deleteEnsembleJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        requestBody?: never;
+        responses: {
+            /** @description 已删除 */
+            204: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content?: never;
+            };
+            /** @description 任务不存在或已过期 */
+            404: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    createSweepJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path?: never;
+            cookie?: never;
+        };
+        requestBody: {
+            content: {
+                "application/json": components["schemas"]["SweepJobCreateRequest"];
+            };
+        };
+        responses: {
+            /** @description 任务已入队 */
+            202: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["SweepJob"];
+                };
+            };
+            400: components["responses"]["BadRequest"];
+            /** @description 未结束参数扫描任务已达上限 */
+            429: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    getSweepJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        requestBody?: never;
+        responses: {
+            /** @description 参数扫描任务 */
+            200: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["SweepJob"];
+                };
+            };
+            /** @description 任务不存在或已过期 */
+            404: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    deleteSweepJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        requestBody?: never;
+        responses: {
+            /** @description 已删除 */
+            204: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content?: never;
+            };
+            /** @description 任务不存在或已过期 */
+            404: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    getSweepResults: {
+        parameters: {
+            query?: {
+                sortBy?: "index" | "timeStepSeconds" | "softeningLengthMeters" | "finalRelativeEnergyDrift" | "minimumPairDistanceMeters" | "wallTimeSeconds" | "failureStep";
+                order?: "asc" | "desc";
+                outcome?: components["schemas"]["SweepPointOutcome"];
+                format?: "json" | "csv";
+            };
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        requestBody?: never;
+        responses: {
+            /** @description 结果表 */
+            200: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["SweepPointResult"][];
+                    "text/csv": string;
+                };
+            };
+            400: components["responses"]["BadRequest"];
+            /** @description 任务不存在或已过期 */
+            404: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    createStabilityMapJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path?: never;
+            cookie?: never;
+        };
+        requestBody: {
+            content: {
+                "application/json": components["schemas"]["StabilityMapJobCreateRequest"];
+            };
+        };
+        responses: {
+            /** @description 任务已入队 */
+            202: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["StabilityMapJob"];
+                };
+            };
+            400: components["responses"]["BadRequest"];
+            /** @description 未结束稳定性地图任务已达上限 */
+            429: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    getStabilityMapJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        requestBody?: never;
+        responses: {
+            /** @description 稳定性地图任务 */
+            200: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["StabilityMapJob"];
+                };
+            };
+            /** @description 任务不存在或已过期 */
+            404: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    deleteStabilityMapJob: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                jobId: string;
+            };
+            cookie?: never;
+        };
+        requestBody?: never;
+        responses: {
+            /** @description 已删除 */
+            204: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content?: never;
+            };
+            /** @description 任务不存在或已过期 */
+            404: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
+    getStabilityTile: {
+        parameters: {
+            query?: never;
+            header?: never;
+            path: {
+                mapId: string;
+                z: number;
+                x: number;
+                y: number;
+            };
+            cookie?: never;
+        };
+        requestBody?: never;
+        responses: {
+            /** @description 瓦片 */
+            200: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["StabilityTile"];
+                };
+            };
+            400: components["responses"]["BadRequest"];
+            /** @description 瓦片尚未计算 */
+            404: {
+                headers: {
+                    [name: string]: unknown;
+                };
+                content: {
+                    "application/json": components["schemas"]["ApiError"];
+                };
+            };
+        };
+    };
 }
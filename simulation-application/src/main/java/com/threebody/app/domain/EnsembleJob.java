@@ -0,0 +1,51 @@
+package com.threebody.app.domain;
+
+import com.threebody.core.EnsembleSample;
+import com.threebody.core.SimulationConfig;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 集合积分任务：同一基础配置的多组扰动初始条件一起积分，只返回发散统计，不产生归档。
+ *
+ * @param jobId                     任务 ID
+ * @param config                    基础配置(已规范化)
+ * @param memberCount               成员数量，含未扰动的参照成员
+ * @param perturbationMeters        位置扰动每个分量的标准差(m)
+ * @param seed                      扰动随机种子
+ * @param sampleIntervalSteps       发散统计的采样步距
+ * @param status                    状态
+ * @param completedSteps            已完成的积分步
+ * @param totalSteps                总需积分步
+ * @param progress                  进度 0..1，完成时固定 1
+ * @param samples                   已得到的发散统计，按步数升序
+ * @param failedMembers             已失效的成员数
+ * @param lyapunovEstimatePerSecond 有限时间 Lyapunov 指数估计(1/s)；完成前或无法估计时为 null
+ * @param error                     失败原因；否则为 null
+ * @param createdAt                 创建时间
+ * @param updatedAt                 最近更新时间
+ * @param expiresAt                 终态结果的保留截止时间；终态前为 null
+ */
+public record EnsembleJob(
+        String jobId,
+        SimulationConfig config,
+        int memberCount,
+        double perturbationMeters,
+        long seed,
+        long sampleIntervalSteps,
+        EnsembleJobStatus status,
+        long completedSteps,
+        long totalSteps,
+        double progress,
+        List<EnsembleSample> samples,
+        int failedMembers,
+        Double lyapunovEstimatePerSecond,
+        String error,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant expiresAt) {
+
+    public EnsembleJob {
+        samples = samples == null ? List.of() : List.copyOf(samples);
+    }
+}
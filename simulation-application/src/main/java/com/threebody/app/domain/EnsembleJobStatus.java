@@ -0,0 +1,10 @@
+package com.threebody.app.domain;
+
+/** 集合积分任务状态。 */
+public enum EnsembleJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -5,6 +5,8 @@ import java.util.List;
 
 /**
  * 指标快照，字段与 OpenAPI Metrics 对应；单位均为 SI。
+ * forceErrorEstimate 为近似引力求解的抽样相对力误差，直接求和时为 null；
+ * lyapunovExponentPerSecond 与 megno 为变分方程给出的混沌指标，配置未开启 chaosIndicators 时为 null。
  */
 public record ExperimentMetrics(
         double kineticEnergyJoules,
@@ -21,7 +23,10 @@ public record ExperimentMetrics(
         Double allTimeMinimumPairDistanceMeters,
         Long allTimeMinimumPairDistanceStep,
         Double stepsPerSecond,
-        Double elapsedWallClockSeconds) {
+        Double elapsedWallClockSeconds,
+        Double forceErrorEstimate,
+        Double lyapunovExponentPerSecond,
+        Double megno) {
 
     public ExperimentMetrics {
         minimumPairBodyIds = minimumPairBodyIds == null ? List.of() : List.copyOf(minimumPairBodyIds);
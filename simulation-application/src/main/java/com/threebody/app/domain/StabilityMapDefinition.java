@@ -0,0 +1,35 @@
+package com.threebody.app.domain;
+
+import com.threebody.core.SimulationConfig;
+
+/**
+ * 稳定性地图定义：在基础配置上改写一个天体初始位置或速度的两个分量，取值铺满 [uMin, uMax] × [vMin, vMax]。
+ * 同一定义在任意缩放级别下的瓦片共用一个 mapId 与磁盘缓存。
+ *
+ * @param config                  基础配置(已规范化)；结束条件不参与地图，时限见 horizonSeconds
+ * @param bodyId                  被改写初始条件的天体
+ * @param quantity                改写位置还是速度
+ * @param plane                   横纵轴对应的分量
+ * @param uMin                    横轴下界(m 或 m/s)
+ * @param uMax                    横轴上界
+ * @param vMin                    纵轴下界
+ * @param vMax                    纵轴上界
+ * @param horizonSeconds          每个单元积分的时限(s)
+ * @param escapeRadiusMeters      逃逸半径(m)；null 时取初始系统尺度的 10 倍
+ * @param collisionDistanceMeters 碰撞距离(m)；null 时取近距离事件阈值
+ * @param megno                   是否计算平均 MEGNO
+ */
+public record StabilityMapDefinition(
+        SimulationConfig config,
+        String bodyId,
+        StabilityMapQuantity quantity,
+        StabilityMapPlane plane,
+        double uMin,
+        double uMax,
+        double vMin,
+        double vMax,
+        double horizonSeconds,
+        Double escapeRadiusMeters,
+        Double collisionDistanceMeters,
+        boolean megno) {
+}
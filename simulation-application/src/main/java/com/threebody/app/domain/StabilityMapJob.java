@@ -0,0 +1,52 @@
+package com.threebody.app.domain;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 稳定性地图任务：计算某一缩放级别下一段瓦片范围。已缓存的瓦片直接计入完成，其余瓦片完成一块追加一块，
+ * 客户端轮询任务并按 tiles 中新出现的坐标取瓦片，即可边算边显示。
+ *
+ * @param jobId          任务 ID
+ * @param mapId          地图 ID，瓦片按 /stability-maps/{mapId}/tiles/{z}/{x}/{y} 读取
+ * @param definition     地图定义
+ * @param zoom           缩放级别
+ * @param xMin           瓦片列号下界(含)
+ * @param xMax           瓦片列号上界(含)
+ * @param yMin           瓦片行号下界(含)
+ * @param yMax           瓦片行号上界(含)
+ * @param status         状态
+ * @param completedTiles 已可读取的瓦片数，含缓存命中
+ * @param cachedTiles    创建时已在缓存中的瓦片数
+ * @param totalTiles     瓦片总数
+ * @param progress       进度 0..1，完成时固定 1
+ * @param tiles          已可读取的瓦片坐标 "z/x/y"，按完成先后排列
+ * @param error          失败原因；否则为 null
+ * @param createdAt      创建时间
+ * @param updatedAt      最近更新时间
+ * @param expiresAt      终态任务的保留截止时间；终态前为 null。瓦片缓存不随任务过期
+ */
+public record StabilityMapJob(
+        String jobId,
+        String mapId,
+        StabilityMapDefinition definition,
+        int zoom,
+        int xMin,
+        int xMax,
+        int yMin,
+        int yMax,
+        StabilityMapJobStatus status,
+        int completedTiles,
+        int cachedTiles,
+        int totalTiles,
+        double progress,
+        List<String> tiles,
+        String error,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant expiresAt) {
+
+    public StabilityMapJob {
+        tiles = tiles == null ? List.of() : List.copyOf(tiles);
+    }
+}
@@ -0,0 +1,10 @@
+package com.threebody.app.domain;
+
+/** 稳定性地图任务状态。 */
+public enum StabilityMapJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
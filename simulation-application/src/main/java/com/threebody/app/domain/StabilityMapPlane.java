@@ -0,0 +1,26 @@
+package com.threebody.app.domain;
+
+/** 稳定性地图的坐标平面：横轴与纵轴各对应被改写量的一个分量。 */
+public enum StabilityMapPlane {
+    XY(0, 1),
+    XZ(0, 2),
+    YZ(1, 2);
+
+    private final int uAxis;
+    private final int vAxis;
+
+    StabilityMapPlane(int uAxis, int vAxis) {
+        this.uAxis = uAxis;
+        this.vAxis = vAxis;
+    }
+
+    /** 横轴分量，0/1/2 为 x/y/z。 */
+    public int uAxis() {
+        return uAxis;
+    }
+
+    /** 纵轴分量，0/1/2 为 x/y/z。 */
+    public int vAxis() {
+        return vAxis;
+    }
+}
@@ -0,0 +1,7 @@
+package com.threebody.app.domain;
+
+/** 稳定性地图改写的初始量。 */
+public enum StabilityMapQuantity {
+    POSITION,
+    VELOCITY
+}
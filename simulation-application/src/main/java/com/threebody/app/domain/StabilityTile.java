@@ -0,0 +1,36 @@
+package com.threebody.app.domain;
+
+import com.threebody.core.StabilityCell;
+import java.util.List;
+
+/**
+ * 稳定性地图瓦片：缩放级别 zoom 下定义域被等分为 2^zoom × 2^zoom 块，每块 size × size 个单元，
+ * 单元取值位于格子中心。瓦片 (x, y) 的 x 向右递增、y 自 vMax 向下递增，与常见地图瓦片一致。
+ *
+ * @param mapId 地图 ID
+ * @param zoom  缩放级别
+ * @param x     瓦片列号
+ * @param y     瓦片行号
+ * @param size  每边单元数
+ * @param uMin  瓦片横轴下界
+ * @param uMax  瓦片横轴上界
+ * @param vMin  瓦片纵轴下界
+ * @param vMax  瓦片纵轴上界
+ * @param cells 单元结果，按行优先排列，第 0 行在 vMax 一侧
+ */
+public record StabilityTile(
+        String mapId,
+        int zoom,
+        int x,
+        int y,
+        int size,
+        double uMin,
+        double uMax,
+        double vMin,
+        double vMax,
+        List<StabilityCell> cells) {
+
+    public StabilityTile {
+        cells = cells == null ? List.of() : List.copyOf(cells);
+    }
+}
@@ -0,0 +1,44 @@
+package com.threebody.app.domain;
+
+import com.threebody.core.SimulationConfig;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 参数扫描任务：基础配置在时间步长与软化长度网格上的每个组合各积分一次，只返回结果表，不产生归档。
+ *
+ * @param jobId                  任务 ID
+ * @param config                 基础配置(已规范化)
+ * @param timeStepsSeconds       时间步长网格(s)
+ * @param softeningLengthsMeters 软化长度网格(m)
+ * @param status                 状态
+ * @param completedPoints        已得出结果的网格点数
+ * @param totalPoints            网格点总数
+ * @param progress               进度 0..1，完成时固定 1
+ * @param results                已得出的结果行，按网格点序号升序
+ * @param error                  失败原因；否则为 null
+ * @param createdAt              创建时间
+ * @param updatedAt              最近更新时间
+ * @param expiresAt              终态结果的保留截止时间；终态前为 null
+ */
+public record SweepJob(
+        String jobId,
+        SimulationConfig config,
+        List<Double> timeStepsSeconds,
+        List<Double> softeningLengthsMeters,
+        SweepJobStatus status,
+        int completedPoints,
+        int totalPoints,
+        double progress,
+        List<SweepPointResult> results,
+        String error,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant expiresAt) {
+
+    public SweepJob {
+        timeStepsSeconds = timeStepsSeconds == null ? List.of() : List.copyOf(timeStepsSeconds);
+        softeningLengthsMeters = softeningLengthsMeters == null ? List.of() : List.copyOf(softeningLengthsMeters);
+        results = results == null ? List.of() : List.copyOf(results);
+    }
+}
@@ -0,0 +1,10 @@
+package com.threebody.app.domain;
+
+/** 参数扫描任务状态。 */
+public enum SweepJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
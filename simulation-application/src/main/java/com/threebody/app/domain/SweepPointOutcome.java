@@ -0,0 +1,9 @@
+package com.threebody.app.domain;
+
+/** 参数扫描中单个网格点的结局。 */
+public enum SweepPointOutcome {
+    /** 到达基础配置的结束条件。 */
+    COMPLETED,
+    /** 积分中途数值不稳定。 */
+    FAILED
+}
@@ -0,0 +1,34 @@
+package com.threebody.app.domain;
+
+/**
+ * 参数扫描结果表的一行：一个 (时间步长, 软化长度) 网格点的积分结果。
+ *
+ * @param index                    网格点序号：时间步长为外层、软化长度为内层的行主序
+ * @param timeStepSeconds          该点的时间步长(s)
+ * @param softeningLengthMeters    该点的软化长度(m)
+ * @param outcome                  结局
+ * @param steps                    实际完成的积分步
+ * @param simulationTimeSeconds    最后完成步的模拟时间(s)
+ * @param finalRelativeEnergyDrift 最后完成步的相对能量漂移；非有限时为 null
+ * @param minimumPairDistanceMeters 全程最近两体距离(m)
+ * @param wallTimeSeconds          该点积分耗费的墙钟时间(s)
+ * @param failureStep              数值不稳定发生的步；完成时为 null
+ * @param error                    失败原因；完成时为 null
+ * @param pararealIterations       最后一个并行时间分片窗口的迭代次数；未开启 pararealSlices 或没有完成窗口时为 null
+ * @param pararealSpeedup          最后一个并行时间分片窗口的实测加速比；未开启 pararealSlices 时为 null
+ */
+public record SweepPointResult(
+        int index,
+        double timeStepSeconds,
+        double softeningLengthMeters,
+        SweepPointOutcome outcome,
+        long steps,
+        double simulationTimeSeconds,
+        Double finalRelativeEnergyDrift,
+        double minimumPairDistanceMeters,
+        double wallTimeSeconds,
+        Long failureStep,
+        String error,
+        Integer pararealIterations,
+        Double pararealSpeedup) {
+}
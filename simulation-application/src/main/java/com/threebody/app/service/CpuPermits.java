@@ -0,0 +1,49 @@
+package com.threebody.app.service;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * 进程内共享的 CPU 许可。实验的批量推进段、参数扫描的网格点、稳定性地图的瓦片与集合积分的推进段都在占用 CPU 前申请，
+ * 因此各类任务同时运行时合计占用的核数不超过许可数。许可公平排队，先申请者先得，任何一类任务都不会饿死其他任务。
+ */
+public final class CpuPermits {
+
+    private final int size;
+    private final Semaphore semaphore;
+
+    /**
+     * @param size 许可总数，通常等于处理器核数
+     * @throws IllegalArgumentException size 小于 1 时
+     */
+    public CpuPermits(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("CPU 许可数必须 >= 1：" + size);
+        }
+        this.size = size;
+        this.semaphore = new Semaphore(size, true);
+    }
+
+    /** 许可数等于处理器核数。 */
+    public static CpuPermits ofProcessors() {
+        return new CpuPermits(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 不可中断地申请 count 个许可；超过许可总数时按总数申请，避免永远等不到。
+     *
+     * @return 实际持有的许可数，由调用方原样交给 {@link #release(int)}
+     */
+    public int acquire(int count) {
+        int held = Math.max(1, Math.min(count, size));
+        semaphore.acquireUninterruptibly(held);
+        return held;
+    }
+
+    public void release(int held) {
+        semaphore.release(held);
+    }
+}
@@ -0,0 +1,310 @@
+package com.threebody.app.service;
+
+import com.threebody.app.domain.EnsembleJob;
+import com.threebody.app.domain.EnsembleJobStatus;
+import com.threebody.core.ConfigValidator;
+import com.threebody.core.Ensemble;
+import com.threebody.core.EnsembleSample;
+import com.threebody.core.ForceSolverKind;
+import com.threebody.core.NBodyIntegrator;
+import com.threebody.core.SimulationConfig;
+import com.threebody.core.ValidationResult;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 集合积分服务：独立低优先级单 worker、有界队列（最多 4 个待处理任务）。
+ *
+ * <p>每个任务以一份基础配置与 K 组位置扰动构造 {@link Ensemble}，全部成员在同一批量内核中推进，
+ * 按采样步距记录相对参照成员的发散统计。不创建实验，不写归档，也不发实时消息；
+ * 结果只保存在内存中，终态后保留 {@link #RESULT_TTL_MILLIS}。每段推进都持有一个与实验共用的 CPU 许可。</p>
+ */
+public final class EnsembleService implements AutoCloseable {
+
+    public static final int MAX_PENDING_JOBS = 4;
+    public static final int MAX_MEMBERS = 256;
+    /** 单个任务最多保留的采样点数；请求的采样步距过小时自动放大。 */
+    public static final int MAX_SAMPLES = 1000;
+    public static final long RESULT_TTL_MILLIS = 10 * 60_000L;
+    private static final long PROGRESS_MIN_INTERVAL_NANOS = 100_000_000L;
+    /** 两次取消检查之间最多推进的步数。 */
+    private static final long CANCEL_CHECK_STEP_INTERVAL = 128L;
+
+    private final ExecutorService executor;
+    private final CpuPermits cpuPermits;
+    private final Map<String, EnsembleJob> jobs = new ConcurrentHashMap<>();
+    private final ArrayDeque<String> pendingQueue = new ArrayDeque<>();
+    private final AtomicLong activeCount = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public EnsembleService() {
+        this(new CpuPermits(1));
+    }
+
+    /**
+     * @param cpuPermits 与实验共用的 CPU 许可，worker 只在持有许可时推进
+     */
+    public EnsembleService(CpuPermits cpuPermits) {
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "ensemble-worker");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        this.executor = Executors.newSingleThreadExecutor(factory);
+        this.cpuPermits = cpuPermits;
+    }
+
+    /**
+     * 创建集合积分任务。
+     *
+     * @param config              基础配置，按实验配置规则校验
+     * @param members             成员数量，含未扰动的参照成员，[2, {@link #MAX_MEMBERS}]
+     * @param perturbationMeters  位置扰动每个分量的标准差(m)，必须为正
+     * @param steps               积分步数；null 时取配置的最大步数或目标时间对应的步数
+     * @param sampleIntervalSteps 采样步距；null 时均匀取约 100 个采样点
+     * @param seed                扰动随机种子；null 时随机
+     * @return 已入队的任务
+     * @throws ConfigValidationException     基础配置校验失败
+     * @throws IllegalArgumentException      参数非法或积分方案、引力求解方式不支持批量积分
+     * @throws EnsembleQueueFullException    待处理任务已达上限
+     */
+    public EnsembleJob create(SimulationConfig config, int members, double perturbationMeters,
+            Long steps, Long sampleIntervalSteps, Long seed) {
+        if (closed.get()) {
+            throw new IllegalStateException("ensemble service is closed");
+        }
+        ValidationResult vr = ConfigValidator.validate(config);
+        if (!vr.valid()) {
+            throw new ConfigValidationException(vr.issues());
+        }
+        SimulationConfig normalized = vr.normalizedConfig();
+        if (members < 2 || members > MAX_MEMBERS) {
+            throw new IllegalArgumentException("members 必须在 [2, " + MAX_MEMBERS + "] 内");
+        }
+        if (!(perturbationMeters > 0.0) || !Double.isFinite(perturbationMeters)) {
+            throw new IllegalArgumentException("perturbationMeters 必须为正的有限值");
+        }
+        if (!normalized.integrator().supportsEnsemble()) {
+            throw new IllegalArgumentException(normalized.integrator() + " 不支持集合积分，请选择固定步长方案");
+        }
+        if (normalized.forceSolver().resolve(normalized.bodyCount()) != ForceSolverKind.DIRECT) {
+            throw new IllegalArgumentException("集合积分只支持直接求和引力");
+        }
+        long totalSteps = steps != null ? steps : defaultSteps(normalized);
+        if (totalSteps < 1L) {
+            throw new IllegalArgumentException("steps 必须至少为 1");
+        }
+        if (sampleIntervalSteps != null && sampleIntervalSteps < 1L) {
+            throw new IllegalArgumentException("sampleIntervalSteps 必须至少为 1");
+        }
+        long minimumInterval = (totalSteps + MAX_SAMPLES - 1) / MAX_SAMPLES;
+        long interval = Math.max(minimumInterval,
+                sampleIntervalSteps != null ? sampleIntervalSteps : Math.max(1L, totalSteps / 100L));
+
+        String jobId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        EnsembleJob queued = new EnsembleJob(jobId, normalized, members, perturbationMeters,
+                seed != null ? seed : ThreadLocalRandom.current().nextLong(), interval,
+                EnsembleJobStatus.QUEUED, 0L, totalSteps, 0.0, List.of(), 0, null, null,
+                now, now, null);
+        synchronized (pendingQueue) {
+            if (pendingQueue.size() >= MAX_PENDING_JOBS) {
+                throw new EnsembleQueueFullException("集合积分待处理任务已达 " + MAX_PENDING_JOBS + " 个上限");
+            }
+            jobs.put(jobId, queued);
+            pendingQueue.addLast(jobId);
+        }
+        scheduleNext();
+        return queued;
+    }
+
+    private static long defaultSteps(SimulationConfig config) {
+        if (config.maxSteps() != null) {
+            return config.maxSteps();
+        }
+        return (long) Math.ceil(config.targetSimulationTimeSeconds() / config.timeStepSeconds());
+    }
+
+    public EnsembleJob get(String jobId) {
+        EnsembleJob job = jobs.get(jobId);
+        if (job == null || expired(job)) {
+            throw new EnsembleJobNotFoundException("集合积分任务不存在或已过期");
+        }
+        return job;
+    }
+
+    /** 删除任务：排队或运行中进入 CANCELLED，已终态任务保持原终态。 */
+    public void delete(String jobId) {
+        EnsembleJob job = get(jobId);
+        if (job.status() == EnsembleJobStatus.QUEUED) {
+            synchronized (pendingQueue) {
+                pendingQueue.remove(jobId);
+            }
+            jobs.put(jobId, finish(job, EnsembleJobStatus.CANCELLED, null));
+        } else if (job.status() == EnsembleJobStatus.RUNNING) {
+            jobs.put(jobId, finish(job, EnsembleJobStatus.CANCELLED, null));
+        }
+    }
+
+    private void scheduleNext() {
+        if (closed.get()) {
+            return;
+        }
+        synchronized (pendingQueue) {
+            if (activeCount.get() > 0 || pendingQueue.isEmpty()) {
+                return;
+            }
+            String jobId = pendingQueue.pollFirst();
+            activeCount.incrementAndGet();
+            executor.execute(() -> run(jobId));
+        }
+    }
+
+    private void run(String jobId) {
+        try {
+            EnsembleJob job = jobs.get(jobId);
+            if (job != null && job.status() == EnsembleJobStatus.QUEUED) {
+                integrate(jobId, job);
+            }
+        } catch (Throwable failure) {
+            EnsembleJob job = jobs.get(jobId);
+            if (job != null && !terminal(job.status())) {
+                jobs.put(jobId, finish(job, EnsembleJobStatus.FAILED, failure.getMessage()));
+            }
+        } finally {
+            activeCount.decrementAndGet();
+            scheduleNext();
+        }
+    }
+
+    private void integrate(String jobId, EnsembleJob job) {
+        Ensemble ensemble = new Ensemble(job.config(), Ensemble.perturbedMembers(
+                NBodyIntegrator.initialState(job.config()), job.memberCount(), job.perturbationMeters(), job.seed()));
+        List<EnsembleSample> samples = new ArrayList<>();
+        samples.add(ensemble.sample());
+        if (!publish(jobId, EnsembleJobStatus.QUEUED, progress(job, EnsembleJobStatus.RUNNING, 0L, samples, 0))) {
+            return;
+        }
+        long lastProgressNanos = System.nanoTime();
+        long completed = 0L;
+        while (completed < job.totalSteps()) {
+            EnsembleJob current = jobs.get(jobId);
+            if (closed.get() || current == null || current.status() != EnsembleJobStatus.RUNNING) {
+                return;
+            }
+            long untilSample = job.sampleIntervalSteps() - completed % job.sampleIntervalSteps();
+            long chunk = Math.min(Math.min(untilSample, CANCEL_CHECK_STEP_INTERVAL), job.totalSteps() - completed);
+            int held = cpuPermits.acquire(1);
+            try {
+                completed += ensemble.advance(chunk);
+            } finally {
+                cpuPermits.release(held);
+            }
+            boolean sampled = completed % job.sampleIntervalSteps() == 0L || completed == job.totalSteps();
+            if (sampled) {
+                samples.add(ensemble.sample());
+            }
+            long now = System.nanoTime();
+            if (sampled || now - lastProgressNanos >= PROGRESS_MIN_INTERVAL_NANOS) {
+                if (!publish(jobId, EnsembleJobStatus.RUNNING,
+                        progress(job, EnsembleJobStatus.RUNNING, completed, samples, failedMembers(ensemble)))) {
+                    return;
+                }
+                lastProgressNanos = now;
+            }
+        }
+        double lyapunov = Ensemble.lyapunovEstimatePerSecond(samples);
+        EnsembleJob done = progress(job, EnsembleJobStatus.RUNNING, completed, samples, failedMembers(ensemble));
+        Instant now = Instant.now();
+        EnsembleJob completedJob = new EnsembleJob(done.jobId(), done.config(), done.memberCount(),
+                done.perturbationMeters(), done.seed(), done.sampleIntervalSteps(), EnsembleJobStatus.COMPLETED,
+                done.completedSteps(), done.totalSteps(), 1.0, done.samples(), done.failedMembers(),
+                Double.isFinite(lyapunov) ? lyapunov : null, null, done.createdAt(), now,
+                now.plusMillis(RESULT_TTL_MILLIS));
+        publish(jobId, EnsembleJobStatus.RUNNING, completedJob);
+    }
+
+    /** 任务仍处于 expected 状态时写入 update；已被取消或关闭时返回 false。 */
+    private boolean publish(String jobId, EnsembleJobStatus expected, EnsembleJob update) {
+        return jobs.computeIfPresent(jobId, (id, current) ->
+                current.status() == expected ? update : current) == update;
+    }
+
+    private static int failedMembers(Ensemble ensemble) {
+        int failed = 0;
+        for (int k = 0; k < ensemble.memberCount(); k++) {
+            if (!ensemble.alive(k)) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private static EnsembleJob progress(EnsembleJob job, EnsembleJobStatus status, long completed,
+            List<EnsembleSample> samples, int failedMembers) {
+        double progress = Math.min(1.0, (double) completed / Math.max(1L, job.totalSteps()));
+        return new EnsembleJob(job.jobId(), job.config(), job.memberCount(), job.perturbationMeters(),
+                job.seed(), job.sampleIntervalSteps(), status, completed, job.totalSteps(), progress,
+                samples, failedMembers, null, null, job.createdAt(), Instant.now(), null);
+    }
+
+    private static EnsembleJob finish(EnsembleJob job, EnsembleJobStatus status, String error) {
+        Instant now = Instant.now();
+        return new EnsembleJob(job.jobId(), job.config(), job.memberCount(), job.perturbationMeters(),
+                job.seed(), job.sampleIntervalSteps(), status, job.completedSteps(), job.totalSteps(),
+                job.progress(), job.samples(), job.failedMembers(), job.lyapunovEstimatePerSecond(),
+                error != null ? error : job.error(), job.createdAt(), now, now.plusMillis(RESULT_TTL_MILLIS));
+    }
+
+    private static boolean terminal(EnsembleJobStatus status) {
+        return status == EnsembleJobStatus.COMPLETED || status == EnsembleJobStatus.CANCELLED
+                || status == EnsembleJobStatus.FAILED;
+    }
+
+    private boolean expired(EnsembleJob job) {
+        return job.expiresAt() != null && Instant.now().isAfter(job.expiresAt());
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (pendingQueue) {
+            pendingQueue.clear();
+        }
+        for (Map.Entry<String, EnsembleJob> entry : jobs.entrySet()) {
+            if (!terminal(entry.getValue().status())) {
+                jobs.put(entry.getKey(), finish(entry.getValue(), EnsembleJobStatus.CANCELLED, null));
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    // ============================ 异常 ============================
+
+    public static class EnsembleQueueFullException extends RuntimeException {
+        public EnsembleQueueFullException(String message) {
+            super(message);
+        }
+    }
+
+    public static class EnsembleJobNotFoundException extends RuntimeException {
+        public EnsembleJobNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -21,6 +21,9 @@ import com.threebody.app.event.AsyncExperimentEventDispatcher;
 import com.threebody.core.BodySpec;
 import com.threebody.core.BodyState;
 import com.threebody.core.ConfigValidator;
+import com.threebody.core.IntegrationSession;
+import com.threebody.core.ForceSolverKind;
+import com.threebody.core.IntegratorKind;
 import com.threebody.core.Metrics;
 import com.threebody.core.MetricsCalculator;
 import com.threebody.core.NBodyIntegrator;
@@ -28,7 +31,10 @@ import com.threebody.core.NearEncounter;
 import com.threebody.core.NumericalInstabilityException;
 import com.threebody.core.SimulationConfig;
 import com.threebody.core.SimulationState;
+import com.threebody.core.StepObserver;
 import com.threebody.core.StepResult;
+import com.threebody.core.ValidationCode;
+import com.threebody.core.ValidationIssue;
 import com.threebody.core.ValidationResult;
 import com.threebody.core.Vector3;
 
@@ -47,6 +53,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -58,7 +65,11 @@ import java.util.UUID;
  * 实验调度核心服务：管理队列、状态机、工作线程与事件广播。
  *
  * <p>
- * 单工作线程顺序消费队列；同一时刻最多一个实验处于 RUNNING 状态。
+ * 按队列顺序派发：有空位时总是领取队列中最靠前的待运行实验，同一时刻至多 workers 个实验处于
+ * RUNNING 状态，每个运行循环独占一个轻量工作线程。运行循环大部分时间在节拍等待中休眠，
+ * 真正占用 CPU 的批量推进段另由 CPU 许可({@link #cpuPermits})限流，许可数默认等于处理器核数，
+ * 因此大量按节拍播放的实验可以并存，计算密集的实验仍能用满全部核心。
+ * 每次运行的取消/暂停令牌、活动近遇与指标计时都放在各自的 {@link RunContext} 中，运行之间互不干扰。
  * 状态迁移非法时抛出 {@link IllegalStateTransitionException}（调用方应转为 HTTP 409）。
  * </p>
  */
@@ -81,6 +92,12 @@ public class ExperimentService implements AutoCloseable {
     static final long TARGET_VISIBLE_SNAPSHOT_FRAMES = 240L;
     private static final long PACER_POLL_NANOS = 2_000_000L;
 
+    /** 单次批量推进的步数上限；闸门未要求停下时也借此定期回到控制循环。 */
+    static final long MAX_BATCH_STEPS = 1L << 16;
+
+    /** turbo 运行计算指标的步距：不按墙钟周期，也不依赖健康分析器是否存在，闸门在该步距的整数倍处停下。 */
+    static final long TURBO_METRICS_STEP_INTERVAL = 1024L;
+
     /** Kept for source compatibility with callers that used the old constants. */
     @Deprecated static final long SNAPSHOT_INTERVAL = 10;
     @Deprecated static final long TRAJECTORY_INTERVAL = 30;
@@ -110,24 +127,24 @@ public class ExperimentService implements AutoCloseable {
     /** 按 ID 索引的实验映射。 */
     private final Map<String, Experiment> experiments = new LinkedHashMap<>();
 
-    private final ExecutorService workerExecutor = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "experiment-worker");
-        t.setDaemon(true);
-        return t;
-    });
+    /** 同时处于 RUNNING 的实验数上限。 */
+    private final int workerCount;
+
+    /** 运行循环线程：每个运行一个，空闲线程复用。 */
+    private final ExecutorService workerExecutor;
 
-    /** 当前 RUNNING 实验的取消令牌。 */
-    private final AtomicBoolean cancelToken = new AtomicBoolean(false);
+    /**
+     * CPU 许可：运行循环只在持有许可时批量推进积分会话，公平排队，使计算密集的运行轮流占用核心。
+     * 与参数扫描、稳定性地图共用同一份许可时，后台任务与实验合计不超过许可数个核。
+     */
+    private final CpuPermits cpuPermits;
 
-    /** 当前 RUNNING 实验的暂停令牌。 */
-    private final AtomicBoolean pauseToken = new AtomicBoolean(false);
+    /** 已派发给工作线程的运行：实验 ID -> 运行上下文。派发时持有 queue 锁，运行结束时移除。 */
+    private final Map<String, RunContext> activeRuns = new ConcurrentHashMap<>();
 
     /** 等待工作线程执行一次后重新暂停的实验。访问时持有 queue 锁。 */
     private final Set<String> singleStepExperiments = new HashSet<>();
 
-    /** 工作线程是否运行中。 */
-    private final AtomicBoolean workerBusy = new AtomicBoolean(false);
-
     /** 服务关闭后禁止再调度新实验。 */
     private final AtomicBoolean closing = new AtomicBoolean(false);
 
@@ -140,17 +157,46 @@ public class ExperimentService implements AutoCloseable {
     /** Serializes sequence allocation with event enqueue per experiment. */
     private final Map<String, Object> publicationLocks = new ConcurrentHashMap<>();
 
-    /** Run 级 Health 增量状态；只由单 worker 创建和更新。 */
+    /** Run 级 Health 增量状态；每个实验同一时刻只由运行它的 worker 创建和更新。 */
     private final Map<String, SimulationHealthAnalyzer> healthAnalyzers = new ConcurrentHashMap<>();
 
-    /** 用于抽样指标的墙钟计时。 */
-    private volatile long lastMetricsWallTime = 0L;
+    /** 实时订阅数（每实验独立）：由展示层在连接建立/关闭时维护，增减都在映射的原子操作内完成，归零即移除。 */
+    private final Map<String, Integer> viewers = new ConcurrentHashMap<>();
 
-    /** 活动近遇对：pairKey -> ActiveEncounter；事件仅在进入/更新/退出边沿发布。 */
-    private final Map<String, ActiveEncounter> activeEncounters = new LinkedHashMap<>();
+    /** 显式请求 turbo 的实验：不论是否有人订阅都跳过节拍与展示发布。 */
+    private final Set<String> turboRequested = ConcurrentHashMap.newKeySet();
+
+    /** 展示层接入后才以“无人订阅”为由自动进入 turbo；桌面端等直接监听者不受影响。 */
+    private volatile boolean viewerTracking;
 
     public ExperimentService(ExperimentRepository repository) {
-        this(repository, (MonotonicClock) System::nanoTime, true);
+        this(repository, 1);
+    }
+
+    /**
+     * @param workers 同时运行的实验数上限；CPU 许可数取处理器核数
+     * @throws IllegalArgumentException workers 小于 1 时
+     */
+    public ExperimentService(ExperimentRepository repository, int workers) {
+        this(repository, workers, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param workers    同时运行的实验数上限
+     * @param cpuPermits 同时批量推进积分会话的运行数上限
+     * @throws IllegalArgumentException 任一参数小于 1 时
+     */
+    public ExperimentService(ExperimentRepository repository, int workers, int cpuPermits) {
+        this(repository, workers, new CpuPermits(cpuPermits));
+    }
+
+    /**
+     * @param workers    同时运行的实验数上限
+     * @param cpuPermits 与其他计算任务共用的 CPU 许可
+     * @throws IllegalArgumentException workers 小于 1 时
+     */
+    public ExperimentService(ExperimentRepository repository, int workers, CpuPermits cpuPermits) {
+        this(repository, System::nanoTime, true, workers, cpuPermits);
     }
 
     public ExperimentService(ExperimentRepository repository, LongSupplier monotonicClock) {
@@ -164,6 +210,32 @@ public class ExperimentService implements AutoCloseable {
 
     ExperimentService(ExperimentRepository repository, MonotonicClock monotonicClock,
             boolean realtimePacing) {
+        this(repository, monotonicClock, realtimePacing, 1);
+    }
+
+    ExperimentService(ExperimentRepository repository, MonotonicClock monotonicClock,
+            boolean realtimePacing, int workers) {
+        this(repository, monotonicClock, realtimePacing, workers, Runtime.getRuntime().availableProcessors());
+    }
+
+    ExperimentService(ExperimentRepository repository, MonotonicClock monotonicClock,
+            boolean realtimePacing, int workers, int cpuPermits) {
+        this(repository, monotonicClock, realtimePacing, workers, new CpuPermits(cpuPermits));
+    }
+
+    ExperimentService(ExperimentRepository repository, MonotonicClock monotonicClock,
+            boolean realtimePacing, int workers, CpuPermits cpuPermits) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("同时运行的实验数必须 >= 1：" + workers);
+        }
+        this.workerCount = workers;
+        this.cpuPermits = cpuPermits;
+        AtomicLong threadIndex = new AtomicLong();
+        this.workerExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "experiment-worker-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
         this.repository = repository;
         this.monotonicClock = monotonicClock != null ? monotonicClock : System::nanoTime;
         this.realtimePacing = realtimePacing;
@@ -205,8 +277,10 @@ public class ExperimentService implements AutoCloseable {
     public void close() {
         // 优雅关闭：先通过取消令牌发出信号，短暂等待，然后回退到强制中断
         closing.set(true);
-        cancelToken.set(true);
-        pauseToken.set(false); // 解除暂停，允许工作线程检查 cancelToken
+        for (RunContext run : activeRuns.values()) {
+            run.cancel.set(true);
+            run.pause.set(false); // 解除暂停，允许工作线程检查取消令牌
+        }
         workerExecutor.shutdown();
         try {
             if (!workerExecutor.awaitTermination(2, TimeUnit.SECONDS)) {
@@ -229,15 +303,16 @@ public class ExperimentService implements AutoCloseable {
         // 保存所有实验的最终状态
         synchronized (queue) {
             for (Experiment e : experiments.values()) {
+                RunContext run = activeRuns.get(e.id());
                 if (e.status() == ExperimentStatus.RUNNING) {
-                    finalizeActiveEncounters(e, e.state());
+                    finalizeActiveEncounters(run, e, e.state());
                     e.setStatus(ExperimentStatus.PAUSED);
                     e.addEvent(SimulationEvent.simple(
                             nextSequence(e), SimulationEventType.STATUS_CHANGE,
                             e.step(), e.simulationTimeSeconds(), Instant.now(),
                             "应用关闭，实验暂停。"));
                 } else {
-                    finalizeActiveEncounters(e, e.state());
+                    finalizeActiveEncounters(run, e, e.state());
                 }
                 try {
                     repository.save(e);
@@ -360,11 +435,7 @@ public class ExperimentService implements AutoCloseable {
      */
     public ExperimentCreationResult createOrReuseExperiment(String name, SimulationConfig config,
             ExperimentRetryRequest retryRequest) {
-        ValidationResult vr = ConfigValidator.validate(config);
-        if (!vr.valid()) {
-            throw new ConfigValidationException(vr.issues());
-        }
-        SimulationConfig forExperiment = (vr.normalizedConfig() != null ? vr.normalizedConfig() : config)
+        SimulationConfig forExperiment = validateForExperiment(config)
                 .withName(name != null && !name.isBlank() ? name : config.name());
         Experiment e;
         synchronized (queue) {
@@ -398,6 +469,26 @@ public class ExperimentService implements AutoCloseable {
         return preferred;
     }
 
+    /**
+     * 按实验规则校验配置并返回规范化结果。实验的暂停恢复、回放重算与去重都要求从任一步复现：
+     * 解析双星与逃逸退役的开普勒历元取自载入的状态，续跑只差舍入误差且结构在同样的步上切换；
+     * 而并行时间分片的窗口只在收敛容差内与串行推进一致，因此另行拒绝，只能用于参数扫描。
+     *
+     * @throws ConfigValidationException 校验失败或开启了并行时间分片时
+     */
+    static SimulationConfig validateForExperiment(SimulationConfig config) {
+        ValidationResult vr = ConfigValidator.validate(config);
+        List<ValidationIssue> issues = new ArrayList<>(vr.issues());
+        if (config.pararealSlices() != null) {
+            issues.add(ValidationIssue.error("pararealSlices", ValidationCode.INVALID_PARAREAL,
+                    "实验需要从任一步逐位复现，并行时间分片只能用于参数扫描"));
+        }
+        if (!vr.valid() || config.pararealSlices() != null) {
+            throw new ConfigValidationException(issues);
+        }
+        return vr.normalizedConfig() != null ? vr.normalizedConfig() : config;
+    }
+
     private static boolean preferDuplicate(Experiment candidate, Experiment current) {
         int candidatePriority = duplicatePriority(candidate.status());
         int currentPriority = duplicatePriority(current.status());
@@ -467,6 +558,23 @@ public class ExperimentService implements AutoCloseable {
         if (Double.compare(before.gravitationalConstant(), after.gravitationalConstant()) != 0) {
             changed.add("gravitationalConstant");
         }
+        if (before.integrator() != after.integrator()) changed.add("integrator");
+        if (!Objects.equals(before.relativeTolerance(), after.relativeTolerance())) {
+            changed.add("relativeTolerance");
+        }
+        if (!Objects.equals(before.absoluteTolerance(), after.absoluteTolerance())) {
+            changed.add("absoluteTolerance");
+        }
+        if (before.forceSolver() != after.forceSolver()) changed.add("forceSolver");
+        if (!Objects.equals(before.openingAngle(), after.openingAngle())) changed.add("openingAngle");
+        if (!Objects.equals(before.expansionOrder(), after.expansionOrder())) changed.add("expansionOrder");
+        if (before.chaosIndicators() != after.chaosIndicators()) changed.add("chaosIndicators");
+        if (before.analyticBinaries() != after.analyticBinaries()) changed.add("analyticBinaries");
+        if (!Objects.equals(before.escapeRetirementRadiusMeters(), after.escapeRetirementRadiusMeters())) {
+            changed.add("escapeRetirementRadiusMeters");
+        }
+        if (before.regularizedEncounters() != after.regularizedEncounters()) changed.add("regularizedEncounters");
+        if (!Objects.equals(before.pararealSlices(), after.pararealSlices())) changed.add("pararealSlices");
         if (!Objects.equals(before.bodies(), after.bodies())) changed.add("bodies");
         return changed;
     }
@@ -480,11 +588,7 @@ public class ExperimentService implements AutoCloseable {
                         "只有 QUEUED 状态的实验可以编辑");
             }
             if (config != null) {
-                ValidationResult vr = ConfigValidator.validate(config);
-                if (!vr.valid()) {
-                    throw new ConfigValidationException(vr.issues());
-                }
-                config = vr.normalizedConfig() != null ? vr.normalizedConfig() : config;
+                config = validateForExperiment(config);
             }
             if (name != null) e.setName(name);
             if (config != null) e.setConfig(config);
@@ -505,7 +609,10 @@ public class ExperimentService implements AutoCloseable {
                 case PAUSE -> {
                     assertTransition(e, ExperimentAction.PAUSE);
                     if (e.status() == ExperimentStatus.RUNNING) {
-                        pauseToken.set(true);
+                        RunContext run = activeRuns.get(e.id());
+                        if (run != null) {
+                            run.pause.set(true);
+                        }
                     } else if (e.status() == ExperimentStatus.QUEUED) {
                         // 队首 QUEUED 实验暂停：标记为 PAUSED，不启动
                         e.setStatus(ExperimentStatus.PAUSED);
@@ -524,20 +631,16 @@ public class ExperimentService implements AutoCloseable {
                     e.setStatus(ExperimentStatus.QUEUED);
                     e.addEvent(makeEvent(e, SimulationEventType.STATUS_CHANGE, "实验已恢复，等待执行。"));
                     broadcastStatus(e, ExperimentStatus.QUEUED, ExperimentStatus.PAUSED, "实验已恢复。");
-                    // 移到队首
+                    // 移到等待实验的最前面：排在最后一个 RUNNING 实验之后
                     queue.remove(e.id());
-                    synchronized (queue) {
-                        int runningIdx = -1;
-                        for (int i = 0; i < queue.size(); i++) {
-                            Experiment qe = experiments.get(queue.get(i));
-                            if (qe != null && qe.status() == ExperimentStatus.RUNNING) {
-                                runningIdx = i;
-                                break;
-                            }
+                    int runningIdx = -1;
+                    for (int i = 0; i < queue.size(); i++) {
+                        Experiment qe = experiments.get(queue.get(i));
+                        if (qe != null && qe.status() == ExperimentStatus.RUNNING) {
+                            runningIdx = i;
                         }
-                        int insertPos = runningIdx >= 0 ? runningIdx + 1 : 0;
-                        queue.add(insertPos, e.id());
                     }
+                    queue.add(runningIdx + 1, e.id());
                     repository.save(e);
                     scheduleNext();
                 }
@@ -562,11 +665,7 @@ public class ExperimentService implements AutoCloseable {
                     ExperimentStatus previousStatus = e.status();
                     SimulationConfig newConfig = restartConfig != null ? restartConfig : e.config();
                     if (restartConfig != null) {
-                        ValidationResult vr = ConfigValidator.validate(restartConfig);
-                        if (!vr.valid()) {
-                            throw new ConfigValidationException(vr.issues());
-                        }
-                        newConfig = vr.normalizedConfig() != null ? vr.normalizedConfig() : restartConfig;
+                        newConfig = validateForExperiment(restartConfig);
                     }
                     e.setConfig(newConfig);
                     e.setState(null);
@@ -590,7 +689,10 @@ public class ExperimentService implements AutoCloseable {
                 case CANCEL -> {
                     assertTransition(e, ExperimentAction.CANCEL);
                     if (e.status() == ExperimentStatus.RUNNING) {
-                        cancelToken.set(true);
+                        RunContext run = activeRuns.get(e.id());
+                        if (run != null) {
+                            run.cancel.set(true);
+                        }
                     }
                     ExperimentStatus prevStatus = e.status();
                     if (e.status() != ExperimentStatus.RUNNING) {
@@ -627,26 +729,21 @@ public class ExperimentService implements AutoCloseable {
                     throw new QueueConflictException("未知实验 ID：" + id);
                 }
             }
-            // RUNNING 实验的相对位置不可变
-            String runningId = null;
+            // RUNNING 实验之间的相对位置不可变
+            List<String> running = new ArrayList<>();
             for (String id : queue) {
                 Experiment e = experiments.get(id);
                 if (e != null && e.status() == ExperimentStatus.RUNNING) {
-                    runningId = id;
-                    break;
+                    running.add(id);
                 }
             }
-            if (runningId != null) {
-                int newIdx = orderedIds.indexOf(runningId);
-                if (newIdx < 0) {
+            for (String runningId : running) {
+                if (!orderedIds.contains(runningId)) {
                     throw new QueueConflictException("重排列表缺少 RUNNING 实验：" + runningId);
                 }
-                for (int i = 0; i < newIdx; i++) {
-                    Experiment e = experiments.get(orderedIds.get(i));
-                    if (e != null && e.status() == ExperimentStatus.RUNNING) {
-                        throw new QueueConflictException("RUNNING 实验的相对位置不得改变");
-                    }
-                }
+            }
+            if (!orderedIds.stream().filter(running::contains).toList().equals(running)) {
+                throw new QueueConflictException("RUNNING 实验的相对位置不得改变");
             }
             queue.clear();
             queue.addAll(orderedIds);
@@ -655,6 +752,60 @@ public class ExperimentService implements AutoCloseable {
         }
     }
 
+    // ============================ Turbo ============================
+
+    /**
+     * 声明展示层按订阅数驱动 turbo：此后没有任何订阅者的实验以 turbo 方式运行。
+     */
+    public void trackViewers() {
+        viewerTracking = true;
+    }
+
+    /** 某实验新增一个实时订阅者；正在 turbo 运行的实验会在下一个发布周期内切回展示。 */
+    public void viewerAttached(String id) {
+        viewers.merge(id, 1, Integer::sum);
+    }
+
+    /** 某实验减少一个实时订阅者。 */
+    public void viewerDetached(String id) {
+        viewers.computeIfPresent(id, (ignored, count) -> count <= 1 ? null : count - 1);
+    }
+
+    public int viewerCount(String id) {
+        return viewers.getOrDefault(id, 0);
+    }
+
+    /**
+     * 显式开启或关闭某实验的 turbo；关闭后仍可能因无人订阅而自动处于 turbo。
+     *
+     * @return 更新后的实验
+     * @throws ExperimentNotFoundException 实验不存在时
+     */
+    public Experiment setTurbo(String id, boolean enabled) {
+        synchronized (queue) {
+            Experiment e = experiments.get(id);
+            if (e == null) throw new ExperimentNotFoundException(id);
+            if (enabled) {
+                turboRequested.add(id);
+            } else {
+                turboRequested.remove(id);
+            }
+            return e;
+        }
+    }
+
+    public boolean isTurboRequested(String id) {
+        return turboRequested.contains(id);
+    }
+
+    /**
+     * turbo 运行跳过实时节拍与快照、轨迹、指标、健康的展示发布，
+     * 指标与健康只在健康采样步计算；归档、近遇、诊断事件与结束条件照常处理。
+     */
+    public boolean isTurbo(String id) {
+        return turboRequested.contains(id) || (viewerTracking && viewerCount(id) == 0);
+    }
+
     // ============================ 删除 ============================
 
     public long deleteExperiment(String id) {
@@ -674,45 +825,61 @@ public class ExperimentService implements AutoCloseable {
             runGenerations.remove(id);
         }
         healthAnalyzers.remove(id);
+        turboRequested.remove(id);
         return repository.delete(id);
     }
 
     // ============================ 工作线程 ============================
 
+    /**
+     * 按队列顺序把待运行实验派发给空闲的工作线程，直到线程用满。
+     * 已派发但尚未结束的实验不会重复派发。
+     */
     private void scheduleNext() {
-        if (closing.get() || workerBusy.get()) return;
-        Experiment next = null;
+        if (closing.get()) return;
         synchronized (queue) {
             for (String id : queue) {
+                if (activeRuns.size() >= workerCount) {
+                    return;
+                }
                 Experiment e = experiments.get(id);
-                if (e != null && (e.status() == ExperimentStatus.QUEUED
-                        || singleStepExperiments.contains(e.id()))) {
-                    next = e;
-                    break;
+                if (e == null || activeRuns.containsKey(id)
+                        || (e.status() != ExperimentStatus.QUEUED && !singleStepExperiments.contains(id))) {
+                    continue;
+                }
+                RunContext run = new RunContext(id);
+                activeRuns.put(id, run);
+                boolean singleStep = singleStepExperiments.remove(id);
+                try {
+                    workerExecutor.submit(() -> runLoop(e, singleStep, run));
+                } catch (RejectedExecutionException shutdown) {
+                    // close() 已关闭线程池
+                    activeRuns.remove(id, run);
+                    return;
                 }
             }
         }
-        if (next != null) {
-            workerBusy.set(true);
-            Experiment finalNext = next;
-            boolean singleStep = singleStepExperiments.remove(finalNext.id());
-            workerExecutor.submit(() -> runLoop(finalNext, singleStep));
-        }
     }
 
-    private void runLoop(Experiment e, boolean singleStep) {
+    /** 运行结束：释放工作线程名额并派发下一个实验。 */
+    private void finishRun(RunContext run) {
+        activeRuns.remove(run.experimentId, run);
+        scheduleNext();
+    }
+
+    private void runLoop(Experiment e, boolean singleStep, RunContext run) {
         if (closing.get()) {
-            workerBusy.set(false);
+            activeRuns.remove(run.experimentId, run);
             return;
         }
-        cancelToken.set(false);
-        pauseToken.set(false);
 
+        // 派发后到开始运行之间可能已被取消、暂停或删除
         if (e.status() == ExperimentStatus.COMPLETED
                 || e.status() == ExperimentStatus.CANCELLED
-                || e.status() == ExperimentStatus.FAILED) {
-            workerBusy.set(false);
-            scheduleNext();
+                || e.status() == ExperimentStatus.FAILED
+                || (e.status() == ExperimentStatus.PAUSED && !singleStep)
+                || getExperiment(e.id()) != e) {
+            finishRun(run);
             return;
         }
 
@@ -727,8 +894,7 @@ public class ExperimentService implements AutoCloseable {
             broadcastError(e, "VALIDATION_FAILED", "配置校验失败，无法运行", e.step(), false);
             broadcastStatus(e, ExperimentStatus.FAILED, ExperimentStatus.RUNNING, "配置校验失败，无法运行。");
             repository.save(e);
-            workerBusy.set(false);
-            scheduleNext();
+            finishRun(run);
             return;
         }
 
@@ -753,7 +919,6 @@ public class ExperimentService implements AutoCloseable {
                 ? healthAnalyzers.computeIfAbsent(e.id(), ignored ->
                         new SimulationHealthAnalyzer(config, NBodyIntegrator.initialState(config), e.healthReport()))
                 : null;
-        activeEncounters.clear();
 
         // 初始化
         if (state == null) {
@@ -775,7 +940,7 @@ public class ExperimentService implements AutoCloseable {
             }
 
             if (hasNumericalHealthFailure(e)) {
-                finishNumericalHealthFailure(e, state);
+                finishNumericalHealthFailure(run, e, state);
                 return;
             }
 
@@ -783,15 +948,21 @@ public class ExperimentService implements AutoCloseable {
             publishAuthoritativeState(e, state);
             broadcastMetrics(e, state, initEm);
             broadcastHealth(e);
-            processNearEncounters(e, config, state, NBodyIntegrator.detectNearEncounters(config, state));
+            processNearEncounters(run, e, config, state, NBodyIntegrator.detectNearEncounters(config, state));
             repository.save(e);
         }
 
         DiagnosticEngine diagnosticEngine = new DiagnosticEngine(config, state);
+        // 入口已拒绝并行时间分片；此前保存的实验也按串行推进，保证续跑与回放逐位一致
+        IntegrationSession session = new IntegrationSession(config.withPararealSlices(null), state);
+        // 健康采样步与 turbo 指标步一定要取指标，让内核在这些步顺带累加势能，省去单独的天体对遍历
+        session.trackPotentialEnergy(step -> step % TURBO_METRICS_STEP_INTERVAL == 0L
+                || healthAnalyzer != null && healthAnalyzer.shouldSample(step));
+        StepGate gate = new StepGate(e, config, healthAnalyzer, singleStep, run);
         boolean hasActiveEncounter = false;
 
         long now = monotonicClock.nanoTime();
-        lastMetricsWallTime = now;
+        run.lastMetricsWallTime = now;
         long nextSnapshotDeadline = now + SNAPSHOT_PERIOD_NANOS;
         long nextTrajectoryDeadline = now + TRAJECTORY_PERIOD_NANOS;
         long nextMetricsDeadline = now + METRICS_PERIOD_NANOS;
@@ -799,14 +970,20 @@ public class ExperimentService implements AutoCloseable {
         long lastMetricsStep = state.step();
         long stepsSinceSnapshot = 0L;
         long snapshotStepBudget = realtimeSnapshotStepBudget(config);
+        // 自适应步长下每步模拟时长不一致，节拍预算改按模拟时间计：预算步数乘以步长上限
+        boolean adaptiveStep = config.integrator().adaptive();
+        double snapshotTimeBudget = snapshotStepBudget == Long.MAX_VALUE
+                ? Double.POSITIVE_INFINITY : snapshotStepBudget * config.timeStepSeconds();
+        double snapshotSimulationTime = state.simulationTimeSeconds();
+        boolean turbo = isTurbo(e.id());
 
         try {
             while (true) {
                 // 检查取消
-                if (cancelToken.get()) {
-                    finalizeActiveEncounters(e, e.state());
-                    if (refreshHealthAtBoundary(e, healthAnalyzer, e.state(), !activeEncounters.isEmpty())) {
-                        finishNumericalHealthFailure(e, e.state());
+                if (run.cancel.get()) {
+                    finalizeActiveEncounters(run, e, e.state());
+                    if (refreshHealthAtBoundary(e, healthAnalyzer, e.state(), !run.encounters.isEmpty())) {
+                        finishNumericalHealthFailure(run, e, e.state());
                         return;
                     }
                     // submitAction publishes the cancellation snapshot.  A
@@ -817,16 +994,15 @@ public class ExperimentService implements AutoCloseable {
                     }
                     flushAndReleaseArchive(e);
                     repository.save(e);
-                    workerBusy.set(false);
-                    scheduleNext();
+                    finishRun(run);
                     return;
                 }
 
                 // 检查暂停
-                if (pauseToken.get()) {
-                    finalizeActiveEncounters(e, e.state());
+                if (run.pause.get()) {
+                    finalizeActiveEncounters(run, e, e.state());
                     if (refreshHealthAtBoundary(e, healthAnalyzer, e.state(), false)) {
-                        finishNumericalHealthFailure(e, e.state());
+                        finishNumericalHealthFailure(run, e, e.state());
                         return;
                     }
                     e.setStatus(ExperimentStatus.PAUSED);
@@ -835,16 +1011,50 @@ public class ExperimentService implements AutoCloseable {
                     publishAuthoritativeState(e, e.state());
                     flushArchive(e);
                     repository.save(e);
-                    workerBusy.set(false);
-                    scheduleNext();
+                    finishRun(run);
                     return;
                 }
 
-                // 推进
-                StepResult result;
+                // 切回展示：立即补发权威状态，节拍与各发布周期从当前时刻重新计起
+                boolean wasTurbo = turbo;
+                turbo = isTurbo(e.id());
+                if (wasTurbo && !turbo) {
+                    publishAuthoritativeState(e, state);
+                    if (e.metrics() != null) {
+                        broadcastMetrics(e, state, e.metrics());
+                    }
+                    broadcastHealth(e);
+                    now = monotonicClock.nanoTime();
+                    nextSnapshotDeadline = now + SNAPSHOT_PERIOD_NANOS;
+                    nextTrajectoryDeadline = now + TRAJECTORY_PERIOD_NANOS;
+                    nextMetricsDeadline = now + METRICS_PERIOD_NANOS;
+                    lastTrajectoryStep = state.step();
+                    stepsSinceSnapshot = 0L;
+                    snapshotSimulationTime = state.simulationTimeSeconds();
+                }
+
+                // 推进：会话在内核内连续积分，只在闸门要求的步物化状态；失败时保持失败前一步的状态。
+                // turbo 下不设节拍上限，闸门仍按快照周期停下，以便及时发现新连接的订阅者
+                gate.arm(turbo || adaptiveStep ? Long.MAX_VALUE
+                                : pacingLimitStep(state.step(), stepsSinceSnapshot, snapshotStepBudget),
+                        !turbo && adaptiveStep ? snapshotSimulationTime + snapshotTimeBudget : Double.POSITIVE_INFINITY,
+                        session.simulationTimeSeconds(),
+                        turbo ? nextSnapshotDeadline
+                                : Math.min(nextSnapshotDeadline, Math.min(nextTrajectoryDeadline, nextMetricsDeadline)),
+                        !run.encounters.isEmpty(), turbo);
+                long batchStartStep = session.step();
                 try {
-                    result = NBodyIntegrator.step(config, state);
+                    // 闸门至迟在下一个发布截止处停下，持有许可的时间不超过一个发布周期
+                    // 并行内核一次推进占用多个核，按其并行度申请，合计仍不超过许可数
+                    int held = cpuPermits.acquire(session.parallelism());
+                    try {
+                        session.advance(MAX_BATCH_STEPS, gate);
+                    } finally {
+                        cpuPermits.release(held);
+                    }
                 } catch (NumericalInstabilityException ex) {
+                    state = session.state();
+                    e.setState(state);
                     SimulationState unstableState = state;
                     Diagnostic instability = DiagnosticEngine.numericalInstability(config,
                             unstableState.step(),
@@ -865,7 +1075,7 @@ public class ExperimentService implements AutoCloseable {
                     e.setStatus(ExperimentStatus.FAILED);
                     e.setErrorMessage(ex.getMessage());
                     e.setCompletedAt(Instant.now());
-                    finalizeActiveEncounters(e, state);
+                    finalizeActiveEncounters(run, e, state);
                     e.addEvent(makeEvent(e, SimulationEventType.ERROR,
                             "数值不稳定：" + ex.getMessage()));
                     broadcastError(e, "NUMERICAL_INSTABILITY", ex.getMessage(), state.step(), false);
@@ -874,35 +1084,57 @@ public class ExperimentService implements AutoCloseable {
                     publishAuthoritativeState(e, state);
                     flushAndReleaseArchive(e);
                     repository.save(e);
-                    workerBusy.set(false);
-                    scheduleNext();
+                    finishRun(run);
                     return;
                 }
 
+                stepsSinceSnapshot += session.step() - batchStartStep;
+                StepResult result = gate.take();
+                if (result == null) {
+                    result = new StepResult(session.state(), session.nearEncounters());
+                }
                 state = result.state();
                 e.setState(state);
                 diagnosticEngine.observeStep(state);
-                stepsSinceSnapshot++;
-                offerArchivePoint(e, state, false);
+                if (gate.archiveDue()) {
+                    // 闸门已按步距（自适应步长时按模拟时间）判定本步需要归档
+                    offerArchivePoint(e, state, true);
+                }
 
-                hasActiveEncounter = processNearEncounters(e, config, state, result.nearEncounters());
+                hasActiveEncounter = processNearEncounters(run, e, config, state, result.nearEncounters());
 
+                Metrics sampledMetrics = null;
                 if (healthAnalyzer != null && healthAnalyzer.shouldSample(state.step())
                         && (e.healthReport() == null || e.healthReport().analyzedStep() != state.step())) {
-                    Metrics sampledMetrics = MetricsCalculator.compute(config, state,
-                            e.metrics() != null ? e.metrics().initialTotalEnergyJoules()
-                                    : MetricsCalculator.totalEnergy(config, NBodyIntegrator.initialState(config)));
+                    sampledMetrics = sessionMetrics(session, config, state, initialEnergy(e, config));
                     e.setHealthReport(healthAnalyzer.analyze(state, sampledMetrics, hasActiveEncounter));
                     if (hasNumericalHealthFailure(e)) {
-                        finishNumericalHealthFailure(e, state);
+                        finishNumericalHealthFailure(run, e, state);
                         return;
                     }
                 }
+                if (turbo && state.step() % TURBO_METRICS_STEP_INTERVAL == 0L && state.step() != lastMetricsStep) {
+                    // turbo 不再按墙钟周期计算指标，按固定步距计算；与健康采样同步时沿用已算出的指标
+                    if (sampledMetrics == null) {
+                        sampledMetrics = sessionMetrics(session, config, state, initialEnergy(e, config));
+                    }
+                    now = monotonicClock.nanoTime();
+                    double elapsed = (now - run.lastMetricsWallTime) / 1_000_000_000.0;
+                    run.lastMetricsWallTime = now;
+                    double sps = (state.step() - lastMetricsStep) / Math.max(elapsed, 0.001);
+                    ExperimentMetrics em = periodicMetrics(e, sampledMetrics, state, sps, elapsed);
+                    e.setMetrics(em);
+                    publishDiagnostics(e, diagnosticEngine, state, em, hasActiveEncounter);
+                    lastMetricsStep = state.step();
+                }
 
-                if (!singleStep && stepsSinceSnapshot >= snapshotStepBudget) {
-                    awaitSnapshotDeadline(nextSnapshotDeadline);
+                boolean pacingBudgetReached = adaptiveStep
+                        ? state.simulationTimeSeconds() - snapshotSimulationTime >= snapshotTimeBudget
+                        : stepsSinceSnapshot >= snapshotStepBudget;
+                if (!singleStep && !turbo && pacingBudgetReached) {
+                    awaitSnapshotDeadline(run, nextSnapshotDeadline);
                 }
-                if (cancelToken.get() || pauseToken.get() || closing.get()) {
+                if (run.cancel.get() || run.pause.get() || closing.get()) {
                     continue;
                 }
                 now = monotonicClock.nanoTime();
@@ -911,69 +1143,45 @@ public class ExperimentService implements AutoCloseable {
                 // integration iteration.  A late iteration advances the
                 // deadline past 'now' and deliberately skips missed periods.
                 if (now >= nextSnapshotDeadline) {
-                    broadcastSnapshot(e, state);
+                    if (!turbo) {
+                        broadcastSnapshot(e, state);
+                    }
                     stepsSinceSnapshot = 0L;
+                    snapshotSimulationTime = state.simulationTimeSeconds();
                     nextSnapshotDeadline = advanceDeadline(
                             nextSnapshotDeadline, now, SNAPSHOT_PERIOD_NANOS);
                 }
 
                 if (now >= nextTrajectoryDeadline) {
-                    broadcastTrajectory(e, state, lastTrajectoryStep, state.step(),
-                            Math.max(1L, state.step() - lastTrajectoryStep));
+                    if (!turbo) {
+                        broadcastTrajectory(e, state, lastTrajectoryStep, state.step(),
+                                Math.max(1L, state.step() - lastTrajectoryStep));
+                    }
                     lastTrajectoryStep = state.step();
                     nextTrajectoryDeadline = advanceDeadline(
                             nextTrajectoryDeadline, now, TRAJECTORY_PERIOD_NANOS);
                 }
 
-                if (now >= nextMetricsDeadline) {
-                    double elapsed = (now - lastMetricsWallTime) / 1_000_000_000.0;
-                    lastMetricsWallTime = now;
+                if (turbo && now >= nextMetricsDeadline) {
+                    nextMetricsDeadline = advanceDeadline(
+                            nextMetricsDeadline, now, METRICS_PERIOD_NANOS);
+                } else if (now >= nextMetricsDeadline) {
+                    double elapsed = (now - run.lastMetricsWallTime) / 1_000_000_000.0;
+                    run.lastMetricsWallTime = now;
                     double sps = (state.step() - lastMetricsStep) / Math.max(elapsed, 0.001);
 
                     double e0 = e.metrics() != null ? e.metrics().initialTotalEnergyJoules()
                             : MetricsCalculator.totalEnergy(config, state);
-                    Metrics coreMetrics = MetricsCalculator.compute(config, state, e0);
-
-                    // 全时最小距离
-                    Double allTimeMinDist = null;
-                    Long allTimeMinStep = null;
-                    if (e.metrics() != null && e.metrics().allTimeMinimumPairDistanceMeters() != null) {
-                        double prevMin = e.metrics().allTimeMinimumPairDistanceMeters();
-                        if (coreMetrics.minimumPairDistanceMeters() < prevMin) {
-                            allTimeMinDist = coreMetrics.minimumPairDistanceMeters();
-                            allTimeMinStep = state.step();
-                        } else {
-                            allTimeMinDist = prevMin;
-                            allTimeMinStep = e.metrics().allTimeMinimumPairDistanceStep();
-                        }
-                    } else {
-                        allTimeMinDist = coreMetrics.minimumPairDistanceMeters();
-                        allTimeMinStep = state.step();
-                    }
+                    Metrics coreMetrics = sessionMetrics(session, config, state, e0);
 
-                    ExperimentMetrics em = new ExperimentMetrics(
-                            coreMetrics.kineticEnergyJoules(),
-                            coreMetrics.potentialEnergyJoules(),
-                            coreMetrics.totalEnergyJoules(),
-                            coreMetrics.initialTotalEnergyJoules(),
-                            coreMetrics.relativeEnergyDrift(),
-                            coreMetrics.angularMomentum(),
-                            coreMetrics.angularMomentumMagnitude(),
-                            coreMetrics.linearMomentum(),
-                            coreMetrics.linearMomentumMagnitude(),
-                            coreMetrics.minimumPairDistanceMeters(),
-                            coreMetrics.minimumPairBodyIds(),
-                            allTimeMinDist,
-                            allTimeMinStep,
-                            sps,
-                            elapsed);
+                    ExperimentMetrics em = periodicMetrics(e, coreMetrics, state, sps, elapsed);
                     e.setMetrics(em);
                     if (healthAnalyzer != null
                             && (e.healthReport() == null || e.healthReport().analyzedStep() != state.step())) {
                         e.setHealthReport(healthAnalyzer.analyze(state, coreMetrics, hasActiveEncounter));
                     }
                     if (hasNumericalHealthFailure(e)) {
-                        finishNumericalHealthFailure(e, state);
+                        finishNumericalHealthFailure(run, e, state);
                         return;
                     }
                     broadcastMetrics(e, state, em);
@@ -996,14 +1204,14 @@ public class ExperimentService implements AutoCloseable {
                 }
 
                 if (done) {
-                    finalizeActiveEncounters(e, state);
+                    finalizeActiveEncounters(run, e, state);
                     e.setStatus(ExperimentStatus.COMPLETED);
                     e.setCompletedAt(Instant.now());
 
                     // 最终指标
                     double e0 = e.metrics() != null ? e.metrics().initialTotalEnergyJoules()
                             : MetricsCalculator.totalEnergy(config, state);
-                    Metrics coreMetrics = MetricsCalculator.compute(config, state, e0);
+                    Metrics coreMetrics = sessionMetrics(session, config, state, e0);
                     Double previousMinimum = e.metrics() != null
                             ? e.metrics().allTimeMinimumPairDistanceMeters() : null;
                     boolean finalIsMinimum = previousMinimum == null
@@ -1015,10 +1223,10 @@ public class ExperimentService implements AutoCloseable {
                     if (healthAnalyzer != null
                             && (e.healthReport() == null || e.healthReport().analyzedStep() != state.step())) {
                         e.setHealthReport(healthAnalyzer.analyze(state, coreMetrics,
-                                !activeEncounters.isEmpty()));
+                                !run.encounters.isEmpty()));
                     }
                     if (hasNumericalHealthFailure(e)) {
-                        finishNumericalHealthFailure(e, state);
+                        finishNumericalHealthFailure(run, e, state);
                         return;
                     }
 
@@ -1026,8 +1234,7 @@ public class ExperimentService implements AutoCloseable {
                     e.addEvent(makeEvent(e, SimulationEventType.STATUS_CHANGE, reasonMsg));
                     offerArchivePoint(e, state, true);
                     if (!flushAndReleaseArchive(e)) {
-                        workerBusy.set(false);
-                        scheduleNext();
+                        finishRun(run);
                         return;
                     }
                     broadcastStatus(e, ExperimentStatus.COMPLETED, ExperimentStatus.RUNNING, reasonMsg);
@@ -1035,15 +1242,14 @@ public class ExperimentService implements AutoCloseable {
                     broadcastHealth(e);
                     publishAuthoritativeState(e, state);
                     repository.save(e);
-                    workerBusy.set(false);
-                    scheduleNext();
+                    finishRun(run);
                     return;
                 }
 
-                if (singleStep && !cancelToken.get()) {
-                    finalizeActiveEncounters(e, state);
+                if (singleStep && !run.cancel.get()) {
+                    finalizeActiveEncounters(run, e, state);
                     if (refreshHealthAtBoundary(e, healthAnalyzer, state, false)) {
-                        finishNumericalHealthFailure(e, state);
+                        finishNumericalHealthFailure(run, e, state);
                         return;
                     }
                     e.setStatus(ExperimentStatus.PAUSED);
@@ -1053,8 +1259,7 @@ public class ExperimentService implements AutoCloseable {
                     publishAuthoritativeState(e, state);
                     flushArchive(e);
                     repository.save(e);
-                    workerBusy.set(false);
-                    scheduleNext();
+                    finishRun(run);
                     return;
                 }
             }
@@ -1063,7 +1268,7 @@ public class ExperimentService implements AutoCloseable {
             e.setStatus(ExperimentStatus.FAILED);
             e.setErrorMessage("内部错误：" + ex.getMessage());
             e.setCompletedAt(Instant.now());
-            finalizeActiveEncounters(e, state != null ? state : e.state());
+            finalizeActiveEncounters(run, e, state != null ? state : e.state());
             e.addEvent(makeEvent(e, SimulationEventType.ERROR, "内部错误：" + ex.getMessage()));
             long errorStep = state != null ? state.step() : e.step();
             broadcastError(e, "INTERNAL_ERROR", ex.getMessage(), errorStep, false);
@@ -1072,8 +1277,7 @@ public class ExperimentService implements AutoCloseable {
             publishAuthoritativeState(e, state != null ? state : e.state());
             flushAndReleaseArchive(e);
             repository.save(e);
-            workerBusy.set(false);
-            scheduleNext();
+            finishRun(run);
         }
     }
 
@@ -1154,6 +1358,21 @@ public class ExperimentService implements AutoCloseable {
         }
     }
 
+    /** 指标的能量基准：已有指标时沿用其初始总能量，否则取配置初始状态的总能量。 */
+    private static double initialEnergy(Experiment e, SimulationConfig config) {
+        return e.metrics() != null ? e.metrics().initialTotalEnergyJoules()
+                : MetricsCalculator.totalEnergy(config, NBodyIntegrator.initialState(config));
+    }
+
+    /**
+     * 工作线程的指标：状态就是会话当前状态时直接读取会话缓冲区，复用最后一次力计算记录的最近天体对。
+     */
+    private static Metrics sessionMetrics(IntegrationSession session, SimulationConfig config,
+            SimulationState state, double initialTotalEnergy) {
+        return session.step() == state.step() ? session.metrics(initialTotalEnergy)
+                : MetricsCalculator.compute(config, state, initialTotalEnergy);
+    }
+
     private static String nearPairKey(String first, String second) {
         return first.compareTo(second) <= 0 ? first + "\u0000" + second : second + "\u0000" + first;
     }
@@ -1215,7 +1434,10 @@ public class ExperimentService implements AutoCloseable {
                 em.allTimeMinimumPairDistanceMeters(),
                 em.allTimeMinimumPairDistanceStep(),
                 em.stepsPerSecond(),
-                em.elapsedWallClockSeconds());
+                em.elapsedWallClockSeconds(),
+                em.forceErrorEstimate(),
+                em.lyapunovExponentPerSecond(),
+                em.megno());
         publish(e, ExperimentMessageType.METRICS, payload);
     }
 
@@ -1230,8 +1452,8 @@ public class ExperimentService implements AutoCloseable {
                 && e.healthReport().status() == SimulationHealthStatus.FAILED;
     }
 
-    private void finishNumericalHealthFailure(Experiment e, SimulationState state) {
-        finalizeActiveEncounters(e, state);
+    private void finishNumericalHealthFailure(RunContext run, Experiment e, SimulationState state) {
+        finalizeActiveEncounters(run, e, state);
         String message = e.healthReport() != null && e.healthReport().failure() != null
                 ? e.healthReport().failure().message()
                 : "A non-finite derived simulation metric was detected.";
@@ -1247,8 +1469,7 @@ public class ExperimentService implements AutoCloseable {
         publishAuthoritativeState(e, state);
         flushAndReleaseArchive(e);
         repository.save(e);
-        workerBusy.set(false);
-        scheduleNext();
+        finishRun(run);
     }
 
     private void broadcastError(Experiment e, String code, String message, long step, boolean recoverable) {
@@ -1284,8 +1505,9 @@ public class ExperimentService implements AutoCloseable {
     }
 
     /** 处理一步近遇边界，返回当前是否仍有活动近遇。 */
-    private boolean processNearEncounters(Experiment e, SimulationConfig config,
+    private boolean processNearEncounters(RunContext run, Experiment e, SimulationConfig config,
             SimulationState state, List<NearEncounter> nearEncounters) {
+        Map<String, ActiveEncounter> activeEncounters = run.encounters;
         Map<String, String> idToName = nameById(config);
         Set<String> nearPairsThisStep = new HashSet<>();
         for (NearEncounter ne : nearEncounters) {
@@ -1389,7 +1611,11 @@ public class ExperimentService implements AutoCloseable {
     }
 
     /** 暂停/完成/取消/失败/关闭时对全部活动近遇定稿并清空活动集合。 */
-    private void finalizeActiveEncounters(Experiment e, SimulationState state) {
+    private void finalizeActiveEncounters(RunContext run, Experiment e, SimulationState state) {
+        if (run == null) {
+            return;
+        }
+        Map<String, ActiveEncounter> activeEncounters = run.encounters;
         if (state == null) {
             activeEncounters.clear();
             return;
@@ -1411,7 +1637,9 @@ public class ExperimentService implements AutoCloseable {
         Metrics coreMetrics = new Metrics(
                 em.kineticEnergyJoules(), em.potentialEnergyJoules(), em.totalEnergyJoules(),
                 em.initialTotalEnergyJoules(), em.relativeEnergyDrift(), em.angularMomentum(),
-                em.linearMomentum(), em.minimumPairDistanceMeters(), em.minimumPairBodyIds());
+                em.linearMomentum(), em.minimumPairDistanceMeters(), em.minimumPairBodyIds())
+                .withForceErrorEstimate(em.forceErrorEstimate())
+                .withChaosIndicators(em.lyapunovExponentPerSecond(), em.megno());
         List<Diagnostic> diagnostics = engine.evaluate(state, coreMetrics, hasActiveEncounter);
         for (Diagnostic diagnostic : diagnostics) {
             SimulationEvent ev = diagnosticEvent(e, state, diagnostic);
@@ -1478,6 +1706,32 @@ public class ExperimentService implements AutoCloseable {
         }
     }
 
+    /**
+     * 自上次快照以来已推进 {@code stepsSinceSnapshot} 步时，节拍器下一次需要介入的绝对步号；
+     * 预算不限时返回 {@link Long#MAX_VALUE}。
+     */
+    static long pacingLimitStep(long step, long stepsSinceSnapshot, long snapshotStepBudget) {
+        if (snapshotStepBudget == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        long remaining = Math.max(0L, snapshotStepBudget - stepsSinceSnapshot);
+        return remaining > Long.MAX_VALUE - step ? Long.MAX_VALUE : step + remaining;
+    }
+
+    /**
+     * 归档采样判定。固定步长按步号整除步距；自适应步长按模拟时间跨过 stride * dt 整数倍判定，
+     * 使归档点在模拟时间上均匀，而不是扎堆在近心点附近的密集小步上。
+     */
+    static boolean archiveSampleDue(SimulationConfig config, long stride, long step,
+            double previousTimeSeconds, double timeSeconds) {
+        long effectiveStride = Math.max(1L, stride);
+        if (!config.integrator().adaptive()) {
+            return step % effectiveStride == 0L;
+        }
+        double interval = effectiveStride * config.timeStepSeconds();
+        return Math.floor(timeSeconds / interval) > Math.floor(previousTimeSeconds / interval);
+    }
+
     long realtimeSnapshotStepBudget(SimulationConfig config) {
         if (!realtimePacing) {
             return Long.MAX_VALUE;
@@ -1489,14 +1743,93 @@ public class ExperimentService implements AutoCloseable {
         return Math.max(1L, 1L + (totalSteps - 1L) / TARGET_VISIBLE_SNAPSHOT_FRAMES);
     }
 
+    /**
+     * 工作线程的批量推进闸门。只在归档采样步、近遇、健康采样、节拍预算、发布截止、
+     * 结束条件、单步或控制令牌处要求物化状态，其余步留在积分会话内连续推进，
+     * 因此每步的处理结果与逐步推进一致。
+     */
+    private final class StepGate implements StepObserver {
+        private final Experiment experiment;
+        private final SimulationConfig config;
+        private final SimulationHealthAnalyzer healthAnalyzer;
+        private final boolean singleStep;
+        private final RunContext run;
+        private long pacingLimitStep = Long.MAX_VALUE;
+        private double pacingLimitTime = Double.POSITIVE_INFINITY;
+        private long deadlineNanos = Long.MAX_VALUE;
+        private boolean encounterActive;
+        private boolean turbo;
+        private double previousTimeSeconds;
+        private boolean archiveDue;
+        private StepResult result;
+
+        StepGate(Experiment experiment, SimulationConfig config,
+                 SimulationHealthAnalyzer healthAnalyzer, boolean singleStep, RunContext run) {
+            this.experiment = experiment;
+            this.run = run;
+            this.config = config;
+            this.healthAnalyzer = healthAnalyzer;
+            this.singleStep = singleStep;
+        }
+
+        void arm(long pacingLimitStep, double pacingLimitTime, double startTimeSeconds,
+                 long deadlineNanos, boolean encounterActive, boolean turbo) {
+            this.pacingLimitStep = singleStep ? Long.MAX_VALUE : pacingLimitStep;
+            this.pacingLimitTime = singleStep ? Double.POSITIVE_INFINITY : pacingLimitTime;
+            this.previousTimeSeconds = startTimeSeconds;
+            this.deadlineNanos = deadlineNanos;
+            this.encounterActive = encounterActive;
+            this.turbo = turbo;
+            this.archiveDue = false;
+            this.result = null;
+        }
+
+        /** 最近一次询问的步是否到达归档采样点。 */
+        boolean archiveDue() {
+            return archiveDue;
+        }
+
+        StepResult take() {
+            StepResult taken = result;
+            result = null;
+            return taken;
+        }
+
+        @Override
+        public boolean wantsStep(long step, double simulationTimeSeconds, boolean nearEncounter) {
+            archiveDue = archiveSampleDue(config, experiment.trajectoryInfo().sampleStride(), step,
+                    previousTimeSeconds, simulationTimeSeconds);
+            previousTimeSeconds = simulationTimeSeconds;
+            return singleStep
+                    || nearEncounter
+                    || encounterActive
+                    || archiveDue
+                    || (healthAnalyzer != null && healthAnalyzer.shouldSample(step))
+                    || (turbo && step % TURBO_METRICS_STEP_INTERVAL == 0L)
+                    || step >= pacingLimitStep
+                    || simulationTimeSeconds >= pacingLimitTime
+                    || (config.maxSteps() != null && step >= config.maxSteps())
+                    || (config.targetSimulationTimeSeconds() != null
+                            && simulationTimeSeconds >= config.targetSimulationTimeSeconds())
+                    || run.cancel.get() || run.pause.get() || closing.get()
+                    || monotonicClock.nanoTime() >= deadlineNanos;
+        }
+
+        @Override
+        public boolean onStep(StepResult stepResult) {
+            result = stepResult;
+            return false;
+        }
+    }
+
     /**
      * Wait only when computation is ahead of the next display frame.  Polling
      * in short slices keeps pause, cancel and shutdown responsive; late frames
      * are never replayed because {@link #advanceDeadline(long, long, long)}
      * still skips missed periods.
      */
-    private void awaitSnapshotDeadline(long deadlineNanos) {
-        while (!cancelToken.get() && !pauseToken.get() && !closing.get()) {
+    private void awaitSnapshotDeadline(RunContext run, long deadlineNanos) {
+        while (!run.cancel.get() && !run.pause.get() && !closing.get()) {
             long remaining = deadlineNanos - monotonicClock.nanoTime();
             if (remaining <= 0L) {
                 return;
@@ -1515,6 +1848,47 @@ public class ExperimentService implements AutoCloseable {
                 nextSequence(e), type, e.step(), e.simulationTimeSeconds(), Instant.now(), message);
     }
 
+    /** 周期指标：在核心指标之上累计全时最小距离并附上吞吐。 */
+    private ExperimentMetrics periodicMetrics(Experiment e, Metrics coreMetrics, SimulationState state,
+            double sps, double elapsed) {
+        // 全时最小距离
+        Double allTimeMinDist = null;
+        Long allTimeMinStep = null;
+        if (e.metrics() != null && e.metrics().allTimeMinimumPairDistanceMeters() != null) {
+            double prevMin = e.metrics().allTimeMinimumPairDistanceMeters();
+            if (coreMetrics.minimumPairDistanceMeters() < prevMin) {
+                allTimeMinDist = coreMetrics.minimumPairDistanceMeters();
+                allTimeMinStep = state.step();
+            } else {
+                allTimeMinDist = prevMin;
+                allTimeMinStep = e.metrics().allTimeMinimumPairDistanceStep();
+            }
+        } else {
+            allTimeMinDist = coreMetrics.minimumPairDistanceMeters();
+            allTimeMinStep = state.step();
+        }
+
+        return new ExperimentMetrics(
+                coreMetrics.kineticEnergyJoules(),
+                coreMetrics.potentialEnergyJoules(),
+                coreMetrics.totalEnergyJoules(),
+                coreMetrics.initialTotalEnergyJoules(),
+                coreMetrics.relativeEnergyDrift(),
+                coreMetrics.angularMomentum(),
+                coreMetrics.angularMomentumMagnitude(),
+                coreMetrics.linearMomentum(),
+                coreMetrics.linearMomentumMagnitude(),
+                coreMetrics.minimumPairDistanceMeters(),
+                coreMetrics.minimumPairBodyIds(),
+                allTimeMinDist,
+                allTimeMinStep,
+                sps,
+                elapsed,
+                coreMetrics.forceErrorEstimate(),
+                coreMetrics.lyapunovExponentPerSecond(),
+                coreMetrics.megno());
+    }
+
     private ExperimentMetrics toExperimentMetrics(Metrics m, double elapsed,
             Double allTimeMinDist, Long allTimeMinStep, Double sps, Double elapsedWallClock) {
         return new ExperimentMetrics(
@@ -1524,7 +1898,8 @@ public class ExperimentService implements AutoCloseable {
                 m.angularMomentum(), m.angularMomentumMagnitude(),
                 m.linearMomentum(), m.linearMomentumMagnitude(),
                 m.minimumPairDistanceMeters(), m.minimumPairBodyIds(),
-                allTimeMinDist, allTimeMinStep, sps, elapsedWallClock);
+                allTimeMinDist, allTimeMinStep, sps, elapsedWallClock, m.forceErrorEstimate(),
+                m.lyapunovExponentPerSecond(), m.megno());
     }
 
     private TrajectoryPoint toTrajectoryPoint(SimulationState state) {
@@ -1565,7 +1940,18 @@ public class ExperimentService implements AutoCloseable {
             double gravitationalConstant,
             double softeningLengthMeters,
             Long maxSteps,
-            Double targetSimulationTimeSeconds) {
+            Double targetSimulationTimeSeconds,
+            IntegratorKind integrator,
+            Double relativeTolerance,
+            Double absoluteTolerance,
+            ForceSolverKind forceSolver,
+            Double openingAngle,
+            Integer expansionOrder,
+            boolean chaosIndicators,
+            boolean analyticBinaries,
+            Double escapeRetirementRadiusMeters,
+            boolean regularizedEncounters,
+            Integer pararealSlices) {
 
         private static SimulationConfigKey from(SimulationConfig config) {
             List<BodyConfigKey> bodies = config.bodies().stream()
@@ -1573,7 +1959,11 @@ public class ExperimentService implements AutoCloseable {
                     .toList();
             return new SimulationConfigKey(bodies, config.timeStepSeconds(),
                     config.gravitationalConstant(), config.softeningLengthMeters(),
-                    config.maxSteps(), config.targetSimulationTimeSeconds());
+                    config.maxSteps(), config.targetSimulationTimeSeconds(), config.integrator(),
+                    config.relativeTolerance(), config.absoluteTolerance(), config.forceSolver(),
+                    config.openingAngle(), config.expansionOrder(), config.chaosIndicators(),
+                    config.analyticBinaries(), config.escapeRetirementRadiusMeters(),
+                    config.regularizedEncounters(), config.pararealSlices());
         }
     }
 
@@ -1610,7 +2000,8 @@ public class ExperimentService implements AutoCloseable {
             Vector3Payload linearMomentum, double linearMomentumMagnitude,
             double minimumPairDistanceMeters, List<String> minimumPairBodyIds,
             Double allTimeMinimumPairDistanceMeters, Long allTimeMinimumPairDistanceStep,
-            Double stepsPerSecond, Double elapsedWallClockSeconds) {}
+            Double stepsPerSecond, Double elapsedWallClockSeconds, Double forceErrorEstimate,
+            Double lyapunovExponentPerSecond, Double megno) {}
 
     public record ErrorPayload(String code, String message, Long step, Boolean recoverable) {}
 
@@ -1651,6 +2042,26 @@ public class ExperimentService implements AutoCloseable {
         }
     }
 
+    /**
+     * 一次运行的控制与增量状态。派发时创建，运行结束时随 activeRuns 条目丢弃；
+     * 令牌由 REST 线程写入，其余字段只由运行它的工作线程访问。
+     */
+    private static final class RunContext {
+        final String experimentId;
+        /** 取消令牌。 */
+        final AtomicBoolean cancel = new AtomicBoolean(false);
+        /** 暂停令牌。 */
+        final AtomicBoolean pause = new AtomicBoolean(false);
+        /** 活动近遇对：pairKey -> ActiveEncounter；事件仅在进入/更新/退出边沿发布。 */
+        final Map<String, ActiveEncounter> encounters = new LinkedHashMap<>();
+        /** 用于抽样指标的墙钟计时。 */
+        long lastMetricsWallTime;
+
+        RunContext(String experimentId) {
+            this.experimentId = experimentId;
+        }
+    }
+
     // ============================ 异常 ============================
 
     public static class ExperimentNotFoundException extends RuntimeException {
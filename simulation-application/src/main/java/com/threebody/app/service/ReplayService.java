@@ -3,10 +3,11 @@ package com.threebody.app.service;
 import com.threebody.app.domain.ReplayJob;
 import com.threebody.app.domain.ReplayJobStatus;
 import com.threebody.app.domain.ReplaySource;
+import com.threebody.core.IntegrationSession;
 import com.threebody.core.NBodyIntegrator;
 import com.threebody.core.SimulationConfig;
 import com.threebody.core.SimulationState;
-import com.threebody.core.StepResult;
+import com.threebody.core.StepObserver;
 
 import java.time.Instant;
 import java.util.ArrayDeque;
@@ -24,7 +25,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * 精确回放服务：独立低优先级单 worker、有界队列（最多 8 个待处理任务）。
  *
  * <p>任务创建时捕获不可变配置、目标步、floor 归档状态与实验运行代次；精确命中直接返回，
- * 缺失时从 floor 或初始状态复用 {@link NBodyIntegrator#step} 重算。只读配置与归档，
+ * 缺失时从 floor 或初始状态用 {@link IntegrationSession} 重算。只读配置与归档，
  * 不更新实验权威 state/metrics/events/trajectory，也不发实时快照。</p>
  */
 public final class ReplayService implements AutoCloseable {
@@ -205,14 +206,15 @@ public final class ReplayService implements AutoCloseable {
 
         long completed = 0L;
         long lastProgressNanos = System.nanoTime();
-        SimulationState current = start;
-        while (current.step() < job.targetStep()) {
+        // 与运行循环一致：此前保存的实验即使带有并行时间分片也按串行推进
+        IntegrationSession session = new IntegrationSession(config.withPararealSlices(null), start);
+        while (session.step() < job.targetStep()) {
             if (closed.get() || experimentService.runGeneration(job.experimentId()) != generation) {
                 return finish(job, ReplayJobStatus.CANCELLED, null, null);
             }
-            StepResult result = NBodyIntegrator.step(config, current);
-            current = result.state();
-            completed++;
+            // 以检查间隔为批量推进，批内不物化中间状态
+            long chunk = Math.min(GENERATION_CHECK_STEP_INTERVAL, job.targetStep() - session.step());
+            completed += session.advance(chunk, StepObserver.NONE);
             long now = System.nanoTime();
             if (completed % GENERATION_CHECK_STEP_INTERVAL == 0L
                     || now - lastProgressNanos >= PROGRESS_MIN_INTERVAL_NANOS) {
@@ -221,6 +223,7 @@ public final class ReplayService implements AutoCloseable {
                 lastProgressNanos = now;
             }
         }
+        SimulationState current = session.state();
         Instant now = Instant.now();
         return new ReplayJob(job.jobId(), job.experimentId(), job.targetStep(),
                 ReplayJobStatus.COMPLETED, source, startStep,
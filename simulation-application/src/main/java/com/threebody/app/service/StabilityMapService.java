@@ -0,0 +1,406 @@
+package com.threebody.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.threebody.app.domain.StabilityMapDefinition;
+import com.threebody.app.domain.StabilityMapJob;
+import com.threebody.app.domain.StabilityMapJobStatus;
+import com.threebody.app.domain.StabilityMapQuantity;
+import com.threebody.app.domain.StabilityTile;
+import com.threebody.core.ConfigValidator;
+import com.threebody.core.SimulationConfig;
+import com.threebody.core.StabilityCell;
+import com.threebody.core.StabilityProbe;
+import com.threebody.core.ValidationResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 稳定性地图服务：把地图定义在某一缩放级别下切成瓦片，每块瓦片作为独立任务分发到并行工作线程池，
+ * 由 {@link StabilityProbe} 一次批量积分整块单元，不创建实验、不写归档、不发实时消息。
+ * 每块瓦片积分期间占用 1 个与实验共用的 {@link CpuPermits}，地图计算与实验合计不超过许可数个核。
+ *
+ * <p>完成的瓦片以 JSON 写入 {@code cacheDir/<mapId>/<z>/<x>/<y>.json}；mapId 由影响结果的定义内容散列得出，
+ * 与配置名称和结束条件无关。再次请求同一定义的同一瓦片(例如缩放回先前级别)直接命中缓存，不再计算。
+ * 最多 {@link #MAX_PENDING_JOBS} 个未结束任务；任务状态只保存在内存中，终态后保留 {@link #RESULT_TTL_MILLIS}，
+ * 瓦片缓存不过期。</p>
+ */
+public final class StabilityMapService implements AutoCloseable {
+
+    public static final int MAX_PENDING_JOBS = 4;
+    public static final long RESULT_TTL_MILLIS = 10 * 60_000L;
+    /** 瓦片每边单元数。 */
+    public static final int TILE_SIZE = 16;
+    public static final int MAX_ZOOM = 10;
+    public static final int MAX_TILES_PER_JOB = 256;
+
+    private static final Pattern MAP_ID = Pattern.compile("[0-9a-f]{32}");
+
+    private final Path cacheDir;
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+    private final ExecutorService executor;
+    private final CpuPermits cpuPermits;
+    private final Map<String, StabilityMapJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param cacheDir 瓦片缓存根目录，不存在时创建
+     * @param workers  同时积分的瓦片数上限
+     * @throws IllegalArgumentException workers 小于 1 时
+     */
+    public StabilityMapService(Path cacheDir, int workers) {
+        this(cacheDir, workers, new CpuPermits(workers));
+    }
+
+    /**
+     * @param cacheDir   瓦片缓存根目录，不存在时创建
+     * @param workers    同时积分的瓦片数上限
+     * @param cpuPermits 与实验共用的 CPU 许可，瓦片只在持有许可时积分
+     * @throws IllegalArgumentException workers 小于 1 时
+     */
+    public StabilityMapService(Path cacheDir, int workers, CpuPermits cpuPermits) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("稳定性地图工作线程数必须 >= 1：" + workers);
+        }
+        this.cacheDir = cacheDir;
+        try {
+            Files.createDirectories(cacheDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to create stability map cache " + cacheDir, e);
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "stability-map-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(workers, factory);
+        this.cpuPermits = cpuPermits;
+    }
+
+    /**
+     * 创建稳定性地图任务。瓦片范围为 null 时取该缩放级别的全部瓦片。
+     *
+     * @param definition 地图定义；其基础配置按实验配置规则校验
+     * @param zoom       缩放级别 0..{@link #MAX_ZOOM}
+     * @return 已入队的任务；范围内瓦片全部命中缓存时直接为 COMPLETED
+     * @throws ConfigValidationException 基础配置校验失败
+     * @throws IllegalArgumentException  定义域、时限、积分方案或瓦片范围非法，或瓦片数超过 {@link #MAX_TILES_PER_JOB}
+     * @throws StabilityMapQueueFullException 未结束任务已达上限
+     */
+    public StabilityMapJob create(StabilityMapDefinition definition, int zoom,
+            Integer xMin, Integer xMax, Integer yMin, Integer yMax) {
+        if (closed.get()) {
+            throw new IllegalStateException("stability map service is closed");
+        }
+        ValidationResult vr = ConfigValidator.validate(definition.config());
+        if (!vr.valid()) {
+            throw new ConfigValidationException(vr.issues());
+        }
+        if (!(definition.uMin() < definition.uMax()) || !(definition.vMin() < definition.vMax())
+                || !Double.isFinite(definition.uMax() - definition.uMin())
+                || !Double.isFinite(definition.vMax() - definition.vMin())) {
+            throw new IllegalArgumentException("定义域上下界必须为有限值且下界小于上界");
+        }
+        StabilityMapDefinition normalized = new StabilityMapDefinition(vr.normalizedConfig(), definition.bodyId(),
+                definition.quantity(), definition.plane(), definition.uMin(), definition.uMax(),
+                definition.vMin(), definition.vMax(), definition.horizonSeconds(), definition.escapeRadiusMeters(),
+                definition.collisionDistanceMeters(), definition.megno());
+        StabilityProbe probe = probe(normalized);
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("缩放级别必须在 0.." + MAX_ZOOM + " 之间：" + zoom);
+        }
+        int last = (1 << zoom) - 1;
+        int x0 = xMin != null ? xMin : 0;
+        int x1 = xMax != null ? xMax : last;
+        int y0 = yMin != null ? yMin : 0;
+        int y1 = yMax != null ? yMax : last;
+        if (x0 < 0 || y0 < 0 || x1 > last || y1 > last || x0 > x1 || y0 > y1) {
+            throw new IllegalArgumentException("瓦片范围超出缩放级别 " + zoom + " 的 0.." + last);
+        }
+        long total = (long) (x1 - x0 + 1) * (y1 - y0 + 1);
+        if (total > MAX_TILES_PER_JOB) {
+            throw new IllegalArgumentException("单个任务的瓦片数不能超过 " + MAX_TILES_PER_JOB);
+        }
+
+        String mapId = mapId(normalized);
+        List<String> cached = new ArrayList<>();
+        List<int[]> missing = new ArrayList<>();
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                if (Files.isRegularFile(tilePath(mapId, zoom, x, y))) {
+                    cached.add(tileKey(zoom, x, y));
+                } else {
+                    missing.add(new int[] {x, y});
+                }
+            }
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        StabilityMapJob queued = new StabilityMapJob(jobId, mapId, normalized, zoom, x0, x1, y0, y1,
+                StabilityMapJobStatus.QUEUED, cached.size(), cached.size(), (int) total,
+                (double) cached.size() / total, cached, null, now, now, null);
+        if (missing.isEmpty()) {
+            queued = finish(progress(queued, StabilityMapJobStatus.COMPLETED, cached), StabilityMapJobStatus.COMPLETED,
+                    null);
+            jobs.put(jobId, queued);
+            return queued;
+        }
+        synchronized (jobs) {
+            long pending = jobs.values().stream().filter(job -> !terminal(job.status())).count();
+            if (pending >= MAX_PENDING_JOBS) {
+                throw new StabilityMapQueueFullException("稳定性地图未结束任务已达 " + MAX_PENDING_JOBS + " 个上限");
+            }
+            jobs.put(jobId, queued);
+        }
+        for (int[] tile : missing) {
+            executor.execute(() -> runTile(jobId, probe, normalized, mapId, zoom, tile[0], tile[1]));
+        }
+        return queued;
+    }
+
+    public StabilityMapJob get(String jobId) {
+        StabilityMapJob job = jobs.get(jobId);
+        if (job == null || expired(job)) {
+            throw new StabilityMapJobNotFoundException("稳定性地图任务不存在或已过期");
+        }
+        return job;
+    }
+
+    /** 删除任务：排队或运行中进入 CANCELLED，已完成的瓦片保留在缓存中。 */
+    public void delete(String jobId) {
+        StabilityMapJob job = get(jobId);
+        if (!terminal(job.status())) {
+            jobs.computeIfPresent(jobId, (id, current) ->
+                    terminal(current.status()) ? current : finish(current, StabilityMapJobStatus.CANCELLED, null));
+        }
+    }
+
+    /**
+     * 读取已缓存的瓦片。
+     *
+     * @throws IllegalArgumentException       mapId 格式或瓦片坐标非法
+     * @throws StabilityTileNotFoundException 瓦片尚未计算
+     */
+    public StabilityTile tile(String mapId, int zoom, int x, int y) {
+        if (!MAP_ID.matcher(mapId).matches()) {
+            throw new IllegalArgumentException("mapId 格式非法：" + mapId);
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM || x < 0 || y < 0 || x >= (1 << zoom) || y >= (1 << zoom)) {
+            throw new IllegalArgumentException("瓦片坐标非法：" + tileKey(zoom, x, y));
+        }
+        Path path = tilePath(mapId, zoom, x, y);
+        if (!Files.isRegularFile(path)) {
+            throw new StabilityTileNotFoundException("瓦片尚未计算：" + tileKey(zoom, x, y));
+        }
+        try {
+            return mapper.readValue(path.toFile(), StabilityTile.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to read stability tile " + path, e);
+        }
+    }
+
+    private static StabilityProbe probe(StabilityMapDefinition definition) {
+        if (definition.bodyId() == null || definition.quantity() == null || definition.plane() == null) {
+            throw new IllegalArgumentException("bodyId、quantity 与 plane 必填");
+        }
+        return new StabilityProbe(definition.config(), definition.bodyId(),
+                definition.quantity() == StabilityMapQuantity.VELOCITY, definition.plane().uAxis(),
+                definition.plane().vAxis(), definition.horizonSeconds(), definition.escapeRadiusMeters(),
+                definition.collisionDistanceMeters(), definition.megno());
+    }
+
+    private void runTile(String jobId, StabilityProbe probe, StabilityMapDefinition definition, String mapId,
+            int zoom, int x, int y) {
+        StabilityMapJob job = jobs.computeIfPresent(jobId, (id, current) ->
+                current.status() == StabilityMapJobStatus.QUEUED
+                        ? progress(current, StabilityMapJobStatus.RUNNING, current.tiles()) : current);
+        if (closed.get() || job == null || job.status() != StabilityMapJobStatus.RUNNING) {
+            return;
+        }
+        try {
+            StabilityTile tile = computeTile(jobId, probe, definition, mapId, zoom, x, y);
+            if (tile != null) {
+                write(tile);
+                record(jobId, tileKey(zoom, x, y));
+            }
+        } catch (Throwable failure) {
+            jobs.computeIfPresent(jobId, (id, current) -> terminal(current.status())
+                    ? current : finish(current, StabilityMapJobStatus.FAILED, failure.getMessage()));
+        }
+    }
+
+    /** 积分一块瓦片的全部单元；任务被取消或服务关闭时返回 null。 */
+    private StabilityTile computeTile(String jobId, StabilityProbe probe, StabilityMapDefinition definition,
+            String mapId, int zoom, int x, int y) {
+        int tiles = 1 << zoom;
+        double uWidth = (definition.uMax() - definition.uMin()) / tiles;
+        double vHeight = (definition.vMax() - definition.vMin()) / tiles;
+        double uMin = definition.uMin() + x * uWidth;
+        double vMax = definition.vMax() - y * vHeight;
+        double[] u = new double[TILE_SIZE * TILE_SIZE];
+        double[] v = new double[TILE_SIZE * TILE_SIZE];
+        for (int row = 0; row < TILE_SIZE; row++) {
+            for (int column = 0; column < TILE_SIZE; column++) {
+                u[row * TILE_SIZE + column] = uMin + (column + 0.5) * uWidth / TILE_SIZE;
+                v[row * TILE_SIZE + column] = vMax - (row + 0.5) * vHeight / TILE_SIZE;
+            }
+        }
+        List<StabilityCell> cells;
+        int held = cpuPermits.acquire(1);
+        try {
+            if (!stillRunning(jobId)) {
+                return null;
+            }
+            cells = probe.run(u, v, () -> !stillRunning(jobId));
+        } finally {
+            cpuPermits.release(held);
+        }
+        if (cells == null) {
+            return null;
+        }
+        return new StabilityTile(mapId, zoom, x, y, TILE_SIZE, uMin, uMin + uWidth, vMax - vHeight, vMax, cells);
+    }
+
+    /** 先写临时文件再原子替换，读者不会看到半块瓦片。 */
+    private void write(StabilityTile tile) throws IOException {
+        Path path = tilePath(tile.mapId(), tile.zoom(), tile.x(), tile.y());
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), tile.y() + "-", ".tmp");
+        try {
+            mapper.writeValue(temp.toFile(), tile);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean stillRunning(String jobId) {
+        StabilityMapJob current = jobs.get(jobId);
+        return !closed.get() && current != null && current.status() == StabilityMapJobStatus.RUNNING;
+    }
+
+    /** 追加一块已写入缓存的瓦片；最后一块到达时任务完成。 */
+    private void record(String jobId, String key) {
+        jobs.computeIfPresent(jobId, (id, current) -> {
+            if (current.status() != StabilityMapJobStatus.RUNNING) {
+                return current;
+            }
+            List<String> tiles = new ArrayList<>(current.tiles());
+            tiles.add(key);
+            return tiles.size() == current.totalTiles()
+                    ? finish(progress(current, StabilityMapJobStatus.COMPLETED, tiles),
+                            StabilityMapJobStatus.COMPLETED, null)
+                    : progress(current, StabilityMapJobStatus.RUNNING, tiles);
+        });
+    }
+
+    private Path tilePath(String mapId, int zoom, int x, int y) {
+        return cacheDir.resolve(mapId).resolve(Integer.toString(zoom)).resolve(Integer.toString(x))
+                .resolve(y + ".json");
+    }
+
+    private static String tileKey(int zoom, int x, int y) {
+        return zoom + "/" + x + "/" + y;
+    }
+
+    /** 对影响单元结果的定义内容取 SHA-256 前 16 字节；配置名称与结束条件不参与。 */
+    static String mapId(StabilityMapDefinition definition) {
+        SimulationConfig config = definition.config();
+        String key = String.join("|", config.bodies().toString(),
+                Double.toString(config.timeStepSeconds()), Double.toString(config.gravitationalConstant()),
+                Double.toString(config.softeningLengthMeters()), String.valueOf(config.integrator()),
+                String.valueOf(config.nearEncounterThresholdMeters()), definition.bodyId(),
+                definition.quantity().name(), definition.plane().name(),
+                Double.toString(definition.uMin()), Double.toString(definition.uMax()),
+                Double.toString(definition.vMin()), Double.toString(definition.vMax()),
+                Double.toString(definition.horizonSeconds()), String.valueOf(definition.escapeRadiusMeters()),
+                String.valueOf(definition.collisionDistanceMeters()), Boolean.toString(definition.megno()),
+                Integer.toString(TILE_SIZE));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static StabilityMapJob progress(StabilityMapJob job, StabilityMapJobStatus status, List<String> tiles) {
+        double progress = status == StabilityMapJobStatus.COMPLETED
+                ? 1.0 : (double) tiles.size() / Math.max(1, job.totalTiles());
+        return new StabilityMapJob(job.jobId(), job.mapId(), job.definition(), job.zoom(), job.xMin(), job.xMax(),
+                job.yMin(), job.yMax(), status, tiles.size(), job.cachedTiles(), job.totalTiles(), progress, tiles,
+                null, job.createdAt(), Instant.now(), null);
+    }
+
+    private static StabilityMapJob finish(StabilityMapJob job, StabilityMapJobStatus status, String error) {
+        Instant now = Instant.now();
+        return new StabilityMapJob(job.jobId(), job.mapId(), job.definition(), job.zoom(), job.xMin(), job.xMax(),
+                job.yMin(), job.yMax(), status, job.completedTiles(), job.cachedTiles(), job.totalTiles(),
+                job.progress(), job.tiles(), error != null ? error : job.error(), job.createdAt(), now,
+                now.plusMillis(RESULT_TTL_MILLIS));
+    }
+
+    private static boolean terminal(StabilityMapJobStatus status) {
+        return status == StabilityMapJobStatus.COMPLETED || status == StabilityMapJobStatus.CANCELLED
+                || status == StabilityMapJobStatus.FAILED;
+    }
+
+    private boolean expired(StabilityMapJob job) {
+        return job.expiresAt() != null && Instant.now().isAfter(job.expiresAt());
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        for (String jobId : jobs.keySet()) {
+            jobs.computeIfPresent(jobId, (id, current) ->
+                    terminal(current.status()) ? current : finish(current, StabilityMapJobStatus.CANCELLED, null));
+        }
+        executor.shutdownNow();
+    }
+
+    // ============================ 异常 ============================
+
+    public static class StabilityMapQueueFullException extends RuntimeException {
+        public StabilityMapQueueFullException(String message) {
+            super(message);
+        }
+    }
+
+    public static class StabilityMapJobNotFoundException extends RuntimeException {
+        public StabilityMapJobNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    public static class StabilityTileNotFoundException extends RuntimeException {
+        public StabilityTileNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
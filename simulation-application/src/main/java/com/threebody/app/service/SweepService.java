@@ -0,0 +1,341 @@
+package com.threebody.app.service;
+
+import com.threebody.app.domain.SweepJob;
+import com.threebody.app.domain.SweepJobStatus;
+import com.threebody.app.domain.SweepPointOutcome;
+import com.threebody.app.domain.SweepPointResult;
+import com.threebody.core.ConfigValidator;
+import com.threebody.core.IntegrationSession;
+import com.threebody.core.Metrics;
+import com.threebody.core.MetricsCalculator;
+import com.threebody.core.NBodyIntegrator;
+import com.threebody.core.NumericalInstabilityException;
+import com.threebody.core.SimulationConfig;
+import com.threebody.core.SimulationState;
+import com.threebody.core.ValidationResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 参数扫描服务：把基础配置在时间步长 × 软化长度网格上展开，各网格点作为独立任务分发到并行工作线程池。
+ * 工作线程每推进一段都先按积分会话的并行度({@link IntegrationSession#parallelism()})申请与实验共用的
+ * {@link CpuPermits}：普通网格点占 1 个许可，开启并行时间分片或按行并行直接求和的网格点按其并行度占许可，
+ * 因此扫描不会在实验之外另占满全部核心。
+ *
+ * <p>每个网格点直接用积分会话推进到基础配置的结束条件，不创建实验、不写归档、不发实时消息，
+ * 只记录最终能量漂移、全程最近两体距离、墙钟耗时与失败步；配置开启并行时间分片时另记最后一个窗口的
+ * 迭代次数与实测加速比。最多 {@link #MAX_PENDING_JOBS} 个未结束任务；
+ * 结果只保存在内存中，终态后保留 {@link #RESULT_TTL_MILLIS}。</p>
+ */
+public final class SweepService implements AutoCloseable {
+
+    public static final int MAX_PENDING_JOBS = 4;
+    public static final int MAX_POINTS = 1024;
+    public static final long RESULT_TTL_MILLIS = 10 * 60_000L;
+    /** 两次取消检查之间最多推进的步数。 */
+    private static final long CANCEL_CHECK_STEP_INTERVAL = 1024L;
+
+    /** 结果表可排序的列。 */
+    public static final List<String> SORT_KEYS = List.of("index", "timeStepSeconds", "softeningLengthMeters",
+            "finalRelativeEnergyDrift", "minimumPairDistanceMeters", "wallTimeSeconds", "failureStep");
+
+    private final ExecutorService executor;
+    private final CpuPermits cpuPermits;
+    private final Map<String, SweepJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public SweepService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param workers 同时积分的网格点数上限
+     * @throws IllegalArgumentException workers 小于 1 时
+     */
+    public SweepService(int workers) {
+        this(workers, new CpuPermits(workers));
+    }
+
+    /**
+     * @param workers    同时积分的网格点数上限
+     * @param cpuPermits 与实验共用的 CPU 许可，网格点只在持有许可时推进
+     * @throws IllegalArgumentException workers 小于 1 时
+     */
+    public SweepService(int workers, CpuPermits cpuPermits) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("扫描工作线程数必须 >= 1：" + workers);
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "sweep-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(workers, factory);
+        this.cpuPermits = cpuPermits;
+    }
+
+    /**
+     * 创建参数扫描任务。网格为空或为 null 时取基础配置的对应值。
+     *
+     * @param config                 基础配置，按实验配置规则校验；其结束条件用于每个网格点
+     * @param timeStepsSeconds       时间步长网格(s)
+     * @param softeningLengthsMeters 软化长度网格(m)
+     * @return 已入队的任务
+     * @throws ConfigValidationException 基础配置或任一网格点的配置校验失败
+     * @throws IllegalArgumentException  网格点数超过 {@link #MAX_POINTS}
+     * @throws SweepQueueFullException   未结束任务已达上限
+     */
+    public SweepJob create(SimulationConfig config, List<Double> timeStepsSeconds,
+            List<Double> softeningLengthsMeters) {
+        if (closed.get()) {
+            throw new IllegalStateException("sweep service is closed");
+        }
+        ValidationResult vr = ConfigValidator.validate(config);
+        if (!vr.valid()) {
+            throw new ConfigValidationException(vr.issues());
+        }
+        SimulationConfig normalized = vr.normalizedConfig();
+        List<Double> timeSteps = timeStepsSeconds == null || timeStepsSeconds.isEmpty()
+                ? List.of(normalized.timeStepSeconds()) : List.copyOf(timeStepsSeconds);
+        List<Double> softenings = softeningLengthsMeters == null || softeningLengthsMeters.isEmpty()
+                ? List.of(normalized.softeningLengthMeters()) : List.copyOf(softeningLengthsMeters);
+        if ((long) timeSteps.size() * softenings.size() > MAX_POINTS) {
+            throw new IllegalArgumentException("扫描网格点数不能超过 " + MAX_POINTS);
+        }
+
+        List<SimulationConfig> points = new ArrayList<>(timeSteps.size() * softenings.size());
+        for (double dt : timeSteps) {
+            for (double eps : softenings) {
+                ValidationResult point = ConfigValidator.validate(
+                        normalized.withTimeStepSeconds(dt).withSofteningLengthMeters(eps));
+                if (!point.valid()) {
+                    throw new ConfigValidationException(point.issues());
+                }
+                points.add(point.normalizedConfig());
+            }
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        SweepJob queued = new SweepJob(jobId, normalized, timeSteps, softenings, SweepJobStatus.QUEUED,
+                0, points.size(), 0.0, List.of(), null, now, now, null);
+        synchronized (jobs) {
+            long pending = jobs.values().stream().filter(job -> !terminal(job.status())).count();
+            if (pending >= MAX_PENDING_JOBS) {
+                throw new SweepQueueFullException("参数扫描未结束任务已达 " + MAX_PENDING_JOBS + " 个上限");
+            }
+            jobs.put(jobId, queued);
+        }
+        for (int index = 0; index < points.size(); index++) {
+            int pointIndex = index;
+            SimulationConfig pointConfig = points.get(index);
+            executor.execute(() -> runPoint(jobId, pointIndex, pointConfig));
+        }
+        return queued;
+    }
+
+    public SweepJob get(String jobId) {
+        SweepJob job = jobs.get(jobId);
+        if (job == null || expired(job)) {
+            throw new SweepJobNotFoundException("参数扫描任务不存在或已过期");
+        }
+        return job;
+    }
+
+    /**
+     * 查询结果表。
+     *
+     * @param sortBy     排序列，取自 {@link #SORT_KEYS}；null 时按网格点序号。能量漂移按绝对值排序，缺失值总在最后
+     * @param descending 是否降序
+     * @param outcome    只保留该结局的行；null 时保留全部
+     * @throws IllegalArgumentException 排序列未知时
+     */
+    public List<SweepPointResult> results(String jobId, String sortBy, boolean descending,
+            SweepPointOutcome outcome) {
+        SweepJob job = get(jobId);
+        Comparator<SweepPointResult> order = comparator(sortBy == null ? "index" : sortBy, descending);
+        return job.results().stream()
+                .filter(row -> outcome == null || row.outcome() == outcome)
+                .sorted(order)
+                .toList();
+    }
+
+    private static Comparator<SweepPointResult> comparator(String sortBy, boolean descending) {
+        Function<SweepPointResult, Double> key = switch (sortBy) {
+            case "index" -> row -> (double) row.index();
+            case "timeStepSeconds" -> SweepPointResult::timeStepSeconds;
+            case "softeningLengthMeters" -> SweepPointResult::softeningLengthMeters;
+            case "finalRelativeEnergyDrift" -> row -> row.finalRelativeEnergyDrift() != null
+                    ? Math.abs(row.finalRelativeEnergyDrift()) : null;
+            case "minimumPairDistanceMeters" -> SweepPointResult::minimumPairDistanceMeters;
+            case "wallTimeSeconds" -> SweepPointResult::wallTimeSeconds;
+            case "failureStep" -> row -> row.failureStep() != null ? row.failureStep().doubleValue() : null;
+            default -> throw new IllegalArgumentException("未知排序列：" + sortBy + "，可选 " + SORT_KEYS);
+        };
+        Comparator<Double> values = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return Comparator.comparing(key, Comparator.nullsLast(values))
+                .thenComparingInt(SweepPointResult::index);
+    }
+
+    /** 删除任务：排队或运行中进入 CANCELLED，已终态任务保持原终态。 */
+    public void delete(String jobId) {
+        SweepJob job = get(jobId);
+        if (!terminal(job.status())) {
+            jobs.computeIfPresent(jobId, (id, current) ->
+                    terminal(current.status()) ? current : finish(current, SweepJobStatus.CANCELLED, null));
+        }
+    }
+
+    private void runPoint(String jobId, int index, SimulationConfig config) {
+        SweepJob job = jobs.computeIfPresent(jobId, (id, current) -> current.status() == SweepJobStatus.QUEUED
+                ? progress(current, SweepJobStatus.RUNNING, current.results()) : current);
+        if (closed.get() || job == null || job.status() != SweepJobStatus.RUNNING) {
+            return;
+        }
+        try {
+            SweepPointResult result = integrate(jobId, index, config);
+            if (result != null) {
+                record(jobId, result);
+            }
+        } catch (Throwable failure) {
+            jobs.computeIfPresent(jobId, (id, current) ->
+                    terminal(current.status()) ? current : finish(current, SweepJobStatus.FAILED, failure.getMessage()));
+        }
+    }
+
+    /**
+     * 推进单个网格点到基础配置的结束条件；任务被取消或服务关闭时返回 null。
+     * 墙钟耗时不含等待 CPU 许可的时间。
+     */
+    private SweepPointResult integrate(String jobId, int index, SimulationConfig config) {
+        long startedNanos = System.nanoTime();
+        long waitedNanos = 0L;
+        SimulationState initial = NBodyIntegrator.initialState(config);
+        double initialEnergy = MetricsCalculator.totalEnergy(config, initial);
+        IntegrationSession session = new IntegrationSession(config, initial);
+        double minimumDistance = session.minimumPairDistanceMeters();
+        Long failureStep = null;
+        String error = null;
+        try {
+            while (!reachedEnd(config, session)) {
+                if (!stillRunning(jobId)) {
+                    return null;
+                }
+                long waitStarted = System.nanoTime();
+                int held = cpuPermits.acquire(session.parallelism());
+                waitedNanos += System.nanoTime() - waitStarted;
+                try {
+                    do {
+                        session.advance();
+                        minimumDistance = Math.min(minimumDistance, session.minimumPairDistanceMeters());
+                    } while (session.step() % CANCEL_CHECK_STEP_INTERVAL != 0L && !reachedEnd(config, session));
+                } finally {
+                    cpuPermits.release(held);
+                }
+            }
+        } catch (NumericalInstabilityException ex) {
+            failureStep = ex.getStep();
+            error = ex.getMessage();
+        }
+        Metrics metrics = session.metrics(initialEnergy);
+        double drift = metrics.relativeEnergyDrift();
+        return new SweepPointResult(index, config.timeStepSeconds(), config.softeningLengthMeters(),
+                failureStep == null ? SweepPointOutcome.COMPLETED : SweepPointOutcome.FAILED,
+                session.step(), session.simulationTimeSeconds(), Double.isFinite(drift) ? drift : null,
+                minimumDistance, (System.nanoTime() - startedNanos - waitedNanos) / 1_000_000_000.0, failureStep, error,
+                metrics.pararealIterations(), metrics.pararealSpeedup());
+    }
+
+    private static boolean reachedEnd(SimulationConfig config, IntegrationSession session) {
+        return (config.maxSteps() != null && session.step() >= config.maxSteps())
+                || (config.targetSimulationTimeSeconds() != null
+                        && session.simulationTimeSeconds() >= config.targetSimulationTimeSeconds());
+    }
+
+    private boolean stillRunning(String jobId) {
+        SweepJob current = jobs.get(jobId);
+        return !closed.get() && current != null && current.status() == SweepJobStatus.RUNNING;
+    }
+
+    /** 按网格点序号插入结果行；最后一行到达时任务完成。 */
+    private void record(String jobId, SweepPointResult result) {
+        jobs.computeIfPresent(jobId, (id, current) -> {
+            if (current.status() != SweepJobStatus.RUNNING) {
+                return current;
+            }
+            List<SweepPointResult> rows = new ArrayList<>(current.results());
+            int at = 0;
+            while (at < rows.size() && rows.get(at).index() < result.index()) {
+                at++;
+            }
+            rows.add(at, result);
+            SweepJob updated = progress(current, SweepJobStatus.RUNNING, rows);
+            return rows.size() == current.totalPoints()
+                    ? finish(progress(current, SweepJobStatus.COMPLETED, rows), SweepJobStatus.COMPLETED, null)
+                    : updated;
+        });
+    }
+
+    private static SweepJob progress(SweepJob job, SweepJobStatus status, List<SweepPointResult> rows) {
+        double progress = status == SweepJobStatus.COMPLETED
+                ? 1.0 : (double) rows.size() / Math.max(1, job.totalPoints());
+        return new SweepJob(job.jobId(), job.config(), job.timeStepsSeconds(), job.softeningLengthsMeters(),
+                status, rows.size(), job.totalPoints(), progress, rows, null, job.createdAt(), Instant.now(), null);
+    }
+
+    private static SweepJob finish(SweepJob job, SweepJobStatus status, String error) {
+        Instant now = Instant.now();
+        return new SweepJob(job.jobId(), job.config(), job.timeStepsSeconds(), job.softeningLengthsMeters(),
+                status, job.completedPoints(), job.totalPoints(), job.progress(), job.results(),
+                error != null ? error : job.error(), job.createdAt(), now, now.plusMillis(RESULT_TTL_MILLIS));
+    }
+
+    private static boolean terminal(SweepJobStatus status) {
+        return status == SweepJobStatus.COMPLETED || status == SweepJobStatus.CANCELLED
+                || status == SweepJobStatus.FAILED;
+    }
+
+    private boolean expired(SweepJob job) {
+        return job.expiresAt() != null && Instant.now().isAfter(job.expiresAt());
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        for (String jobId : jobs.keySet()) {
+            jobs.computeIfPresent(jobId, (id, current) ->
+                    terminal(current.status()) ? current : finish(current, SweepJobStatus.CANCELLED, null));
+        }
+        executor.shutdownNow();
+    }
+
+    // ============================ 异常 ============================
+
+    public static class SweepQueueFullException extends RuntimeException {
+        public SweepQueueFullException(String message) {
+            super(message);
+        }
+    }
+
+    public static class SweepJobNotFoundException extends RuntimeException {
+        public SweepJobNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.threebody.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.threebody.app.domain.EnsembleJob;
+import com.threebody.app.domain.EnsembleJobStatus;
+import com.threebody.core.IntegratorKind;
+import com.threebody.core.PhysicalConstants;
+import com.threebody.core.SimulationConfig;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** 集合积分任务服务测试。 */
+class EnsembleServiceTest {
+
+    private final EnsembleService service = new EnsembleService();
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    private static SimulationConfig config(long maxSteps) {
+        return JobTestFixtures.threeBodyConfig("集合测试", maxSteps);
+    }
+
+    private static EnsembleJob awaitTerminal(EnsembleService jobs, String jobId) throws InterruptedException {
+        return JobTestFixtures.awaitTerminal(() -> jobs.get(jobId),
+                job -> job.status() == EnsembleJobStatus.QUEUED || job.status() == EnsembleJobStatus.RUNNING,
+                20_000L, "集合积分任务超时未结束");
+    }
+
+    @Test
+    @DisplayName("任务完成后给出逐步采样与 Lyapunov 估计")
+    void completesWithSamples() throws Exception {
+        EnsembleJob created = service.create(config(2_000L), 8, 1.0e3, null, 200L, 11L);
+        assertEquals(2_000L, created.totalSteps());
+
+        EnsembleJob done = awaitTerminal(service, created.jobId());
+        assertEquals(EnsembleJobStatus.COMPLETED, done.status());
+        assertEquals(2_000L, done.completedSteps());
+        assertEquals(1.0, done.progress());
+        assertEquals(11, done.samples().size());
+        assertEquals(2_000L, done.samples().get(10).step());
+        assertEquals(8, done.samples().get(10).aliveMembers());
+        assertEquals(0, done.failedMembers());
+        assertTrue(Double.isFinite(done.lyapunovEstimatePerSecond()));
+    }
+
+    @Test
+    @DisplayName("集合积分与实验共用 CPU 许可，许可被占满时不推进")
+    void advancesOnlyUnderSharedCpuPermits() throws Exception {
+        CpuPermits permits = new CpuPermits(1);
+        try (EnsembleService shared = new EnsembleService(permits)) {
+            int held = permits.acquire(1);
+            EnsembleJob created;
+            try {
+                created = shared.create(config(2_000L), 4, 1.0e3, null, 200L, 5L);
+                Thread.sleep(300);
+                EnsembleJob waiting = shared.get(created.jobId());
+                assertEquals(EnsembleJobStatus.RUNNING, waiting.status());
+                assertEquals(0L, waiting.completedSteps());
+            } finally {
+                permits.release(held);
+            }
+            EnsembleJob job = awaitTerminal(shared, created.jobId());
+            assertEquals(EnsembleJobStatus.COMPLETED, job.status());
+            assertEquals(2_000L, job.completedSteps());
+        }
+    }
+
+    @Test
+    @DisplayName("非法参数、自适应积分方案与配置校验失败直接拒绝")
+    void rejectsInvalidRequests() {
+        SimulationConfig config = config(2_000L);
+        assertThrows(IllegalArgumentException.class, () -> service.create(config, 1, 1.0e3, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.create(config, 4, 0.0, null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create(config.withIntegrator(IntegratorKind.DOPRI45), 4, 1.0e3, null, null, null));
+        SimulationConfig invalid = new SimulationConfig("无效", config.bodies(), -1.0,
+                PhysicalConstants.GRAVITATIONAL_CONSTANT, 1.0e7, 10L, null);
+        assertThrows(ConfigValidationException.class, () -> service.create(invalid, 4, 1.0e3, null, null, null));
+    }
+
+    @Test
+    @DisplayName("删除排队或运行中的任务进入 CANCELLED")
+    void deleteCancels() throws Exception {
+        EnsembleJob created = service.create(config(5_000_000L), 64, 1.0e3, null, null, 3L);
+        service.delete(created.jobId());
+        assertEquals(EnsembleJobStatus.CANCELLED, awaitTerminal(service, created.jobId()).status());
+    }
+}
@@ -424,6 +424,15 @@ class ExperimentServiceTest {
         assertNotNull(finalState.metrics(), "完成时应有指标");
     }
 
+    @Test
+    @DisplayName("创建实验时拒绝并行时间分片：实验必须能从任一步逐位复现")
+    void rejectsPararealSlices() {
+        ConfigValidationException created = assertThrows(ConfigValidationException.class,
+                () -> service.createExperiment("分片", quickConfig().withPararealSlices(4)));
+        assertTrue(created.issues().stream().anyMatch(issue -> issue.field().equals("pararealSlices")));
+        assertTrue(service.getExperiments().isEmpty());
+    }
+
     // ==================== 队列操作 ====================
 
     @Test
@@ -505,6 +514,142 @@ class ExperimentServiceTest {
         assertEquals(e1.id(), reversed.get(2).id());
     }
 
+    @Test
+    @DisplayName("多工作线程按队列顺序并行运行，各运行的暂停互不影响")
+    void workersRunQueueHeadInParallel() throws Exception {
+        service.close();
+        service = new ExperimentService(repo, System::nanoTime, false, 2);
+        Experiment e1 = service.createExperiment("第一", longConfig());
+        Experiment e2 = service.createExperiment("第二", longConfig(500_001L));
+        Experiment e3 = service.createExperiment("第三", longConfig(500_002L));
+
+        assertTrue(waitUntil("前两个实验同时 RUNNING", 5_000,
+                () -> service.getExperiment(e1.id()).status() == ExperimentStatus.RUNNING
+                        && service.getExperiment(e2.id()).status() == ExperimentStatus.RUNNING));
+        assertEquals(ExperimentStatus.QUEUED, service.getExperiment(e3.id()).status());
+
+        service.submitAction(e1.id(), ExperimentAction.PAUSE, null);
+        assertTrue(waitUntil("第一个暂停、第三个接替运行", 5_000,
+                () -> service.getExperiment(e1.id()).status() == ExperimentStatus.PAUSED
+                        && service.getExperiment(e3.id()).status() == ExperimentStatus.RUNNING));
+        long secondStep = service.getExperiment(e2.id()).step();
+        assertTrue(waitUntil("第二个继续推进", 5_000,
+                () -> service.getExperiment(e2.id()).step() > secondStep));
+
+        // 恢复的实验排在全部 RUNNING 实验之后、等待实验之前
+        service.submitAction(e1.id(), ExperimentAction.RESUME, null);
+        assertEquals(2, service.getQueuePosition(e1.id()));
+        assertThrows(ExperimentService.QueueConflictException.class,
+                () -> service.reorderQueue(List.of(e3.id(), e1.id(), e2.id())));
+    }
+
+    @Test
+    @DisplayName("CPU 许可少于运行数时各运行轮流推进")
+    void cpuPermitsTimeSliceRuns() throws Exception {
+        service.close();
+        service = new ExperimentService(repo, System::nanoTime, false, 3, 1);
+        List<Experiment> runs = List.of(
+                service.createExperiment("第一", longConfig()),
+                service.createExperiment("第二", longConfig(500_001L)),
+                service.createExperiment("第三", longConfig(500_002L)));
+
+        assertTrue(waitUntil("三个实验同时 RUNNING", 5_000, () -> runs.stream()
+                .allMatch(e -> service.getExperiment(e.id()).status() == ExperimentStatus.RUNNING)));
+        long[] started = runs.stream().mapToLong(e -> service.getExperiment(e.id()).step()).toArray();
+        assertTrue(waitUntil("三个实验都在推进", 5_000, () -> {
+            for (int k = 0; k < runs.size(); k++) {
+                if (service.getExperiment(runs.get(k).id()).step() <= started[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }));
+    }
+
+    @Test
+    @DisplayName("无人订阅时以 turbo 运行不发布快照，订阅者连接后切回展示")
+    void turboSkipsDisplayUntilViewerAttaches() throws Exception {
+        service.trackViewers();
+        Experiment e = service.createExperiment("无人观看", longConfig());
+        assertTrue(waitUntil("实验进入 RUNNING", 5_000,
+                () -> service.getExperiment(e.id()).status() == ExperimentStatus.RUNNING));
+        assertTrue(service.isTurbo(e.id()));
+        // 初始化时仍发布一次权威状态
+        assertTrue(waitUntil("初始快照送达", 5_000,
+                () -> countMessages(e.id(), ExperimentMessageType.SNAPSHOT) >= 1));
+
+        long snapshots = countMessages(e.id(), ExperimentMessageType.SNAPSHOT);
+        long step = service.getExperiment(e.id()).step();
+        assertTrue(waitUntil("turbo 运行继续推进", 5_000,
+                () -> service.getExperiment(e.id()).step() > step + 1_000));
+        assertEquals(snapshots, countMessages(e.id(), ExperimentMessageType.SNAPSHOT));
+
+        service.viewerAttached(e.id());
+        assertFalse(service.isTurbo(e.id()));
+        assertTrue(waitUntil("切回展示后恢复快照发布", 5_000,
+                () -> countMessages(e.id(), ExperimentMessageType.SNAPSHOT) > snapshots + 1));
+
+        service.viewerDetached(e.id());
+        service.setTurbo(e.id(), true);
+        service.viewerAttached(e.id());
+        assertTrue(service.isTurbo(e.id()), "显式请求的 turbo 不因订阅者而关闭");
+        assertTrue(service.isTurboRequested(e.id()));
+    }
+
+    @Test
+    @DisplayName("并发连接与断开订阅者后计数归零，不会丢失增减")
+    void concurrentViewerChangesKeepCount() throws Exception {
+        String id = "viewer-race";
+        service.viewerAttached(id);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    service.viewerAttached(id);
+                    service.viewerDetached(id);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, service.viewerCount(id));
+        service.viewerDetached(id);
+        assertEquals(0, service.viewerCount(id));
+    }
+
+    @Test
+    @DisplayName("turbo 按固定步距刷新指标，不依赖健康分析器")
+    void turboRefreshesMetricsWithoutHealthAnalyzer() throws Exception {
+        Experiment e = service.createExperiment("无健康报告", longConfig());
+        service.setTurbo(e.id(), true);
+        assertTrue(waitUntil("进入 RUNNING", 5_000,
+                () -> service.getExperiment(e.id()).status() == ExperimentStatus.RUNNING));
+        service.submitAction(e.id(), ExperimentAction.PAUSE, null);
+        assertTrue(waitUntil("进入 PAUSED", 5_000,
+                () -> service.getExperiment(e.id()).status() == ExperimentStatus.PAUSED));
+
+        // 没有健康报告的旧实验续跑时不建健康分析器
+        Experiment paused = service.getExperiment(e.id());
+        paused.setHealthReport(null);
+        var before = paused.metrics();
+        long pausedStep = paused.step();
+        service.submitAction(e.id(), ExperimentAction.RESUME, null);
+        assertTrue(waitUntil("turbo 指标刷新", 5_000, () -> {
+            Experiment current = service.getExperiment(e.id());
+            return current.step() > pausedStep + 2 * ExperimentService.TURBO_METRICS_STEP_INTERVAL
+                    && current.metrics() != before;
+        }));
+    }
+
+    private long countMessages(String experimentId, ExperimentMessageType type) {
+        return capturedMessages.stream()
+                .filter(m -> m.experimentId().equals(experimentId) && m.type() == type)
+                .count();
+    }
+
     // ==================== 异常场景 ====================
 
     @Test
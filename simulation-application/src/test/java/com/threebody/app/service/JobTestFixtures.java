@@ -0,0 +1,45 @@
+package com.threebody.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.threebody.core.BodySpec;
+import com.threebody.core.PhysicalConstants;
+import com.threebody.core.SimulationConfig;
+import com.threebody.core.Vector3;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/** 后台任务服务测试共用的三体配置与终态轮询。 */
+final class JobTestFixtures {
+
+    private JobTestFixtures() {
+    }
+
+    /** 两颗太阳质量恒星加一颗小质量天体的三体配置，步长 1 h。 */
+    static SimulationConfig threeBodyConfig(String name, long maxSteps) {
+        return new SimulationConfig(
+                name,
+                List.of(
+                        new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.of(-1.0e11, 0, 0), Vector3.of(0, -1.3e4, 0)),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(1.0e11, 0, 0), Vector3.of(0, 1.3e4, 0)),
+                        new BodySpec("c", "丙", "#ef476f", 1.0e28, Vector3.of(0, 2.0e11, 0), Vector3.of(-2.0e4, 0, 0))),
+                3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT, 1.0e7, maxSteps, null);
+    }
+
+    /**
+     * 每 20 ms 轮询一次任务，直到 pending 不再成立；超过 timeoutMillis 仍未结束时以 message 失败。
+     */
+    static <J> J awaitTerminal(Supplier<J> poll, Predicate<J> pending, long timeoutMillis, String message)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        J job = poll.get();
+        while (pending.test(job)) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(20);
+            job = poll.get();
+        }
+        return job;
+    }
+}
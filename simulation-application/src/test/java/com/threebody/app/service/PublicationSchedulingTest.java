@@ -1,6 +1,7 @@
 package com.threebody.app.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.threebody.app.domain.Experiment;
@@ -9,6 +10,7 @@ import com.threebody.app.event.ExperimentMessage;
 import com.threebody.app.event.ExperimentMessageType;
 import com.threebody.app.service.persistence.FileExperimentRepository;
 import com.threebody.core.BodySpec;
+import com.threebody.core.IntegratorKind;
 import com.threebody.core.PhysicalConstants;
 import com.threebody.core.SimulationConfig;
 import com.threebody.core.Vector3;
@@ -57,6 +59,20 @@ class PublicationSchedulingTest {
         }
     }
 
+    @Test
+    void adaptiveRunsSampleArchiveUniformlyInSimulationTime() {
+        SimulationConfig fixed = config(1_000L);
+        assertTrue(ExperimentService.archiveSampleDue(fixed, 10L, 20L, 1_140.0, 1_200.0));
+        assertFalse(ExperimentService.archiveSampleDue(fixed, 10L, 21L, 1_200.0, 1_260.0));
+
+        // 自适应步长：采样间隔为 stride * dt = 600 s，与步号无关
+        SimulationConfig adaptive = fixed.withIntegrator(IntegratorKind.DOPRI45);
+        assertFalse(ExperimentService.archiveSampleDue(adaptive, 10L, 20L, 500.0, 590.0));
+        assertTrue(ExperimentService.archiveSampleDue(adaptive, 10L, 21L, 590.0, 600.0));
+        assertTrue(ExperimentService.archiveSampleDue(adaptive, 10L, 22L, 1_150.0, 1_260.0));
+        assertFalse(ExperimentService.archiveSampleDue(adaptive, 10L, 23L, 1_260.0, 1_261.0));
+    }
+
     @Test
     void completionPublishesAuthoritativeSnapshotTrajectoryAndLastSequence() throws Exception {
         List<ExperimentMessage> messages = new CopyOnWriteArrayList<>();
@@ -0,0 +1,129 @@
+package com.threebody.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.threebody.app.domain.StabilityMapDefinition;
+import com.threebody.app.domain.StabilityMapJob;
+import com.threebody.app.domain.StabilityMapJobStatus;
+import com.threebody.app.domain.StabilityMapPlane;
+import com.threebody.app.domain.StabilityMapQuantity;
+import com.threebody.app.domain.StabilityTile;
+import com.threebody.core.BodySpec;
+import com.threebody.core.PhysicalConstants;
+import com.threebody.core.SimulationConfig;
+import com.threebody.core.StabilityOutcome;
+import com.threebody.core.Vector3;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** 稳定性地图任务服务测试。 */
+class StabilityMapServiceTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private StabilityMapService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    private static StabilityMapDefinition definition(String name, double vMax) {
+        SimulationConfig config = new SimulationConfig(name,
+                List.of(new BodySpec("sun", "太阳", "#ffd166", 1.98892e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("earth", "地球", "#4d96ff", 5.972e24,
+                                Vector3.of(1.496e11, 0, 0), Vector3.of(0, 29_783, 0))),
+                3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT, 1.0e7, 1_000L, null);
+        return new StabilityMapDefinition(config, "earth", StabilityMapQuantity.VELOCITY, StabilityMapPlane.XY,
+                -5_000.0, 5_000.0, 20_000.0, vMax, 1.0e8, null, null, false);
+    }
+
+    private static StabilityMapJob awaitTerminal(StabilityMapService jobs, String jobId)
+            throws InterruptedException {
+        return JobTestFixtures.awaitTerminal(() -> jobs.get(jobId),
+                job -> job.status() == StabilityMapJobStatus.QUEUED || job.status() == StabilityMapJobStatus.RUNNING,
+                30_000L, "稳定性地图任务超时未结束");
+    }
+
+    @Test
+    @DisplayName("瓦片逐块完成并写入缓存，同一定义再次请求直接命中缓存")
+    void computesTilesAndReusesCache() throws Exception {
+        service = new StabilityMapService(cacheDir, 2);
+        StabilityMapJob created = service.create(definition("甲", 60_000.0), 1, null, null, null, null);
+        assertEquals(4, created.totalTiles());
+        assertEquals(0, created.cachedTiles());
+
+        StabilityMapJob done = awaitTerminal(service, created.jobId());
+        assertEquals(StabilityMapJobStatus.COMPLETED, done.status());
+        assertEquals(1.0, done.progress());
+        assertEquals(4, done.tiles().size());
+        assertTrue(done.tiles().containsAll(List.of("1/0/0", "1/1/0", "1/0/1", "1/1/1")));
+
+        // 上半块靠近 60 km/s，角上单元必然逃逸；下半块靠近圆轨道速度，中心附近单元存活
+        StabilityTile top = service.tile(done.mapId(), 1, 0, 0);
+        assertEquals(StabilityMapService.TILE_SIZE * StabilityMapService.TILE_SIZE, top.cells().size());
+        assertEquals(-5_000.0, top.uMin());
+        assertEquals(60_000.0, top.vMax());
+        assertEquals(StabilityOutcome.ESCAPED, top.cells().get(0).outcome());
+        StabilityTile bottom = service.tile(done.mapId(), 1, 1, 1);
+        assertEquals(StabilityOutcome.SURVIVED,
+                bottom.cells().get(StabilityMapService.TILE_SIZE * (StabilityMapService.TILE_SIZE - 1)).outcome());
+
+        // 服务重启后，改名不影响 mapId，缓存的瓦片不再计算
+        service.close();
+        service = new StabilityMapService(cacheDir, 2);
+        StabilityMapJob again = service.create(definition("乙", 60_000.0), 1, 0, 1, 1, 1);
+        assertEquals(done.mapId(), again.mapId());
+        assertEquals(StabilityMapJobStatus.COMPLETED, again.status());
+        assertEquals(2, again.cachedTiles());
+        assertThrows(StabilityMapService.StabilityTileNotFoundException.class,
+                () -> service.tile(done.mapId(), 2, 0, 0));
+    }
+
+    @Test
+    @DisplayName("瓦片与实验共用 CPU 许可，许可被占满时不积分")
+    void tilesWaitForSharedCpuPermits() throws Exception {
+        CpuPermits permits = new CpuPermits(1);
+        service = new StabilityMapService(cacheDir, 2, permits);
+        int held = permits.acquire(1);
+        StabilityMapJob created;
+        try {
+            created = service.create(definition("甲", 60_000.0), 0, null, null, null, null);
+            Thread.sleep(300);
+            StabilityMapJob waiting = service.get(created.jobId());
+            assertEquals(StabilityMapJobStatus.RUNNING, waiting.status());
+            assertTrue(waiting.tiles().isEmpty());
+        } finally {
+            permits.release(held);
+        }
+        assertEquals(StabilityMapJobStatus.COMPLETED, awaitTerminal(service, created.jobId()).status());
+    }
+
+    @Test
+    @DisplayName("定义域、缩放级别、瓦片范围或积分方案非法时直接拒绝")
+    void rejectsInvalidRequests() {
+        service = new StabilityMapService(cacheDir, 1);
+        StabilityMapDefinition valid = definition("甲", 60_000.0);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.create(definition("甲", 10_000.0), 0, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.create(valid, 11, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.create(valid, 1, 0, 2, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.create(valid, 5, null, null, null, null));
+        StabilityMapDefinition adaptive = new StabilityMapDefinition(
+                valid.config().withIntegrator(com.threebody.core.IntegratorKind.DOPRI45), "earth",
+                StabilityMapQuantity.VELOCITY, StabilityMapPlane.XY, -1.0, 1.0, -1.0, 1.0, 3.0e7, null, null, false);
+        assertThrows(IllegalArgumentException.class, () -> service.create(adaptive, 0, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.tile("../etc", 0, 0, 0));
+    }
+}
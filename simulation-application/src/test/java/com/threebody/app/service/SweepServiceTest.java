@@ -0,0 +1,110 @@
+package com.threebody.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.threebody.app.domain.SweepJob;
+import com.threebody.app.domain.SweepJobStatus;
+import com.threebody.app.domain.SweepPointOutcome;
+import com.threebody.app.domain.SweepPointResult;
+import com.threebody.core.SimulationConfig;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** 参数扫描任务服务测试。 */
+class SweepServiceTest {
+
+    private final SweepService service = new SweepService(2);
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    private static SimulationConfig config(long maxSteps) {
+        return JobTestFixtures.threeBodyConfig("扫描测试", maxSteps);
+    }
+
+    private static SweepJob awaitTerminal(SweepService jobs, String jobId) throws InterruptedException {
+        return JobTestFixtures.awaitTerminal(() -> jobs.get(jobId),
+                job -> job.status() == SweepJobStatus.QUEUED || job.status() == SweepJobStatus.RUNNING,
+                20_000L, "参数扫描任务超时未结束");
+    }
+
+    @Test
+    @DisplayName("网格每个点都得出结果行，可按能量漂移排序与按结局筛选")
+    void completesGridIntoResultTable() throws Exception {
+        SweepJob created = service.create(config(1_000L), List.of(1800.0, 3600.0, 7200.0), List.of(1.0e7, 1.0e9));
+        assertEquals(6, created.totalPoints());
+
+        SweepJob done = awaitTerminal(service, created.jobId());
+        assertEquals(SweepJobStatus.COMPLETED, done.status());
+        assertEquals(1.0, done.progress());
+        assertEquals(6, done.results().size());
+        for (int k = 0; k < 6; k++) {
+            SweepPointResult row = done.results().get(k);
+            assertEquals(k, row.index());
+            assertEquals(SweepPointOutcome.COMPLETED, row.outcome());
+            assertEquals(1_000L, row.steps());
+            assertNotNull(row.finalRelativeEnergyDrift());
+            assertTrue(row.minimumPairDistanceMeters() > 0.0 && row.minimumPairDistanceMeters() <= 2.0e11);
+        }
+        assertEquals(7200.0, done.results().get(5).timeStepSeconds());
+        assertEquals(1.0e9, done.results().get(5).softeningLengthMeters());
+
+        List<SweepPointResult> byDrift = service.results(created.jobId(), "finalRelativeEnergyDrift", true, null);
+        for (int k = 1; k < byDrift.size(); k++) {
+            assertTrue(Math.abs(byDrift.get(k - 1).finalRelativeEnergyDrift())
+                    >= Math.abs(byDrift.get(k).finalRelativeEnergyDrift()));
+        }
+        assertTrue(service.results(created.jobId(), null, false, SweepPointOutcome.FAILED).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.results(created.jobId(), "unknown", false, null));
+    }
+
+    @Test
+    @DisplayName("网格点配置校验失败或点数超限时直接拒绝")
+    void rejectsInvalidGrids() {
+        SimulationConfig config = config(100L);
+        assertThrows(ConfigValidationException.class, () -> service.create(config, List.of(3600.0, -1.0), null));
+        assertThrows(ConfigValidationException.class, () -> service.create(config, null, List.of(-1.0)));
+        List<Double> many = java.util.stream.DoubleStream.iterate(1.0, v -> v + 1.0).limit(33).boxed().toList();
+        assertThrows(IllegalArgumentException.class, () -> service.create(config, many, many));
+    }
+
+    @Test
+    @DisplayName("网格点与实验共用 CPU 许可，许可被占满时不推进")
+    void pointsWaitForSharedCpuPermits() throws Exception {
+        CpuPermits permits = new CpuPermits(1);
+        try (SweepService shared = new SweepService(2, permits)) {
+            int held = permits.acquire(1);
+            SweepJob created;
+            try {
+                created = shared.create(config(2_000L), List.of(3600.0, 1800.0), null);
+                Thread.sleep(300);
+                SweepJob waiting = shared.get(created.jobId());
+                assertEquals(SweepJobStatus.RUNNING, waiting.status());
+                assertTrue(waiting.results().isEmpty());
+            } finally {
+                permits.release(held);
+            }
+            SweepJob job = awaitTerminal(shared, created.jobId());
+            assertEquals(SweepJobStatus.COMPLETED, job.status());
+            assertEquals(2, job.results().size());
+        }
+    }
+
+    @Test
+    @DisplayName("删除排队或运行中的任务进入 CANCELLED")
+    void deleteCancels() throws Exception {
+        SweepJob created = service.create(config(50_000_000L), List.of(3600.0, 1800.0), null);
+        service.delete(created.jobId());
+        assertEquals(SweepJobStatus.CANCELLED, awaitTerminal(service, created.jobId()).status());
+    }
+}
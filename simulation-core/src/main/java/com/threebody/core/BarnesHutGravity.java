@@ -0,0 +1,378 @@
+package com.threebody.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Barnes-Hut 八叉树软化引力，O(n log n)。每次力计算都把八叉树重建到预分配的节点数组中
+ * (容量不足时按倍数扩容，稳态不分配对象)，再对每个天体自根向下遍历：
+ * 节点边长 s 与到节点质心距离 d 满足 s / d &lt; theta 且天体不在该节点内时，
+ * 以节点总质量位于质心的单极近似代替逐个求和，否则打开节点。
+ *
+ * <p>叶节点只存一个天体；深度达到上限时(位置几乎重合)叶节点改为链式存放多个天体并逐对求和，
+ * 因此重合天体与直接求和一样抛出间距过小异常而不是无限细分。
+ * 插入顺序固定为天体顺序，结果只由输入位置决定，可逐位复现。
+ * 实例持有可变缓冲区，不是线程安全的。
+ */
+public final class BarnesHutGravity implements ForceField {
+
+    /** 未配置时使用的张角。 */
+    public static final double DEFAULT_OPENING_ANGLE = 0.5;
+
+    /** 力误差估计的抽样天体数上限。 */
+    static final int ERROR_SAMPLE_COUNT = 64;
+
+    private static final int MAX_DEPTH = 48;
+
+    private final int n;
+    private final String[] ids;
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+    private final double theta2;
+
+    /** 节点几何：立方体中心与半边长。 */
+    private double[] centerX;
+    private double[] centerY;
+    private double[] centerZ;
+    private double[] half;
+    /** 节点总质量与质心。 */
+    private double[] mass;
+    private double[] comX;
+    private double[] comY;
+    private double[] comZ;
+    /** children[8 * node + octant]，-1 表示空。 */
+    private int[] children;
+    /** 叶节点存放的天体数；内部节点为 -1。 */
+    private int[] count;
+    /** 叶节点链表首个天体，链表由 nextBody 串联。 */
+    private int[] firstBody;
+    private int[] depth;
+    private int nodeCount;
+
+    private final int[] nextBody;
+    private final int[] stack = new int[8 * (MAX_DEPTH + 1)];
+
+    /** 误差估计用的树加速度暂存。 */
+    private final double[] sampleAx;
+    private final double[] sampleAy;
+    private final double[] sampleAz;
+
+    public BarnesHutGravity(SimulationConfig config) {
+        this(config, config.openingAngle() != null ? config.openingAngle() : DEFAULT_OPENING_ANGLE);
+    }
+
+    /**
+     * @param openingAngle 张角 theta；越小越精确，0 时退化为逐对求和
+     */
+    public BarnesHutGravity(SimulationConfig config, double openingAngle) {
+        List<BodySpec> specs = config.bodies();
+        this.n = specs.size();
+        this.ids = new String[n];
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = specs.get(i).id();
+            masses[i] = specs.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+        this.theta2 = openingAngle * openingAngle;
+        this.nextBody = new int[n];
+        this.sampleAx = new double[n];
+        this.sampleAy = new double[n];
+        this.sampleAz = new double[n];
+        allocateNodes(Math.max(16, 2 * n));
+    }
+
+    @Override
+    public void accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        build(px, py, pz, atStep, atTime);
+        for (int i = 0; i < n; i++) {
+            walk(i, px, py, pz, ax, ay, az, atStep, atTime);
+        }
+    }
+
+    /**
+     * 抽样估计当前张角带来的相对力误差：对至多 {@value #ERROR_SAMPLE_COUNT} 个等距抽样天体，
+     * 计算树加速度与直接求和加速度之差的模除以直接求和加速度的模，返回均方根。
+     * 抽样天体各需 O(n) 直接求和，总成本与一次树力计算同量级。
+     *
+     * @throws NumericalInstabilityException 同 {@link #accelerations}
+     */
+    public double estimateRelativeError(double[] px, double[] py, double[] pz, long atStep, double atTime) {
+        if (n < 2) {
+            return 0.0;
+        }
+        build(px, py, pz, atStep, atTime);
+        int stride = Math.max(1, n / ERROR_SAMPLE_COUNT);
+        double sum = 0.0;
+        int samples = 0;
+        for (int i = 0; i < n; i += stride) {
+            walk(i, px, py, pz, sampleAx, sampleAy, sampleAz, atStep, atTime);
+            double dax = 0.0;
+            double day = 0.0;
+            double daz = 0.0;
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    double dx = px[j] - px[i];
+                    double dy = py[j] - py[i];
+                    double dz = pz[j] - pz[i];
+                    double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                    double factor = g * masses[j] / (r2 * Math.sqrt(r2));
+                    dax += factor * dx;
+                    day += factor * dy;
+                    daz += factor * dz;
+                }
+            }
+            double reference = Math.sqrt(dax * dax + day * day + daz * daz);
+            if (reference > 0.0) {
+                double ex = sampleAx[i] - dax;
+                double ey = sampleAy[i] - day;
+                double ez = sampleAz[i] - daz;
+                double relative = Math.sqrt(ex * ex + ey * ey + ez * ez) / reference;
+                sum += relative * relative;
+                samples++;
+            }
+        }
+        return samples == 0 ? 0.0 : Math.sqrt(sum / samples);
+    }
+
+    /** 当前树的节点数，仅供测试观察。 */
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    private void build(double[] px, double[] py, double[] pz, long atStep, double atTime) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isFinite(px[i]) || !Double.isFinite(py[i]) || !Double.isFinite(pz[i])) {
+                double bad = !Double.isFinite(px[i]) ? px[i] : !Double.isFinite(py[i]) ? py[i] : pz[i];
+                throw new NumericalInstabilityException(
+                        "天体位置出现非有限数值，无法构建八叉树；请减小时间步长或增大软化长度",
+                        atStep, ids[i], "position", atTime, NBodyIntegrator.finiteValueText(bad));
+            }
+            minX = Math.min(minX, px[i]);
+            minY = Math.min(minY, py[i]);
+            minZ = Math.min(minZ, pz[i]);
+            maxX = Math.max(maxX, px[i]);
+            maxY = Math.max(maxY, py[i]);
+            maxZ = Math.max(maxZ, pz[i]);
+        }
+        // 根立方体略微放大，保证边界上的天体也严格落在根内
+        double extent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        double rootHalf = Math.max(0.5 * extent * (1.0 + 1e-9), Double.MIN_NORMAL);
+        nodeCount = 0;
+        newNode(0.5 * (minX + maxX), 0.5 * (minY + maxY), 0.5 * (minZ + maxZ), rootHalf, 0);
+        for (int i = 0; i < n; i++) {
+            insert(i, px, py, pz);
+        }
+        summarize(px, py, pz);
+    }
+
+    private void insert(int body, double[] px, double[] py, double[] pz) {
+        int node = 0;
+        while (true) {
+            if (count[node] == 0) {
+                firstBody[node] = body;
+                nextBody[body] = -1;
+                count[node] = 1;
+                return;
+            }
+            if (count[node] > 0) {
+                if (depth[node] >= MAX_DEPTH) {
+                    nextBody[body] = firstBody[node];
+                    firstBody[node] = body;
+                    count[node]++;
+                    return;
+                }
+                // 叶节点分裂：原有天体下移到子节点，本节点变为内部节点
+                int resident = firstBody[node];
+                count[node] = -1;
+                firstBody[node] = -1;
+                int child = childFor(node, resident, px, py, pz);
+                firstBody[child] = resident;
+                nextBody[resident] = -1;
+                count[child] = 1;
+            }
+            node = childFor(node, body, px, py, pz);
+        }
+    }
+
+    /** 天体所在的子节点，不存在时创建空叶节点。 */
+    private int childFor(int node, int body, double[] px, double[] py, double[] pz) {
+        int octant = (px[body] >= centerX[node] ? 1 : 0)
+                | (py[body] >= centerY[node] ? 2 : 0)
+                | (pz[body] >= centerZ[node] ? 4 : 0);
+        int slot = 8 * node + octant;
+        int child = children[slot];
+        if (child < 0) {
+            double quarter = 0.5 * half[node];
+            child = newNode(
+                    centerX[node] + ((octant & 1) != 0 ? quarter : -quarter),
+                    centerY[node] + ((octant & 2) != 0 ? quarter : -quarter),
+                    centerZ[node] + ((octant & 4) != 0 ? quarter : -quarter),
+                    quarter, depth[node] + 1);
+            // newNode 可能扩容 children，需重新寻址
+            children[slot] = child;
+        }
+        return child;
+    }
+
+    /** 子节点编号总大于父节点，倒序遍历即可自底向上累计质量与质心。 */
+    private void summarize(double[] px, double[] py, double[] pz) {
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            double m = 0.0;
+            double sx = 0.0;
+            double sy = 0.0;
+            double sz = 0.0;
+            if (count[node] >= 0) {
+                for (int b = firstBody[node]; b >= 0; b = nextBody[b]) {
+                    m += masses[b];
+                    sx += masses[b] * px[b];
+                    sy += masses[b] * py[b];
+                    sz += masses[b] * pz[b];
+                }
+            } else {
+                for (int k = 0; k < 8; k++) {
+                    int child = children[8 * node + k];
+                    if (child >= 0) {
+                        m += mass[child];
+                        sx += mass[child] * comX[child];
+                        sy += mass[child] * comY[child];
+                        sz += mass[child] * comZ[child];
+                    }
+                }
+            }
+            mass[node] = m;
+            if (m > 0.0) {
+                comX[node] = sx / m;
+                comY[node] = sy / m;
+                comZ[node] = sz / m;
+            } else {
+                comX[node] = centerX[node];
+                comY[node] = centerY[node];
+                comZ[node] = centerZ[node];
+            }
+        }
+    }
+
+    private void walk(int i, double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        double xi = px[i];
+        double yi = py[i];
+        double zi = pz[i];
+        double sax = 0.0;
+        double say = 0.0;
+        double saz = 0.0;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (count[node] >= 0) {
+                for (int b = firstBody[node]; b >= 0; b = nextBody[b]) {
+                    if (b == i) {
+                        continue;
+                    }
+                    double dx = px[b] - xi;
+                    double dy = py[b] - yi;
+                    double dz = pz[b] - zi;
+                    double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                    if (!Double.isFinite(r2) || r2 <= 1e-300) {
+                        throw new NumericalInstabilityException(
+                                "天体间距过小，无法计算有限引力加速度；请增大软化长度",
+                                atStep, ids[Math.min(i, b)] + "," + ids[Math.max(i, b)],
+                                "pairDistanceSquared", atTime,
+                                Double.isFinite(r2) ? Double.toString(r2) : NBodyIntegrator.finiteValueText(r2));
+                    }
+                    double invR3 = 1.0 / (r2 * Math.sqrt(r2));
+                    double factor = g * masses[b] * invR3;
+                    sax += factor * dx;
+                    say += factor * dy;
+                    saz += factor * dz;
+                }
+                continue;
+            }
+            if (mass[node] <= 0.0) {
+                continue;
+            }
+            double dx = comX[node] - xi;
+            double dy = comY[node] - yi;
+            double dz = comZ[node] - zi;
+            double d2 = dx * dx + dy * dy + dz * dz;
+            double size = 2.0 * half[node];
+            boolean contains = Math.abs(xi - centerX[node]) <= half[node]
+                    && Math.abs(yi - centerY[node]) <= half[node]
+                    && Math.abs(zi - centerZ[node]) <= half[node];
+            if (!contains && size * size < theta2 * d2) {
+                double r2 = d2 + eps2;
+                double invR3 = 1.0 / (r2 * Math.sqrt(r2));
+                double factor = g * mass[node] * invR3;
+                sax += factor * dx;
+                say += factor * dy;
+                saz += factor * dz;
+                continue;
+            }
+            for (int k = 7; k >= 0; k--) {
+                int child = children[8 * node + k];
+                if (child >= 0) {
+                    stack[top++] = child;
+                }
+            }
+        }
+        ax[i] = sax;
+        ay[i] = say;
+        az[i] = saz;
+    }
+
+    private int newNode(double x, double y, double z, double halfSize, int nodeDepth) {
+        if (nodeCount == centerX.length) {
+            growNodes(2 * nodeCount);
+        }
+        int node = nodeCount++;
+        centerX[node] = x;
+        centerY[node] = y;
+        centerZ[node] = z;
+        half[node] = halfSize;
+        count[node] = 0;
+        firstBody[node] = -1;
+        depth[node] = nodeDepth;
+        Arrays.fill(children, 8 * node, 8 * node + 8, -1);
+        return node;
+    }
+
+    private void allocateNodes(int capacity) {
+        centerX = new double[capacity];
+        centerY = new double[capacity];
+        centerZ = new double[capacity];
+        half = new double[capacity];
+        mass = new double[capacity];
+        comX = new double[capacity];
+        comY = new double[capacity];
+        comZ = new double[capacity];
+        children = new int[8 * capacity];
+        count = new int[capacity];
+        firstBody = new int[capacity];
+        depth = new int[capacity];
+    }
+
+    private void growNodes(int capacity) {
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        centerZ = Arrays.copyOf(centerZ, capacity);
+        half = Arrays.copyOf(half, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        comX = Arrays.copyOf(comX, capacity);
+        comY = Arrays.copyOf(comY, capacity);
+        comZ = Arrays.copyOf(comZ, capacity);
+        children = Arrays.copyOf(children, 8 * capacity);
+        count = Arrays.copyOf(count, capacity);
+        firstBody = Arrays.copyOf(firstBody, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+    }
+}
@@ -2,14 +2,21 @@ package com.threebody.core;
 
 import java.util.List;
 
-/** 合法配置中可以直接计算出的运行事实，全部使用 SI 单位。 */
+/**
+ * 合法配置中可以直接计算出的运行事实，全部使用 SI 单位。
+ * estimatedForceEvaluations 为预计步数乘以积分方案每步力计算次数，是运行时间的主要成本尺度；
+ * 每次力计算需要 n(n-1)/2 次天体对相互作用。
+ */
 public record ConfigSummary(
         Long estimatedSteps,
         Double estimatedSimulationTimeSeconds,
         LimitingEndCondition limitingEndCondition,
         Double initialMinimumPairDistanceMeters,
         List<String> initialMinimumPairBodyIds,
-        Double softeningToInitialDistanceRatio) {
+        Double softeningToInitialDistanceRatio,
+        IntegratorKind integrator,
+        int forceEvaluationsPerStep,
+        Long estimatedForceEvaluations) {
 
     public ConfigSummary {
         initialMinimumPairBodyIds = initialMinimumPairBodyIds == null
@@ -21,6 +21,15 @@ public final class ConfigValidator {
     /** 允许的最大目标模拟时间(s)，约 3.17e6 年。 */
     public static final double MAX_ALLOWED_TARGET_TIME_SECONDS = 1.0e14;
 
+    /** Barnes-Hut 张角上限；更大的张角几乎不再打开节点，误差失去控制。 */
+    public static final double MAX_OPENING_ANGLE = 1.5;
+
+    /** 多极子展开阶数上限；M2L 成本约按阶数的六次方增长。 */
+    public static final int MAX_EXPANSION_ORDER = 8;
+
+    /** 并行时间分片数上限；迭代次数最坏等于分片数，再多的分片只增加粗积分的串行开销。 */
+    public static final int MAX_PARAREAL_SLICES = 64;
+
     private static final Pattern COLOR_PATTERN = Pattern.compile("^#[0-9a-fA-F]{6}$");
 
     private static final String[] DEFAULT_PALETTE = {
@@ -40,6 +49,8 @@ public final class ConfigValidator {
     /** 软化长度过小/过大判定使用的 ε/rMin 阈值。 */
     private static final double SOFTENING_RATIO_TOO_SMALL = 1e-6;
     private static final double SOFTENING_RATIO_TOO_LARGE = 0.1;
+    /** 最重天体质量占比超过该值时，建议改用 Wisdom-Holman 积分。 */
+    private static final double CENTRAL_MASS_FRACTION_HINT = 0.99;
 
     private ConfigValidator() {
     }
@@ -83,15 +94,84 @@ public final class ConfigValidator {
             issues.add(ValidationIssue.error("softeningLengthMeters", ValidationCode.INVALID_SOFTENING_LENGTH,
                     "软化长度必须是不小于 0 的有限值(m)"));
         }
+        validateTolerance("relativeTolerance", config.relativeTolerance(), issues);
+        validateTolerance("absoluteTolerance", config.absoluteTolerance(), issues);
+        Double openingAngle = config.openingAngle();
+        if (openingAngle != null && !(Double.isFinite(openingAngle) && openingAngle > 0.0
+                && openingAngle <= MAX_OPENING_ANGLE)) {
+            issues.add(ValidationIssue.error("openingAngle", ValidationCode.INVALID_OPENING_ANGLE,
+                    "张角必须是大于 0 且不超过 " + MAX_OPENING_ANGLE + " 的有限值"));
+        }
+        Integer expansionOrder = config.expansionOrder();
+        if (expansionOrder != null && (expansionOrder < 1 || expansionOrder > MAX_EXPANSION_ORDER)) {
+            issues.add(ValidationIssue.error("expansionOrder", ValidationCode.INVALID_EXPANSION_ORDER,
+                    "多极子展开阶数必须在 1 到 " + MAX_EXPANSION_ORDER + " 之间"));
+        }
+        if (config.forceSolver().resolve(config.bodyCount()) != ForceSolverKind.DIRECT
+                && config.integrator() == IntegratorKind.HERMITE) {
+            issues.add(ValidationIssue.error("forceSolver", ValidationCode.INVALID_FORCE_SOLVER,
+                    "HERMITE 需要逐对计算加加速度，只能与 DIRECT 引力求解一起使用"));
+        }
+        if (config.chaosIndicators() && (!config.integrator().supportsEnsemble()
+                || config.forceSolver().resolve(config.bodyCount()) != ForceSolverKind.DIRECT)) {
+            issues.add(ValidationIssue.error("chaosIndicators", ValidationCode.INVALID_CHAOS_INDICATORS,
+                    "混沌指标需要固定步长积分方案与 DIRECT 引力求解"));
+        }
+        if (config.analyticBinaries() && config.chaosIndicators()) {
+            issues.add(ValidationIssue.error("analyticBinaries", ValidationCode.INVALID_ANALYTIC_BINARIES,
+                    "解析双星推进不积分变分方程，不能与混沌指标同时开启"));
+        }
+        Double retirementRadius = config.escapeRetirementRadiusMeters();
+        if (retirementRadius != null) {
+            if (!(Double.isFinite(retirementRadius) && retirementRadius > config.softeningLengthMeters())) {
+                issues.add(ValidationIssue.error("escapeRetirementRadiusMeters",
+                        ValidationCode.INVALID_ESCAPE_RETIREMENT,
+                        "逃逸退役半径必须是大于软化长度的有限值"));
+            } else if (config.chaosIndicators()) {
+                issues.add(ValidationIssue.error("escapeRetirementRadiusMeters",
+                        ValidationCode.INVALID_ESCAPE_RETIREMENT,
+                        "退役天体不积分变分方程，逃逸退役不能与混沌指标同时开启"));
+            }
+        }
+        if (config.regularizedEncounters()) {
+            if (!(config.softeningLengthMeters() > 0.0)) {
+                issues.add(ValidationIssue.error("regularizedEncounters", ValidationCode.INVALID_REGULARIZATION,
+                        "近距离正则化按软化长度判定近距离事件，需要正的软化长度"));
+            } else if (config.chaosIndicators()) {
+                issues.add(ValidationIssue.error("regularizedEncounters", ValidationCode.INVALID_REGULARIZATION,
+                        "正则化天体对不积分变分方程，近距离正则化不能与混沌指标同时开启"));
+            }
+        }
+        Integer slices = config.pararealSlices();
+        if (slices != null) {
+            if (slices < 2 || slices > MAX_PARAREAL_SLICES) {
+                issues.add(ValidationIssue.error("pararealSlices", ValidationCode.INVALID_PARAREAL,
+                        "并行时间分片数必须在 2 到 " + MAX_PARAREAL_SLICES + " 之间"));
+            } else if (config.integrator().adaptive()) {
+                issues.add(ValidationIssue.error("pararealSlices", ValidationCode.INVALID_PARAREAL,
+                        "并行时间分片按固定步数切分时间片，不能与自适应步长积分方案同时使用"));
+            } else if (config.chaosIndicators()) {
+                issues.add(ValidationIssue.error("pararealSlices", ValidationCode.INVALID_PARAREAL,
+                        "切向量无法跨时间片修正，并行时间分片不能与混沌指标同时开启"));
+            }
+        }
+    }
+
+    private static void validateTolerance(String field, Double tolerance, List<ValidationIssue> issues) {
+        if (tolerance != null && !(Double.isFinite(tolerance) && tolerance > 0.0 && tolerance < 1.0)) {
+            issues.add(ValidationIssue.error(field, ValidationCode.INVALID_TOLERANCE,
+                    "误差容差必须是 0 到 1 之间（不含端点）的有限值"));
+        }
     }
 
     private static void validateBodies(SimulationConfig config, List<ValidationIssue> issues) {
         List<BodySpec> bodies = config.bodies();
         int count = bodies.size();
-        if (count < PhysicalConstants.MIN_BODY_COUNT || count > PhysicalConstants.MAX_BODY_COUNT) {
+        int maxCount = config.forceSolver().maxBodyCount();
+        if (count < PhysicalConstants.MIN_BODY_COUNT || count > maxCount) {
             issues.add(ValidationIssue.error("bodies", ValidationCode.BODY_COUNT_OUT_OF_RANGE,
                     "天体数量必须在 " + PhysicalConstants.MIN_BODY_COUNT + " 到"
-                            + PhysicalConstants.MAX_BODY_COUNT + " 之间，当前为 " + count));
+                            + maxCount + " 之间，当前为 " + count));
             return;
         }
 
@@ -279,13 +359,15 @@ public final class ConfigValidator {
                         "确认当前初始位置和速度是否确实是要研究的条件。",
                         "修改初始条件会改变研究问题，不能再只比较积分精度。",
                         null, null)));
-        if (timeStepHigh) {
+        // 自适应与块时间步方案的配置步长只是上限，近距离时会自动细分，不提示步长风险
+        boolean fixedStep = !config.integrator().variableStep();
+        if (fixedStep && timeStepHigh) {
             issues.add(ValidationIssue.risk("timeStepSeconds", ValidationCode.TIME_STEP_TOO_LARGE,
                     "时间步长相对最近轨道周期过大，可能漏过快速轨道运动；减小步长会增加计算量但通常改善稳定性。"
                             + "当前最严重对为 " + minPeriodPair + "，dt/period="
                             + formatRatio(minPeriodRatio) + "，单步位移比例=" + formatRatio(maxMoveRate),
                     RiskLevel.HIGH, timeStepGuidance));
-        } else if (timeStepCaution) {
+        } else if (fixedStep && timeStepCaution) {
             issues.add(ValidationIssue.risk("timeStepSeconds", ValidationCode.TIME_STEP_TOO_LARGE,
                     "时间步长相对部分轨道周期偏大，建议检查是否漏过快速运动；减小步长会增加计算量但通常改善稳定性。"
                             + "当前最严重对为 " + minPeriodPair + "，dt/period="
@@ -340,6 +422,45 @@ public final class ConfigValidator {
                     RiskLevel.HIGH,
                     closeDistanceGuidance(minDistBelow5Eps, eps, minDistBodyIds)));
         }
+
+        if (config.integrator() != IntegratorKind.WISDOM_HOLMAN) {
+            validateCentralMass(bodies, issues);
+        }
+    }
+
+    /** 单一天体占主导质量时，相互作用只是开普勒运动的小扰动，Wisdom-Holman 可用大得多的步长。 */
+    private static void validateCentralMass(List<BodySpec> bodies, List<ValidationIssue> issues) {
+        double total = 0.0;
+        BodySpec heaviest = null;
+        for (BodySpec body : bodies) {
+            if (body == null || !isPositiveFinite(body.massKg())) {
+                return;
+            }
+            total += body.massKg();
+            if (heaviest == null || body.massKg() > heaviest.massKg()) {
+                heaviest = body;
+            }
+        }
+        double fraction = heaviest.massKg() / total;
+        if (!(fraction > CENTRAL_MASS_FRACTION_HINT)) {
+            return;
+        }
+        issues.add(ValidationIssue.risk("integrator", ValidationCode.WISDOM_HOLMAN_RECOMMENDED,
+                "天体 " + safeName(heaviest) + " 占系统总质量的 "
+                        + String.format(Locale.ROOT, "%.2f%%", fraction * 100.0)
+                        + "，其余天体近似绕其做开普勒运动；Wisdom-Holman 积分方案通常能以更大步长达到相同精度。",
+                RiskLevel.CAUTION,
+                new ValidationGuidance(
+                        "系统由单一中心天体主导，行星间相互作用只是小扰动。",
+                        "通用积分方案按最快的轨道周期取步长，开普勒运动的误差占主导，计算量偏大。",
+                        List.of(new GuidanceEvidence("CENTRAL_MASS_FRACTION", fraction,
+                                CENTRAL_MASS_FRACTION_HINT, null, List.of(heaviest.id()))),
+                        new GuidanceAction("SWITCH_TO_WISDOM_HOLMAN", GuidanceActionMode.MANUAL_REVIEW,
+                                "改用 Wisdom-Holman 积分方案",
+                                "开普勒运动被精确求解，误差只来自相互作用，步长可放大约一个数量级。",
+                                "近距离交会时相互作用不再是小扰动，精度会明显下降；也不支持集合积分与混沌指标。",
+                                null, null),
+                        List.of())));
     }
 
     private static ConfigSummary summarize(SimulationConfig config) {
@@ -372,8 +493,12 @@ public final class ConfigValidator {
         Double ratio = Double.isFinite(minDistance) && minDistance > 0.0
                 ? config.softeningLengthMeters() / minDistance
                 : null;
+        int evaluationsPerStep = config.integrator().forceEvaluationsPerStep();
+        Long forceEvaluations = steps == null ? null
+                : steps > Long.MAX_VALUE / evaluationsPerStep ? Long.MAX_VALUE : steps * evaluationsPerStep;
         return new ConfigSummary(steps, duration, limiting,
-                Double.isFinite(minDistance) ? minDistance : null, pairIds, ratio);
+                Double.isFinite(minDistance) ? minDistance : null, pairIds, ratio,
+                config.integrator(), evaluationsPerStep, forceEvaluations);
     }
 
     private static double suggestedTimeStep(double currentDt, double periodRatio, double moveRate) {
@@ -0,0 +1,90 @@
+package com.threebody.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 逐对直接求和的软化引力，O(n^2)：
+ * a_i = sum_j G * m_j * r_ij / (|r_ij|^2 + eps^2)^(3/2)。
+ * 运算顺序与历史实现一致，结果逐位相同。可在同一遍循环中顺带记录两两距离与软化势能，见 {@link PairProximity}。
+ */
+public final class DirectGravity implements ForceField {
+
+    private final String[] ids;
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+
+    public DirectGravity(SimulationConfig config) {
+        List<BodySpec> specs = config.bodies();
+        int n = specs.size();
+        this.ids = new String[n];
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = specs.get(i).id();
+            masses[i] = specs.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+    }
+
+    @Override
+    public void accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        compute(px, py, pz, ax, ay, az, atStep, atTime, null);
+    }
+
+    @Override
+    public boolean accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime, PairProximity proximity) {
+        compute(px, py, pz, ax, ay, az, atStep, atTime, proximity);
+        return true;
+    }
+
+    private void compute(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime, PairProximity proximity) {
+        int n = masses.length;
+        Arrays.fill(ax, 0.0);
+        Arrays.fill(ay, 0.0);
+        Arrays.fill(az, 0.0);
+        boolean potential = proximity != null && proximity.potentialRequested();
+        double potentialSum = 0.0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double dx = px[j] - px[i];
+                double dy = py[j] - py[i];
+                double dz = pz[j] - pz[i];
+                double d2 = dx * dx + dy * dy + dz * dz;
+                if (proximity != null) {
+                    proximity.offer(i, j, d2);
+                }
+                double r2 = d2 + eps2;
+                // 防御性检查：当软化长度为 0 且两天体位置完全相同时，
+                // 或 r2 下溢至 0 时跳过以避免除零
+                if (!Double.isFinite(r2) || r2 <= 1e-300) {
+                    throw new NumericalInstabilityException(
+                            "天体间距过小，无法计算有限引力加速度；请增大软化长度",
+                            atStep, ids[i] + "," + ids[j],
+                            "pairDistanceSquared", atTime,
+                            Double.isFinite(r2) ? Double.toString(r2) : NBodyIntegrator.finiteValueText(r2));
+                }
+                double r = Math.sqrt(r2);
+                if (potential) {
+                    potentialSum -= g * masses[i] * masses[j] / r;
+                }
+                double invR3 = 1.0 / (r2 * r);
+                double factorI = g * masses[j] * invR3;
+                double factorJ = g * masses[i] * invR3;
+                ax[i] += factorI * dx;
+                ay[i] += factorI * dy;
+                az[i] += factorI * dz;
+                ax[j] -= factorJ * dx;
+                ay[j] -= factorJ * dy;
+                az[j] -= factorJ * dz;
+            }
+        }
+        if (potential) {
+            proximity.potentialEnergy(potentialSum);
+        }
+    }
+}
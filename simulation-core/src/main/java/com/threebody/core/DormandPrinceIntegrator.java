@@ -0,0 +1,316 @@
+package com.threebody.core;
+
+import java.util.List;
+
+/**
+ * 嵌入式 Dormand-Prince 5(4) 自适应 Runge-Kutta，带四阶连续(稠密)输出。
+ *
+ * <p>每步以五阶解推进、以嵌入四阶解估计局部误差，误差按
+ * sc = atol * 尺度 + rtol * max(|y0|, |y1|) 归一化，均方根不超过 1 时接受，否则缩小步长重试。
+ * 位置与速度分量的绝对容差分别乘以初始系统的最大天体间距与最大速度，使 atol 无量纲。
+ * 末级导数即下一步的首级导数(FSAL)，稳态每步 6 次力计算。
+ *
+ * <p>试探步长只由当前状态决定：取天体对动力学时间 sqrt(r^3 / G(m_i + m_j)) 的最小值乘以与容差相关的系数，
+ * 再以配置步长为上限。因此从任一已物化状态重新积分都与原运行逐位一致，回放不需要保存控制器状态；
+ * 近心点附近动力学时间变短，步长随之自动缩小。
+ */
+final class DormandPrinceIntegrator implements Integrator {
+
+    /** 未配置时使用的相对容差与无量纲绝对容差。 */
+    static final double DEFAULT_RELATIVE_TOLERANCE = 1.0e-10;
+    static final double DEFAULT_ABSOLUTE_TOLERANCE = 1.0e-10;
+
+    private static final double SAFETY = 0.9;
+    private static final double MIN_FACTOR = 0.2;
+    private static final int MAX_REJECTIONS = 64;
+
+    private static final double C2 = 1.0 / 5.0;
+    private static final double C3 = 3.0 / 10.0;
+    private static final double C4 = 4.0 / 5.0;
+    private static final double C5 = 8.0 / 9.0;
+    private static final double A21 = 1.0 / 5.0;
+    private static final double A31 = 3.0 / 40.0;
+    private static final double A32 = 9.0 / 40.0;
+    private static final double A41 = 44.0 / 45.0;
+    private static final double A42 = -56.0 / 15.0;
+    private static final double A43 = 32.0 / 9.0;
+    private static final double A51 = 19372.0 / 6561.0;
+    private static final double A52 = -25360.0 / 2187.0;
+    private static final double A53 = 64448.0 / 6561.0;
+    private static final double A54 = -212.0 / 729.0;
+    private static final double A61 = 9017.0 / 3168.0;
+    private static final double A62 = -355.0 / 33.0;
+    private static final double A63 = 46732.0 / 5247.0;
+    private static final double A64 = 49.0 / 176.0;
+    private static final double A65 = -5103.0 / 18656.0;
+    private static final double A71 = 35.0 / 384.0;
+    private static final double A73 = 500.0 / 1113.0;
+    private static final double A74 = 125.0 / 192.0;
+    private static final double A75 = -2187.0 / 6784.0;
+    private static final double A76 = 11.0 / 84.0;
+    /** 五阶解与嵌入四阶解之差的系数。 */
+    private static final double E1 = 71.0 / 57600.0;
+    private static final double E3 = -71.0 / 16695.0;
+    private static final double E4 = 71.0 / 1920.0;
+    private static final double E5 = -17253.0 / 339200.0;
+    private static final double E6 = 22.0 / 525.0;
+    private static final double E7 = -1.0 / 40.0;
+    /** 连续输出系数(Hairer & Wanner, DOPRI5)。 */
+    private static final double D1 = -12715105075.0 / 11282082432.0;
+    private static final double D3 = 87487479700.0 / 32700410799.0;
+    private static final double D4 = -10690763975.0 / 1880347072.0;
+    private static final double D5 = 701980252875.0 / 199316789632.0;
+    private static final double D6 = -1453857185.0 / 822651844.0;
+    private static final double D7 = 69997945.0 / 29380423.0;
+
+    private final int n;
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+    private final double relativeTolerance;
+    private final double[] absoluteTolerance = new double[6];
+    private final double stepFraction;
+
+    /** k[s][c][i]：第 s 级、分量 c(x, y, z, vx, vy, vz)、天体 i 的导数。 */
+    private double[][][] k;
+    private final PhaseSpace stage;
+    /** 连续输出多项式系数 r1..r5，按分量存放。 */
+    private final double[][][] dense;
+    private boolean firstDerivativeCached;
+    private boolean denseValid;
+
+    DormandPrinceIntegrator(SimulationConfig config) {
+        List<BodySpec> bodies = config.bodies();
+        this.n = bodies.size();
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            masses[i] = bodies.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+        this.relativeTolerance = config.relativeTolerance() != null
+                ? config.relativeTolerance() : DEFAULT_RELATIVE_TOLERANCE;
+        double atol = config.absoluteTolerance() != null
+                ? config.absoluteTolerance() : DEFAULT_ABSOLUTE_TOLERANCE;
+        double lengthScale = Double.MIN_NORMAL;
+        double speedScale = Double.MIN_NORMAL;
+        for (int i = 0; i < n; i++) {
+            speedScale = Math.max(speedScale, bodies.get(i).velocity().length());
+            for (int j = i + 1; j < n; j++) {
+                lengthScale = Math.max(lengthScale,
+                        bodies.get(j).position().subtract(bodies.get(i).position()).length());
+            }
+        }
+        for (int c = 0; c < 3; c++) {
+            absoluteTolerance[c] = atol * lengthScale;
+            absoluteTolerance[c + 3] = atol * speedScale;
+        }
+        // 五阶方法局部误差 ~ h^5：容差每缩小 10^5 倍，步长约缩小 10 倍
+        this.stepFraction = 2.0 * Math.pow(Math.max(relativeTolerance, atol), 0.2);
+        this.k = new double[7][6][n];
+        this.stage = new PhaseSpace(n);
+        this.dense = new double[5][6][n];
+    }
+
+    @Override
+    public IntegratorKind kind() {
+        return IntegratorKind.DOPRI45;
+    }
+
+    /**
+     * @param dt 步长上限(s)；实际步长由误差控制决定
+     * @return 实际接受的步长(s)
+     */
+    @Override
+    public double step(PhaseSpace current, PhaseSpace next, ForceField forces, long nextStep, double time, double dt) {
+        denseValid = false;
+        if (!firstDerivativeCached) {
+            derivative(current, k[0], forces, nextStep, time);
+            firstDerivativeCached = true;
+        }
+        double h = Math.min(dt, stepFraction * dynamicalTime(current));
+        NumericalInstabilityException lastFailure = null;
+        for (int rejections = 0; rejections <= MAX_REJECTIONS; rejections++) {
+            if (!(h > 0.0) || time + h == time) {
+                break;
+            }
+            double error;
+            try {
+                error = attempt(current, next, forces, nextStep, time, h);
+                lastFailure = null;
+            } catch (NumericalInstabilityException failure) {
+                // 试探级落入奇点附近：按拒绝处理并缩小步长
+                error = Double.POSITIVE_INFINITY;
+                lastFailure = failure;
+            }
+            if (error <= 1.0) {
+                buildDenseOutput(current, next, h);
+                double[][] accepted = k[0];
+                k[0] = k[6];
+                k[6] = accepted;
+                denseValid = true;
+                return h;
+            }
+            double factor = Double.isFinite(error)
+                    ? Math.max(MIN_FACTOR, SAFETY * Math.pow(error, -0.2))
+                    : MIN_FACTOR;
+            h *= Math.min(factor, SAFETY);
+        }
+        if (lastFailure != null) {
+            throw lastFailure;
+        }
+        throw new NumericalInstabilityException(
+                "自适应步长缩小到下限仍无法满足误差容差，请放宽容差或增大软化长度",
+                nextStep, null, "timeStepSeconds", time, Double.toString(h));
+    }
+
+    @Override
+    public void reset() {
+        firstDerivativeCached = false;
+        denseValid = false;
+    }
+
+    /** 接受的试探步末级(FSAL)导数在五阶解处计算。 */
+    @Override
+    public boolean finalForcesAtNextPositions() {
+        return denseValid;
+    }
+
+    @Override
+    public boolean supportsDenseOutput() {
+        return true;
+    }
+
+    @Override
+    public void interpolate(double theta, PhaseSpace out) {
+        if (!denseValid) {
+            throw new IllegalStateException("尚无可用于插值的已接受步");
+        }
+        double oneMinus = 1.0 - theta;
+        for (int c = 0; c < 6; c++) {
+            double[] target = component(out, c);
+            double[] r1 = dense[0][c];
+            double[] r2 = dense[1][c];
+            double[] r3 = dense[2][c];
+            double[] r4 = dense[3][c];
+            double[] r5 = dense[4][c];
+            for (int i = 0; i < n; i++) {
+                target[i] = r1[i] + theta * (r2[i] + oneMinus * (r3[i] + theta * (r4[i] + oneMinus * r5[i])));
+            }
+        }
+    }
+
+    /** 以步长 h 试探一步，五阶解写入 next、末级导数写入 k[6]，返回归一化误差。 */
+    private double attempt(PhaseSpace y0, PhaseSpace next, ForceField forces, long nextStep, double time, double h) {
+        combine(y0, stage, h, A21, 0, 0, 0, 0, 0);
+        derivative(stage, k[1], forces, nextStep, time + C2 * h);
+        combine(y0, stage, h, A31, A32, 0, 0, 0, 0);
+        derivative(stage, k[2], forces, nextStep, time + C3 * h);
+        combine(y0, stage, h, A41, A42, A43, 0, 0, 0);
+        derivative(stage, k[3], forces, nextStep, time + C4 * h);
+        combine(y0, stage, h, A51, A52, A53, A54, 0, 0);
+        derivative(stage, k[4], forces, nextStep, time + C5 * h);
+        combine(y0, stage, h, A61, A62, A63, A64, A65, 0);
+        derivative(stage, k[5], forces, nextStep, time + h);
+        combine(y0, next, h, A71, 0, A73, A74, A75, A76);
+        derivative(next, k[6], forces, nextStep, time + h);
+
+        double sum = 0.0;
+        for (int c = 0; c < 6; c++) {
+            double[] start = component(y0, c);
+            double[] end = component(next, c);
+            double[] k1 = k[0][c];
+            double[] k3 = k[2][c];
+            double[] k4 = k[3][c];
+            double[] k5 = k[4][c];
+            double[] k6 = k[5][c];
+            double[] k7 = k[6][c];
+            double atol = absoluteTolerance[c];
+            for (int i = 0; i < n; i++) {
+                double estimate = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+                double scale = atol + relativeTolerance * Math.max(Math.abs(start[i]), Math.abs(end[i]));
+                double ratio = estimate / scale;
+                sum += ratio * ratio;
+            }
+        }
+        return Math.sqrt(sum / (6.0 * n));
+    }
+
+    /** out = y0 + h * (b1 k1 + ... + b6 k6)。 */
+    private void combine(PhaseSpace y0, PhaseSpace out, double h,
+            double b1, double b2, double b3, double b4, double b5, double b6) {
+        for (int c = 0; c < 6; c++) {
+            double[] start = component(y0, c);
+            double[] target = component(out, c);
+            double[] k1 = k[0][c];
+            double[] k2 = k[1][c];
+            double[] k3 = k[2][c];
+            double[] k4 = k[3][c];
+            double[] k5 = k[4][c];
+            double[] k6 = k[5][c];
+            for (int i = 0; i < n; i++) {
+                target[i] = start[i] + h * (b1 * k1[i] + b2 * k2[i] + b3 * k3[i]
+                        + b4 * k4[i] + b5 * k5[i] + b6 * k6[i]);
+            }
+        }
+    }
+
+    /** 相空间导数：位置导数为速度，速度导数为加速度。 */
+    private void derivative(PhaseSpace state, double[][] out, ForceField forces, long atStep, double atTime) {
+        System.arraycopy(state.vx, 0, out[0], 0, n);
+        System.arraycopy(state.vy, 0, out[1], 0, n);
+        System.arraycopy(state.vz, 0, out[2], 0, n);
+        forces.accelerations(state.x, state.y, state.z, out[3], out[4], out[5], atStep, atTime);
+    }
+
+    private void buildDenseOutput(PhaseSpace y0, PhaseSpace y1, double h) {
+        for (int c = 0; c < 6; c++) {
+            double[] start = component(y0, c);
+            double[] end = component(y1, c);
+            double[] k1 = k[0][c];
+            double[] k3 = k[2][c];
+            double[] k4 = k[3][c];
+            double[] k5 = k[4][c];
+            double[] k6 = k[5][c];
+            double[] k7 = k[6][c];
+            for (int i = 0; i < n; i++) {
+                double difference = end[i] - start[i];
+                double slopeStart = h * k1[i] - difference;
+                dense[0][c][i] = start[i];
+                dense[1][c][i] = difference;
+                dense[2][c][i] = slopeStart;
+                dense[3][c][i] = difference - h * k7[i] - slopeStart;
+                dense[4][c][i] = h * (D1 * k1[i] + D3 * k3[i] + D4 * k4[i] + D5 * k5[i] + D6 * k6[i] + D7 * k7[i]);
+            }
+        }
+    }
+
+    /** 天体对动力学时间的最小值 sqrt(r^3 / G(m_i + m_j))，r 含软化长度。 */
+    private double dynamicalTime(PhaseSpace state) {
+        double minimum = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double dx = state.x[j] - state.x[i];
+                double dy = state.y[j] - state.y[i];
+                double dz = state.z[j] - state.z[i];
+                double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                double t2 = r2 * Math.sqrt(r2) / (g * (masses[i] + masses[j]));
+                if (t2 < minimum) {
+                    minimum = t2;
+                }
+            }
+        }
+        return Math.sqrt(minimum);
+    }
+
+    private static double[] component(PhaseSpace state, int c) {
+        return switch (c) {
+            case 0 -> state.x;
+            case 1 -> state.y;
+            case 2 -> state.z;
+            case 3 -> state.vx;
+            case 4 -> state.vy;
+            default -> state.vz;
+        };
+    }
+}
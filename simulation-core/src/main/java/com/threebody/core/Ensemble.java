@@ -0,0 +1,279 @@
+package com.threebody.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 同一配置、多组初始条件的集合积分。全部成员拼接在一个 {@link PhaseSpace} 中(成员 k 的天体 i 位于
+ * 下标 i * K + k)，由逐元素的积分方案与 {@link EnsembleGravity} 一次推进，共享循环开销与缓存；
+ * 每个成员的结果与单独用 {@link IntegrationSession} 积分逐位相同。
+ *
+ * <p>只支持 {@link IntegratorKind#supportsEnsemble()} 的积分方案与直接求和引力。
+ * 某成员出现间距过小或非有限值时不中断集合：记录失效步数并冻结其失效前一步的状态，与单独积分时
+ * 异常报告的步数和保留的状态一致。实例持有可变缓冲区，不是线程安全的。
+ */
+public final class Ensemble {
+
+    private final SimulationConfig config;
+    private final int n;
+    private final int members;
+    private final String[] ids;
+    private final double dt;
+    private final Integrator integrator;
+    private final ForceField forces;
+    /** 各成员的失效步数；Long.MAX_VALUE 表示仍然有效。 */
+    private final long[] failedStep;
+    private final SimulationState[] frozen;
+
+    private PhaseSpace current;
+    private PhaseSpace next;
+    private long step;
+    private double simulationTimeSeconds;
+
+    /**
+     * @param config  共同配置，提供质量、步长、积分方案与软化长度
+     * @param members 各成员的起始状态，天体顺序与配置一致，步数与模拟时间相同；0 号为发散统计的参照
+     * @throws IllegalArgumentException 成员为空或不一致、积分方案或引力求解方式不支持批量积分时
+     */
+    public Ensemble(SimulationConfig config, List<SimulationState> members) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("集合至少需要一个成员");
+        }
+        if (!config.integrator().supportsEnsemble()) {
+            throw new IllegalArgumentException(config.integrator() + " 不支持批量积分");
+        }
+        if (config.forceSolver().resolve(config.bodyCount()) != ForceSolverKind.DIRECT) {
+            throw new IllegalArgumentException("集合积分只支持直接求和引力");
+        }
+        this.config = config;
+        this.n = config.bodyCount();
+        this.members = members.size();
+        this.ids = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = config.bodies().get(i).id();
+        }
+        this.dt = config.timeStepSeconds();
+        this.failedStep = new long[this.members];
+        Arrays.fill(failedStep, Long.MAX_VALUE);
+        this.frozen = new SimulationState[this.members];
+        this.integrator = config.integrator().createBatched(n * this.members);
+        this.forces = new EnsembleGravity(config, this.members, failedStep);
+        this.current = new PhaseSpace(n * this.members);
+        this.next = new PhaseSpace(n * this.members);
+
+        SimulationState first = members.get(0);
+        this.step = first.step();
+        this.simulationTimeSeconds = first.simulationTimeSeconds();
+        for (int k = 0; k < this.members; k++) {
+            SimulationState member = members.get(k);
+            if (member.bodies().size() != n || member.step() != step
+                    || member.simulationTimeSeconds() != simulationTimeSeconds) {
+                throw new IllegalArgumentException("成员 " + k + " 的天体数量、步数或模拟时间与 0 号成员不一致");
+            }
+            for (int i = 0; i < n; i++) {
+                BodyState b = member.bodies().get(i);
+                int s = i * this.members + k;
+                current.x[s] = b.position().x();
+                current.y[s] = b.position().y();
+                current.z[s] = b.position().z();
+                current.vx[s] = b.velocity().x();
+                current.vy[s] = b.velocity().y();
+                current.vz[s] = b.velocity().z();
+            }
+        }
+    }
+
+    /**
+     * 以 base 为 0 号成员，另加 count - 1 个扰动成员：每个天体位置叠加各向同性高斯扰动，
+     * 每个分量的标准差为 positionScaleMeters。相同 seed 得到相同成员。
+     */
+    public static List<SimulationState> perturbedMembers(SimulationState base, int count,
+            double positionScaleMeters, long seed) {
+        if (count < 1) {
+            throw new IllegalArgumentException("成员数量必须至少为 1");
+        }
+        Random random = new Random(seed);
+        List<SimulationState> result = new ArrayList<>(count);
+        result.add(base);
+        for (int k = 1; k < count; k++) {
+            List<BodyState> bodies = new ArrayList<>(base.bodies().size());
+            for (BodyState b : base.bodies()) {
+                Vector3 offset = Vector3.of(random.nextGaussian(), random.nextGaussian(), random.nextGaussian())
+                        .multiply(positionScaleMeters);
+                bodies.add(new BodyState(b.id(), b.position().add(offset), b.velocity()));
+            }
+            result.add(new SimulationState(base.step(), base.simulationTimeSeconds(), bodies));
+        }
+        return result;
+    }
+
+    public SimulationConfig config() {
+        return config;
+    }
+
+    public int memberCount() {
+        return members;
+    }
+
+    /** 已完成步数。 */
+    public long step() {
+        return step;
+    }
+
+    /** 当前模拟时间(s)。 */
+    public double simulationTimeSeconds() {
+        return simulationTimeSeconds;
+    }
+
+    /** 成员 k 在当前步是否仍然有效。 */
+    public boolean alive(int k) {
+        return failedStep[k] > step;
+    }
+
+    /** 成员 k 的失效步数；仍然有效时为 -1。 */
+    public long failedStep(int k) {
+        return alive(k) ? -1L : failedStep[k];
+    }
+
+    /** 推进 steps 步，返回实际推进的步数。 */
+    public long advance(long steps) {
+        for (long s = 0; s < steps; s++) {
+            long nextStep = step + 1;
+            integrator.step(current, next, forces, nextStep, simulationTimeSeconds, dt);
+            for (int k = 0; k < members; k++) {
+                if (failedStep[k] > nextStep && !finite(next, k)) {
+                    failedStep[k] = nextStep;
+                }
+                if (failedStep[k] <= nextStep && frozen[k] == null) {
+                    frozen[k] = materialize(current, k, step, simulationTimeSeconds);
+                }
+            }
+            PhaseSpace committed = next;
+            next = current;
+            current = committed;
+            step = nextStep;
+            simulationTimeSeconds = simulationTimeSeconds + dt;
+        }
+        return steps;
+    }
+
+    private boolean finite(PhaseSpace s, int k) {
+        for (int i = 0; i < n; i++) {
+            int idx = i * members + k;
+            if (!Double.isFinite(s.x[idx]) || !Double.isFinite(s.y[idx]) || !Double.isFinite(s.z[idx])
+                    || !Double.isFinite(s.vx[idx]) || !Double.isFinite(s.vy[idx]) || !Double.isFinite(s.vz[idx])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 成员 k 当前的最近两体距离(m)，不计软化；直接读取缓冲区，不分配对象。 */
+    double minimumPairDistanceMeters(int k) {
+        double min2 = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            int bi = i * members + k;
+            for (int j = i + 1; j < n; j++) {
+                int bj = j * members + k;
+                double dx = current.x[bj] - current.x[bi];
+                double dy = current.y[bj] - current.y[bi];
+                double dz = current.z[bj] - current.z[bi];
+                min2 = Math.min(min2, dx * dx + dy * dy + dz * dz);
+            }
+        }
+        return Math.sqrt(min2);
+    }
+
+    /** 成员 k 的当前状态；失效成员返回失效前最后一步的状态。 */
+    public SimulationState memberState(int k) {
+        return alive(k) ? materialize(current, k, step, simulationTimeSeconds) : frozen[k];
+    }
+
+    private SimulationState materialize(PhaseSpace s, int k, long atStep, double atTime) {
+        List<BodyState> bodies = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int idx = i * members + k;
+            bodies.add(new BodyState(ids[i], new Vector3(s.x[idx], s.y[idx], s.z[idx]),
+                    new Vector3(s.vx[idx], s.vy[idx], s.vz[idx])));
+        }
+        return new SimulationState(atStep, atTime, bodies);
+    }
+
+    /** 成员 k 与 0 号成员当前的发散距离(m)；任一方失效时为 NaN。 */
+    public double divergenceMeters(int k) {
+        if (!alive(k) || !alive(0)) {
+            return Double.NaN;
+        }
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            int ref = i * members;
+            int idx = ref + k;
+            double dx = current.x[idx] - current.x[ref];
+            double dy = current.y[idx] - current.y[ref];
+            double dz = current.z[idx] - current.z[ref];
+            sum += dx * dx + dy * dy + dz * dz;
+        }
+        return Math.sqrt(sum);
+    }
+
+    /** 当前步的发散统计。 */
+    public EnsembleSample sample() {
+        int alive = 0;
+        double[] divergences = new double[members];
+        int count = 0;
+        double logSum = 0.0;
+        for (int k = 0; k < members; k++) {
+            if (!alive(k)) {
+                continue;
+            }
+            alive++;
+            if (k > 0 && alive(0)) {
+                double d = divergenceMeters(k);
+                divergences[count++] = d;
+                logSum += Math.log(d);
+            }
+        }
+        if (count == 0) {
+            return new EnsembleSample(step, simulationTimeSeconds, alive, Double.NaN, Double.NaN, Double.NaN);
+        }
+        Arrays.sort(divergences, 0, count);
+        double median = count % 2 == 1 ? divergences[count / 2]
+                : 0.5 * (divergences[count / 2 - 1] + divergences[count / 2]);
+        return new EnsembleSample(step, simulationTimeSeconds, alive, logSum / count, median,
+                divergences[count - 1]);
+    }
+
+    /**
+     * 有限时间最大 Lyapunov 指数估计(1/s)：各采样点对数发散均值对模拟时间的最小二乘斜率。
+     * 有限采样点少于两个时为 NaN。
+     */
+    public static double lyapunovEstimatePerSecond(List<EnsembleSample> samples) {
+        int count = 0;
+        double sumT = 0.0;
+        double sumL = 0.0;
+        for (EnsembleSample s : samples) {
+            if (Double.isFinite(s.meanLogDivergence())) {
+                count++;
+                sumT += s.simulationTimeSeconds();
+                sumL += s.meanLogDivergence();
+            }
+        }
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double meanT = sumT / count;
+        double meanL = sumL / count;
+        double covariance = 0.0;
+        double variance = 0.0;
+        for (EnsembleSample s : samples) {
+            if (Double.isFinite(s.meanLogDivergence())) {
+                double dt = s.simulationTimeSeconds() - meanT;
+                covariance += dt * (s.meanLogDivergence() - meanL);
+                variance += dt * dt;
+            }
+        }
+        return variance > 0.0 ? covariance / variance : Double.NaN;
+    }
+}
@@ -0,0 +1,68 @@
+package com.threebody.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 多组初始条件拼接后的直接求和软化引力。相空间按天体主序排列，成员 k 的天体 i 位于下标 i * K + k，
+ * 对每个天体对 (i, j) 在最内层连续遍历全部成员，共享循环开销与质量因子。
+ *
+ * <p>每个成员的运算与 {@link DirectGravity} 完全相同，结果逐位一致。某成员间距过小时不抛出，
+ * 只在 failedStep 中记录最早的步数，其他成员不受影响。
+ */
+final class EnsembleGravity implements ForceField {
+
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+    private final int members;
+    private final long[] failedStep;
+
+    EnsembleGravity(SimulationConfig config, int members, long[] failedStep) {
+        List<BodySpec> specs = config.bodies();
+        this.masses = new double[specs.size()];
+        for (int i = 0; i < masses.length; i++) {
+            masses[i] = specs.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+        this.members = members;
+        this.failedStep = failedStep;
+    }
+
+    @Override
+    public void accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        int n = masses.length;
+        int m = members;
+        Arrays.fill(ax, 0.0);
+        Arrays.fill(ay, 0.0);
+        Arrays.fill(az, 0.0);
+        for (int i = 0; i < n; i++) {
+            int bi = i * m;
+            for (int j = i + 1; j < n; j++) {
+                int bj = j * m;
+                double gmj = g * masses[j];
+                double gmi = g * masses[i];
+                for (int k = 0; k < m; k++) {
+                    double dx = px[bj + k] - px[bi + k];
+                    double dy = py[bj + k] - py[bi + k];
+                    double dz = pz[bj + k] - pz[bi + k];
+                    double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                    if (!Double.isFinite(r2) || r2 <= 1e-300) {
+                        failedStep[k] = Math.min(failedStep[k], atStep);
+                    }
+                    double invR3 = 1.0 / (r2 * Math.sqrt(r2));
+                    double factorI = gmj * invR3;
+                    double factorJ = gmi * invR3;
+                    ax[bi + k] += factorI * dx;
+                    ay[bi + k] += factorI * dy;
+                    az[bi + k] += factorI * dz;
+                    ax[bj + k] -= factorJ * dx;
+                    ay[bj + k] -= factorJ * dy;
+                    az[bj + k] -= factorJ * dz;
+                }
+            }
+        }
+    }
+}
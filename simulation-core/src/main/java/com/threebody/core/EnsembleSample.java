@@ -0,0 +1,21 @@
+package com.threebody.core;
+
+/**
+ * 集合积分某一时刻的发散统计。发散距离为成员与参照成员(0 号)全部天体位置差的欧氏范数(m)，
+ * 只统计仍然有效的扰动成员；参照成员失效或没有有效扰动成员时统计量为 NaN。
+ *
+ * @param step                   已完成步数
+ * @param simulationTimeSeconds  模拟时间(s)
+ * @param aliveMembers           仍然有效的成员数(含参照成员)
+ * @param meanLogDivergence      发散距离自然对数的平均值
+ * @param medianDivergenceMeters 发散距离中位数(m)
+ * @param maxDivergenceMeters    最大发散距离(m)
+ */
+public record EnsembleSample(
+        long step,
+        double simulationTimeSeconds,
+        int aliveMembers,
+        double meanLogDivergence,
+        double medianDivergenceMeters,
+        double maxDivergenceMeters) {
+}
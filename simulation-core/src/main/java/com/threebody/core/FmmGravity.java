@@ -0,0 +1,612 @@
+package com.threebody.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 快速多极子方法(FMM)软化引力，笛卡尔 Taylor 展开，阶数 p 可配置。
+ *
+ * <p>空间划分为均匀八叉树：叶层级按每叶约 {@value #TARGET_LEAF_OCCUPANCY} 个天体选择，构造时确定。
+ * 每次力计算依次执行：叶节点多极矩(P2M) → 自底向上平移(M2M) → 各层相互作用表内多极转局部(M2L)
+ * → 自顶向下平移(L2L) → 叶节点局部展开求梯度(L2P)，相邻 27 个叶节点之间逐对求和(P2P)。
+ *
+ * <p>核函数 1 / sqrt(r^2 + eps^2) 的 Taylor 系数 b_k 由 Duan-Krasny 递推求得：
+ * |k| R^2 b_k = (2|k| - 1) sum_i z_i b_{k - e_i} - (|k| - 1) sum_i b_{k - 2e_i}，R^2 = |z|^2 + eps^2，
+ * 软化核与精确核使用同一递推，远场与近场一致。多极矩 M_b = sum m d^b(d 为天体相对节点中心的偏移)，
+ * 局部系数 L_a = (-1)^|a| sum_b C(a + b, a) b_{a+b}(z) M_b，截断到 |a|, |b| &lt;= p。
+ *
+ * <p>全部节点数组、展开系数与排序缓冲区在构造时按天体数量预分配，力计算不分配对象；
+ * 运算顺序固定，结果只由输入位置决定，可逐位复现。实例不是线程安全的。
+ */
+public final class FmmGravity implements ForceField {
+
+    /** 未配置时使用的展开阶数。 */
+    public static final int DEFAULT_EXPANSION_ORDER = 4;
+
+    /** 叶层级选择的目标平均占用数。 */
+    static final int TARGET_LEAF_OCCUPANCY = 32;
+
+    private static final int MIN_LEVEL = 2;
+    private static final int MAX_LEVEL = 6;
+    /** 相互作用表内同层节点的最大坐标差。 */
+    private static final int OFFSET_RANGE = 3;
+
+    private final int n;
+    private final String[] ids;
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+    private final int order;
+    private final int leafLevel;
+
+    /** 多指标表：阶数不超过 2p 的多指标按总阶数升序排列，前 termCount 项为阶数不超过 p 的项。 */
+    private final int[] ex;
+    private final int[] ey;
+    private final int[] ez;
+    private final int termCount;
+    private final int coefficientCount;
+    /** 递推所需的 k - e_i 与 k - 2e_i 下标，-1 表示不存在。 */
+    private final int[][] minusOne;
+    private final int[][] minusTwo;
+    /** M2L：sum[a * termCount + b] 为 a + b 的下标，m2l 为 (-1)^|a| C(a + b, a)。 */
+    private final int[] sumIndex;
+    private final double[] m2l;
+    /** 平移：shiftBinomial[a * termCount + b] = C(a, b)(b &lt;= a 时)，shiftIndex 为 a - b 的下标，否则 -1。 */
+    private final double[] shiftBinomial;
+    private final int[] shiftIndex;
+
+    /** 各层在节点数组中的起始偏移。 */
+    private final int[] levelStart;
+    private final int cellCount;
+    private final double[] multipole;
+    private final double[] local;
+    private final double[] cellMass;
+
+    /** 按叶节点排序后的天体序号与各叶节点的起止位置。 */
+    private final int[] sorted;
+    private final int[] leafOf;
+    private final int[] leafStart;
+
+    private double originX;
+    private double originY;
+    private double originZ;
+    private double rootSize;
+
+    /** 按节点偏移缓存的核函数 Taylor 系数，每层 M2L 前重算。 */
+    private final double[] taylor;
+    private final double[] monomial;
+    private final double[] powX;
+    private final double[] powY;
+    private final double[] powZ;
+
+    /** 误差估计用的多极子加速度暂存。 */
+    private final double[] sampleAx;
+    private final double[] sampleAy;
+    private final double[] sampleAz;
+
+    public FmmGravity(SimulationConfig config) {
+        this(config, config.expansionOrder() != null ? config.expansionOrder() : DEFAULT_EXPANSION_ORDER);
+    }
+
+    /**
+     * @param expansionOrder 多极与局部展开的截断阶数 p；越大越精确，M2L 成本约按 p^6 增长
+     */
+    public FmmGravity(SimulationConfig config, int expansionOrder) {
+        List<BodySpec> specs = config.bodies();
+        this.n = specs.size();
+        this.ids = new String[n];
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = specs.get(i).id();
+            masses[i] = specs.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+        this.order = expansionOrder;
+        this.leafLevel = leafLevelFor(n);
+
+        int maxDegree = 2 * order;
+        this.coefficientCount = termsUpTo(maxDegree);
+        this.termCount = termsUpTo(order);
+        this.ex = new int[coefficientCount];
+        this.ey = new int[coefficientCount];
+        this.ez = new int[coefficientCount];
+        int[][][] index = new int[maxDegree + 1][maxDegree + 1][maxDegree + 1];
+        int k = 0;
+        for (int degree = 0; degree <= maxDegree; degree++) {
+            for (int a = degree; a >= 0; a--) {
+                for (int b = degree - a; b >= 0; b--) {
+                    int c = degree - a - b;
+                    ex[k] = a;
+                    ey[k] = b;
+                    ez[k] = c;
+                    index[a][b][c] = k++;
+                }
+            }
+        }
+        this.minusOne = new int[coefficientCount][3];
+        this.minusTwo = new int[coefficientCount][3];
+        for (int t = 0; t < coefficientCount; t++) {
+            int[] e = {ex[t], ey[t], ez[t]};
+            for (int axis = 0; axis < 3; axis++) {
+                int[] one = e.clone();
+                one[axis] -= 1;
+                minusOne[t][axis] = one[axis] >= 0 ? index[one[0]][one[1]][one[2]] : -1;
+                int[] two = e.clone();
+                two[axis] -= 2;
+                minusTwo[t][axis] = two[axis] >= 0 ? index[two[0]][two[1]][two[2]] : -1;
+            }
+        }
+        this.sumIndex = new int[termCount * termCount];
+        this.m2l = new double[termCount * termCount];
+        this.shiftBinomial = new double[termCount * termCount];
+        this.shiftIndex = new int[termCount * termCount];
+        for (int a = 0; a < termCount; a++) {
+            double sign = ((ex[a] + ey[a] + ez[a]) & 1) == 0 ? 1.0 : -1.0;
+            for (int b = 0; b < termCount; b++) {
+                int slot = a * termCount + b;
+                sumIndex[slot] = index[ex[a] + ex[b]][ey[a] + ey[b]][ez[a] + ez[b]];
+                m2l[slot] = sign * binomial(ex[a] + ex[b], ex[a]) * binomial(ey[a] + ey[b], ey[a])
+                        * binomial(ez[a] + ez[b], ez[a]);
+                boolean below = ex[b] <= ex[a] && ey[b] <= ey[a] && ez[b] <= ez[a];
+                shiftIndex[slot] = below ? index[ex[a] - ex[b]][ey[a] - ey[b]][ez[a] - ez[b]] : -1;
+                shiftBinomial[slot] = below
+                        ? binomial(ex[a], ex[b]) * binomial(ey[a], ey[b]) * binomial(ez[a], ez[b]) : 0.0;
+            }
+        }
+
+        this.levelStart = new int[leafLevel + 2];
+        int cells = 0;
+        for (int level = 0; level <= leafLevel; level++) {
+            levelStart[level] = cells;
+            cells += 1 << (3 * level);
+        }
+        levelStart[leafLevel + 1] = cells;
+        this.cellCount = cells;
+        this.multipole = new double[cellCount * termCount];
+        this.local = new double[cellCount * termCount];
+        this.cellMass = new double[cellCount];
+        int leaves = 1 << (3 * leafLevel);
+        this.sorted = new int[n];
+        this.leafOf = new int[n];
+        this.leafStart = new int[leaves + 1];
+        int offsets = 2 * OFFSET_RANGE + 1;
+        this.taylor = new double[offsets * offsets * offsets * coefficientCount];
+        this.monomial = new double[termCount];
+        this.powX = new double[order + 1];
+        this.powY = new double[order + 1];
+        this.powZ = new double[order + 1];
+        this.sampleAx = new double[n];
+        this.sampleAy = new double[n];
+        this.sampleAz = new double[n];
+    }
+
+    /** 按天体数量选择叶层级，使每个叶节点平均约有 {@value #TARGET_LEAF_OCCUPANCY} 个天体。 */
+    static int leafLevelFor(int bodyCount) {
+        int level = MIN_LEVEL;
+        while (level < MAX_LEVEL && (long) TARGET_LEAF_OCCUPANCY << (3 * level) < bodyCount) {
+            level++;
+        }
+        return level;
+    }
+
+    @Override
+    public void accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        sortIntoLeaves(px, py, pz, atStep, atTime);
+        Arrays.fill(multipole, 0.0);
+        Arrays.fill(local, 0.0);
+        Arrays.fill(cellMass, 0.0);
+        particleToMultipole(px, py, pz);
+        for (int level = leafLevel; level > 0; level--) {
+            multipoleToMultipole(level);
+        }
+        for (int level = MIN_LEVEL; level <= leafLevel; level++) {
+            if (level > MIN_LEVEL) {
+                localToLocal(level);
+            }
+            multipoleToLocal(level);
+        }
+        int side = 1 << leafLevel;
+        int leafBase = levelStart[leafLevel];
+        for (int cell = 0; cell < leafStart.length - 1; cell++) {
+            if (leafStart[cell] == leafStart[cell + 1]) {
+                continue;
+            }
+            int ix = cell % side;
+            int iy = (cell / side) % side;
+            int iz = cell / (side * side);
+            localToParticle(leafBase + cell, leafLevel, ix, iy, iz, px, py, pz, ax, ay, az);
+            particleToParticle(cell, ix, iy, iz, px, py, pz, ax, ay, az, atStep, atTime);
+        }
+    }
+
+    /**
+     * 抽样估计当前展开阶数带来的相对力误差：完成一次多极子力计算后，对至多
+     * {@value BarnesHutGravity#ERROR_SAMPLE_COUNT} 个等距抽样天体与直接求和比较，返回相对误差的均方根。
+     *
+     * @throws NumericalInstabilityException 同 {@link #accelerations}
+     */
+    public double estimateRelativeError(double[] px, double[] py, double[] pz, long atStep, double atTime) {
+        if (n < 2) {
+            return 0.0;
+        }
+        accelerations(px, py, pz, sampleAx, sampleAy, sampleAz, atStep, atTime);
+        int stride = Math.max(1, n / BarnesHutGravity.ERROR_SAMPLE_COUNT);
+        double sum = 0.0;
+        int samples = 0;
+        for (int i = 0; i < n; i += stride) {
+            double dax = 0.0;
+            double day = 0.0;
+            double daz = 0.0;
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    double dx = px[j] - px[i];
+                    double dy = py[j] - py[i];
+                    double dz = pz[j] - pz[i];
+                    double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                    double factor = g * masses[j] / (r2 * Math.sqrt(r2));
+                    dax += factor * dx;
+                    day += factor * dy;
+                    daz += factor * dz;
+                }
+            }
+            double reference = Math.sqrt(dax * dax + day * day + daz * daz);
+            if (reference > 0.0) {
+                double errX = sampleAx[i] - dax;
+                double errY = sampleAy[i] - day;
+                double errZ = sampleAz[i] - daz;
+                double relative = Math.sqrt(errX * errX + errY * errY + errZ * errZ) / reference;
+                sum += relative * relative;
+                samples++;
+            }
+        }
+        return samples == 0 ? 0.0 : Math.sqrt(sum / samples);
+    }
+
+    /** 叶节点所在层级，仅供测试观察。 */
+    int leafLevel() {
+        return leafLevel;
+    }
+
+    /** 计算包围立方体，并按叶节点对天体做计数排序。 */
+    private void sortIntoLeaves(double[] px, double[] py, double[] pz, long atStep, double atTime) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isFinite(px[i]) || !Double.isFinite(py[i]) || !Double.isFinite(pz[i])) {
+                double bad = !Double.isFinite(px[i]) ? px[i] : !Double.isFinite(py[i]) ? py[i] : pz[i];
+                throw new NumericalInstabilityException(
+                        "天体位置出现非有限数值，无法构建多极子网格；请减小时间步长或增大软化长度",
+                        atStep, ids[i], "position", atTime, NBodyIntegrator.finiteValueText(bad));
+            }
+            minX = Math.min(minX, px[i]);
+            minY = Math.min(minY, py[i]);
+            minZ = Math.min(minZ, pz[i]);
+            maxX = Math.max(maxX, px[i]);
+            maxY = Math.max(maxY, py[i]);
+            maxZ = Math.max(maxZ, pz[i]);
+        }
+        double extent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        rootSize = Math.max(extent * (1.0 + 1e-9), Double.MIN_NORMAL);
+        originX = 0.5 * (minX + maxX) - 0.5 * rootSize;
+        originY = 0.5 * (minY + maxY) - 0.5 * rootSize;
+        originZ = 0.5 * (minZ + maxZ) - 0.5 * rootSize;
+
+        int side = 1 << leafLevel;
+        double scale = side / rootSize;
+        Arrays.fill(leafStart, 0);
+        for (int i = 0; i < n; i++) {
+            int ix = clamp((int) ((px[i] - originX) * scale), side);
+            int iy = clamp((int) ((py[i] - originY) * scale), side);
+            int iz = clamp((int) ((pz[i] - originZ) * scale), side);
+            int leaf = (iz * side + iy) * side + ix;
+            leafOf[i] = leaf;
+            leafStart[leaf + 1]++;
+        }
+        for (int leaf = 0; leaf < leafStart.length - 1; leaf++) {
+            leafStart[leaf + 1] += leafStart[leaf];
+        }
+        // 借用 leafStart 的前一格作为写入游标，填充后整体右移恢复
+        for (int i = 0; i < n; i++) {
+            sorted[leafStart[leafOf[i]]++] = i;
+        }
+        for (int leaf = leafStart.length - 1; leaf > 0; leaf--) {
+            leafStart[leaf] = leafStart[leaf - 1];
+        }
+        leafStart[0] = 0;
+    }
+
+    private void particleToMultipole(double[] px, double[] py, double[] pz) {
+        int side = 1 << leafLevel;
+        int leafBase = levelStart[leafLevel];
+        for (int leaf = 0; leaf < leafStart.length - 1; leaf++) {
+            int cell = leafBase + leaf;
+            double cx = cellCenter(originX, leaf % side, leafLevel);
+            double cy = cellCenter(originY, (leaf / side) % side, leafLevel);
+            double cz = cellCenter(originZ, leaf / (side * side), leafLevel);
+            for (int s = leafStart[leaf]; s < leafStart[leaf + 1]; s++) {
+                int i = sorted[s];
+                monomials(px[i] - cx, py[i] - cy, pz[i] - cz);
+                double m = masses[i];
+                cellMass[cell] += m;
+                for (int t = 0; t < termCount; t++) {
+                    multipole[cell * termCount + t] += m * monomial[t];
+                }
+            }
+        }
+    }
+
+    /** 把 level 层各节点的多极矩平移到父节点中心并累加。 */
+    private void multipoleToMultipole(int level) {
+        int side = 1 << level;
+        int base = levelStart[level];
+        int parentBase = levelStart[level - 1];
+        int parentSide = side >> 1;
+        double offset = 0.25 * rootSize / parentSide;
+        for (int c = 0; c < 1 << (3 * level); c++) {
+            int cell = base + c;
+            if (cellMass[cell] == 0.0) {
+                continue;
+            }
+            int ix = c % side;
+            int iy = (c / side) % side;
+            int iz = c / (side * side);
+            int parent = parentBase + ((iz >> 1) * parentSide + (iy >> 1)) * parentSide + (ix >> 1);
+            // 子节点中心相对父节点中心的偏移为 ±四分之一父节点边长
+            monomials((ix & 1) != 0 ? offset : -offset, (iy & 1) != 0 ? offset : -offset,
+                    (iz & 1) != 0 ? offset : -offset);
+            cellMass[parent] += cellMass[cell];
+            for (int a = 0; a < termCount; a++) {
+                double sum = 0.0;
+                for (int b = 0; b <= a; b++) {
+                    int shifted = shiftIndex[a * termCount + b];
+                    if (shifted >= 0) {
+                        sum += shiftBinomial[a * termCount + b] * multipole[cell * termCount + b] * monomial[shifted];
+                    }
+                }
+                multipole[parent * termCount + a] += sum;
+            }
+        }
+    }
+
+    /**
+     * 对 level 层每个非空节点，累加其相互作用表(父节点邻居的子节点中不相邻者)的多极贡献。
+     * 同层节点间的中心差只有 7^3 种整数倍节点边长，核函数 Taylor 系数按偏移预先算好后复用。
+     */
+    private void multipoleToLocal(int level) {
+        int side = 1 << level;
+        int base = levelStart[level];
+        double width = rootSize / side;
+        for (int oz = -OFFSET_RANGE; oz <= OFFSET_RANGE; oz++) {
+            for (int oy = -OFFSET_RANGE; oy <= OFFSET_RANGE; oy++) {
+                for (int ox = -OFFSET_RANGE; ox <= OFFSET_RANGE; ox++) {
+                    if (Math.abs(ox) > 1 || Math.abs(oy) > 1 || Math.abs(oz) > 1) {
+                        kernelTaylor(ox * width, oy * width, oz * width, offsetSlot(ox, oy, oz));
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < 1 << (3 * level); c++) {
+            int target = base + c;
+            if (cellMass[target] == 0.0) {
+                continue;
+            }
+            int ix = c % side;
+            int iy = (c / side) % side;
+            int iz = c / (side * side);
+            int loX = Math.max(0, ((ix >> 1) - 1) << 1);
+            int hiX = Math.min(side - 1, (((ix >> 1) + 1) << 1) + 1);
+            int loY = Math.max(0, ((iy >> 1) - 1) << 1);
+            int hiY = Math.min(side - 1, (((iy >> 1) + 1) << 1) + 1);
+            int loZ = Math.max(0, ((iz >> 1) - 1) << 1);
+            int hiZ = Math.min(side - 1, (((iz >> 1) + 1) << 1) + 1);
+            for (int sz = loZ; sz <= hiZ; sz++) {
+                for (int sy = loY; sy <= hiY; sy++) {
+                    for (int sx = loX; sx <= hiX; sx++) {
+                        if (Math.abs(sx - ix) <= 1 && Math.abs(sy - iy) <= 1 && Math.abs(sz - iz) <= 1) {
+                            continue;
+                        }
+                        int source = base + (sz * side + sy) * side + sx;
+                        if (cellMass[source] == 0.0) {
+                            continue;
+                        }
+                        translate(source, target, offsetSlot(ix - sx, iy - sy, iz - sz));
+                    }
+                }
+            }
+        }
+    }
+
+    /** M2L：源节点多极矩转为目标节点局部系数，taylorOffset 指向目标中心减源中心处的核函数系数。 */
+    private void translate(int source, int target, int taylorOffset) {
+        int sourceOffset = source * termCount;
+        int targetOffset = target * termCount;
+        for (int a = 0; a < termCount; a++) {
+            int row = a * termCount;
+            double sum = 0.0;
+            for (int b = 0; b < termCount; b++) {
+                sum += m2l[row + b] * taylor[taylorOffset + sumIndex[row + b]] * multipole[sourceOffset + b];
+            }
+            local[targetOffset + a] += sum;
+        }
+    }
+
+    /** L2L：父节点局部系数平移到 level 层各子节点中心。 */
+    private void localToLocal(int level) {
+        int side = 1 << level;
+        int base = levelStart[level];
+        int parentBase = levelStart[level - 1];
+        int parentSide = side >> 1;
+        double offset = 0.25 * rootSize / parentSide;
+        for (int c = 0; c < 1 << (3 * level); c++) {
+            int cell = base + c;
+            if (cellMass[cell] == 0.0) {
+                continue;
+            }
+            int ix = c % side;
+            int iy = (c / side) % side;
+            int iz = c / (side * side);
+            int parent = parentBase + ((iz >> 1) * parentSide + (iy >> 1)) * parentSide + (ix >> 1);
+            monomials((ix & 1) != 0 ? offset : -offset, (iy & 1) != 0 ? offset : -offset,
+                    (iz & 1) != 0 ? offset : -offset);
+            // L'_b = sum_{a >= b} C(a, b) L_a t^{a - b}
+            for (int b = 0; b < termCount; b++) {
+                double sum = 0.0;
+                for (int a = b; a < termCount; a++) {
+                    int shifted = shiftIndex[a * termCount + b];
+                    if (shifted >= 0) {
+                        sum += shiftBinomial[a * termCount + b] * local[parent * termCount + a] * monomial[shifted];
+                    }
+                }
+                local[cell * termCount + b] += sum;
+            }
+        }
+    }
+
+    /** L2P：对叶节点内天体求局部展开的梯度，a = G * grad(phi)。 */
+    private void localToParticle(int cell, int level, int ix, int iy, int iz, double[] px, double[] py,
+            double[] pz, double[] ax, double[] ay, double[] az) {
+        double cx = cellCenter(originX, ix, level);
+        double cy = cellCenter(originY, iy, level);
+        double cz = cellCenter(originZ, iz, level);
+        int leaf = cell - levelStart[leafLevel];
+        int offset = cell * termCount;
+        for (int s = leafStart[leaf]; s < leafStart[leaf + 1]; s++) {
+            int i = sorted[s];
+            monomials(px[i] - cx, py[i] - cy, pz[i] - cz);
+            double gx = 0.0;
+            double gy = 0.0;
+            double gz = 0.0;
+            for (int a = 1; a < termCount; a++) {
+                double coefficient = local[offset + a];
+                int mx = minusOne[a][0];
+                int my = minusOne[a][1];
+                int mz = minusOne[a][2];
+                if (mx >= 0) {
+                    gx += coefficient * ex[a] * monomial[mx];
+                }
+                if (my >= 0) {
+                    gy += coefficient * ey[a] * monomial[my];
+                }
+                if (mz >= 0) {
+                    gz += coefficient * ez[a] * monomial[mz];
+                }
+            }
+            ax[i] = g * gx;
+            ay[i] = g * gy;
+            az[i] = g * gz;
+        }
+    }
+
+    /** P2P：叶节点内天体与相邻 27 个叶节点中天体逐对求和，累加到 L2P 结果上。 */
+    private void particleToParticle(int leaf, int ix, int iy, int iz, double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        int side = 1 << leafLevel;
+        for (int s = leafStart[leaf]; s < leafStart[leaf + 1]; s++) {
+            int i = sorted[s];
+            double xi = px[i];
+            double yi = py[i];
+            double zi = pz[i];
+            double sax = 0.0;
+            double say = 0.0;
+            double saz = 0.0;
+            for (int nz = Math.max(0, iz - 1); nz <= Math.min(side - 1, iz + 1); nz++) {
+                for (int ny = Math.max(0, iy - 1); ny <= Math.min(side - 1, iy + 1); ny++) {
+                    for (int nx = Math.max(0, ix - 1); nx <= Math.min(side - 1, ix + 1); nx++) {
+                        int neighbour = (nz * side + ny) * side + nx;
+                        for (int t = leafStart[neighbour]; t < leafStart[neighbour + 1]; t++) {
+                            int j = sorted[t];
+                            if (j == i) {
+                                continue;
+                            }
+                            double dx = px[j] - xi;
+                            double dy = py[j] - yi;
+                            double dz = pz[j] - zi;
+                            double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                            if (!Double.isFinite(r2) || r2 <= 1e-300) {
+                                throw new NumericalInstabilityException(
+                                        "天体间距过小，无法计算有限引力加速度；请增大软化长度",
+                                        atStep, ids[Math.min(i, j)] + "," + ids[Math.max(i, j)],
+                                        "pairDistanceSquared", atTime,
+                                        Double.isFinite(r2) ? Double.toString(r2)
+                                                : NBodyIntegrator.finiteValueText(r2));
+                            }
+                            double invR3 = 1.0 / (r2 * Math.sqrt(r2));
+                            double factor = g * masses[j] * invR3;
+                            sax += factor * dx;
+                            say += factor * dy;
+                            saz += factor * dz;
+                        }
+                    }
+                }
+            }
+            ax[i] += sax;
+            ay[i] += say;
+            az[i] += saz;
+        }
+    }
+
+    /** 核函数在 z 处阶数不超过 2p 的 Taylor 系数 b_k，写入 taylor[offset ...]。 */
+    private void kernelTaylor(double zx, double zy, double zz, int offset) {
+        double r2 = zx * zx + zy * zy + zz * zz + eps2;
+        taylor[offset] = 1.0 / Math.sqrt(r2);
+        for (int t = 1; t < coefficientCount; t++) {
+            int degree = ex[t] + ey[t] + ez[t];
+            int[] one = minusOne[t];
+            int[] two = minusTwo[t];
+            double first = (one[0] >= 0 ? zx * taylor[offset + one[0]] : 0.0)
+                    + (one[1] >= 0 ? zy * taylor[offset + one[1]] : 0.0)
+                    + (one[2] >= 0 ? zz * taylor[offset + one[2]] : 0.0);
+            double second = (two[0] >= 0 ? taylor[offset + two[0]] : 0.0)
+                    + (two[1] >= 0 ? taylor[offset + two[1]] : 0.0)
+                    + (two[2] >= 0 ? taylor[offset + two[2]] : 0.0);
+            taylor[offset + t] = ((2 * degree - 1) * first - (degree - 1) * second) / (degree * r2);
+        }
+    }
+
+    /** 节点偏移 (ox, oy, oz) 对应的核函数系数在 taylor 中的起始下标。 */
+    private int offsetSlot(int ox, int oy, int oz) {
+        int width = 2 * OFFSET_RANGE + 1;
+        return (((oz + OFFSET_RANGE) * width + oy + OFFSET_RANGE) * width + ox + OFFSET_RANGE) * coefficientCount;
+    }
+
+    /** 阶数不超过 p 的单项式 d^k，写入 monomial。 */
+    private void monomials(double dx, double dy, double dz) {
+        powX[0] = 1.0;
+        powY[0] = 1.0;
+        powZ[0] = 1.0;
+        for (int k = 1; k <= order; k++) {
+            powX[k] = powX[k - 1] * dx;
+            powY[k] = powY[k - 1] * dy;
+            powZ[k] = powZ[k - 1] * dz;
+        }
+        for (int t = 0; t < termCount; t++) {
+            monomial[t] = powX[ex[t]] * powY[ey[t]] * powZ[ez[t]];
+        }
+    }
+
+    private double cellCenter(double origin, int index, int level) {
+        return origin + (index + 0.5) * rootSize / (1 << level);
+    }
+
+    private static int clamp(int index, int side) {
+        return index < 0 ? 0 : Math.min(index, side - 1);
+    }
+
+    private static int termsUpTo(int degree) {
+        return (degree + 1) * (degree + 2) * (degree + 3) / 6;
+    }
+
+    private static double binomial(int n, int k) {
+        double result = 1.0;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package com.threebody.core;
+
+/**
+ * 加速度计算 SPI。积分方案每次力计算都经由此接口，实现可替换为近似或并行算法。
+ */
+@FunctionalInterface
+public interface ForceField {
+
+    /**
+     * 计算位置 (x, y, z) 处各天体的加速度(m/s^2)，覆盖写入 ax/ay/az。
+     *
+     * @param atStep 所属步数，仅用于异常上下文
+     * @param atTime 所属模拟时间(s)，仅用于异常上下文
+     * @throws NumericalInstabilityException 无法得到有限加速度时抛出
+     */
+    void accelerations(double[] x, double[] y, double[] z,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime);
+
+    /**
+     * 计算加速度，并在同一遍两两循环中把未软化距离记入已 {@link PairProximity#begin begin} 的 proximity。
+     * 默认实现不融合：只计算加速度并返回 false，proximity 保持不变，由调用方另行遍历。
+     *
+     * @return proximity 是否已按本次位置填充
+     */
+    default boolean accelerations(double[] x, double[] y, double[] z,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime, PairProximity proximity) {
+        accelerations(x, y, z, ax, ay, az, atStep, atTime);
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package com.threebody.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * 可选的引力求解方式，决定会话使用的 {@link ForceField}。
+ */
+public enum ForceSolverKind {
+
+    /** 逐对直接求和，O(n^2)，结果精确(软化核意义下)；天体较多且有多核时按行并行，结果不变。 */
+    DIRECT,
+
+    /** Barnes-Hut 八叉树，O(n log n)；远处节点按质心单极近似，精度由张角控制。 */
+    BARNES_HUT,
+
+    /** 快速多极子方法，O(n)；笛卡尔 Taylor 展开，精度由展开阶数控制。 */
+    FMM,
+
+    /** 按天体数量在 DIRECT、BARNES_HUT 与 FMM 之间自动选择，见 {@link #resolve(int)}。 */
+    AUTO;
+
+    /** 不超过该数量时 AUTO 选择八叉树；更多天体时多极子的线性成本占优。 */
+    static final int AUTO_TREE_MAX_BODIES = 2000;
+
+    /**
+     * 向量内核的构造器：启动参数包含 {@code --add-modules jdk.incubator.vector} 时直接求和使用向量内核，
+     * 否则为 null。该类单独编译(见模块 pom)，这里只按名称加载。
+     */
+    private static final Constructor<? extends ForceField> VECTOR_KERNEL = vectorKernel();
+
+    /** 不少于该数量时向量内核快于标量对称求和。 */
+    static final int VECTOR_MIN_BODIES = 8;
+
+    /**
+     * 为给定配置创建新的加速度计算实例；AUTO 按天体数量解析后创建。
+     * 直接求和依次优先选择多核并行、向量、标量内核，三者结果逐位相同。
+     */
+    public ForceField create(SimulationConfig config) {
+        return switch (resolve(config.bodyCount())) {
+            case BARNES_HUT -> new BarnesHutGravity(config);
+            case FMM -> new FmmGravity(config);
+            default -> createDirect(config);
+        };
+    }
+
+    private static ForceField createDirect(SimulationConfig config) {
+        int n = config.bodyCount();
+        if (ParallelDirectGravity.worthwhile(n)) {
+            return new ParallelDirectGravity(config);
+        }
+        if (VECTOR_KERNEL != null && n >= VECTOR_MIN_BODIES) {
+            try {
+                return VECTOR_KERNEL.newInstance(config);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return new DirectGravity(config);
+    }
+
+    private static Constructor<? extends ForceField> vectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return Class.forName("com.threebody.core.VectorDirectGravity")
+                    .asSubclass(ForceField.class)
+                    .getConstructor(SimulationConfig.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析为实际使用的求解方式。AUTO 的交叉点按相近精度下(默认展开阶数的多极子约相当于张角 0.3 的八叉树)
+     * 单次力计算的实测成本确定：
+     * 天体数不超过直接求和上限 {@value PhysicalConstants#MAX_BODY_COUNT} 时直接求和(结果精确且常数因子最小)，不超过 {@value #AUTO_TREE_MAX_BODIES}
+     * 时八叉树，更多时多极子；其他取值原样返回。
+     */
+    public ForceSolverKind resolve(int bodyCount) {
+        if (this != AUTO) {
+            return this;
+        }
+        if (bodyCount <= PhysicalConstants.MAX_BODY_COUNT) {
+            return DIRECT;
+        }
+        return bodyCount <= AUTO_TREE_MAX_BODIES ? BARNES_HUT : FMM;
+    }
+
+    /** 该求解方式允许的最多天体数量。 */
+    public int maxBodyCount() {
+        return this == DIRECT ? PhysicalConstants.MAX_BODY_COUNT : PhysicalConstants.MAX_TREE_BODY_COUNT;
+    }
+
+    /**
+     * 按名称解析，忽略大小写；null 或空白返回默认 {@link #DIRECT}，无法识别时返回 null。
+     */
+    public static ForceSolverKind fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return DIRECT;
+        }
+        for (ForceSolverKind kind : values()) {
+            if (kind.name().equalsIgnoreCase(name.trim())) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
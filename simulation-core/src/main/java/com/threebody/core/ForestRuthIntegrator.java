@@ -0,0 +1,60 @@
+package com.threebody.core;
+
+/**
+ * Forest-Ruth 四阶辛方法，按原文的漂-踢-漂(位置 Verlet)形式展开，θ = 1/(2 - 2^(1/3))：
+ * 漂移系数 θ/2, (1-θ)/2, (1-θ)/2, θ/2，踢系数 θ, 1-2θ, θ，每步 3 次力计算。
+ *
+ * <p>与 {@link IntegratorKind#YOSHIDA4} 同为三重跳系数，但力在子步中点而非端点求值，
+ * 不需要跨步缓存加速度。
+ */
+final class ForestRuthIntegrator implements Integrator {
+
+    private static final double THETA = 1.0 / (2.0 - Math.cbrt(2.0));
+    private static final double[] DRIFTS = {THETA / 2.0, (1.0 - THETA) / 2.0, (1.0 - THETA) / 2.0, THETA / 2.0};
+    private static final double[] KICKS = {THETA, 1.0 - 2.0 * THETA, THETA};
+
+    private final double[] ax;
+    private final double[] ay;
+    private final double[] az;
+
+    ForestRuthIntegrator(int bodyCount) {
+        this.ax = new double[bodyCount];
+        this.ay = new double[bodyCount];
+        this.az = new double[bodyCount];
+    }
+
+    @Override
+    public IntegratorKind kind() {
+        return IntegratorKind.FOREST_RUTH;
+    }
+
+    @Override
+    public double step(PhaseSpace current, PhaseSpace next, ForceField forces, long nextStep, double time, double dt) {
+        int n = current.size();
+        next.copyFrom(current);
+        double subTime = time;
+        for (int k = 0; k < KICKS.length; k++) {
+            double drift = DRIFTS[k] * dt;
+            for (int i = 0; i < n; i++) {
+                next.x[i] += drift * next.vx[i];
+                next.y[i] += drift * next.vy[i];
+                next.z[i] += drift * next.vz[i];
+            }
+            subTime += drift;
+            forces.accelerations(next.x, next.y, next.z, ax, ay, az, nextStep, subTime);
+            double kick = KICKS[k] * dt;
+            for (int i = 0; i < n; i++) {
+                next.vx[i] += kick * ax[i];
+                next.vy[i] += kick * ay[i];
+                next.vz[i] += kick * az[i];
+            }
+        }
+        double drift = DRIFTS[KICKS.length] * dt;
+        for (int i = 0; i < n; i++) {
+            next.x[i] += drift * next.vx[i];
+            next.y[i] += drift * next.vy[i];
+            next.z[i] += drift * next.vz[i];
+        }
+        return dt;
+    }
+}
@@ -0,0 +1,307 @@
+package com.threebody.core;
+
+import java.util.List;
+
+/**
+ * 四阶 Hermite 预估-校正积分，配合 Aarseth 式 2 的幂块时间步：每个天体有各自的步长，
+ * 只有到期的天体在块时刻重新计算加速度与加加速度(jerk)，其余天体只做三阶泰勒预估。
+ *
+ * <p>会话的一步对应一个完整块周期：配置步长是最大块步长，周期内天体步长为 dt / 2^level，
+ * 周期结束时所有天体同步到 t + dt 再写出状态，因此步数、归档与节拍都与固定步长方案相同。
+ * 每个周期开始时只从同步状态重新计算加速度、加加速度并按 Aarseth 初始判据 eta_s * |a| / |j| 选择层级，
+ * 不依赖跨周期缓存；从任一已物化状态重新积分都与原运行逐位一致。
+ * 周期内的后续步长按完整 Aarseth 判据
+ * sqrt(eta * (|a||a''| + |a'|^2) / (|a'||a'''| + |a''|^2)) 选择，步长增大只发生在块对齐的时刻。
+ *
+ * <p>Hermite 需要加加速度，按配置质量与软化长度直接逐对求和，不经过会话的 {@link ForceField}。
+ * 块时间以整数刻度表示，避免浮点累加误差破坏块对齐。
+ */
+final class HermiteIntegrator implements Integrator {
+
+    /** 最深层级：最小块步长为 dt / 2^MAX_LEVEL；需要更小步长的天体停在该层级。 */
+    static final int MAX_LEVEL = 32;
+    private static final long CYCLE_TICKS = 1L << MAX_LEVEL;
+    /** 周期内 Aarseth 判据的精度参数。 */
+    private static final double ETA = 0.02;
+    /** 周期起点只有加速度与加加速度可用，初始判据取更保守的系数。 */
+    private static final double ETA_START = 0.01;
+
+    private final int n;
+    private final String[] ids;
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+
+    /** 各天体最近一次校正时的状态：位置、速度、加速度、加加速度与所处刻度。 */
+    private final double[] x0;
+    private final double[] y0;
+    private final double[] z0;
+    private final double[] vx0;
+    private final double[] vy0;
+    private final double[] vz0;
+    private final double[] ax0;
+    private final double[] ay0;
+    private final double[] az0;
+    private final double[] jx0;
+    private final double[] jy0;
+    private final double[] jz0;
+    private final long[] tick0;
+    private final int[] level;
+
+    /** 块时刻所有天体的预估位置与速度。 */
+    private final PhaseSpace predicted;
+    private final double[] ax1;
+    private final double[] ay1;
+    private final double[] az1;
+    private final double[] jx1;
+    private final double[] jy1;
+    private final double[] jz1;
+    private final int[] active;
+
+    /** 各天体被重新计算加速度的累计次数，用于观察块时间步的节省。 */
+    private final long[] evaluations;
+
+    HermiteIntegrator(SimulationConfig config) {
+        List<BodySpec> bodies = config.bodies();
+        this.n = bodies.size();
+        this.ids = new String[n];
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = bodies.get(i).id();
+            masses[i] = bodies.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+        this.x0 = new double[n];
+        this.y0 = new double[n];
+        this.z0 = new double[n];
+        this.vx0 = new double[n];
+        this.vy0 = new double[n];
+        this.vz0 = new double[n];
+        this.ax0 = new double[n];
+        this.ay0 = new double[n];
+        this.az0 = new double[n];
+        this.jx0 = new double[n];
+        this.jy0 = new double[n];
+        this.jz0 = new double[n];
+        this.tick0 = new long[n];
+        this.level = new int[n];
+        this.predicted = new PhaseSpace(n);
+        this.ax1 = new double[n];
+        this.ay1 = new double[n];
+        this.az1 = new double[n];
+        this.jx1 = new double[n];
+        this.jy1 = new double[n];
+        this.jz1 = new double[n];
+        this.active = new int[n];
+        this.evaluations = new long[n];
+    }
+
+    @Override
+    public IntegratorKind kind() {
+        return IntegratorKind.HERMITE;
+    }
+
+    /**
+     * @param forces 未使用：加速度与加加速度由本方案直接求和
+     * @param dt     最大块步长(s)，即一个块周期的时长
+     */
+    @Override
+    public double step(PhaseSpace current, PhaseSpace next, ForceField forces, long nextStep, double time, double dt) {
+        System.arraycopy(current.x, 0, x0, 0, n);
+        System.arraycopy(current.y, 0, y0, 0, n);
+        System.arraycopy(current.z, 0, z0, 0, n);
+        System.arraycopy(current.vx, 0, vx0, 0, n);
+        System.arraycopy(current.vy, 0, vy0, 0, n);
+        System.arraycopy(current.vz, 0, vz0, 0, n);
+        for (int i = 0; i < n; i++) {
+            active[i] = i;
+        }
+        accelerationsAndJerks(current, n, ax0, ay0, az0, jx0, jy0, jz0, nextStep, time);
+        for (int i = 0; i < n; i++) {
+            tick0[i] = 0L;
+            double a = norm(ax0[i], ay0[i], az0[i]);
+            double j = norm(jx0[i], jy0[i], jz0[i]);
+            level[i] = levelFor(j > 0.0 ? ETA_START * a / j : Double.POSITIVE_INFINITY, dt);
+        }
+
+        long blockTick = 0L;
+        while (blockTick < CYCLE_TICKS) {
+            long earliest = Long.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                earliest = Math.min(earliest, tick0[i] + stepTicks(level[i]));
+            }
+            blockTick = earliest;
+            double blockTime = time + dt * ((double) blockTick / CYCLE_TICKS);
+            int activeCount = 0;
+            for (int i = 0; i < n; i++) {
+                if (tick0[i] + stepTicks(level[i]) == blockTick) {
+                    active[activeCount++] = i;
+                }
+                predict(i, dt * ((double) (blockTick - tick0[i]) / CYCLE_TICKS));
+            }
+            accelerationsAndJerks(predicted, activeCount, ax1, ay1, az1, jx1, jy1, jz1, nextStep, blockTime);
+            for (int k = 0; k < activeCount; k++) {
+                correct(active[k], k, blockTick, dt);
+            }
+        }
+
+        System.arraycopy(x0, 0, next.x, 0, n);
+        System.arraycopy(y0, 0, next.y, 0, n);
+        System.arraycopy(z0, 0, next.z, 0, n);
+        System.arraycopy(vx0, 0, next.vx, 0, n);
+        System.arraycopy(vy0, 0, next.vy, 0, n);
+        System.arraycopy(vz0, 0, next.vz, 0, n);
+        return dt;
+    }
+
+    /** 各天体被重新计算加速度的累计次数(含周期起点的同步计算)。 */
+    long evaluations(int body) {
+        return evaluations[body];
+    }
+
+    /** 三阶泰勒预估天体 i 前进 h 秒后的位置与速度，写入 predicted。 */
+    private void predict(int i, double h) {
+        double h2 = h * h / 2.0;
+        double h3 = h * h * h / 6.0;
+        predicted.x[i] = x0[i] + h * vx0[i] + h2 * ax0[i] + h3 * jx0[i];
+        predicted.y[i] = y0[i] + h * vy0[i] + h2 * ay0[i] + h3 * jy0[i];
+        predicted.z[i] = z0[i] + h * vz0[i] + h2 * az0[i] + h3 * jz0[i];
+        predicted.vx[i] = vx0[i] + h * ax0[i] + h2 * jx0[i];
+        predicted.vy[i] = vy0[i] + h * ay0[i] + h2 * jy0[i];
+        predicted.vz[i] = vz0[i] + h * az0[i] + h2 * jz0[i];
+    }
+
+    /**
+     * 用块时刻的加速度与加加速度(位于 ax1 等数组的 slot 处)对天体 i 做 Hermite 校正，
+     * 并按 Aarseth 判据选择下一层级。
+     */
+    private void correct(int i, int slot, long blockTick, double dt) {
+        double h = dt * ((double) stepTicks(level[i]) / CYCLE_TICKS);
+        double h2 = h * h;
+        double h3 = h2 * h;
+        // 由步两端的 a 与 a' 构造 a''(t0) 与 a'''
+        double dax = ax0[i] - ax1[slot];
+        double day = ay0[i] - ay1[slot];
+        double daz = az0[i] - az1[slot];
+        double a2x = (-6.0 * dax - h * (4.0 * jx0[i] + 2.0 * jx1[slot])) / h2;
+        double a2y = (-6.0 * day - h * (4.0 * jy0[i] + 2.0 * jy1[slot])) / h2;
+        double a2z = (-6.0 * daz - h * (4.0 * jz0[i] + 2.0 * jz1[slot])) / h2;
+        double a3x = (12.0 * dax + 6.0 * h * (jx0[i] + jx1[slot])) / h3;
+        double a3y = (12.0 * day + 6.0 * h * (jy0[i] + jy1[slot])) / h3;
+        double a3z = (12.0 * daz + 6.0 * h * (jz0[i] + jz1[slot])) / h3;
+        double c4 = h2 * h2 / 24.0;
+        double c5 = c4 * h / 5.0;
+        double c3 = h3 / 6.0;
+        x0[i] = predicted.x[i] + c4 * a2x + c5 * a3x;
+        y0[i] = predicted.y[i] + c4 * a2y + c5 * a3y;
+        z0[i] = predicted.z[i] + c4 * a2z + c5 * a3z;
+        vx0[i] = predicted.vx[i] + c3 * a2x + c4 * a3x;
+        vy0[i] = predicted.vy[i] + c3 * a2y + c4 * a3y;
+        vz0[i] = predicted.vz[i] + c3 * a2z + c4 * a3z;
+        ax0[i] = ax1[slot];
+        ay0[i] = ay1[slot];
+        az0[i] = az1[slot];
+        jx0[i] = jx1[slot];
+        jy0[i] = jy1[slot];
+        jz0[i] = jz1[slot];
+        tick0[i] = blockTick;
+        if (blockTick == CYCLE_TICKS) {
+            return;
+        }
+
+        // 步末的二阶导数 a''(t1) = a''(t0) + h * a'''，a''' 在步内为常数
+        double snap = norm(a2x + h * a3x, a2y + h * a3y, a2z + h * a3z);
+        double crackle = norm(a3x, a3y, a3z);
+        double a = norm(ax0[i], ay0[i], az0[i]);
+        double j = norm(jx0[i], jy0[i], jz0[i]);
+        double denominator = j * crackle + snap * snap;
+        double desired = denominator > 0.0
+                ? Math.sqrt(ETA * (a * snap + j * j) / denominator)
+                : Double.POSITIVE_INFINITY;
+        int wanted = levelFor(desired, dt);
+        if (wanted < level[i]) {
+            // 块步长每次最多加倍，且新步长必须与当前块时刻对齐
+            int relaxed = level[i] - 1;
+            if (blockTick % stepTicks(relaxed) == 0L) {
+                level[i] = relaxed;
+            }
+        } else {
+            level[i] = wanted;
+        }
+    }
+
+    /**
+     * 对 active 前 count 个天体，用 state 中所有天体的位置与速度求加速度与加加速度，
+     * 按 active 中的序号写入输出数组：
+     * a = G m r / (r^2 + eps^2)^(3/2)，j = G m [v / (r^2 + eps^2)^(3/2) - 3 (r·v) r / (r^2 + eps^2)^(5/2)]。
+     */
+    private void accelerationsAndJerks(PhaseSpace state, int count,
+            double[] ax, double[] ay, double[] az, double[] jx, double[] jy, double[] jz,
+            long atStep, double atTime) {
+        for (int k = 0; k < count; k++) {
+            int i = active[k];
+            double sax = 0.0;
+            double say = 0.0;
+            double saz = 0.0;
+            double sjx = 0.0;
+            double sjy = 0.0;
+            double sjz = 0.0;
+            for (int j = 0; j < n; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double dx = state.x[j] - state.x[i];
+                double dy = state.y[j] - state.y[i];
+                double dz = state.z[j] - state.z[i];
+                double dvx = state.vx[j] - state.vx[i];
+                double dvy = state.vy[j] - state.vy[i];
+                double dvz = state.vz[j] - state.vz[i];
+                double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                if (!Double.isFinite(r2) || r2 <= 1e-300) {
+                    throw new NumericalInstabilityException(
+                            "天体间距过小，无法计算有限引力加速度；请增大软化长度",
+                            atStep, ids[Math.min(i, j)] + "," + ids[Math.max(i, j)],
+                            "pairDistanceSquared", atTime,
+                            Double.isFinite(r2) ? Double.toString(r2) : NBodyIntegrator.finiteValueText(r2));
+                }
+                double invR2 = 1.0 / r2;
+                double gmInvR3 = g * masses[j] * invR2 * Math.sqrt(invR2);
+                double rv3 = 3.0 * (dx * dvx + dy * dvy + dz * dvz) * invR2;
+                sax += gmInvR3 * dx;
+                say += gmInvR3 * dy;
+                saz += gmInvR3 * dz;
+                sjx += gmInvR3 * (dvx - rv3 * dx);
+                sjy += gmInvR3 * (dvy - rv3 * dy);
+                sjz += gmInvR3 * (dvz - rv3 * dz);
+            }
+            ax[k] = sax;
+            ay[k] = say;
+            az[k] = saz;
+            jx[k] = sjx;
+            jy[k] = sjy;
+            jz[k] = sjz;
+            evaluations[i]++;
+        }
+    }
+
+    /** 满足 dt / 2^level 不超过期望步长的最浅层级，限制在 [0, MAX_LEVEL]。 */
+    private static int levelFor(double desiredSeconds, double dt) {
+        if (!(desiredSeconds < dt)) {
+            return 0;
+        }
+        if (!(desiredSeconds > 0.0)) {
+            return MAX_LEVEL;
+        }
+        int wanted = (int) Math.ceil(Math.log(dt / desiredSeconds) / Math.log(2.0));
+        return Math.min(MAX_LEVEL, Math.max(0, wanted));
+    }
+
+    private static long stepTicks(int level) {
+        return CYCLE_TICKS >>> level;
+    }
+
+    private static double norm(double x, double y, double z) {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+}
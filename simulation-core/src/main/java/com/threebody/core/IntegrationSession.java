@@ -0,0 +1,1424 @@
+package com.threebody.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongPredicate;
+
+/**
+ * 有状态积分会话。由配置构造一次，位置与速度保存在扁平的结构数组(SoA)
+ * {@link PhaseSpace} 缓冲区中并跨步复用，推进过程不分配对象；
+ * 只有调用 {@link #state()} 时才物化 {@link SimulationState}。
+ *
+ * <p>积分方案由 {@link SimulationConfig#integrator()} 选择，加速度由 {@link SimulationConfig#forceSolver()}
+ * 选择(默认 {@link DirectGravity})；两者都可以通过构造参数替换。默认 RK4 的运算顺序与历史实现一致，结果逐位相同。
+ * 会话持有可变缓冲区，不是线程安全的，只能由单个线程使用。
+ *
+ * <p>近距离检测与最近天体对来自 {@link PairProximity}：积分方案的最后一次力计算恰在新位置上进行
+ * (见 {@link Integrator#finalForcesAtNextPositions()})且引力内核支持融合时，直接采用力计算顺带记录的距离；
+ * 否则在首次查询时单独遍历一次。两种方式都不分配对象。{@link #metrics(double)} 同样复用这些结果，
+ * 在 {@link #trackPotentialEnergy(LongPredicate)} 指定的步上还复用力计算顺带累加的势能。
+ *
+ * <p>配置开启 {@link SimulationConfig#chaosIndicators()} 时，相空间在天体之后追加 n 个切向量槽位，
+ * 由 {@link VariationalGravity} 在同一遍力计算中求出切向量加速度，随状态一起积分；每步结束后把切向量
+ * 归一化并累计对数增长，得到有限时间最大 Lyapunov 指数与 MEGNO(见 {@link #metrics(double)})。
+ * 状态部分与不开启时逐位相同。指标从会话开始或最近一次 {@link #load(SimulationState)} 起算。
+ *
+ * <p>配置开启 {@link SimulationConfig#analyticBinaries()} 时，两体配置整体由 {@link KeplerBinary} 解析推进；
+ * 多体配置检查最近天体对，束缚且动力学孤立(扰动比不超过 {@link KeplerBinary#ISOLATION_LIMIT})时把它换成位于质心的
+ * 复合天体，其余天体交给一个降阶会话积分，双星内部的相对运动从历元解析求出，快照仍给出两个成员的精确位置。
+ * 外部天体靠近、扰动比超过孤立上限的 {@link #SPLIT_FACTOR} 倍时，在下一步开始前拆回逐个积分。
+ * 两种情况都要求软化长度相对近心距可以忽略。
+ *
+ * <p>配置给出 {@link SimulationConfig#escapeRetirementRadiusMeters()} 时同样检查逃逸天体：相对其余天体非束缚、
+ * 向外运动且与其余天体质心的距离超过退役半径的天体退役。退役天体与其余天体(视为位于质心的点质量)组成的两体双曲轨道
+ * 由 {@link KeplerBinary} 解析推进，其余天体交给降阶会话，不再与退役天体两两计算引力与距离；降阶会话的结果按两体解
+ * 给出的质心平移，保留退役天体对整体的牵引。双曲轨道上远去的天体始终满足判据，退役实际上不会撤销；降阶会话可以继续
+ * 退役其他天体。
+ *
+ * <p>配置开启 {@link SimulationConfig#regularizedEncounters()} 时检查最近天体对：已是近距离事件，或相互接近且动力学
+ * 时间短于 {@link #ENCOUNTER_ENTRY_STEPS} 步，或相互远离但距离与动力学时间仍在 {@link #ENCOUNTER_EXIT_FACTOR} 倍
+ * 近距离阈值与 {@link #ENCOUNTER_EXIT_STEPS} 步之内，且外部扰动低于 {@link RegularizedEncounter#ISOLATION_LIMIT} 时，
+ * 这对天体改由 {@link RegularizedEncounter} 在 KS 坐标中积分，与解析双星一样以位于质心的复合天体参与降阶会话，
+ * 全局步长不变；始终束缚的紧密天体对保持正则化。
+ *
+ * <p>逃逸天体与可解析双星在载入状态后、以及步数为 {@link #BINARY_CHECK_INTERVAL} 整数倍的步开始前检查。
+ * 检查按绝对步数对齐，从任意一步 {@link #load} 后继续与不中断的运行在同样的步上建立结构；两次检查之间沿用
+ * 已建立的双星及其历元，退役集合不变时退役轨道一直保留退役那一步的历元，降阶会话连续积分，不分配对象。载入状态时历元取自载入的状态，之后与不中断的运行只差舍入误差。
+ * 近距离天体对不涉及历元，每步开始前由当前状态重新导出，KS 坐标与降阶会话都从步首状态建立，
+ * 从任意一步载入后与连续运行逐位一致；积分方案不在新位置上融合记录距离时每步还需单独遍历一次天体对。
+ * 推进失败时降阶会话重新载入步首状态，正则化天体对重新导出，会话回到推进前。
+ * 通过显式积分方案与加速度构造的会话不启用这些解析与正则化路径。
+ */
+public final class IntegrationSession {
+
+    /**
+     * 检查可解析双星与逃逸天体的间隔步数；检查需要一次最近天体对与 O(n) 的孤立、逃逸判据。
+     * 按绝对步数对齐，与会话从哪一步载入无关。
+     */
+    static final int BINARY_CHECK_INTERVAL = 64;
+
+    /** 复合双星的扰动比超过孤立上限的该倍数时拆回逐个积分，避免在阈值附近反复合并。 */
+    static final double SPLIT_FACTOR = 4.0;
+
+    /**
+     * 相互接近的最近天体对的动力学时间 d / |v| 短于该步数时即开始正则化：此时逐步积分已无法解析两者的相对运动，
+     * 等到进入近距离阈值再切换就会一步跨过近心点。
+     */
+    static final double ENCOUNTER_ENTRY_STEPS = 10.0;
+
+    /**
+     * 相互远离的天体对在动力学时间短于该步数或相距不到近距离阈值的 {@link #ENCOUNTER_EXIT_FACTOR} 倍时仍然正则化，
+     * 使近心点之后的离开段与进入段一样由 KS 坐标积分。
+     */
+    static final double ENCOUNTER_EXIT_STEPS = 20.0;
+
+    static final double ENCOUNTER_EXIT_FACTOR = 2.0;
+
+    private final SimulationConfig config;
+    private final int n;
+    private final String[] ids;
+    private final double dt;
+    private final Integrator integrator;
+    private final ForceField forces;
+    /** 传给积分方案的力计算：每次计算都让内核顺带记录两两距离。 */
+    private final ForceField trackedForces;
+    /** 是否在状态之后积分切向量(变分方程)。 */
+    private final boolean variational;
+    /** 切向量范数中速度偏差的时间尺度(s)，使位置与速度偏差同量纲。 */
+    private final double tangentScaleSeconds;
+    /** 混沌指标的起算时间(s)。 */
+    private double chaosStartSeconds;
+    /** 切向量范数的累计对数增长 sum ln(|δ_k| / |δ_{k-1}|)。 */
+    private double logGrowth;
+    /** sum t_mid * Δln|δ|，即 MEGNO 定义中的 ∫ s d(ln|δ|)。 */
+    private double megnoWeightedGrowth;
+    /** 瞬时 MEGNO Y(t) 对时间的积分，用于平均 MEGNO。 */
+    private double megnoIntegral;
+    private double lastMegno;
+    private final double nearThreshold;
+    private final PairProximity proximity = new PairProximity();
+    private boolean lastEvaluationFused;
+    /** 需要内核顺带累加势能的步；null 表示不累加。 */
+    private LongPredicate potentialSteps;
+    /** proximity 对应的已完成步数；-1 表示需要重新遍历。 */
+    private long proximityStep = -1L;
+
+    /** 当前状态；推进结果写入 next，全部检查通过后两者交换。 */
+    private PhaseSpace current;
+    private PhaseSpace next;
+
+    private long step;
+    private double simulationTimeSeconds;
+    /** 最近一次推进的实际步长(s)；载入状态后为 0，表示没有可插值的步。 */
+    private double lastStepSeconds;
+
+    /** 是否允许解析推进双星：配置开启、未积分变分方程且由配置选择积分方案。 */
+    private final boolean analyticBinaries;
+    private final double[] masses;
+    /** 当前解析推进的双星；null 表示全部天体数值积分。 */
+    private KeplerBinary binary;
+    /** 双星作为复合天体时积分其余天体的降阶会话；两体配置整体解析推进时为 null。 */
+    private IntegrationSession reduced;
+    /** 各天体在降阶会话中的下标，双星两个成员都映射到复合天体。 */
+    private int[] reducedIndex;
+    /** 解析与正则化结构准备时的步数；等于当前步数时结构对应下一步，否则对应最近一次推进的步。 */
+    private long preparedStep;
+    /** 下一次准备结构时不论步数都检查双星与逃逸天体：载入状态或离开并行时间分片窗口之后。 */
+    private boolean detectPending;
+    /** 可解析双星的候选轨道，检查时原地重建；成为 binary 后在拆回之前不再改动。 */
+    private KeplerBinary pairOrbit;
+    /** 最近使用的降阶会话及其结构键，结构不变时写入状态后复用，与新建的会话逐位等价。 */
+    private IntegrationSession cachedReduced;
+    private int[] cachedReducedKey;
+
+    /** 逃逸天体的退役半径(m)；null 表示不启用。 */
+    private final Double retirementRadius;
+    /** 本层已退役的天体下标，按配置顺序；null 表示没有。其余天体由降阶会话积分，下标映射记在 reducedIndex 中。 */
+    private int[] retired;
+    /** 各退役天体相对其余天体质心的两体轨道(first 为其余天体)，与 retired 一一对应。 */
+    private KeplerBinary[] escapes;
+    /** 各退役天体当前时刻的相对状态暂存，每个 6 个分量。 */
+    private double[] escapeStates;
+    /** 逃逸判据的距离暂存，跨步复用。 */
+    private double[] escapeDistance;
+    /** 建立退役轨道时留下天体质心与退役天体的两体状态和质量暂存。 */
+    private final PhaseSpace escapePair = new PhaseSpace(2);
+    private final double[] escapeMasses = new double[2];
+    /** 退役时刻整个系统的质心状态(0..2 位置，3..5 速度)，此后匀速运动。 */
+    private final double[] systemCentre = new double[6];
+    private double systemMass;
+    private double retirementSeconds;
+
+    /** 是否正则化近距离天体对：配置开启、未积分变分方程且由配置选择积分方案。 */
+    private final boolean regularization;
+    /** 当前正则化的近距离天体对；null 表示没有。多体配置时它的复合天体由降阶会话 reduced 积分。 */
+    private RegularizedEncounter encounter;
+    /** 两体配置正则化时的质心状态(0..2 位置，3..5 速度)与对应时刻，此后匀速运动。 */
+    private final double[] encounterCentre = new double[6];
+    private double encounterSeconds;
+    /** 正则化天体对质心处的潮汐张量与相对状态暂存。 */
+    private final double[] tidal = new double[6];
+    private final double[] encounterState = new double[6];
+
+    /** 并行时间分片推进；null 表示逐步串行推进。 */
+    private final Parareal parareal;
+    /** 当前窗口的步数与已取出的步数。 */
+    private int pararealBuffered;
+    private int pararealCursor;
+    /** 窗口因数值异常放弃或未能提前收敛而退避后，改为串行推进的剩余步数。 */
+    private long pararealSerialSteps;
+    /** 最近一步是否取自窗口：这样的步没有积分方案的稠密输出。 */
+    private boolean pararealStep;
+
+    /** 从初始状态(step = 0)开始的会话。 */
+    public IntegrationSession(SimulationConfig config) {
+        this(config, NBodyIntegrator.initialState(config));
+    }
+
+    /**
+     * 从给定状态开始的会话，使用配置选择的积分方案与引力求解方式。
+     *
+     * @param config 模拟配置，提供步长、引力常数、软化长度、质量与积分方案
+     * @param state  起始状态，天体顺序必须与配置一致
+     */
+    public IntegrationSession(SimulationConfig config, SimulationState state) {
+        this(config, state,
+                config.chaosIndicators() ? config.integrator().createBatched(2 * config.bodyCount())
+                        : config.integrator().create(config),
+                config.chaosIndicators() ? new VariationalGravity(config) : config.forceSolver().create(config),
+                config.chaosIndicators(), !config.chaosIndicators());
+    }
+
+    /**
+     * 使用指定积分方案与加速度计算的会话。
+     *
+     * @param integrator 本会话独占的积分方案实例
+     * @param forces     加速度计算
+     */
+    public IntegrationSession(SimulationConfig config, SimulationState state,
+            Integrator integrator, ForceField forces) {
+        this(config, state, integrator, forces, false, false);
+    }
+
+    private IntegrationSession(SimulationConfig config, SimulationState state,
+            Integrator integrator, ForceField forces, boolean variational, boolean analyticPaths) {
+        this.config = config;
+        List<BodySpec> specs = config.bodies();
+        this.n = specs.size();
+        this.ids = new String[n];
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = specs.get(i).id();
+            masses[i] = specs.get(i).massKg();
+        }
+        this.dt = config.timeStepSeconds();
+        this.integrator = integrator;
+        this.forces = forces;
+        this.nearThreshold = config.nearEncounterThresholdMeters();
+        this.trackedForces = (x, y, z, ax, ay, az, atStep, atTime) -> {
+            proximity.begin(nearThreshold);
+            lastEvaluationFused = forces.accelerations(x, y, z, ax, ay, az, atStep, atTime, proximity);
+        };
+        this.variational = variational;
+        this.tangentScaleSeconds = dt;
+        this.current = new PhaseSpace(variational ? 2 * n : n);
+        this.next = new PhaseSpace(variational ? 2 * n : n);
+        this.analyticBinaries = analyticPaths && config.analyticBinaries();
+        this.retirementRadius = analyticPaths ? config.escapeRetirementRadiusMeters() : null;
+        this.regularization = analyticPaths && config.regularizedEncounters();
+        this.parareal = analyticPaths && config.pararealSlices() != null ? new Parareal(config) : null;
+        load(state);
+    }
+
+    /**
+     * 用给定状态覆盖会话缓冲区，复用已分配的数组。
+     */
+    public void load(SimulationState state) {
+        List<BodyState> bodies = state.bodies();
+        if (bodies.size() != n) {
+            throw new IllegalArgumentException("状态天体数量 " + bodies.size() + " 与配置 " + n + " 不一致");
+        }
+        for (int i = 0; i < n; i++) {
+            BodyState b = bodies.get(i);
+            current.x[i] = b.position().x();
+            current.y[i] = b.position().y();
+            current.z[i] = b.position().z();
+            current.vx[i] = b.velocity().x();
+            current.vy[i] = b.velocity().y();
+            current.vz[i] = b.velocity().z();
+        }
+        restart(state.step(), state.simulationTimeSeconds());
+    }
+
+    /** 缓冲区已写入 current 后从给定步数与时刻重新开始：丢弃积分方案与窗口的历史，按当前状态导出解析结构。 */
+    private void restart(long atStep, double atTime) {
+        this.step = atStep;
+        this.simulationTimeSeconds = atTime;
+        this.lastStepSeconds = 0.0;
+        this.proximityStep = -1L;
+        integrator.reset();
+        if (variational) {
+            resetTangent();
+        }
+        pararealBuffered = 0;
+        pararealCursor = 0;
+        pararealSerialSteps = 0L;
+        pararealStep = false;
+        binary = null;
+        reduced = null;
+        retired = null;
+        escapes = null;
+        encounter = null;
+        detectPending = true;
+        prepare();
+    }
+
+    /** 以固定种子的单位切向量重新开始混沌指标，使同一起点的结果可复现。 */
+    private void resetTangent() {
+        Random random = new Random(0x5eedL);
+        for (int i = n; i < 2 * n; i++) {
+            current.x[i] = random.nextGaussian();
+            current.y[i] = random.nextGaussian();
+            current.z[i] = random.nextGaussian();
+            current.vx[i] = random.nextGaussian() / tangentScaleSeconds;
+            current.vy[i] = random.nextGaussian() / tangentScaleSeconds;
+            current.vz[i] = random.nextGaussian() / tangentScaleSeconds;
+        }
+        double norm = tangentNorm();
+        scaleTangent(1.0 / norm);
+        chaosStartSeconds = simulationTimeSeconds;
+        logGrowth = 0.0;
+        megnoWeightedGrowth = 0.0;
+        megnoIntegral = 0.0;
+        lastMegno = 0.0;
+    }
+
+    private double tangentNorm() {
+        double tau2 = tangentScaleSeconds * tangentScaleSeconds;
+        double sum = 0.0;
+        for (int i = n; i < 2 * n; i++) {
+            sum += current.x[i] * current.x[i] + current.y[i] * current.y[i] + current.z[i] * current.z[i]
+                    + tau2 * (current.vx[i] * current.vx[i] + current.vy[i] * current.vy[i]
+                            + current.vz[i] * current.vz[i]);
+        }
+        return Math.sqrt(sum);
+    }
+
+    private void scaleTangent(double factor) {
+        for (int i = n; i < 2 * n; i++) {
+            current.x[i] *= factor;
+            current.y[i] *= factor;
+            current.z[i] *= factor;
+            current.vx[i] *= factor;
+            current.vy[i] *= factor;
+            current.vz[i] *= factor;
+        }
+    }
+
+    /**
+     * 累计本步切向量的对数增长并归一化。切向量满足线性方程，归一化不改变后续增长率，只防止溢出；
+     * 范数不再有限时指标变为 NaN，直到下一次载入状态。
+     */
+    private void accumulateTangent(double stepSeconds) {
+        double norm = tangentNorm();
+        double growth = Math.log(norm);
+        if (Double.isFinite(growth)) {
+            scaleTangent(1.0 / norm);
+        }
+        double elapsed = simulationTimeSeconds - chaosStartSeconds;
+        logGrowth += growth;
+        megnoWeightedGrowth += (elapsed - 0.5 * stepSeconds) * growth;
+        double megno = 2.0 * megnoWeightedGrowth / elapsed;
+        megnoIntegral += 0.5 * (lastMegno + megno) * stepSeconds;
+        lastMegno = megno;
+    }
+
+    public SimulationConfig config() {
+        return config;
+    }
+
+    public int bodyCount() {
+        return n;
+    }
+
+    /**
+     * 推进一步最多同时占用的核数：按行并行的直接求和为其线程池的并行度，并行时间分片至少为分片数，
+     * 否则为 1。限流的调用方(实验运行循环、参数扫描)按它申请 CPU 许可。
+     */
+    public int parallelism() {
+        int kernel = forces instanceof ParallelDirectGravity parallel ? parallel.parallelism() : 1;
+        return parareal != null ? Math.max(config.pararealSlices(), kernel) : kernel;
+    }
+
+    /** 已完成步数。 */
+    public long step() {
+        return step;
+    }
+
+    /** 当前模拟时间(s)。 */
+    public double simulationTimeSeconds() {
+        return simulationTimeSeconds;
+    }
+
+    /** 最近一次推进的实际步长(s)；固定步长方案恒为配置步长，尚未推进时为 0。 */
+    public double lastStepSeconds() {
+        return lastStepSeconds;
+    }
+
+    /**
+     * 推进一步。失败时会话保持推进前的状态。
+     *
+     * @throws NumericalInstabilityException 结果包含非有限值时抛出
+     */
+    public void advance() {
+        if (parareal != null && advanceFromWindow()) {
+            return;
+        }
+        pararealStep = false;
+        if (preparedStep != step) {
+            prepare();
+        }
+        if (encounter != null || binary != null || retired != null) {
+            try {
+                if (encounter != null) {
+                    advanceWithEncounter();
+                } else if (binary != null) {
+                    advanceWithBinary();
+                } else {
+                    advanceWithRetired();
+                }
+            } catch (NumericalInstabilityException ex) {
+                rewind();
+                throw ex;
+            }
+            // 外层积分方案没有参与本步，之后数值推进时从当前状态重新起步
+            integrator.reset();
+            return;
+        }
+        long nextStep = step + 1;
+        double taken;
+        proximity.requestPotentialEnergy(potentialSteps != null && potentialSteps.test(nextStep));
+        lastEvaluationFused = false;
+        try {
+            taken = integrator.step(current, next, trackedForces, nextStep, simulationTimeSeconds, stepLimit());
+            double nextTime = simulationTimeSeconds + taken;
+            // 结果先写入 next，全部检查通过后才提交为当前状态
+            for (int i = 0; i < n; i++) {
+                checkFinite(i, nextStep, nextTime);
+            }
+        } catch (NumericalInstabilityException ex) {
+            integrator.reset();
+            proximityStep = -1L;
+            throw ex;
+        }
+        PhaseSpace committed = next;
+        next = current;
+        current = committed;
+        step = nextStep;
+        simulationTimeSeconds = simulationTimeSeconds + taken;
+        lastStepSeconds = taken;
+        proximityStep = lastEvaluationFused && integrator.finalForcesAtNextPositions() ? step : -1L;
+        if (variational) {
+            accumulateTangent(taken);
+        }
+    }
+
+    /**
+     * 从并行时间分片窗口取出下一步；窗口取完时从当前状态求解新窗口。
+     * 窗口跨越多次批量推进保留，载入状态时丢弃。细推进的会话自行处理解析路径，
+     * 因此取出的步清除本层的解析推进与正则化，之后串行推进前重新导出。
+     *
+     * @return 剩余步数不足以开窗口或窗口被放弃、本步应串行推进时为 false
+     */
+    private boolean advanceFromWindow() {
+        if (pararealCursor == pararealBuffered) {
+            if (pararealSerialSteps > 0L) {
+                pararealSerialSteps--;
+                return false;
+            }
+            int sliceSteps = parareal.sliceSteps(step, simulationTimeSeconds);
+            if (sliceSteps == 0) {
+                return false;
+            }
+            pararealCursor = 0;
+            pararealBuffered = parareal.solve(current, step, simulationTimeSeconds, sliceSteps);
+            if (pararealBuffered == 0) {
+                // 窗口内某处出现数值异常：这一段串行推进，异常是否真实由积分方案重新判定
+                pararealSerialSteps = (long) sliceSteps * config.pararealSlices() - 1L;
+                return false;
+            }
+            // 窗口用满 K 轮才收敛时并行没有收益：取完窗口后串行推进若干个窗口长度再试
+            pararealSerialSteps = (long) pararealBuffered * parareal.backoffWindows();
+        }
+        parareal.write(pararealCursor, current);
+        double nextTime = parareal.timeAt(pararealCursor);
+        pararealCursor++;
+        step++;
+        lastStepSeconds = nextTime - simulationTimeSeconds;
+        simulationTimeSeconds = nextTime;
+        proximityStep = -1L;
+        integrator.reset();
+        binary = null;
+        reduced = null;
+        retired = null;
+        escapes = null;
+        encounter = null;
+        detectPending = true;
+        pararealStep = true;
+        return true;
+    }
+
+    /**
+     * 为下一步准备解析与正则化结构。逃逸天体与可解析双星只在 {@link #detectPending} 或步数为
+     * {@link #BINARY_CHECK_INTERVAL} 的整数倍时检查，其间沿用已建立的结构与历元；已有双星每步检查孤立性，
+     * 外部扰动过大时拆回。近距离天体对不涉及历元，每步由当前状态重新导出。
+     */
+    private void prepare() {
+        preparedStep = step;
+        boolean scheduled = detectPending || step % BINARY_CHECK_INTERVAL == 0L;
+        detectPending = false;
+        if (encounter != null) {
+            encounter = null;
+            reduced = null;
+        }
+        if (retirementRadius != null && (scheduled ? detectRetirement() : retired != null)) {
+            return;
+        }
+        if (binary != null) {
+            if (binaryIsolated()) {
+                return;
+            }
+            // 外部天体靠近：拆回逐个积分，到下一次检查时再考虑合并
+            binary = null;
+            reduced = null;
+        }
+        if (analyticBinaries && scheduled && detectBinary()) {
+            return;
+        }
+        if (regularization) {
+            detectEncounter();
+        }
+    }
+
+    /** 解析或正则化推进失败后回到步首：降阶会话重新载入当前状态，正则化天体对由当前状态重新导出。 */
+    private void rewind() {
+        preparedStep = step;
+        if (encounter != null) {
+            encounter = null;
+            reduced = null;
+            detectEncounter();
+        } else if (retired != null) {
+            fillCore();
+        } else if (reduced != null) {
+            fillPair(binary.first, binary.second);
+        }
+    }
+
+    /** 已解析推进的双星是否仍然孤立：扰动比不超过孤立上限的 {@link #SPLIT_FACTOR} 倍；两体配置总是孤立。 */
+    private boolean binaryIsolated() {
+        if (reduced == null) {
+            return true;
+        }
+        int c = reducedIndex[binary.first];
+        PhaseSpace r = reduced.current;
+        return binary.perturbation(masses, current, r.x[c], r.y[c], r.z[c])
+                <= SPLIT_FACTOR * KeplerBinary.ISOLATION_LIMIT;
+    }
+
+    /**
+     * 检查最近天体对能否解析推进：两体配置只要求软化长度可以忽略；多体配置还要求束缚且孤立，
+     * 满足时以当前时刻为历元建立双星，多体配置还建立复合天体与降阶会话。
+     *
+     * @return 是否解析推进
+     */
+    private boolean detectBinary() {
+        PairProximity p = currentProximity();
+        int a = p.minimumFirst();
+        if (a < 0) {
+            return false;
+        }
+        if (pairOrbit == null) {
+            pairOrbit = new KeplerBinary(config.gravitationalConstant(), masses, current,
+                    a, p.minimumSecond(), simulationTimeSeconds);
+        } else {
+            pairOrbit.reset(config.gravitationalConstant(), masses, current,
+                    a, p.minimumSecond(), simulationTimeSeconds);
+        }
+        KeplerBinary candidate = pairOrbit;
+        if (!candidate.resolves(config.softeningLengthMeters())) {
+            return false;
+        }
+        if (n > 2 && (!candidate.bound() || candidate.perturbation(masses, current, candidate.centreAtEpoch(0),
+                candidate.centreAtEpoch(1), candidate.centreAtEpoch(2)) > KeplerBinary.ISOLATION_LIMIT)) {
+            return false;
+        }
+        binary = candidate;
+        if (n > 2) {
+            mergePair(candidate.first, candidate.second);
+        }
+        return true;
+    }
+
+    /**
+     * 把天体对 a、b 换成位于质心的复合天体(沿用 a 的标识)，其余天体原样交给降阶会话，从当前状态开始。
+     * 复合天体的配置取两个成员配置的质心，与当前状态无关；同一天体对的降阶会话直接复用，不再分配。
+     */
+    private void mergePair(int a, int b) {
+        if (reducedIndex == null) {
+            reducedIndex = new int[n];
+        }
+        for (int i = 0, k = 0; i < n; i++) {
+            reducedIndex[i] = i == b ? reducedIndex[a] : k++;
+        }
+        int[] key = cachedReducedKey;
+        if (cachedReduced == null || key.length != 3 || key[0] != -1 || key[1] != a || key[2] != b) {
+            List<BodySpec> specs = config.bodies();
+            List<BodySpec> reducedSpecs = new ArrayList<>(n - 1);
+            for (int i = 0; i < n; i++) {
+                if (i == b) {
+                    continue;
+                }
+                BodySpec spec = specs.get(i);
+                if (i == a) {
+                    BodySpec other = specs.get(b);
+                    double total = masses[a] + masses[b];
+                    spec = new BodySpec(spec.id(), spec.name() + "+" + other.name(), spec.color(), total,
+                            spec.position().multiply(masses[a]).add(other.position().multiply(masses[b]))
+                                    .multiply(1.0 / total),
+                            spec.velocity().multiply(masses[a]).add(other.velocity().multiply(masses[b]))
+                                    .multiply(1.0 / total));
+                }
+                reducedSpecs.add(spec);
+            }
+            newReducedSession(new int[] {-1, a, b}, reducedSpecs);
+        }
+        reduced = cachedReduced;
+        fillPair(a, b);
+    }
+
+    /** 把当前状态写入降阶会话(天体对 a、b 合成位于质心的复合天体)，降阶会话从当前步重新开始。 */
+    private void fillPair(int a, int b) {
+        PhaseSpace r = reduced.current;
+        double total = masses[a] + masses[b];
+        for (int i = 0; i < n; i++) {
+            int k = reducedIndex[i];
+            if (i == b) {
+                continue;
+            }
+            if (i == a) {
+                r.x[k] = (masses[a] * current.x[a] + masses[b] * current.x[b]) / total;
+                r.y[k] = (masses[a] * current.y[a] + masses[b] * current.y[b]) / total;
+                r.z[k] = (masses[a] * current.z[a] + masses[b] * current.z[b]) / total;
+                r.vx[k] = (masses[a] * current.vx[a] + masses[b] * current.vx[b]) / total;
+                r.vy[k] = (masses[a] * current.vy[a] + masses[b] * current.vy[b]) / total;
+                r.vz[k] = (masses[a] * current.vz[a] + masses[b] * current.vz[b]) / total;
+            } else {
+                copyBody(i, r, k);
+            }
+        }
+        reduced.restart(step, simulationTimeSeconds);
+    }
+
+    /** 把留下天体的当前状态写入降阶会话，降阶会话从当前步重新开始。 */
+    private void fillCore() {
+        for (int i = 0; i < n; i++) {
+            if (reducedIndex[i] >= 0) {
+                copyBody(i, reduced.current, reducedIndex[i]);
+            }
+        }
+        reduced.restart(step, simulationTimeSeconds);
+    }
+
+    /**
+     * 按 specs 新建降阶会话并记下结构键；结构键不变时调用方直接复用 {@link #cachedReduced}，写入状态后
+     * {@link #restart}，载入状态会丢弃全部历史，所以与新建逐位等价。降阶会话逐步推进，不开并行时间分片。
+     */
+    private void newReducedSession(int[] key, List<BodySpec> specs) {
+        SimulationConfig reducedConfig = config.withBodies(specs).withPararealSlices(null);
+        cachedReduced = new IntegrationSession(reducedConfig, NBodyIntegrator.initialState(reducedConfig));
+        cachedReducedKey = key;
+    }
+
+    /** 把天体 i 的当前状态写入 target 的第 k 个槽位。 */
+    private void copyBody(int i, PhaseSpace target, int k) {
+        target.x[k] = current.x[i];
+        target.y[k] = current.y[i];
+        target.z[k] = current.z[i];
+        target.vx[k] = current.vx[i];
+        target.vy[k] = current.vy[i];
+        target.vz[k] = current.vz[i];
+    }
+
+    /** 解析双星存在时推进一步：其余天体(含复合天体)由降阶会话积分，双星成员由历元解析求出。 */
+    private void advanceWithBinary() {
+        long nextStep = step + 1;
+        double taken;
+        double nextTime;
+        if (reduced == null) {
+            taken = stepLimit();
+            nextTime = simulationTimeSeconds + taken;
+            if (!binary.writeIsolated(next, nextTime)) {
+                throw keplerFailure(nextStep, nextTime);
+            }
+        } else {
+            reduced.advance();
+            taken = reduced.lastStepSeconds;
+            nextTime = reduced.simulationTimeSeconds;
+            PhaseSpace r = reduced.current;
+            for (int i = 0; i < n; i++) {
+                int k = reducedIndex[i];
+                next.x[i] = r.x[k];
+                next.y[i] = r.y[k];
+                next.z[i] = r.z[k];
+                next.vx[i] = r.vx[k];
+                next.vy[i] = r.vy[k];
+                next.vz[i] = r.vz[k];
+            }
+            int c = reducedIndex[binary.first];
+            if (!binary.write(next, nextTime, r.x[c], r.y[c], r.z[c], r.vx[c], r.vy[c], r.vz[c])) {
+                throw keplerFailure(nextStep, nextTime);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            checkFinite(i, nextStep, nextTime);
+        }
+        PhaseSpace committed = next;
+        next = current;
+        current = committed;
+        step = nextStep;
+        simulationTimeSeconds = nextTime;
+        lastStepSeconds = taken;
+        proximityStep = -1L;
+    }
+
+    /**
+     * 检查最近天体对能否正则化：已是近距离事件，或动力学时间短到逐步积分无法解析(相互远离时放宽到离开判据)，
+     * 且外部天体在两者可能达到的距离上造成的扰动低于孤立上限。满足时从当前状态建立正则化天体对，
+     * 多体配置还建立复合天体与降阶会话。
+     *
+     * @return 是否正则化
+     */
+    private boolean detectEncounter() {
+        PairProximity p = currentProximity();
+        int a = p.minimumFirst();
+        if (a < 0) {
+            return false;
+        }
+        int b = p.minimumSecond();
+        double d = p.minimumDistance();
+        double vx = current.vx[b] - current.vx[a];
+        double vy = current.vy[b] - current.vy[a];
+        double vz = current.vz[b] - current.vz[a];
+        boolean approaching = (current.x[b] - current.x[a]) * vx + (current.y[b] - current.y[a]) * vy
+                + (current.z[b] - current.z[a]) * vz < 0.0;
+        double speed = Math.sqrt(vx * vx + vy * vy + vz * vz);
+        boolean close = approaching
+                ? d < nearThreshold || d < ENCOUNTER_ENTRY_STEPS * dt * speed
+                : d < ENCOUNTER_EXIT_FACTOR * nearThreshold || d < ENCOUNTER_EXIT_STEPS * dt * speed;
+        if (!close) {
+            return false;
+        }
+        double total = masses[a] + masses[b];
+        double cx = (masses[a] * current.x[a] + masses[b] * current.x[b]) / total;
+        double cy = (masses[a] * current.y[a] + masses[b] * current.y[b]) / total;
+        double cz = (masses[a] * current.z[a] + masses[b] * current.z[b]) / total;
+        if (n > 2 && RegularizedEncounter.perturbation(masses, current, a, b, total, cx, cy, cz,
+                Math.max(d, ENCOUNTER_EXIT_FACTOR * nearThreshold)) > RegularizedEncounter.ISOLATION_LIMIT) {
+            return false;
+        }
+        double softening = config.softeningLengthMeters();
+        RegularizedEncounter.tidalTensor(config.gravitationalConstant(), softening * softening, masses, current,
+                a, b, cx, cy, cz, tidal);
+        encounter = new RegularizedEncounter(config.gravitationalConstant(), softening, masses, current,
+                a, b, simulationTimeSeconds, tidal);
+        encounterCentre[0] = cx;
+        encounterCentre[1] = cy;
+        encounterCentre[2] = cz;
+        encounterCentre[3] = (masses[a] * current.vx[a] + masses[b] * current.vx[b]) / total;
+        encounterCentre[4] = (masses[a] * current.vy[a] + masses[b] * current.vy[b]) / total;
+        encounterCentre[5] = (masses[a] * current.vz[a] + masses[b] * current.vz[b]) / total;
+        encounterSeconds = simulationTimeSeconds;
+        if (n > 2) {
+            mergePair(a, b);
+        }
+        return true;
+    }
+
+    /** 正则化天体对存在时推进一步：其余天体(含复合天体)由降阶会话积分，天体对在 KS 坐标中积分到同一时刻。 */
+    private void advanceWithEncounter() {
+        long nextStep = step + 1;
+        double taken;
+        double nextTime;
+        double cx;
+        double cy;
+        double cz;
+        double cvx;
+        double cvy;
+        double cvz;
+        if (reduced == null) {
+            taken = stepLimit();
+            nextTime = simulationTimeSeconds + taken;
+            double elapsed = nextTime - encounterSeconds;
+            cx = encounterCentre[0] + encounterCentre[3] * elapsed;
+            cy = encounterCentre[1] + encounterCentre[4] * elapsed;
+            cz = encounterCentre[2] + encounterCentre[5] * elapsed;
+            cvx = encounterCentre[3];
+            cvy = encounterCentre[4];
+            cvz = encounterCentre[5];
+        } else {
+            reduced.advance();
+            taken = reduced.lastStepSeconds;
+            nextTime = reduced.simulationTimeSeconds;
+            PhaseSpace r = reduced.current;
+            for (int i = 0; i < n; i++) {
+                int k = reducedIndex[i];
+                next.x[i] = r.x[k];
+                next.y[i] = r.y[k];
+                next.z[i] = r.z[k];
+                next.vx[i] = r.vx[k];
+                next.vy[i] = r.vy[k];
+                next.vz[i] = r.vz[k];
+            }
+            int c = reducedIndex[encounter.first];
+            cx = r.x[c];
+            cy = r.y[c];
+            cz = r.z[c];
+            cvx = r.vx[c];
+            cvy = r.vy[c];
+            cvz = r.vz[c];
+            double softening = config.softeningLengthMeters();
+            RegularizedEncounter.tidalTensor(config.gravitationalConstant(), softening * softening, reduced.masses, r,
+                    c, -1, cx, cy, cz, tidal);
+        }
+        if (!encounter.advance(nextTime, tidal)) {
+            throw new NumericalInstabilityException(
+                    "近距离天体对 " + ids[encounter.first] + "," + ids[encounter.second] + " 的正则化积分未收敛",
+                    nextStep, ids[encounter.first] + "," + ids[encounter.second], "regularizedEncounter",
+                    nextTime, "NaN");
+        }
+        encounter.relative(encounterState, 0);
+        encounter.write(next, encounterState, 0, cx, cy, cz, cvx, cvy, cvz);
+        for (int i = 0; i < n; i++) {
+            checkFinite(i, nextStep, nextTime);
+        }
+        PhaseSpace committed = next;
+        next = current;
+        current = committed;
+        step = nextStep;
+        simulationTimeSeconds = nextTime;
+        lastStepSeconds = taken;
+        proximityStep = -1L;
+    }
+
+    private NumericalInstabilityException keplerFailure(long nextStep, double nextTime) {
+        return new NumericalInstabilityException(
+                "双星 " + ids[binary.first] + "," + ids[binary.second] + " 的解析开普勒推进未收敛",
+                nextStep, ids[binary.first] + "," + ids[binary.second], "keplerDrift", nextTime, "NaN");
+    }
+
+    /**
+     * 检查逃逸天体：相对其余天体质心非束缚(两体能量为正)、向外运动且距离超过退役半径的天体一并退役，
+     * 各自以当前时刻为历元与留下天体的质心建立两体双曲轨道，留下的天体交给降阶会话。至少留下两个天体，超出时先退役最远的。
+     * 退役集合与上次相同时沿用已建立的轨道、历元与降阶会话，不分配对象；集合变化时才从当前状态重新建立。
+     *
+     * @return 是否存在退役天体
+     */
+    private boolean detectRetirement() {
+        if (n <= 2) {
+            return false;
+        }
+        double total = 0.0;
+        double px = 0.0;
+        double py = 0.0;
+        double pz = 0.0;
+        double pvx = 0.0;
+        double pvy = 0.0;
+        double pvz = 0.0;
+        for (int i = 0; i < n; i++) {
+            double m = masses[i];
+            total += m;
+            px += m * current.x[i];
+            py += m * current.y[i];
+            pz += m * current.z[i];
+            pvx += m * current.vx[i];
+            pvy += m * current.vy[i];
+            pvz += m * current.vz[i];
+        }
+        double g = config.gravitationalConstant();
+        if (escapeDistance == null) {
+            escapeDistance = new double[n];
+        }
+        double[] distance = escapeDistance;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double m = masses[i];
+            double rest = total - m;
+            double dx = current.x[i] - (px - m * current.x[i]) / rest;
+            double dy = current.y[i] - (py - m * current.y[i]) / rest;
+            double dz = current.z[i] - (pz - m * current.z[i]) / rest;
+            double dvx = current.vx[i] - (pvx - m * current.vx[i]) / rest;
+            double dvy = current.vy[i] - (pvy - m * current.vy[i]) / rest;
+            double dvz = current.vz[i] - (pvz - m * current.vz[i]) / rest;
+            double r = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (r > retirementRadius && dx * dvx + dy * dvy + dz * dvz > 0.0
+                    && 0.5 * (dvx * dvx + dvy * dvy + dvz * dvz) > g * total / r) {
+                distance[i] = r;
+                count++;
+            } else {
+                distance[i] = 0.0;
+            }
+        }
+        if (count == 0) {
+            if (retired != null) {
+                retired = null;
+                escapes = null;
+                reduced = null;
+            }
+            return false;
+        }
+        // 至少留下两个天体：候选过多时去掉最近的
+        for (; count > n - 2; count--) {
+            int nearest = -1;
+            for (int i = 0; i < n; i++) {
+                if (distance[i] > 0.0 && (nearest < 0 || distance[i] < distance[nearest])) {
+                    nearest = i;
+                }
+            }
+            distance[nearest] = 0.0;
+        }
+
+        if (retired != null && retired.length == count) {
+            boolean unchanged = true;
+            for (int i : retired) {
+                unchanged &= distance[i] > 0.0;
+            }
+            if (unchanged) {
+                return true;
+            }
+        }
+        if (retired == null || retired.length != count) {
+            retired = new int[count];
+            escapes = new KeplerBinary[count];
+            escapeStates = new double[6 * count];
+        }
+        if (reducedIndex == null) {
+            reducedIndex = new int[n];
+        }
+        double core = total;
+        double cx = px;
+        double cy = py;
+        double cz = pz;
+        double cvx = pvx;
+        double cvy = pvy;
+        double cvz = pvz;
+        for (int i = 0, j = 0, k = 0; i < n; i++) {
+            if (distance[i] > 0.0) {
+                double m = masses[i];
+                core -= m;
+                cx -= m * current.x[i];
+                cy -= m * current.y[i];
+                cz -= m * current.z[i];
+                cvx -= m * current.vx[i];
+                cvy -= m * current.vy[i];
+                cvz -= m * current.vz[i];
+                retired[j++] = i;
+                reducedIndex[i] = -1;
+            } else {
+                reducedIndex[i] = k++;
+            }
+        }
+        PhaseSpace pair = escapePair;
+        pair.x[0] = cx / core;
+        pair.y[0] = cy / core;
+        pair.z[0] = cz / core;
+        pair.vx[0] = cvx / core;
+        pair.vy[0] = cvy / core;
+        pair.vz[0] = cvz / core;
+        for (int j = 0; j < count; j++) {
+            int i = retired[j];
+            pair.x[1] = current.x[i];
+            pair.y[1] = current.y[i];
+            pair.z[1] = current.z[i];
+            pair.vx[1] = current.vx[i];
+            pair.vy[1] = current.vy[i];
+            pair.vz[1] = current.vz[i];
+            escapeMasses[0] = core;
+            escapeMasses[1] = masses[i];
+            if (escapes[j] == null) {
+                escapes[j] = new KeplerBinary(g, escapeMasses, pair, 0, 1, simulationTimeSeconds);
+            } else {
+                escapes[j].reset(g, escapeMasses, pair, 0, 1, simulationTimeSeconds);
+            }
+        }
+        systemMass = total;
+        systemCentre[0] = px / total;
+        systemCentre[1] = py / total;
+        systemCentre[2] = pz / total;
+        systemCentre[3] = pvx / total;
+        systemCentre[4] = pvy / total;
+        systemCentre[5] = pvz / total;
+        retirementSeconds = simulationTimeSeconds;
+        if (cachedReduced == null || !Arrays.equals(cachedReducedKey, retired)) {
+            List<BodySpec> coreSpecs = new ArrayList<>(n - count);
+            for (int i = 0; i < n; i++) {
+                if (reducedIndex[i] >= 0) {
+                    coreSpecs.add(config.bodies().get(i));
+                }
+            }
+            newReducedSession(retired.clone(), coreSpecs);
+        }
+        binary = null;
+        reduced = cachedReduced;
+        fillCore();
+        return true;
+    }
+
+    /**
+     * 存在退役天体时推进一步：留下的天体由降阶会话积分，再整体平移到两体解给出的质心；
+     * 退役天体由各自的双曲轨道解析求出。
+     */
+    private void advanceWithRetired() {
+        long nextStep = step + 1;
+        reduced.advance();
+        double taken = reduced.lastStepSeconds;
+        double nextTime = reduced.simulationTimeSeconds;
+        int failed = solveEscapes(nextTime);
+        if (failed >= 0) {
+            throw new NumericalInstabilityException(
+                    "逃逸天体 " + ids[failed] + " 的解析双曲轨道推进未收敛",
+                    nextStep, ids[failed], "keplerDrift", nextTime, "NaN");
+        }
+        writeRetired(reduced.current, nextTime);
+        for (int i = 0; i < n; i++) {
+            checkFinite(i, nextStep, nextTime);
+        }
+        PhaseSpace committed = next;
+        next = current;
+        current = committed;
+        step = nextStep;
+        simulationTimeSeconds = nextTime;
+        lastStepSeconds = taken;
+        proximityStep = -1L;
+    }
+
+    /**
+     * 求出各退役天体在 timeSeconds 时刻的相对状态。
+     *
+     * @return 开普勒方程未收敛的天体下标；全部收敛时为 -1
+     */
+    private int solveEscapes(double timeSeconds) {
+        for (int j = 0; j < retired.length; j++) {
+            if (!escapes[j].relative(timeSeconds, escapeStates, 6 * j)) {
+                return retired[j];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 由降阶会话的状态 r 与 escapeStates 写出全部天体。系统质心匀速运动，留下天体的质心
+     * R = X - sum m_j r_j / M (r_j 为退役天体相对它的位置)；降阶会话只受内部引力、质心匀速，
+     * 两者之差作为整体平移加到每个留下的天体上，保留退役天体对它们的牵引。
+     */
+    private void writeRetired(PhaseSpace r, double timeSeconds) {
+        double elapsed = timeSeconds - retirementSeconds;
+        double sx = 0.0;
+        double sy = 0.0;
+        double sz = 0.0;
+        double svx = 0.0;
+        double svy = 0.0;
+        double svz = 0.0;
+        for (int j = 0; j < retired.length; j++) {
+            double m = masses[retired[j]];
+            int o = 6 * j;
+            sx += m * escapeStates[o];
+            sy += m * escapeStates[o + 1];
+            sz += m * escapeStates[o + 2];
+            svx += m * escapeStates[o + 3];
+            svy += m * escapeStates[o + 4];
+            svz += m * escapeStates[o + 5];
+        }
+        double coreX = systemCentre[0] + systemCentre[3] * elapsed - sx / systemMass;
+        double coreY = systemCentre[1] + systemCentre[4] * elapsed - sy / systemMass;
+        double coreZ = systemCentre[2] + systemCentre[5] * elapsed - sz / systemMass;
+        double coreVx = systemCentre[3] - svx / systemMass;
+        double coreVy = systemCentre[4] - svy / systemMass;
+        double coreVz = systemCentre[5] - svz / systemMass;
+
+        double core = 0.0;
+        double cx = 0.0;
+        double cy = 0.0;
+        double cz = 0.0;
+        double cvx = 0.0;
+        double cvy = 0.0;
+        double cvz = 0.0;
+        for (int i = 0; i < n; i++) {
+            int k = reducedIndex[i];
+            if (k < 0) {
+                continue;
+            }
+            double m = masses[i];
+            core += m;
+            cx += m * r.x[k];
+            cy += m * r.y[k];
+            cz += m * r.z[k];
+            cvx += m * r.vx[k];
+            cvy += m * r.vy[k];
+            cvz += m * r.vz[k];
+        }
+        double ox = coreX - cx / core;
+        double oy = coreY - cy / core;
+        double oz = coreZ - cz / core;
+        double ovx = coreVx - cvx / core;
+        double ovy = coreVy - cvy / core;
+        double ovz = coreVz - cvz / core;
+        for (int i = 0; i < n; i++) {
+            int k = reducedIndex[i];
+            if (k >= 0) {
+                next.x[i] = r.x[k] + ox;
+                next.y[i] = r.y[k] + oy;
+                next.z[i] = r.z[k] + oz;
+                next.vx[i] = r.vx[k] + ovx;
+                next.vy[i] = r.vy[k] + ovy;
+                next.vz[i] = r.vz[k] + ovz;
+            }
+        }
+        for (int j = 0; j < retired.length; j++) {
+            int i = retired[j];
+            int o = 6 * j;
+            next.x[i] = coreX + escapeStates[o];
+            next.y[i] = coreY + escapeStates[o + 1];
+            next.z[i] = coreZ + escapeStates[o + 2];
+            next.vx[i] = coreVx + escapeStates[o + 3];
+            next.vy[i] = coreVy + escapeStates[o + 4];
+            next.vz[i] = coreVz + escapeStates[o + 5];
+        }
+    }
+
+    /**
+     * 已退役、由双曲轨道解析推进的天体标识：本层的按配置顺序，其后是降阶会话中退役的天体，
+     * 降阶会话中的复合双星整体退役时以复合天体的标识报告。与 {@link #analyticBinaryIds()}、
+     * {@link #regularizedPairIds()} 一样描述最近一次推进所用的结构；载入状态后描述下一步将用的结构。
+     */
+    public List<String> retiredBodyIds() {
+        List<String> found = new ArrayList<>();
+        if (retired != null) {
+            for (int i : retired) {
+                found.add(ids[i]);
+            }
+        }
+        if (reduced != null) {
+            found.addAll(reduced.retiredBodyIds());
+        }
+        return found;
+    }
+
+    /**
+     * 当前解析推进的双星成员标识，按配置顺序排列；没有解析双星时为空。
+     * 只报告本会话这一层，复合天体在降阶会话中再次参与合并时不展开。
+     */
+    public List<String> analyticBinaryIds() {
+        return binary == null ? List.of() : List.of(ids[binary.first], ids[binary.second]);
+    }
+
+    /**
+     * 当前在 KS 坐标中正则化的天体对标识，按配置顺序排列；没有时为空。只报告本会话这一层。
+     */
+    public List<String> regularizedPairIds() {
+        return encounter == null ? List.of() : List.of(ids[encounter.first], ids[encounter.second]);
+    }
+
+    /**
+     * 本步的步长参数：固定步长方案为配置步长；自适应方案为步长上限，
+     * 并截断到目标模拟时间，使运行恰好在目标时间结束。
+     */
+    private double stepLimit() {
+        Double target = config.targetSimulationTimeSeconds();
+        if (!integrator.kind().adaptive() || target == null) {
+            return dt;
+        }
+        double remaining = target - simulationTimeSeconds;
+        // 剩余时长小到无法推进时间时退回步长上限，避免卡在目标时间之前
+        return remaining > 4.0 * Math.ulp(target) && remaining < dt ? remaining : dt;
+    }
+
+    /**
+     * 用积分方案的稠密输出求最近一次推进步内某一时刻的状态，不改变会话。
+     * 返回状态的步数为当前已完成步数。
+     *
+     * <p>插值状态不在积分轨迹的步边界上，不能作为 {@link #load} 的起点，否则重算结果与原运行不再逐位一致；
+     * 因此实验归档与回放仍只取步边界状态，目前只有库调用方（例如按时间均匀采样的离线分析）使用本方法。
+     *
+     * @param timeSeconds 位于最近一步 [起点, 终点] 内的模拟时间(s)
+     * @throws UnsupportedOperationException 积分方案不支持稠密输出或最近一步取自并行时间分片窗口时；
+     *                                       两体配置整体解析推进时总是支持
+     * @throws IllegalArgumentException      时间不在最近一步内，或载入状态、推进失败后尚未推进时
+     */
+    public SimulationState interpolate(double timeSeconds) {
+        if (pararealStep) {
+            throw new UnsupportedOperationException("并行时间分片窗口中的步不支持稠密输出");
+        }
+        // 结构已为下一步重新导出(载入状态或推进失败后)时没有可插值的步
+        boolean pending = preparedStep == step;
+        if (!pending && binary == null && retired == null && encounter == null && !integrator.supportsDenseOutput()) {
+            throw new UnsupportedOperationException(integrator.kind() + " 不支持稠密输出");
+        }
+        double start = simulationTimeSeconds - lastStepSeconds;
+        if (pending || lastStepSeconds <= 0.0 || timeSeconds < start || timeSeconds > simulationTimeSeconds) {
+            throw new IllegalArgumentException("时间 " + timeSeconds + " 不在最近一步 ["
+                    + start + ", " + simulationTimeSeconds + "] 内");
+        }
+        if (retired != null) {
+            // 留下的天体取降阶会话的稠密输出，同一时刻的两体解给出质心平移与退役天体
+            List<BodyState> others = reduced.interpolate(timeSeconds).bodies();
+            PhaseSpace r = new PhaseSpace(others.size());
+            for (int k = 0; k < others.size(); k++) {
+                BodyState b = others.get(k);
+                r.x[k] = b.position().x();
+                r.y[k] = b.position().y();
+                r.z[k] = b.position().z();
+                r.vx[k] = b.velocity().x();
+                r.vy[k] = b.velocity().y();
+                r.vz[k] = b.velocity().z();
+            }
+            solveEscapes(timeSeconds);
+            writeRetired(r, timeSeconds);
+        } else if (encounter != null) {
+            int c = encounter.first;
+            if (reduced == null) {
+                double elapsed = timeSeconds - encounterSeconds;
+                next.x[c] = encounterCentre[0] + encounterCentre[3] * elapsed;
+                next.y[c] = encounterCentre[1] + encounterCentre[4] * elapsed;
+                next.z[c] = encounterCentre[2] + encounterCentre[5] * elapsed;
+                next.vx[c] = encounterCentre[3];
+                next.vy[c] = encounterCentre[4];
+                next.vz[c] = encounterCentre[5];
+            } else {
+                // 复合天体与其余天体取降阶会话的稠密输出，天体对从步首重新积分到同一时刻
+                List<BodyState> others = reduced.interpolate(timeSeconds).bodies();
+                for (int i = 0; i < n; i++) {
+                    BodyState b = others.get(reducedIndex[i]);
+                    next.x[i] = b.position().x();
+                    next.y[i] = b.position().y();
+                    next.z[i] = b.position().z();
+                    next.vx[i] = b.velocity().x();
+                    next.vy[i] = b.velocity().y();
+                    next.vz[i] = b.velocity().z();
+                }
+            }
+            encounter.relativeAt(timeSeconds, encounterState, 0);
+            encounter.write(next, encounterState, 0, next.x[c], next.y[c], next.z[c], next.vx[c], next.vy[c], next.vz[c]);
+        } else if (binary == null) {
+            integrator.interpolate((timeSeconds - start) / lastStepSeconds, next);
+        } else if (reduced == null) {
+            binary.writeIsolated(next, timeSeconds);
+        } else {
+            // 复合天体与其余天体取降阶会话的稠密输出，双星成员在同一时刻解析求出
+            List<BodyState> others = reduced.interpolate(timeSeconds).bodies();
+            for (int i = 0; i < n; i++) {
+                BodyState b = others.get(reducedIndex[i]);
+                next.x[i] = b.position().x();
+                next.y[i] = b.position().y();
+                next.z[i] = b.position().z();
+                next.vx[i] = b.velocity().x();
+                next.vy[i] = b.velocity().y();
+                next.vz[i] = b.velocity().z();
+            }
+            int c = binary.first;
+            binary.write(next, timeSeconds, next.x[c], next.y[c], next.z[c], next.vx[c], next.vy[c], next.vz[c]);
+        }
+        List<BodyState> bodies = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            bodies.add(new BodyState(ids[i], new Vector3(next.x[i], next.y[i], next.z[i]),
+                    new Vector3(next.vx[i], next.vy[i], next.vz[i])));
+        }
+        return new SimulationState(step, timeSeconds, bodies);
+    }
+
+    /**
+     * 批量推进至多 maxSteps 步。每步只向观察者报告步数、模拟时间与是否存在近距离天体对，
+     * 观察者要求时才物化 {@link StepResult} 并回调；回调返回 false 时在该步后停止。
+     *
+     * @return 实际推进的步数
+     * @throws NumericalInstabilityException 同 {@link #advance()}；此前已完成的步保留在会话中
+     */
+    public long advance(long maxSteps, StepObserver observer) {
+        long advanced = 0L;
+        if (observer == StepObserver.NONE) {
+            for (; advanced < maxSteps; advanced++) {
+                advance();
+            }
+            return advanced;
+        }
+        while (advanced < maxSteps) {
+            advance();
+            advanced++;
+            boolean near = hasNearEncounter();
+            if (observer.wantsStep(step, simulationTimeSeconds, near)
+                    && !observer.onStep(new StepResult(state(), near ? nearEncounters() : List.of()))) {
+                break;
+            }
+        }
+        return advanced;
+    }
+
+    /**
+     * 物化当前状态。每次调用都会分配新的不可变记录。
+     */
+    public SimulationState state() {
+        List<BodyState> bodies = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            bodies.add(new BodyState(ids[i], new Vector3(current.x[i], current.y[i], current.z[i]),
+                    new Vector3(current.vx[i], current.vy[i], current.vz[i])));
+        }
+        return new SimulationState(step, simulationTimeSeconds, bodies);
+    }
+
+    /** 把当前状态按分量连续写入 out[offset..offset + 6n)：下标 c * n + i 为天体 i 的第 c 个分量。 */
+    void copyState(double[] out, int offset) {
+        System.arraycopy(current.x, 0, out, offset, n);
+        System.arraycopy(current.y, 0, out, offset + n, n);
+        System.arraycopy(current.z, 0, out, offset + 2 * n, n);
+        System.arraycopy(current.vx, 0, out, offset + 3 * n, n);
+        System.arraycopy(current.vy, 0, out, offset + 4 * n, n);
+        System.arraycopy(current.vz, 0, out, offset + 5 * n, n);
+    }
+
+    /**
+     * 当前状态是否存在近距离天体对；与 {@link #nearEncounters()} 判定一致，但不分配对象。
+     */
+    public boolean hasNearEncounter() {
+        if (retired != null) {
+            return reduced.hasNearEncounter();
+        }
+        return currentProximity().encounterCount() > 0;
+    }
+
+    /**
+     * 检测当前状态的近距离事件，语义与 {@link NBodyIntegrator#detectNearEncounters} 一致。
+     */
+    public List<NearEncounter> nearEncounters() {
+        if (retired != null) {
+            return reduced.nearEncounters();
+        }
+        PairProximity p = currentProximity();
+        int count = p.encounterCount();
+        if (count == 0) {
+            return List.of();
+        }
+        List<NearEncounter> found = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            found.add(new NearEncounter(ids[p.encounterFirst(k)], ids[p.encounterSecond(k)],
+                    p.encounterDistance(k), nearThreshold));
+        }
+        return found;
+    }
+
+    /** 当前状态的最近两体距离(m)。 */
+    public double minimumPairDistanceMeters() {
+        if (retired != null) {
+            return reduced.minimumPairDistanceMeters();
+        }
+        return currentProximity().minimumDistance();
+    }
+
+    /** 当前状态最近两体的标识，按配置顺序排列。 */
+    public List<String> minimumPairBodyIds() {
+        if (retired != null) {
+            return reduced.minimumPairBodyIds();
+        }
+        PairProximity p = currentProximity();
+        return p.minimumFirst() < 0 ? List.of() : List.of(ids[p.minimumFirst()], ids[p.minimumSecond()]);
+    }
+
+    /**
+     * 只在推进到 steps 接受的步时让直接求和内核顺带累加软化势能，供该步的 {@link #metrics(double)} 复用，
+     * 省去单独一遍天体对遍历。每对天体多一次除法，只花在调用方确定要取指标的步上(例如健康采样步)；
+     * null 表示不累加(默认)。
+     */
+    public void trackPotentialEnergy(LongPredicate steps) {
+        this.potentialSteps = steps;
+    }
+
+    /**
+     * 当前状态的完整指标，与 {@link MetricsCalculator#compute(SimulationConfig, SimulationState, double)} 相同，
+     * 但直接读取会话缓冲区；最后一次力计算已在当前位置记录最近天体对与势能时不再遍历天体对。
+     *
+     * @param initialTotalEnergy 初始总能量(J)，用于漂移计算
+     */
+    public Metrics metrics(double initialTotalEnergy) {
+        boolean fused = proximityStep == step;
+        Metrics metrics = MetricsCalculator.compute(config, current.x, current.y, current.z,
+                current.vx, current.vy, current.vz, step, simulationTimeSeconds, initialTotalEnergy,
+                fused ? proximity.potentialEnergy() : Double.NaN, fused ? proximity : null, forces);
+        if (parareal != null) {
+            int iterations = parareal.iterations();
+            double speedup = parareal.speedup();
+            return metrics.withParareal(iterations > 0 ? iterations : null,
+                    Double.isFinite(speedup) ? speedup : null);
+        }
+        if (!variational) {
+            return metrics;
+        }
+        double lyapunov = lyapunovExponentPerSecond();
+        double megno = megno();
+        return metrics.withChaosIndicators(Double.isFinite(lyapunov) ? lyapunov : null,
+                Double.isFinite(megno) ? megno : null);
+    }
+
+    /** 是否在积分变分方程。 */
+    public boolean tracksChaosIndicators() {
+        return variational;
+    }
+
+    /**
+     * 有限时间最大 Lyapunov 指数(1/s)：切向量范数的累计对数增长除以经过的模拟时间。
+     * 未开启混沌指标或尚未推进时为 NaN。
+     */
+    public double lyapunovExponentPerSecond() {
+        double elapsed = simulationTimeSeconds - chaosStartSeconds;
+        return variational && elapsed > 0.0 ? logGrowth / elapsed : Double.NaN;
+    }
+
+    /**
+     * 平均 MEGNO &lt;Y&gt;(t)：瞬时 MEGNO Y(t) = (2/t) ∫ s d(ln|δ|) 的时间平均。
+     * 规则(准周期)运动趋于 2，混沌运动约按 λt/2 增长。未开启混沌指标或尚未推进时为 NaN。
+     */
+    public double megno() {
+        double elapsed = simulationTimeSeconds - chaosStartSeconds;
+        return variational && elapsed > 0.0 ? megnoIntegral / elapsed : Double.NaN;
+    }
+
+    /** 当前状态的两两距离；最后一次力计算未覆盖当前位置时单独遍历一次。 */
+    private PairProximity currentProximity() {
+        if (proximityStep != step) {
+            proximity.scan(current.x, current.y, current.z, n, nearThreshold);
+            proximityStep = step;
+        }
+        return proximity;
+    }
+
+    private void checkFinite(int i, long nextStep, double nextTime) {
+        PhaseSpace s = next;
+        if (Double.isFinite(s.x[i]) && Double.isFinite(s.y[i]) && Double.isFinite(s.z[i])
+                && Double.isFinite(s.vx[i]) && Double.isFinite(s.vy[i]) && Double.isFinite(s.vz[i])) {
+            return;
+        }
+        double[] values = {s.x[i], s.y[i], s.z[i], s.vx[i], s.vy[i], s.vz[i]};
+        String[] fields = {"position.x", "position.y", "position.z", "velocity.x", "velocity.y", "velocity.z"};
+        String field = "state";
+        String value = "NaN";
+        for (int c = 0; c < values.length; c++) {
+            if (!Double.isFinite(values[c])) {
+                field = fields[c];
+                value = NBodyIntegrator.finiteValueText(values[c]);
+                break;
+            }
+        }
+        throw new NumericalInstabilityException(
+                "天体 " + config.bodies().get(i).name() + " 在第 " + nextStep + " 步出现非有限数值，请减小时间步长或增大软化长度",
+                nextStep, ids[i], field, nextTime, value);
+    }
+}
@@ -0,0 +1,50 @@
+package com.threebody.core;
+
+/**
+ * 积分方案 SPI。实现由 {@link IntegratorKind#create(SimulationConfig)} 按会话创建，持有自身的级缓冲区并跨步复用，
+ * 不是线程安全的。
+ */
+public interface Integrator {
+
+    IntegratorKind kind();
+
+    /**
+     * 从 current 推进一步，结果写入 next；不得修改 current。
+     *
+     * @param forces   加速度计算
+     * @param nextStep 推进后的步数，用于异常上下文
+     * @param time     current 的模拟时间(s)
+     * @param dt       固定步长方案的步长(s)；自适应方案的步长上限
+     * @return 实际推进的时长(s)，固定步长方案恰为 dt
+     * @throws NumericalInstabilityException 力计算失败时抛出
+     */
+    double step(PhaseSpace current, PhaseSpace next, ForceField forces, long nextStep, double time, double dt);
+
+    /**
+     * 丢弃跨步缓存（例如 leapfrog 复用的末端加速度）。会话载入新状态或推进失败后调用。
+     */
+    default void reset() {
+    }
+
+    /**
+     * 最近一次 {@link #step} 的最后一次力计算是否恰好在写入 next 的最终位置上进行，且之后未再修改位置。
+     * 为 true 时会话直接采用该次力计算顺带得到的两两距离，省去单独的距离遍历。
+     */
+    default boolean finalForcesAtNextPositions() {
+        return false;
+    }
+
+    /** 是否支持在最近一次接受的步内做连续(稠密)输出。 */
+    default boolean supportsDenseOutput() {
+        return false;
+    }
+
+    /**
+     * 在最近一次接受的步内插值，theta = 0 为步起点、1 为步终点，结果写入 out。
+     *
+     * @throws UnsupportedOperationException 方案不支持稠密输出时
+     */
+    default void interpolate(double theta, PhaseSpace out) {
+        throw new UnsupportedOperationException(kind() + " 不支持稠密输出");
+    }
+}
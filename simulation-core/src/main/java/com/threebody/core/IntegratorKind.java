@@ -0,0 +1,129 @@
+package com.threebody.core;
+
+/**
+ * 可选积分方案。{@link #forceEvaluationsPerStep()} 为稳态下每步的力计算次数，用于运行成本估算；
+ * 自适应方案的配置步长是步长上限，实际步数不少于按配置步长估算的步数。
+ */
+public enum IntegratorKind {
+
+    /** 经典四阶 Runge-Kutta，每步 4 次力计算；能量存在长期漂移。 */
+    RK4(4, 4, false),
+
+    /** 踢-漂-踢 leapfrog（速度 Verlet），二阶辛方法；复用末端加速度后每步 1 次力计算，能量误差有界。 */
+    LEAPFROG(2, 1, true),
+
+    /** Yoshida 四阶辛方法：三个 leapfrog 子步的对称复合，每步 3 次力计算。 */
+    YOSHIDA4(4, 3, true),
+
+    /** Yoshida 六阶辛方法（解 A）：七个 leapfrog 子步的对称复合，每步 7 次力计算。 */
+    YOSHIDA6(6, 7, true),
+
+    /** Forest-Ruth 四阶辛方法（漂-踢-漂形式），每步 3 次力计算。 */
+    FOREST_RUTH(4, 3, true),
+
+    /** Dormand-Prince 5(4) 嵌入式自适应 Runge-Kutta，带稠密输出；每个接受步 6 次力计算(FSAL)，拒绝步另计。 */
+    DOPRI45(5, 6, false),
+
+    /**
+     * 四阶 Hermite 预估-校正，各天体使用 2 的幂块时间步，配置步长为最大块步长；
+     * 每个会话步至少 2 次全体力计算(周期起点与终点)，步内只重算到期天体，实际成本随层级分布增加。
+     */
+    HERMITE(4, 2, false),
+
+    /**
+     * Wisdom-Holman 混合变量辛方法：绕质量最大天体的开普勒漂移精确求解，只对相互作用做踢，二阶；
+     * 复用末端加速度后每步 1 次力计算。误差随相互作用与中心引力之比缩小，适合中心天体占主导质量的行星系统。
+     */
+    WISDOM_HOLMAN(2, 1, true);
+
+    private final int order;
+    private final int forceEvaluationsPerStep;
+    private final boolean symplectic;
+
+    IntegratorKind(int order, int forceEvaluationsPerStep, boolean symplectic) {
+        this.order = order;
+        this.forceEvaluationsPerStep = forceEvaluationsPerStep;
+        this.symplectic = symplectic;
+    }
+
+    /** 全局误差阶数：步长减半时误差约缩小 2^order 倍。 */
+    public int order() {
+        return order;
+    }
+
+    public int forceEvaluationsPerStep() {
+        return forceEvaluationsPerStep;
+    }
+
+    /** 是否为辛方法：固定步长下能量误差有界振荡而非长期漂移。 */
+    public boolean symplectic() {
+        return symplectic;
+    }
+
+    /** 是否自适应选择步长；此时 {@link SimulationConfig#timeStepSeconds()} 为步长上限。 */
+    public boolean adaptive() {
+        return this == DOPRI45;
+    }
+
+    /**
+     * 步长是否由方案自行细分（自适应步长或块时间步）；此时配置步长只是上限，
+     * 相对最近轨道周期过大不会直接导致失稳。
+     */
+    public boolean variableStep() {
+        return this == DOPRI45 || this == HERMITE;
+    }
+
+    /** 为给定配置创建新的积分方案实例。 */
+    public Integrator create(SimulationConfig config) {
+        int bodyCount = config.bodyCount();
+        return switch (this) {
+            case RK4 -> new Rk4Integrator(bodyCount);
+            case LEAPFROG -> new LeapfrogIntegrator(this, new double[] {1.0}, bodyCount);
+            case YOSHIDA4 -> new LeapfrogIntegrator(this, LeapfrogIntegrator.YOSHIDA4_WEIGHTS, bodyCount);
+            case YOSHIDA6 -> new LeapfrogIntegrator(this, LeapfrogIntegrator.YOSHIDA6_WEIGHTS, bodyCount);
+            case FOREST_RUTH -> new ForestRuthIntegrator(bodyCount);
+            case DOPRI45 -> new DormandPrinceIntegrator(config);
+            case HERMITE -> new HermiteIntegrator(config);
+            case WISDOM_HOLMAN -> new WisdomHolmanIntegrator(config);
+        };
+    }
+
+    /**
+     * 是否可以批量积分多组初始条件({@link Ensemble})或同时积分变分方程：固定步长且各天体只经由力计算耦合的方案。
+     */
+    public boolean supportsEnsemble() {
+        return !variableStep() && this != WISDOM_HOLMAN;
+    }
+
+    /**
+     * 缓冲区长度为 slots 的逐元素实例，供 {@link Ensemble} 把多个成员、{@link IntegrationSession}
+     * 把状态与切向量拼接在同一相空间中积分。
+     *
+     * @throws IllegalArgumentException 方案不支持批量积分时
+     */
+    Integrator createBatched(int slots) {
+        return switch (this) {
+            case RK4 -> new Rk4Integrator(slots);
+            case LEAPFROG -> new LeapfrogIntegrator(this, new double[] {1.0}, slots);
+            case YOSHIDA4 -> new LeapfrogIntegrator(this, LeapfrogIntegrator.YOSHIDA4_WEIGHTS, slots);
+            case YOSHIDA6 -> new LeapfrogIntegrator(this, LeapfrogIntegrator.YOSHIDA6_WEIGHTS, slots);
+            case FOREST_RUTH -> new ForestRuthIntegrator(slots);
+            case DOPRI45, HERMITE, WISDOM_HOLMAN -> throw new IllegalArgumentException(this + " 不支持批量积分");
+        };
+    }
+
+    /**
+     * 按名称解析，忽略大小写；null 或空白返回默认 {@link #RK4}，无法识别时返回 null。
+     */
+    public static IntegratorKind fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return RK4;
+        }
+        for (IntegratorKind kind : values()) {
+            if (kind.name().equalsIgnoreCase(name.trim())) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,239 @@
+package com.threebody.core;
+
+/**
+ * 普适变量形式的开普勒漂移：给定引力参数 mu，把相对位置与速度沿二体轨道精确推进 dt，
+ * 椭圆、抛物与双曲轨道统一处理。普适开普勒方程
+ * r0 s + eta0 G2(s) + zeta0 G3(s) = dt 用 Laguerre-Conway 迭代求解，其中 G_k(s) = s^k c_k(beta s^2)
+ * 为 Stumpff 函数，beta = 2 mu / r0 - v0^2，eta0 = r0 · v0，zeta0 = mu - beta r0；
+ * 解出 s 后用 f、g 函数更新状态。实例只持有 Stumpff 函数的暂存数组，推进过程不分配对象，不是线程安全的。
+ */
+final class KeplerDrift {
+
+    /** Laguerre-Conway 的最大迭代次数；正常情况下 3 至 6 次即收敛。 */
+    private static final int MAX_ITERATIONS = 50;
+
+    /** |z| 小于该值时 Stumpff 函数用级数求值，避免 (1 - cos) / z 的相消误差。 */
+    private static final double SERIES_LIMIT = 1.0;
+
+    /** 理论区间的放宽比例，容纳近心距与远心距的舍入误差。 */
+    private static final double BRACKET_MARGIN = 1.0e-9;
+
+    /** 双曲轨道漂移距离 |dt| v0 超过 r0 的该倍数时改用双曲近点角取初值。 */
+    private static final double HYPERBOLIC_GUESS_REACH = 0.1;
+
+    /** c4、c5 级数项数：|z| < 1 时第 12 项已小于 1e-30。 */
+    private static final int SERIES_TERMS = 12;
+
+    /** 1/k!，k = 0..4 + 2 * SERIES_TERMS + 1。 */
+    private static final double[] INVERSE_FACTORIAL = inverseFactorials(6 + 2 * SERIES_TERMS);
+
+    /** Stumpff 函数 c0..c3 的暂存。 */
+    private final double[] c = new double[4];
+
+    /**
+     * 把下标 i 处的相对状态沿开普勒轨道推进 dt，就地写回。
+     *
+     * <p>迭代初值取 s 关于 dt 的二阶展开 dt / r0 - eta0 dt^2 / (2 r0^3)，只由状态决定，
+     * 因此载入检查点后的结果与原会话逐位一致；双曲轨道的长时间漂移改由双曲开普勒方程取初值
+     * (见 {@link #hyperbolicGuess})。由于 ds/dt = 1/r，s 必然落在 dt 除以远心距与近心距所夹的区间内；
+     * 迭代越出区间时退回二分，长时间漂移与高偏心率轨道同样收敛。
+     *
+     * @return 收敛的普适变量 s；未收敛或出现非有限值时返回 NaN，此时状态不变
+     */
+    double drift(double mu, double dt, double[] x, double[] y, double[] z,
+            double[] vx, double[] vy, double[] vz, int i) {
+        double x0 = x[i];
+        double y0 = y[i];
+        double z0 = z[i];
+        double vx0 = vx[i];
+        double vy0 = vy[i];
+        double vz0 = vz[i];
+        double r0 = Math.sqrt(x0 * x0 + y0 * y0 + z0 * z0);
+        double v2 = vx0 * vx0 + vy0 * vy0 + vz0 * vz0;
+        double eta0 = x0 * vx0 + y0 * vy0 + z0 * vz0;
+        double beta = 2.0 * mu / r0 - v2;
+        double zeta0 = mu - beta * r0;
+        if (!(r0 > 0.0) || !Double.isFinite(beta)) {
+            return Double.NaN;
+        }
+
+        if (dt == 0.0) {
+            return 0.0;
+        }
+
+        // ds/dt = 1/r，r 介于近心距 q 与远心距之间，由此得到 s 的理论区间；双曲轨道远心距为无穷
+        double hx = y0 * vz0 - z0 * vy0;
+        double hy = z0 * vx0 - x0 * vz0;
+        double hz = x0 * vy0 - y0 * vx0;
+        double p = (hx * hx + hy * hy + hz * hz) / mu;
+        double e = Math.sqrt(Math.max(0.0, 1.0 - p * beta / mu));
+        double pericentre = p / (1.0 + e);
+        double apocentre = e < 1.0 ? p / (1.0 - e) : Double.POSITIVE_INFINITY;
+        double lower = Math.min(dt / pericentre, dt / apocentre) * (1.0 - BRACKET_MARGIN);
+        double upper = Math.max(dt / pericentre, dt / apocentre) * (1.0 + BRACKET_MARGIN);
+        if (lower > upper) {
+            double swap = lower;
+            lower = upper;
+            upper = swap;
+        }
+
+        double s = dt / r0 - eta0 * dt * dt / (2.0 * r0 * r0 * r0);
+        if (beta < 0.0 && e > 1.0 && Math.abs(dt) * Math.sqrt(v2) > HYPERBOLIC_GUESS_REACH * r0) {
+            // 双曲轨道上移动距离与当前半径相当的漂移：二阶展开失效，改由双曲开普勒方程取初值
+            double guess = hyperbolicGuess(mu, beta, e, r0, eta0, dt);
+            if (Double.isFinite(guess)) {
+                s = guess;
+            }
+        }
+        if (!(s > lower && s < upper)) {
+            s = Double.isFinite(upper) ? 0.5 * (lower + upper) : dt * Math.max(beta, 0.0) / mu;
+        }
+        boolean converged = false;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            stumpff(beta * s * s, c);
+            double g1 = s * c[1];
+            double g2 = s * s * c[2];
+            double g3 = s * s * s * c[3];
+            double f = r0 * s + eta0 * g2 + zeta0 * g3 - dt;
+            // 残差已落入各项舍入误差之内：双曲轨道长时间漂移时各项远大于 dt，相对 dt 的容差无法达到
+            double scale = Math.abs(r0 * s) + Math.abs(eta0 * g2) + Math.abs(zeta0 * g3) + Math.abs(dt);
+            if (Math.abs(f) <= 8.0 * Math.ulp(scale)) {
+                converged = true;
+                break;
+            }
+            // 方程左端随 s 单调增，按残差符号收紧区间
+            if (f < 0.0) {
+                lower = s;
+            } else {
+                upper = s;
+            }
+            double fp = r0 + eta0 * g1 + zeta0 * g2;
+            double fpp = eta0 * c[0] + zeta0 * g1;
+            double root = Math.sqrt(Math.abs(16.0 * fp * fp - 20.0 * f * fpp));
+            double next = s - 5.0 * f / (fp + Math.copySign(root, fp));
+            if (Math.abs(next - s) <= 1.0e-15 * Math.abs(s)) {
+                // 修正量已低于舍入精度；此时 next 可能恰等于刚收紧的区间端点，不能再退回二分
+                converged = true;
+                break;
+            }
+            if (!(next > lower && next < upper)) {
+                // Laguerre-Conway 越出区间或出现非有限值时退回二分
+                if (!Double.isFinite(lower) || !Double.isFinite(upper)) {
+                    return Double.NaN;
+                }
+                next = 0.5 * (lower + upper);
+            }
+            double ds = next - s;
+            s = next;
+            if (Math.abs(ds) <= 1.0e-15 * Math.abs(s) || upper - lower <= 1.0e-14 * Math.abs(s)) {
+                converged = true;
+                break;
+            }
+        }
+        if (!converged) {
+            return Double.NaN;
+        }
+
+        stumpff(beta * s * s, c);
+        double g1 = s * c[1];
+        double g2 = s * s * c[2];
+        double g3 = s * s * s * c[3];
+        double r = r0 + eta0 * g1 + zeta0 * g2;
+        double f = 1.0 - mu * g2 / r0;
+        double g = dt - mu * g3;
+        double fd = -mu * g1 / (r0 * r);
+        double gd = 1.0 - mu * g2 / r;
+        double nx = f * x0 + g * vx0;
+        double ny = f * y0 + g * vy0;
+        double nz = f * z0 + g * vz0;
+        double nvx = fd * x0 + gd * vx0;
+        double nvy = fd * y0 + gd * vy0;
+        double nvz = fd * z0 + gd * vz0;
+        if (!Double.isFinite(nx + ny + nz + nvx + nvy + nvz)) {
+            return Double.NaN;
+        }
+        x[i] = nx;
+        y[i] = ny;
+        z[i] = nz;
+        vx[i] = nvx;
+        vy[i] = nvy;
+        vz[i] = nvz;
+        return s;
+    }
+
+    /**
+     * 双曲轨道的普适变量初值：s = (F - F0) / k，k = sqrt(-beta)，F 为双曲近点角，
+     * 由 e sinh F - F = M0 + n dt 用牛顿法求出。该方程左端单调，且在根的一侧是凸的，从上界出发稳定收敛；
+     * 近抛物线轨道也不会像普适方程那样在指数区缓慢爬行。
+     *
+     * @return 初值；牛顿法未收敛时为 NaN
+     */
+    private static double hyperbolicGuess(double mu, double beta, double e, double r0, double eta0, double dt) {
+        double k = Math.sqrt(-beta);
+        double meanMotion = k * k * k / mu;
+        double f0 = asinh(eta0 * k / (e * mu));
+        double target = e * Math.sinh(f0) - f0 + meanMotion * dt;
+        // 根的两个上界：e sinh F - F >= F^3 / 6，且 e sinh F = M + F；从上界出发的牛顿迭代对凸函数单调收敛
+        double cube = Math.cbrt(6.0 * Math.abs(target));
+        double anomaly = Math.copySign(Math.min(cube, asinh((Math.abs(target) + cube) / e)), target);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double step = (e * Math.sinh(anomaly) - anomaly - target) / (e * Math.cosh(anomaly) - 1.0);
+            anomaly -= step;
+            if (Math.abs(step) <= 1.0e-12 * Math.max(1.0, Math.abs(anomaly))) {
+                return (anomaly - f0) / k;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double asinh(double value) {
+        return Math.copySign(Math.log(Math.abs(value) + Math.sqrt(value * value + 1.0)), value);
+    }
+
+    /** Stumpff 函数 c0..c3 写入 out。 */
+    static void stumpff(double z, double[] out) {
+        if (Math.abs(z) < SERIES_LIMIT) {
+            // c_k(z) = 1/k! - z c_{k+2}(z)，由级数求出 c4、c5 后向下递推
+            double c4 = 0.0;
+            double c5 = 0.0;
+            for (int j = SERIES_TERMS; j >= 0; j--) {
+                c4 = INVERSE_FACTORIAL[4 + 2 * j] - z * c4;
+                c5 = INVERSE_FACTORIAL[5 + 2 * j] - z * c5;
+            }
+            double c3 = INVERSE_FACTORIAL[3] - z * c5;
+            double c2 = INVERSE_FACTORIAL[2] - z * c4;
+            out[0] = 1.0 - z * c2;
+            out[1] = 1.0 - z * c3;
+            out[2] = c2;
+            out[3] = c3;
+        } else if (z > 0.0) {
+            double sz = Math.sqrt(z);
+            double c0 = Math.cos(sz);
+            double c1 = Math.sin(sz) / sz;
+            out[0] = c0;
+            out[1] = c1;
+            out[2] = (1.0 - c0) / z;
+            out[3] = (1.0 - c1) / z;
+        } else {
+            double sz = Math.sqrt(-z);
+            double c0 = Math.cosh(sz);
+            double c1 = Math.sinh(sz) / sz;
+            out[0] = c0;
+            out[1] = c1;
+            out[2] = (1.0 - c0) / z;
+            out[3] = (1.0 - c1) / z;
+        }
+    }
+
+    private static double[] inverseFactorials(int count) {
+        double[] result = new double[count];
+        double factorial = 1.0;
+        for (int k = 0; k < count; k++) {
+            if (k > 0) {
+                factorial *= k;
+            }
+            result[k] = 1.0 / factorial;
+        }
+        return result;
+    }
+}
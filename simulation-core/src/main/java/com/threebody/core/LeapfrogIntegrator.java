@@ -0,0 +1,99 @@
+package com.threebody.core;
+
+/**
+ * 踢-漂-踢 leapfrog（速度 Verlet）及其对称复合。单个子步为二阶辛方法：
+ * v' = v + a(x) h/2，x_1 = x + v' h，v_1 = v' + a(x_1) h/2，其中 h = w_k dt。
+ * 按 Yoshida 权重依次执行多个子步即得到高阶辛方法；权重为 {1} 时就是普通 leapfrog。
+ *
+ * <p>每个子步的末端加速度即下一子步（或下一步）的起始加速度，缓存后稳态每步的力计算次数等于子步数；
+ * 会话载入新状态或推进失败时经 {@link #reset()} 丢弃缓存。
+ */
+final class LeapfrogIntegrator implements Integrator {
+
+    /** Yoshida 四阶三重跳权重 w1, w0, w1，其中 w1 = 1/(2 - 2^(1/3))。 */
+    static final double[] YOSHIDA4_WEIGHTS = yoshida4Weights();
+
+    /** Yoshida (1990) 六阶解 A 的七个对称权重。 */
+    static final double[] YOSHIDA6_WEIGHTS = yoshida6Weights();
+
+    private final IntegratorKind kind;
+    private final double[] weights;
+    private final double[] ax;
+    private final double[] ay;
+    private final double[] az;
+    private boolean accelerationCached;
+
+    LeapfrogIntegrator(IntegratorKind kind, double[] weights, int bodyCount) {
+        this.kind = kind;
+        this.weights = weights.clone();
+        this.ax = new double[bodyCount];
+        this.ay = new double[bodyCount];
+        this.az = new double[bodyCount];
+    }
+
+    @Override
+    public IntegratorKind kind() {
+        return kind;
+    }
+
+    @Override
+    public double step(PhaseSpace current, PhaseSpace next, ForceField forces, long nextStep, double time, double dt) {
+        int n = current.size();
+        if (!accelerationCached) {
+            forces.accelerations(current.x, current.y, current.z, ax, ay, az, nextStep, time);
+        }
+        PhaseSpace source = current;
+        double subTime = time;
+        for (double weight : weights) {
+            double h = weight * dt;
+            double half = h / 2.0;
+            for (int i = 0; i < n; i++) {
+                double kickVx = source.vx[i] + half * ax[i];
+                double kickVy = source.vy[i] + half * ay[i];
+                double kickVz = source.vz[i] + half * az[i];
+                next.x[i] = source.x[i] + h * kickVx;
+                next.y[i] = source.y[i] + h * kickVy;
+                next.z[i] = source.z[i] + h * kickVz;
+                next.vx[i] = kickVx;
+                next.vy[i] = kickVy;
+                next.vz[i] = kickVz;
+            }
+            accelerationCached = false;
+            subTime += h;
+            forces.accelerations(next.x, next.y, next.z, ax, ay, az, nextStep, subTime);
+            for (int i = 0; i < n; i++) {
+                next.vx[i] += half * ax[i];
+                next.vy[i] += half * ay[i];
+                next.vz[i] += half * az[i];
+            }
+            accelerationCached = true;
+            source = next;
+        }
+        return dt;
+    }
+
+    @Override
+    public void reset() {
+        accelerationCached = false;
+    }
+
+    @Override
+    public boolean finalForcesAtNextPositions() {
+        return accelerationCached;
+    }
+
+    private static double[] yoshida4Weights() {
+        double cbrt2 = Math.cbrt(2.0);
+        double w1 = 1.0 / (2.0 - cbrt2);
+        double w0 = -cbrt2 * w1;
+        return new double[] {w1, w0, w1};
+    }
+
+    private static double[] yoshida6Weights() {
+        double w1 = -1.17767998417887;
+        double w2 = 0.235573213359357;
+        double w3 = 0.784513610477560;
+        double w0 = 1.0 - 2.0 * (w1 + w2 + w3);
+        return new double[] {w3, w2, w1, w0, w1, w2, w3};
+    }
+}
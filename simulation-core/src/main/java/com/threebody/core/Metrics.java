@@ -14,6 +14,11 @@ import java.util.List;
  * @param linearMomentum            总动量向量
  * @param minimumPairDistanceMeters 当前最近两体距离(m)
  * @param minimumPairBodyIds        最近两体标识
+ * @param forceErrorEstimate        近似引力求解的抽样相对力误差(均方根)；直接求和时为 null
+ * @param lyapunovExponentPerSecond 由变分方程得到的有限时间最大 Lyapunov 指数(1/s)；未开启混沌指标时为 null
+ * @param megno                     平均 MEGNO 指标 &lt;Y&gt;：规则运动趋于 2，混沌运动随时间线性增长；未开启时为 null
+ * @param pararealIterations        最近一个并行时间分片窗口收敛所用的迭代次数；未开启或尚未完成窗口时为 null
+ * @param pararealSpeedup           最近一个窗口的实测加速比：各片细积分耗时之和除以窗口墙钟耗时；未开启时为 null
  */
 public record Metrics(
         double kineticEnergyJoules,
@@ -24,12 +29,47 @@ public record Metrics(
         Vector3 angularMomentum,
         Vector3 linearMomentum,
         double minimumPairDistanceMeters,
-        List<String> minimumPairBodyIds) {
+        List<String> minimumPairBodyIds,
+        Double forceErrorEstimate,
+        Double lyapunovExponentPerSecond,
+        Double megno,
+        Integer pararealIterations,
+        Double pararealSpeedup) {
 
     public Metrics {
         minimumPairBodyIds = minimumPairBodyIds == null ? List.of() : List.copyOf(minimumPairBodyIds);
     }
 
+    /** 直接求和(无力误差估计)的指标。 */
+    public Metrics(double kineticEnergyJoules, double potentialEnergyJoules, double totalEnergyJoules,
+            double initialTotalEnergyJoules, double relativeEnergyDrift, Vector3 angularMomentum,
+            Vector3 linearMomentum, double minimumPairDistanceMeters, List<String> minimumPairBodyIds) {
+        this(kineticEnergyJoules, potentialEnergyJoules, totalEnergyJoules, initialTotalEnergyJoules,
+                relativeEnergyDrift, angularMomentum, linearMomentum, minimumPairDistanceMeters,
+                minimumPairBodyIds, null, null, null, null, null);
+    }
+
+    public Metrics withForceErrorEstimate(Double newForceErrorEstimate) {
+        return new Metrics(kineticEnergyJoules, potentialEnergyJoules, totalEnergyJoules, initialTotalEnergyJoules,
+                relativeEnergyDrift, angularMomentum, linearMomentum, minimumPairDistanceMeters,
+                minimumPairBodyIds, newForceErrorEstimate, lyapunovExponentPerSecond, megno,
+                pararealIterations, pararealSpeedup);
+    }
+
+    public Metrics withChaosIndicators(Double newLyapunovExponentPerSecond, Double newMegno) {
+        return new Metrics(kineticEnergyJoules, potentialEnergyJoules, totalEnergyJoules, initialTotalEnergyJoules,
+                relativeEnergyDrift, angularMomentum, linearMomentum, minimumPairDistanceMeters,
+                minimumPairBodyIds, forceErrorEstimate, newLyapunovExponentPerSecond, newMegno,
+                pararealIterations, pararealSpeedup);
+    }
+
+    public Metrics withParareal(Integer newPararealIterations, Double newPararealSpeedup) {
+        return new Metrics(kineticEnergyJoules, potentialEnergyJoules, totalEnergyJoules, initialTotalEnergyJoules,
+                relativeEnergyDrift, angularMomentum, linearMomentum, minimumPairDistanceMeters,
+                minimumPairBodyIds, forceErrorEstimate, lyapunovExponentPerSecond, megno,
+                newPararealIterations, newPararealSpeedup);
+    }
+
     public double angularMomentumMagnitude() {
         return angularMomentum.length();
     }
@@ -1,6 +1,5 @@
 package com.threebody.core;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -101,42 +100,168 @@ public final class MetricsCalculator {
         return (currentEnergy - initialEnergy) / Math.abs(initialEnergy);
     }
 
+    /**
+     * 近似引力求解在当前状态下的抽样相对力误差(均方根)；直接求和返回 null。
+     */
+    public static Double forceErrorEstimate(SimulationConfig config, SimulationState state) {
+        if (config.forceSolver().resolve(config.bodyCount()) == ForceSolverKind.DIRECT) {
+            return null;
+        }
+        List<BodyState> bodies = state.bodies();
+        int n = bodies.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            Vector3 p = bodies.get(i).position();
+            x[i] = p.x();
+            y[i] = p.y();
+            z[i] = p.z();
+        }
+        return forceErrorEstimate(approximateForces(config), x, y, z, state.step(), state.simulationTimeSeconds());
+    }
+
+    /**
+     * 没有会话可借用时为一次性估计创建近似求解器；直接求和返回 null。
+     */
+    private static ForceField approximateForces(SimulationConfig config) {
+        return config.forceSolver().resolve(config.bodyCount()) == ForceSolverKind.DIRECT
+                ? null : config.forceSolver().create(config);
+    }
+
+    /**
+     * 用给定求解器抽样估计力误差；不是树或多极子求解器(含 null)时返回 null。
+     */
+    private static Double forceErrorEstimate(ForceField forces, double[] x, double[] y, double[] z,
+            long step, double time) {
+        if (forces instanceof FmmGravity fmm) {
+            return fmm.estimateRelativeError(x, y, z, step, time);
+        }
+        if (forces instanceof BarnesHutGravity tree) {
+            return tree.estimateRelativeError(x, y, z, step, time);
+        }
+        return null;
+    }
+
     /**
      * 计算完整指标集合。
      *
      * @param initialTotalEnergy 初始总能量(J)，用于漂移计算
      */
     public static Metrics compute(SimulationConfig config, SimulationState state, double initialTotalEnergy) {
-        double kinetic = kineticEnergy(config, state);
-        double potential = potentialEnergy(config, state);
-        double total = kinetic + potential;
-
-        double minDistance = Double.POSITIVE_INFINITY;
-        List<String> minPair = new ArrayList<>();
         List<BodyState> bodies = state.bodies();
-        for (int i = 0; i < bodies.size(); i++) {
-            for (int j = i + 1; j < bodies.size(); j++) {
-                double distance = bodies.get(j).position().subtract(bodies.get(i).position()).length();
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    minPair = List.of(bodies.get(i).id(), bodies.get(j).id());
+        int n = bodies.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        double[] vx = new double[n];
+        double[] vy = new double[n];
+        double[] vz = new double[n];
+        for (int i = 0; i < n; i++) {
+            BodyState b = bodies.get(i);
+            x[i] = b.position().x();
+            y[i] = b.position().y();
+            z[i] = b.position().z();
+            vx[i] = b.velocity().x();
+            vy[i] = b.velocity().y();
+            vz[i] = b.velocity().z();
+        }
+        return compute(config, x, y, z, vx, vy, vz, state.step(), state.simulationTimeSeconds(),
+                initialTotalEnergy, Double.NaN, null, approximateForces(config));
+    }
+
+    /**
+     * 单遍指标内核：一次遍历天体求动能、动量与角动量，一次遍历天体对求势能与最近天体对，
+     * 全程只读扁平数组，不分配中间向量。结果与 {@link #kineticEnergy}、{@link #potentialEnergy}、
+     * {@link #linearMomentum}、{@link #angularMomentum} 逐位相同；最近天体对取距离平方最小者，
+     * 相等时取字典序在前者，与 {@link PairProximity} 一致。
+     *
+     * <p>knownPotential 不是 NaN 时直接采用(力计算已累加的势能)；knownPair 非 null 时采用其中的最近天体对。
+     * 两者都已知时不再遍历天体对。力误差估计借用 forces(通常是会话自己的求解器，复用其树与展开缓冲区)，
+     * 不是树或多极子求解器时为 null。
+     */
+    static Metrics compute(SimulationConfig config, double[] x, double[] y, double[] z,
+            double[] vx, double[] vy, double[] vz, long step, double time, double initialTotalEnergy,
+            double knownPotential, PairProximity knownPair, ForceField forces) {
+        List<BodySpec> specs = config.bodies();
+        int n = specs.size();
+        double[] masses = new double[n];
+        double kinetic = 0.0;
+        double px = 0.0;
+        double py = 0.0;
+        double pz = 0.0;
+        double lx = 0.0;
+        double ly = 0.0;
+        double lz = 0.0;
+        for (int i = 0; i < n; i++) {
+            double m = specs.get(i).massKg();
+            masses[i] = m;
+            kinetic += 0.5 * m * (vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i]);
+            double mvx = vx[i] * m;
+            double mvy = vy[i] * m;
+            double mvz = vz[i] * m;
+            px += mvx;
+            py += mvy;
+            pz += mvz;
+            lx += y[i] * mvz - z[i] * mvy;
+            ly += z[i] * mvx - x[i] * mvz;
+            lz += x[i] * mvy - y[i] * mvx;
+        }
+
+        boolean needPotential = Double.isNaN(knownPotential);
+        double potential = needPotential ? 0.0 : knownPotential;
+        double minimumSquared = Double.POSITIVE_INFINITY;
+        int minimumFirst = -1;
+        int minimumSecond = -1;
+        if (knownPair != null) {
+            minimumFirst = knownPair.minimumFirst();
+            minimumSecond = knownPair.minimumSecond();
+        }
+        if (needPotential || knownPair == null) {
+            double g = config.gravitationalConstant();
+            double eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    double dx = x[j] - x[i];
+                    double dy = y[j] - y[i];
+                    double dz = z[j] - z[i];
+                    double d2 = dx * dx + dy * dy + dz * dz;
+                    if (knownPair == null && d2 < minimumSquared) {
+                        minimumSquared = d2;
+                        minimumFirst = i;
+                        minimumSecond = j;
+                    }
+                    double r2 = d2 + eps2;
+                    if (needPotential && !(r2 <= 0.0)) {
+                        potential -= g * masses[i] * masses[j] / Math.sqrt(r2);
+                    }
                 }
             }
         }
-        if (!Double.isFinite(minDistance)) {
+        double minDistance = knownPair != null ? knownPair.minimumDistance() : Math.sqrt(minimumSquared);
+        List<String> minPair;
+        if (!Double.isFinite(minDistance) || minimumFirst < 0) {
             minDistance = 0.0;
             minPair = List.of();
+        } else {
+            minPair = List.of(specs.get(minimumFirst).id(), specs.get(minimumSecond).id());
         }
 
+        double total = kinetic + potential;
         return new Metrics(
                 kinetic,
                 potential,
                 total,
                 initialTotalEnergy,
                 relativeEnergyDrift(initialTotalEnergy, total),
-                angularMomentum(config, state),
-                linearMomentum(config, state),
+                new Vector3(lx, ly, lz),
+                new Vector3(px, py, pz),
                 minDistance,
-                minPair);
+                minPair,
+                forceErrorEstimate(forces, x, y, z, step, time),
+                null,
+                null,
+                null,
+                null);
     }
 }
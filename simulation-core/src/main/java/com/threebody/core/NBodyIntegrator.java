@@ -4,11 +4,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * 四阶龙格-库塔(RK4)N 体积分器，使用软化引力：
+ * N 体积分器入口，使用软化引力：
  * a_i = sum_j G * m_j * r_ij / (|r_ij|^2 + eps^2)^(3/2)
  *
  * <p>软化长度 eps 消除近距离奇点，因此不需要距离截断，也不会因两体极近而产生无穷加速度。
- * 本类无状态且线程安全，所有输入输出均为 SI 单位。
+ * 本类无状态且线程安全，所有输入输出均为 SI 单位；积分内核由 {@link IntegrationSession} 实现，
+ * 积分方案由 {@link SimulationConfig#integrator()} 选择（默认 RK4）。
  */
 public final class NBodyIntegrator {
 
@@ -27,7 +28,8 @@ public final class NBodyIntegrator {
     }
 
     /**
-     * 推进一步。
+     * 推进一步。连续推进多步的调用方应直接持有 {@link IntegrationSession}，
+     * 避免每步重建缓冲区并物化状态。
      *
      * @param config 模拟配置，提供步长、引力常数、软化长度与质量
      * @param state  当前状态
@@ -35,58 +37,26 @@ public final class NBodyIntegrator {
      * @throws NumericalInstabilityException 结果包含非有限值时抛出
      */
     public static StepResult step(SimulationConfig config, SimulationState state) {
-        double dt = config.timeStepSeconds();
-        double[] masses = massArray(config);
-        int n = masses.length;
-
-        double[][] pos = new double[n][3];
-        double[][] vel = new double[n][3];
-        fill(state, pos, vel);
-
-        // RK4：位置导数为速度，速度导数为加速度
-        long nextStep = state.step() + 1;
-        double[][] a1 = accelerations(config, masses, pos, nextStep, state.simulationTimeSeconds());
-
-        double[][] pos2 = advance(pos, vel, dt / 2.0);
-        double[][] vel2 = advance(vel, a1, dt / 2.0);
-        double[][] a2 = accelerations(config, masses, pos2, nextStep, state.simulationTimeSeconds() + dt / 2.0);
-
-        double[][] pos3 = advance(pos, vel2, dt / 2.0);
-        double[][] vel3 = advance(vel, a2, dt / 2.0);
-        double[][] a3 = accelerations(config, masses, pos3, nextStep, state.simulationTimeSeconds() + dt / 2.0);
-
-        double[][] pos4 = advance(pos, vel3, dt);
-        double[][] vel4 = advance(vel, a3, dt);
-        double[][] a4 = accelerations(config, masses, pos4, nextStep, state.simulationTimeSeconds() + dt);
-
-        double[][] newPos = new double[n][3];
-        double[][] newVel = new double[n][3];
-        double sixth = dt / 6.0;
-        for (int i = 0; i < n; i++) {
-            for (int c = 0; c < 3; c++) {
-                newPos[i][c] = pos[i][c] + sixth * (vel[i][c] + 2 * vel2[i][c] + 2 * vel3[i][c] + vel4[i][c]);
-                newVel[i][c] = vel[i][c] + sixth * (a1[i][c] + 2 * a2[i][c] + 2 * a3[i][c] + a4[i][c]);
-            }
-        }
-
-        List<BodyState> nextBodies = new ArrayList<>(n);
-        List<BodySpec> specs = config.bodies();
-        for (int i = 0; i < n; i++) {
-            Vector3 p = new Vector3(newPos[i][0], newPos[i][1], newPos[i][2]);
-            Vector3 v = new Vector3(newVel[i][0], newVel[i][1], newVel[i][2]);
-            if (!p.isFinite() || !v.isFinite()) {
-                NonFiniteComponent component = firstNonFinite(p, v);
-                throw new NumericalInstabilityException(
-                        "天体 " + specs.get(i).name() + " 在第 " + nextStep + " 步出现非有限数值，请减小时间步长或增大软化长度",
-                        nextStep, specs.get(i).id(), component.field(),
-                        state.simulationTimeSeconds() + dt, component.value());
-            }
-            nextBodies.add(new BodyState(specs.get(i).id(), p, v));
-        }
+        IntegrationSession session = new IntegrationSession(config, state);
+        session.advance();
+        return new StepResult(session.state(), session.nearEncounters());
+    }
 
-        double nextTime = state.simulationTimeSeconds() + dt;
-        SimulationState next = new SimulationState(nextStep, nextTime, nextBodies);
-        return new StepResult(next, detectNearEncounters(config, next));
+    /**
+     * 从给定状态批量推进至多 maxSteps 步，只在观察者要求的步物化中间结果。
+     *
+     * @param config   模拟配置
+     * @param state    起始状态
+     * @param maxSteps 最多推进步数
+     * @param observer 步观察者，可用 {@link StepObserver#NONE} 直接快进
+     * @return 停止时的状态
+     * @throws NumericalInstabilityException 结果包含非有限值时抛出
+     */
+    public static SimulationState advance(SimulationConfig config, SimulationState state,
+            long maxSteps, StepObserver observer) {
+        IntegrationSession session = new IntegrationSession(config, state);
+        session.advance(maxSteps, observer);
+        return session.state();
     }
 
     /**
@@ -98,10 +68,18 @@ public final class NBodyIntegrator {
             return List.of();
         }
         List<BodyState> bodies = state.bodies();
+        if (bodies.size() >= SweepAndPrune.MIN_BODIES) {
+            return detectBySweep(bodies, threshold);
+        }
         List<NearEncounter> found = new ArrayList<>();
         for (int i = 0; i < bodies.size(); i++) {
+            Vector3 pi = bodies.get(i).position();
             for (int j = i + 1; j < bodies.size(); j++) {
-                double distance = bodies.get(j).position().subtract(bodies.get(i).position()).length();
+                Vector3 pj = bodies.get(j).position();
+                double dx = pj.x() - pi.x();
+                double dy = pj.y() - pi.y();
+                double dz = pj.z() - pi.z();
+                double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
                 if (distance < threshold) {
                     found.add(new NearEncounter(bodies.get(i).id(), bodies.get(j).id(), distance, threshold));
                 }
@@ -110,93 +88,30 @@ public final class NBodyIntegrator {
         return found;
     }
 
-    /**
-     * 计算软化引力加速度(m/s^2)。
-     */
-    static double[][] accelerations(SimulationConfig config, double[] masses, double[][] pos,
-            long step, double simulationTimeSeconds) {
-        int n = masses.length;
-        double g = config.gravitationalConstant();
-        double eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
-        double[][] acc = new double[n][3];
-
-        for (int i = 0; i < n; i++) {
-            for (int j = i + 1; j < n; j++) {
-                double dx = pos[j][0] - pos[i][0];
-                double dy = pos[j][1] - pos[i][1];
-                double dz = pos[j][2] - pos[i][2];
-                double r2 = dx * dx + dy * dy + dz * dz + eps2;
-                // 防御性检查：当软化长度为 0 且两天体位置完全相同时，
-                // 或 r2 下溢至 0 时跳过以避免除零
-                if (!Double.isFinite(r2) || r2 <= 1e-300) {
-                    throw new NumericalInstabilityException(
-                            "天体间距过小，无法计算有限引力加速度；请增大软化长度",
-                            step, config.bodies().get(i).id() + "," + config.bodies().get(j).id(),
-                            "pairDistanceSquared", simulationTimeSeconds,
-                            Double.isFinite(r2) ? Double.toString(r2) : finiteValueText(r2));
-                }
-                double invR3 = 1.0 / (r2 * Math.sqrt(r2));
-                double factorI = g * masses[j] * invR3;
-                double factorJ = g * masses[i] * invR3;
-                acc[i][0] += factorI * dx;
-                acc[i][1] += factorI * dy;
-                acc[i][2] += factorI * dz;
-                acc[j][0] -= factorJ * dx;
-                acc[j][1] -= factorJ * dy;
-                acc[j][2] -= factorJ * dz;
-            }
-        }
-        return acc;
-    }
-
-    static double[] massArray(SimulationConfig config) {
-        List<BodySpec> specs = config.bodies();
-        double[] masses = new double[specs.size()];
-        for (int i = 0; i < masses.length; i++) {
-            masses[i] = specs.get(i).massKg();
-        }
-        return masses;
-    }
-
-    private static void fill(SimulationState state, double[][] pos, double[][] vel) {
-        List<BodyState> bodies = state.bodies();
-        for (int i = 0; i < bodies.size(); i++) {
-            BodyState b = bodies.get(i);
-            pos[i][0] = b.position().x();
-            pos[i][1] = b.position().y();
-            pos[i][2] = b.position().z();
-            vel[i][0] = b.velocity().x();
-            vel[i][1] = b.velocity().y();
-            vel[i][2] = b.velocity().z();
-        }
-    }
-
-    private static double[][] advance(double[][] base, double[][] derivative, double h) {
-        int n = base.length;
-        double[][] out = new double[n][3];
+    /** 天体较多时经 {@link PairProximity#scan} 扫描剪枝，结果与逐对遍历相同。 */
+    private static List<NearEncounter> detectBySweep(List<BodyState> bodies, double threshold) {
+        int n = bodies.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
         for (int i = 0; i < n; i++) {
-            for (int c = 0; c < 3; c++) {
-                out[i][c] = base[i][c] + h * derivative[i][c];
-            }
+            Vector3 p = bodies.get(i).position();
+            x[i] = p.x();
+            y[i] = p.y();
+            z[i] = p.z();
         }
-        return out;
-    }
-
-    private static NonFiniteComponent firstNonFinite(Vector3 position, Vector3 velocity) {
-        double[] values = {position.x(), position.y(), position.z(), velocity.x(), velocity.y(), velocity.z()};
-        String[] fields = {"position.x", "position.y", "position.z", "velocity.x", "velocity.y", "velocity.z"};
-        for (int i = 0; i < values.length; i++) {
-            if (!Double.isFinite(values[i])) {
-                return new NonFiniteComponent(fields[i], finiteValueText(values[i]));
-            }
+        PairProximity proximity = new PairProximity();
+        proximity.scan(x, y, z, n, threshold);
+        List<NearEncounter> found = new ArrayList<>(proximity.encounterCount());
+        for (int k = 0; k < proximity.encounterCount(); k++) {
+            found.add(new NearEncounter(bodies.get(proximity.encounterFirst(k)).id(),
+                    bodies.get(proximity.encounterSecond(k)).id(), proximity.encounterDistance(k), threshold));
         }
-        return new NonFiniteComponent("state", "NaN");
+        return found;
     }
 
-    private static String finiteValueText(double value) {
+    static String finiteValueText(double value) {
         if (Double.isNaN(value)) return "NaN";
         return value > 0.0 ? "Infinity" : "-Infinity";
     }
-
-    private record NonFiniteComponent(String field, String value) {}
 }
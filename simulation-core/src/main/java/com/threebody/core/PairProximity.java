@@ -0,0 +1,208 @@
+package com.threebody.core;
+
+import java.util.Arrays;
+
+/**
+ * 一次两两距离遍历的结果缓冲区：最近天体对与距离小于阈值的近距离天体对，
+ * 以及按需记录的软化势能。直接求和内核在力计算的同一遍循环中填充它，其他情况由 {@link #scan} 单独遍历；
+ * 数组跨次复用，只在近距离天体对数超过容量时扩容。实例不是线程安全的。
+ *
+ * <p>近距离判定与 {@link NBodyIntegrator#detectNearEncounters} 一致：按 sqrt(d^2) &lt; threshold 比较，
+ * 记录顺序为 (i, j) 字典序，i &lt; j。最近天体对取距离平方最小者，相等时取字典序在前者。
+ */
+public final class PairProximity {
+
+    private double threshold;
+    /** 预筛选用的平方阈值，略放宽以免开方舍入漏判，命中后再按距离精确比较。 */
+    private double screenSquared;
+
+    private double minimumSquared;
+    private int minimumFirst;
+    private int minimumSecond;
+
+    private int count;
+    private int[] first = new int[4];
+    private int[] second = new int[4];
+    private double[] distance = new double[4];
+    private boolean sorted;
+
+    /** 扫描剪枝的排序缓冲区，首次需要时创建并跨次复用。 */
+    private SweepAndPrune sweep;
+
+    private boolean potentialRequested;
+    private double potentialEnergy = Double.NaN;
+
+    /** 开始新一次遍历；threshold 不大于 0 时不记录近距离天体对。 */
+    public void begin(double threshold) {
+        this.threshold = threshold;
+        this.screenSquared = threshold > 0.0 ? threshold * threshold * (1.0 + 1e-12) : -1.0;
+        this.minimumSquared = Double.POSITIVE_INFINITY;
+        this.minimumFirst = -1;
+        this.minimumSecond = -1;
+        this.count = 0;
+        this.sorted = true;
+        this.potentialEnergy = Double.NaN;
+    }
+
+    /**
+     * 是否请求内核在同一遍循环中累加软化势能；设置跨次保留。
+     * 只有逐位复现 {@link MetricsCalculator#potentialEnergy} 求和顺序的内核才会提供，见 {@link #potentialEnergy()}。
+     */
+    public void requestPotentialEnergy(boolean requested) {
+        this.potentialRequested = requested;
+    }
+
+    boolean potentialRequested() {
+        return potentialRequested;
+    }
+
+    void potentialEnergy(double joules) {
+        this.potentialEnergy = joules;
+    }
+
+    /** 本次遍历累加的软化势能(J)；未请求或内核未提供时为 NaN。 */
+    public double potentialEnergy() {
+        return potentialEnergy;
+    }
+
+    /** 以相同阈值重新开始，丢弃本次已记录的内容。 */
+    void restart() {
+        begin(threshold);
+    }
+
+    /**
+     * 按字典序遍历时记录天体对 (i, j)，i &lt; j，d2 为未软化的距离平方。
+     */
+    void offer(int i, int j, double d2) {
+        if (d2 < minimumSquared) {
+            minimumSquared = d2;
+            minimumFirst = i;
+            minimumSecond = j;
+        }
+        if (d2 < screenSquared) {
+            add(i, j, d2);
+        }
+    }
+
+    /** 非字典序遍历(例如向量内核)时记录最近候选；距离相等时取字典序较小者。 */
+    void offerMinimum(int i, int j, double d2) {
+        if (d2 < minimumSquared || d2 == minimumSquared
+                && (i < minimumFirst || i == minimumFirst && j < minimumSecond)) {
+            minimumSquared = d2;
+            minimumFirst = i;
+            minimumSecond = j;
+        }
+    }
+
+    /** 非字典序遍历时记录近距离候选，读取前按字典序整理。 */
+    void offerEncounter(int i, int j, double d2) {
+        if (d2 < screenSquared) {
+            add(i, j, d2);
+            sorted = false;
+        }
+    }
+
+    /** 预筛选平方阈值，供内核在循环内快速排除。 */
+    double screenSquared() {
+        return screenSquared;
+    }
+
+    private void add(int i, int j, double d2) {
+        double d = Math.sqrt(d2);
+        if (!(d < threshold)) {
+            return;
+        }
+        if (count == first.length) {
+            first = Arrays.copyOf(first, 2 * count);
+            second = Arrays.copyOf(second, 2 * count);
+            distance = Arrays.copyOf(distance, 2 * count);
+        }
+        first[count] = i;
+        second[count] = j;
+        distance[count] = d;
+        count++;
+    }
+
+    /**
+     * 单独遍历全部天体对，结果与内核融合填充的相同。天体较多时使用 {@link SweepAndPrune}，
+     * 每步代价接近 O(n)；存在非有限坐标时逐对遍历。
+     */
+    public void scan(double[] x, double[] y, double[] z, int n, double threshold) {
+        begin(threshold);
+        if (n >= SweepAndPrune.MIN_BODIES) {
+            if (sweep == null) {
+                sweep = new SweepAndPrune();
+            }
+            if (sweep.scan(x, y, z, n, this)) {
+                return;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double dz = z[j] - z[i];
+                offer(i, j, dx * dx + dy * dy + dz * dz);
+            }
+        }
+    }
+
+    /** 近距离天体对数量。 */
+    public int encounterCount() {
+        ensureSorted();
+        return count;
+    }
+
+    public int encounterFirst(int k) {
+        ensureSorted();
+        return first[k];
+    }
+
+    public int encounterSecond(int k) {
+        ensureSorted();
+        return second[k];
+    }
+
+    /** 第 k 个近距离天体对的距离(m)。 */
+    public double encounterDistance(int k) {
+        ensureSorted();
+        return distance[k];
+    }
+
+    /** 最近天体对距离(m)；少于两个天体时为正无穷。 */
+    public double minimumDistance() {
+        return Math.sqrt(minimumSquared);
+    }
+
+    /** 最近天体对的较小序号；少于两个天体时为 -1。 */
+    public int minimumFirst() {
+        return minimumFirst;
+    }
+
+    public int minimumSecond() {
+        return minimumSecond;
+    }
+
+    /** 近距离天体对很少，插入排序整理为字典序即可。 */
+    private void ensureSorted() {
+        if (sorted) {
+            return;
+        }
+        for (int a = 1; a < count; a++) {
+            int fi = first[a];
+            int se = second[a];
+            double di = distance[a];
+            int b = a - 1;
+            while (b >= 0 && (first[b] > fi || first[b] == fi && second[b] > se)) {
+                first[b + 1] = first[b];
+                second[b + 1] = second[b];
+                distance[b + 1] = distance[b];
+                b--;
+            }
+            first[b + 1] = fi;
+            second[b + 1] = se;
+            distance[b + 1] = di;
+        }
+        sorted = true;
+    }
+}
@@ -0,0 +1,248 @@
+package com.threebody.core;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 在 {@link ForkJoinPool} 上按行并行的直接求和软化引力，结果与 {@link DirectGravity} 逐位相同。
+ *
+ * <p>每个任务负责连续若干行 i，独立地按 j 升序累加全部 a_i，不写其他天体的加速度，因此无需锁或归约。
+ * 串行版本的对称更新对天体 k 的累加顺序同样是 j 升序，且 (x_k - x_j) 与 -(x_j - x_k) 在 IEEE 754
+ * 下完全相等，所以两者逐位一致，与线程数、任务划分无关；去重与精确回放不受影响。
+ * 代价是每对天体计算两次，只在天体数不少于阈值且线程池可并行时启用。
+ *
+ * <p>出现间距过小时任务只记录失败，结束后由串行内核重算以抛出与串行完全相同的异常。
+ *
+ * <p>融合重载同样记录两两距离：各行在并行阶段只记下本行 j &gt; i 部分的最近天体对与是否有近距离候选，
+ * 结束后按行序合并进 {@link PairProximity}，合并顺序即串行内核的字典序，结果逐位相同。
+ * 请求势能时各行把 j &gt; i 的势能项写入三角缓冲区，再按字典序串行累加，与串行求和顺序一致。
+ */
+public final class ParallelDirectGravity implements ForceField {
+
+    /**
+     * 默认启用阈值：天体数少于该值时退回串行对称求和。可用系统属性
+     * {@code threebody.parallelForceMinBodies} 调整。
+     */
+    public static final int DEFAULT_MIN_BODIES = Integer.getInteger("threebody.parallelForceMinBodies", 64);
+
+    /** 单个任务最少负责的行数，避免任务调度开销超过计算量。 */
+    static final int MIN_ROWS_PER_TASK = 8;
+
+    private final DirectGravity serial;
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+    private final int minBodies;
+    private final ForkJoinPool pool;
+
+    /** 各行 j &gt; i 部分的最近距离平方与对应 j，以及是否存在近距离候选；首次融合调用时创建。 */
+    private double[] rowMinimumSquared;
+    private int[] rowMinimumSecond;
+    private boolean[] rowScreened;
+    /** 势能项 G m_i m_j / r 的三角缓冲区，按字典序存放；首次请求势能时创建。 */
+    private double[] pairPotential;
+
+    private volatile boolean failed;
+
+    public ParallelDirectGravity(SimulationConfig config) {
+        this(config, DEFAULT_MIN_BODIES, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param minBodies 启用并行的最少天体数
+     * @param pool      执行行任务的线程池
+     */
+    public ParallelDirectGravity(SimulationConfig config, int minBodies, ForkJoinPool pool) {
+        List<BodySpec> specs = config.bodies();
+        int n = specs.size();
+        this.serial = new DirectGravity(config);
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            masses[i] = specs.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+        this.minBodies = minBodies;
+        this.pool = pool;
+    }
+
+    /**
+     * 一次力计算最多同时占用的核数：启用并行时为线程池的并行度，否则为 1。
+     * 限流的调用方按它申请 CPU 许可，否则一次推进会在许可之外占满线程池。
+     */
+    public int parallelism() {
+        return masses.length < minBodies || pool.getParallelism() < 2 ? 1 : pool.getParallelism();
+    }
+
+    /** 给定天体数量下是否值得使用并行内核：达到默认阈值且公共线程池不止一个工作线程。 */
+    static boolean worthwhile(int bodyCount) {
+        return bodyCount >= DEFAULT_MIN_BODIES && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    @Override
+    public void accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        int n = masses.length;
+        if (n < minBodies || pool.getParallelism() < 2) {
+            serial.accelerations(px, py, pz, ax, ay, az, atStep, atTime);
+            return;
+        }
+        failed = false;
+        pool.invoke(new Rows(0, n, px, py, pz, ax, ay, az, null, false));
+        if (failed) {
+            serial.accelerations(px, py, pz, ax, ay, az, atStep, atTime);
+        }
+    }
+
+    @Override
+    public boolean accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime, PairProximity proximity) {
+        int n = masses.length;
+        if (n < minBodies || pool.getParallelism() < 2) {
+            return serial.accelerations(px, py, pz, ax, ay, az, atStep, atTime, proximity);
+        }
+        if (rowMinimumSquared == null) {
+            rowMinimumSquared = new double[n];
+            rowMinimumSecond = new int[n];
+            rowScreened = new boolean[n];
+        }
+        boolean potential = proximity.potentialRequested();
+        if (potential && pairPotential == null) {
+            pairPotential = new double[n * (n - 1) / 2];
+        }
+        failed = false;
+        pool.invoke(new Rows(0, n, px, py, pz, ax, ay, az, proximity, potential));
+        if (failed) {
+            return serial.accelerations(px, py, pz, ax, ay, az, atStep, atTime, proximity);
+        }
+        merge(px, py, pz, proximity, potential);
+        return true;
+    }
+
+    /** 按行序把各行记录并入 proximity，等价于串行内核的字典序 offer。 */
+    private void merge(double[] px, double[] py, double[] pz, PairProximity proximity, boolean potential) {
+        int n = masses.length;
+        for (int i = 0; i < n - 1; i++) {
+            proximity.offerMinimum(i, rowMinimumSecond[i], rowMinimumSquared[i]);
+            if (rowScreened[i]) {
+                for (int j = i + 1; j < n; j++) {
+                    double dx = px[j] - px[i];
+                    double dy = py[j] - py[i];
+                    double dz = pz[j] - pz[i];
+                    proximity.offerEncounter(i, j, dx * dx + dy * dy + dz * dz);
+                }
+            }
+        }
+        if (potential) {
+            double potentialSum = 0.0;
+            for (int k = 0; k < pairPotential.length; k++) {
+                potentialSum -= pairPotential[k];
+            }
+            proximity.potentialEnergy(potentialSum);
+        }
+    }
+
+    /**
+     * 计算第 i 行加速度；返回 false 表示遇到间距过小的天体对。proximity 非空时同时记录本行 j &gt; i 部分的
+     * 最近天体对与近距离候选，potential 为 true 时写入本行的势能项。
+     */
+    private boolean row(int i, double[] px, double[] py, double[] pz, double[] ax, double[] ay, double[] az,
+            PairProximity proximity, boolean potential) {
+        double xi = px[i];
+        double yi = py[i];
+        double zi = pz[i];
+        double sax = 0.0;
+        double say = 0.0;
+        double saz = 0.0;
+        double minimumSquared = Double.POSITIVE_INFINITY;
+        int minimumSecond = -1;
+        boolean screened = false;
+        double screenSquared = proximity != null ? proximity.screenSquared() : -1.0;
+        int n = masses.length;
+        // 行 i 在三角缓冲区中的起点，对应 (i, i + 1)
+        int offset = i * n - i * (i + 1) / 2 - i - 1;
+        for (int j = 0; j < n; j++) {
+            if (j == i) {
+                continue;
+            }
+            double dx = px[j] - xi;
+            double dy = py[j] - yi;
+            double dz = pz[j] - zi;
+            double d2 = dx * dx + dy * dy + dz * dz;
+            double r2 = d2 + eps2;
+            if (!Double.isFinite(r2) || r2 <= 1e-300) {
+                return false;
+            }
+            double r = Math.sqrt(r2);
+            if (proximity != null && j > i) {
+                if (d2 < minimumSquared) {
+                    minimumSquared = d2;
+                    minimumSecond = j;
+                }
+                screened |= d2 < screenSquared;
+                if (potential) {
+                    pairPotential[offset + j] = g * masses[i] * masses[j] / r;
+                }
+            }
+            double invR3 = 1.0 / (r2 * r);
+            double factor = g * masses[j] * invR3;
+            sax += factor * dx;
+            say += factor * dy;
+            saz += factor * dz;
+        }
+        ax[i] = sax;
+        ay[i] = say;
+        az[i] = saz;
+        if (proximity != null) {
+            rowMinimumSquared[i] = minimumSquared;
+            rowMinimumSecond[i] = minimumSecond;
+            rowScreened[i] = screened;
+        }
+        return true;
+    }
+
+    /** 行区间 [from, to) 的二分任务。 */
+    private final class Rows extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final double[] px;
+        private final double[] py;
+        private final double[] pz;
+        private final double[] ax;
+        private final double[] ay;
+        private final double[] az;
+        private final PairProximity proximity;
+        private final boolean potential;
+
+        Rows(int from, int to, double[] px, double[] py, double[] pz, double[] ax, double[] ay, double[] az,
+                PairProximity proximity, boolean potential) {
+            this.from = from;
+            this.to = to;
+            this.px = px;
+            this.py = py;
+            this.pz = pz;
+            this.ax = ax;
+            this.ay = ay;
+            this.az = az;
+            this.proximity = proximity;
+            this.potential = potential;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_ROWS_PER_TASK) {
+                for (int i = from; i < to && !failed; i++) {
+                    if (!row(i, px, py, pz, ax, ay, az, proximity, potential)) {
+                        failed = true;
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Rows(from, middle, px, py, pz, ax, ay, az, proximity, potential),
+                    new Rows(middle, to, px, py, pz, ax, ay, az, proximity, potential));
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.threebody.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 并行时间分片(parareal)：把 K 个时间片组成的窗口交给粗、细两种推进迭代求解。
+ * 粗推进 G 用 {@link #COARSE_RATIO} 倍步长的蛙跳法，串行扫过各片给出片起点；
+ * 细推进 F 是配置本身的会话(同一积分方案与步长)，在各片上并行运行。第 k 轮迭代后按
+ * U_{j+1} = G(U_j') + F(U_j) - G(U_j) 修正片起点，起点不变的片直接取细推进终点，
+ * 因此 k 轮后前 k 片与串行推进逐位相同，至多 K 轮即整体与串行一致。
+ * 相邻两轮片起点的最大相对变化低于 {@link #TOLERANCE} 时视为收敛，各片取最后一次细推进的逐步结果。
+ *
+ * <p>状态按分量连续存放：下标 c * n + i 为天体 i 的第 c 个分量(x, y, z, vx, vy, vz)。
+ * 粗推进或细推进出现数值异常时放弃整个窗口，由调用方改为串行推进；异常是否真实由串行推进重新判定。
+ * 窗口用满 K 轮才收敛时并行没有收益(结果与串行推进逐位相同)，调用方按 {@link #backoffWindows()}
+ * 串行推进若干个窗口长度后再试。
+ *
+ * <p>收敛容差使窗口结果与串行推进只在容差内一致，从窗口中途的检查点续跑不能逐位复现，
+ * 因此只用于不需要续跑复现的批量推进(如参数扫描)。细推进在公共 ForkJoinPool 上运行，
+ * 最多同时占用 K 个核，限流的调用方应按 K 申请 CPU 许可。实例持有各片的会话与缓冲区，不是线程安全的。
+ */
+final class Parareal {
+
+    /** 每片细推进的最大步数。 */
+    static final int SLICE_STEPS = 256;
+
+    /** 各片逐步轨迹缓冲区合计的 double 数上限(8 MB)；天体多、分片多时相应缩短每片步数。 */
+    static final int MAX_BUFFERED_DOUBLES = 1 << 20;
+
+    /** 连续未提前收敛时串行退避的窗口数按 1, 2, 4, ... 增长，至多为 2 的该次幂。 */
+    static final int MAX_BACKOFF_SHIFT = 4;
+
+    /** 粗推进步长与配置步长之比；片步数取它的整数倍。 */
+    static final int COARSE_RATIO = 8;
+
+    /** 剩余步数不足以让每片达到该步数时不再开窗口，改为串行推进。 */
+    static final int MIN_SLICE_STEPS = 16;
+
+    /** 收敛判据：片起点位置与速度相对窗口起点尺度的最大变化。 */
+    static final double TOLERANCE = 1.0e-10;
+
+    private final SimulationConfig config;
+    private final int n;
+    private final int slices;
+    private final int width;
+    private final String[] ids;
+    private final double dt;
+    private final Integrator coarse;
+    private final ForceField coarseForces;
+    private PhaseSpace coarseCurrent;
+    private PhaseSpace coarseNext;
+    private final IntegrationSession[] fine;
+
+    /** 片起点 U_0..U_K。 */
+    private final double[][] starts;
+    /** 各片起点对应的步数与模拟时间。 */
+    private final long[] startSteps;
+    private final double[] startTimes;
+    /** 各片起点的粗推进终点 G(U_j) 与细推进终点 F(U_j)。 */
+    private final double[][] coarseEnds;
+    private final double[][] fineEnds;
+    /** 各片细推进的逐步状态与时刻。 */
+    private final double[][] trajectories;
+    private final double[][] times;
+    /** 片起点自上次细推进后是否变化。 */
+    private final boolean[] stale;
+    private final double[] corrected;
+
+    /** 缓冲区容纳的每片最大步数：{@link #SLICE_STEPS} 与缓冲区上限中的较小者，取粗推进步长比的整数倍。 */
+    private final int capacity;
+    private int sliceSteps;
+    private int iterations;
+    private double speedup = Double.NaN;
+    /** 连续用满 K 轮才收敛的窗口数。 */
+    private int stalled;
+
+    Parareal(SimulationConfig config) {
+        SimulationConfig serial = config.withPararealSlices(null);
+        this.config = config;
+        this.n = config.bodyCount();
+        this.slices = config.pararealSlices();
+        this.width = 6 * n;
+        this.ids = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = config.bodies().get(i).id();
+        }
+        this.dt = config.timeStepSeconds();
+        this.coarse = IntegratorKind.LEAPFROG.create(serial);
+        this.coarseForces = config.forceSolver().create(serial);
+        this.coarseCurrent = new PhaseSpace(n);
+        this.coarseNext = new PhaseSpace(n);
+        SimulationState initial = NBodyIntegrator.initialState(serial);
+        this.fine = new IntegrationSession[slices];
+        for (int j = 0; j < slices; j++) {
+            fine[j] = new IntegrationSession(serial, initial);
+        }
+        this.starts = new double[slices + 1][width];
+        this.startSteps = new long[slices + 1];
+        this.startTimes = new double[slices + 1];
+        this.coarseEnds = new double[slices][width];
+        this.fineEnds = new double[slices][width];
+        int fit = Math.min(SLICE_STEPS, MAX_BUFFERED_DOUBLES / (slices * width));
+        this.capacity = fit - fit % COARSE_RATIO;
+        this.trajectories = new double[slices][capacity * width];
+        this.times = new double[slices][capacity];
+        this.stale = new boolean[slices];
+        this.corrected = new double[width];
+    }
+
+    /**
+     * 从给定步数与时刻开窗口时每片的步数：受缓冲区容量、配置的最大步数与目标时间限制，取粗推进步长比的整数倍；
+     * 不足 {@link #MIN_SLICE_STEPS} 时为 0，表示不再开窗口。
+     */
+    int sliceSteps(long step, double timeSeconds) {
+        long remaining = config.maxSteps() == null ? Long.MAX_VALUE : config.maxSteps() - step;
+        Double target = config.targetSimulationTimeSeconds();
+        if (target != null) {
+            remaining = Math.min(remaining, (long) Math.ceil((target - timeSeconds) / dt));
+        }
+        long perSlice = Math.min(capacity, remaining / slices);
+        perSlice -= perSlice % COARSE_RATIO;
+        return perSlice < MIN_SLICE_STEPS ? 0 : (int) perSlice;
+    }
+
+    /**
+     * 求解一个窗口：从 start 出发、每片 steps 步，共 K * steps 步，结果由 {@link #write} 逐步取出。
+     *
+     * @return 窗口步数；出现数值异常而放弃窗口时为 0
+     */
+    int solve(PhaseSpace start, long step, double timeSeconds, int steps) {
+        long began = System.nanoTime();
+        this.sliceSteps = steps;
+        pack(start, starts[0]);
+        // 片起点时刻按串行推进的方式逐步累加，细推进的时刻与串行推进逐位相同
+        double time = timeSeconds;
+        startSteps[0] = step;
+        startTimes[0] = time;
+        for (int j = 1; j <= slices; j++) {
+            for (int s = 0; s < steps; s++) {
+                time += dt;
+            }
+            startSteps[j] = step + (long) j * steps;
+            startTimes[j] = time;
+        }
+        double positionScale = spread(starts[0], 0);
+        double velocityScale = spread(starts[0], 3);
+
+        for (int j = 0; j < slices; j++) {
+            if (!coarse(j, coarseEnds[j])) {
+                return 0;
+            }
+            System.arraycopy(coarseEnds[j], 0, starts[j + 1], 0, width);
+            stale[j] = true;
+        }
+        long fineNanos = 0L;
+        int fineRuns = 0;
+        int iteration = 0;
+        while (iteration < slices) {
+            iteration++;
+            List<Callable<Long>> tasks = new ArrayList<>();
+            for (int j = 0; j < slices; j++) {
+                if (stale[j]) {
+                    int slice = j;
+                    tasks.add(() -> refine(slice));
+                }
+            }
+            try {
+                for (Future<Long> done : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                    fineNanos += done.get();
+                    fineRuns++;
+                }
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof NumericalInstabilityException) {
+                    return 0;
+                }
+                throw new IllegalStateException("并行时间分片的细推进失败", ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+            Arrays.fill(stale, false);
+
+            // 串行修正扫描：起点未变的片直接取细推进终点，否则加上本轮粗推进的修正量
+            double change = 0.0;
+            boolean moved = false;
+            for (int j = 0; j < slices; j++) {
+                if (moved) {
+                    for (int c = 0; c < width; c++) {
+                        corrected[c] = fineEnds[j][c] - coarseEnds[j][c];
+                    }
+                    if (!coarse(j, coarseEnds[j])) {
+                        return 0;
+                    }
+                    for (int c = 0; c < width; c++) {
+                        corrected[c] += coarseEnds[j][c];
+                    }
+                } else {
+                    System.arraycopy(fineEnds[j], 0, corrected, 0, width);
+                }
+                double[] target = starts[j + 1];
+                change = Math.max(change, difference(corrected, target, positionScale, velocityScale));
+                moved = !Arrays.equals(corrected, target);
+                System.arraycopy(corrected, 0, target, 0, width);
+                if (j + 1 < slices) {
+                    stale[j + 1] = moved;
+                }
+            }
+            if (change <= TOLERANCE) {
+                break;
+            }
+        }
+        this.iterations = iteration;
+        stalled = iteration < slices ? 0 : stalled + 1;
+        long wall = System.nanoTime() - began;
+        this.speedup = wall > 0L ? (double) fineNanos / fineRuns * slices / wall : Double.NaN;
+        return slices * steps;
+    }
+
+    /** 把窗口中第 index 步(从 0 起)的状态写入 target。 */
+    void write(int index, PhaseSpace target) {
+        double[] trajectory = trajectories[index / sliceSteps];
+        int offset = (index % sliceSteps) * width;
+        for (int i = 0; i < n; i++) {
+            target.x[i] = trajectory[offset + i];
+            target.y[i] = trajectory[offset + n + i];
+            target.z[i] = trajectory[offset + 2 * n + i];
+            target.vx[i] = trajectory[offset + 3 * n + i];
+            target.vy[i] = trajectory[offset + 4 * n + i];
+            target.vz[i] = trajectory[offset + 5 * n + i];
+        }
+    }
+
+    /** 窗口中第 index 步结束时的模拟时间(s)。 */
+    double timeAt(int index) {
+        return times[index / sliceSteps][index % sliceSteps];
+    }
+
+    /** 最近一个窗口的迭代次数；尚未完成窗口时为 0。 */
+    int iterations() {
+        return iterations;
+    }
+
+    /** 最近一个窗口的实测加速比；尚未完成窗口时为 NaN。 */
+    double speedup() {
+        return speedup;
+    }
+
+    /** 下一次开窗口前应串行推进的窗口个数：最近的窗口提前收敛时为 0，否则随连续次数倍增。 */
+    int backoffWindows() {
+        return stalled == 0 ? 0 : 1 << Math.min(stalled - 1, MAX_BACKOFF_SHIFT);
+    }
+
+    /** 细推进片 j，记录逐步状态与时刻，返回耗时(ns)。 */
+    private long refine(int j) {
+        long began = System.nanoTime();
+        IntegrationSession session = fine[j];
+        session.load(state(starts[j], startSteps[j], startTimes[j]));
+        double[] trajectory = trajectories[j];
+        for (int s = 0; s < sliceSteps; s++) {
+            session.advance();
+            session.copyState(trajectory, s * width);
+            times[j][s] = session.simulationTimeSeconds();
+        }
+        System.arraycopy(trajectory, (sliceSteps - 1) * width, fineEnds[j], 0, width);
+        return System.nanoTime() - began;
+    }
+
+    /**
+     * 从片 j 的起点粗推进一片，结果写入 out。
+     *
+     * @return 出现数值异常或非有限值时为 false
+     */
+    private boolean coarse(int j, double[] out) {
+        unpack(starts[j], coarseCurrent);
+        coarse.reset();
+        double h = COARSE_RATIO * dt;
+        double time = startTimes[j];
+        long step = startSteps[j];
+        try {
+            for (int s = 0; s < sliceSteps / COARSE_RATIO; s++) {
+                step += COARSE_RATIO;
+                coarse.step(coarseCurrent, coarseNext, coarseForces, step, time, h);
+                PhaseSpace swap = coarseCurrent;
+                coarseCurrent = coarseNext;
+                coarseNext = swap;
+                time += h;
+            }
+        } catch (NumericalInstabilityException ex) {
+            return false;
+        }
+        pack(coarseCurrent, out);
+        for (double value : out) {
+            if (!Double.isFinite(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 两组片起点的最大相对差：位置与速度分别除以窗口起点的尺度。 */
+    private double difference(double[] a, double[] b, double positionScale, double velocityScale) {
+        double worst = 0.0;
+        for (int c = 0; c < width; c++) {
+            double scale = c < 3 * n ? positionScale : velocityScale;
+            worst = Math.max(worst, Math.abs(a[c] - b[c]) / scale);
+        }
+        return worst;
+    }
+
+    /** 各天体相对质心的最大偏离，first 为 0 时取位置、为 3 时取速度；全部重合时为 1。 */
+    private double spread(double[] u, int first) {
+        double total = 0.0;
+        double cx = 0.0;
+        double cy = 0.0;
+        double cz = 0.0;
+        for (int i = 0; i < n; i++) {
+            double m = config.bodies().get(i).massKg();
+            total += m;
+            cx += m * u[first * n + i];
+            cy += m * u[(first + 1) * n + i];
+            cz += m * u[(first + 2) * n + i];
+        }
+        double worst = 0.0;
+        for (int i = 0; i < n; i++) {
+            double dx = u[first * n + i] - cx / total;
+            double dy = u[(first + 1) * n + i] - cy / total;
+            double dz = u[(first + 2) * n + i] - cz / total;
+            worst = Math.max(worst, Math.sqrt(dx * dx + dy * dy + dz * dz));
+        }
+        return worst > 0.0 ? worst : 1.0;
+    }
+
+    private SimulationState state(double[] u, long step, double timeSeconds) {
+        List<BodyState> bodies = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            bodies.add(new BodyState(ids[i], new Vector3(u[i], u[n + i], u[2 * n + i]),
+                    new Vector3(u[3 * n + i], u[4 * n + i], u[5 * n + i])));
+        }
+        return new SimulationState(step, timeSeconds, bodies);
+    }
+
+    private void pack(PhaseSpace s, double[] out) {
+        for (int i = 0; i < n; i++) {
+            out[i] = s.x[i];
+            out[n + i] = s.y[i];
+            out[2 * n + i] = s.z[i];
+            out[3 * n + i] = s.vx[i];
+            out[4 * n + i] = s.vy[i];
+            out[5 * n + i] = s.vz[i];
+        }
+    }
+
+    private void unpack(double[] u, PhaseSpace target) {
+        for (int i = 0; i < n; i++) {
+            target.x[i] = u[i];
+            target.y[i] = u[n + i];
+            target.z[i] = u[2 * n + i];
+            target.vx[i] = u[3 * n + i];
+            target.vy[i] = u[4 * n + i];
+            target.vz[i] = u[5 * n + i];
+        }
+    }
+}
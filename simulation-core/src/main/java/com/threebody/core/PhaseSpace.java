@@ -0,0 +1,39 @@
+package com.threebody.core;
+
+/**
+ * 扁平结构数组(SoA)形式的相空间缓冲区：位置(m)与速度(m/s)各分量一个 {@code double[]}。
+ * 字段直接公开以便积分方案在热循环中无间接访问；缓冲区可变，不是线程安全的。
+ */
+public final class PhaseSpace {
+
+    public final double[] x;
+    public final double[] y;
+    public final double[] z;
+    public final double[] vx;
+    public final double[] vy;
+    public final double[] vz;
+
+    public PhaseSpace(int bodyCount) {
+        this.x = new double[bodyCount];
+        this.y = new double[bodyCount];
+        this.z = new double[bodyCount];
+        this.vx = new double[bodyCount];
+        this.vy = new double[bodyCount];
+        this.vz = new double[bodyCount];
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    /** 复制另一缓冲区的全部分量，两者天体数量必须一致。 */
+    public void copyFrom(PhaseSpace other) {
+        int n = x.length;
+        System.arraycopy(other.x, 0, x, 0, n);
+        System.arraycopy(other.y, 0, y, 0, n);
+        System.arraycopy(other.z, 0, z, 0, n);
+        System.arraycopy(other.vx, 0, vx, 0, n);
+        System.arraycopy(other.vy, 0, vy, 0, n);
+        System.arraycopy(other.vz, 0, vz, 0, n);
+    }
+}
@@ -0,0 +1,391 @@
+package com.threebody.core;
+
+import java.util.Arrays;
+
+/**
+ * 近距离天体对的 Kustaanheimo-Stiefel 正则化积分。相对位置 x = second - first 写成四维 KS 坐标 u 的
+ * 双线性映射 x = L(u) u，|x| = |u|^2 = R，并以虚拟时间 s (dt = R ds) 为自变量。
+ * 软化引力 -mu x / rho^3 (rho^2 = R^2 + eps^2) 下的运动方程为
+ * u'' = (u / 2)(E + mu eps^2 / rho^3) + (R / 2) L^T(u) P，E' = 2 u' · L^T(u) P，t' = R，
+ * 其中 E = |v|^2 / 2 - mu / rho 为单位约化质量的相对能量，P 为外部天体造成的相对扰动加速度。
+ * 软化项精确地并入正则方程而非当作扰动；无扰动时方程对 u 是线性振子或指数运动，近心点不再奇异，
+ * 虚拟时间步长由频率 sqrt(|E| / 2 + mu eps^2 / (2 rho^3)) 决定，与两者距离无关。
+ *
+ * <p>外部扰动取成员质心处的软化潮汐张量 T 作用于相对位置，P = T x；张量在一个全局步的首末两端求出，
+ * 步内按时间线性插值。每个全局步用 RK4 在虚拟时间中积分，最后一小步由牛顿迭代调整，
+ * 恰好落在全局步末。实例持有暂存数组，不是线程安全的。
+ */
+final class RegularizedEncounter {
+
+    /**
+     * 孤立判据的上限：外部天体的相对潮汐加速度与四极修正都低于该值时才把这对天体正则化。
+     * 潮汐的一阶项已由潮汐张量计入，复合天体的四极误差只持续一次近距离事件，因此比解析双星宽松得多。
+     */
+    static final double ISOLATION_LIMIT = 1.0e-3;
+
+    /**
+     * 虚拟时间步长 ds = STEP_FACTOR / 频率。RK4 的误差约按该系数的四次方下降：
+     * 穿过软化核的近心点取 0.02 时相对位置误差约 1e-6，取 0.05 时约 2e-5。
+     */
+    private static final double STEP_FACTOR = 0.02;
+
+    /** 一个全局步内的 RK4 子步上限，超出时视为失败。 */
+    private static final int MAX_SUBSTEPS = 200_000;
+
+    /** 落点牛顿迭代的次数上限与相对全局步长的时间容差。 */
+    private static final int LANDING_ITERATIONS = 8;
+    private static final double LANDING_TOLERANCE = 1.0e-12;
+
+    private static final int STATE_SIZE = 10;
+    private static final int ENERGY = 8;
+    private static final int TIME = 9;
+
+    final int first;
+    final int second;
+    private final double firstMass;
+    private final double secondMass;
+    private final double mu;
+    private final double eps2;
+
+    /** KS 状态：u[0..3]、u'[4..7]、相对能量 E、物理时间 t。 */
+    private final double[] state = new double[STATE_SIZE];
+    /** 最近一次全局步开始时的状态，供步内插值从它重新积分。 */
+    private final double[] start = new double[STATE_SIZE];
+    /** 潮汐张量 (xx, yy, zz, xy, xz, yz)，分别对应最近一次全局步的首末两端。 */
+    private final double[] tidalStart = new double[6];
+    private final double[] tidalEnd = new double[6];
+    private double startSeconds;
+    private double endSeconds;
+
+    private final double[] k1 = new double[STATE_SIZE];
+    private final double[] k2 = new double[STATE_SIZE];
+    private final double[] k3 = new double[STATE_SIZE];
+    private final double[] k4 = new double[STATE_SIZE];
+    private final double[] stage = new double[STATE_SIZE];
+    private final double[] trial = new double[STATE_SIZE];
+    private final double[] work = new double[STATE_SIZE];
+    private final double[] tidal = new double[6];
+    private final double[] force = new double[4];
+
+    /**
+     * @param tidalTensor 进入时刻成员质心处的潮汐张量；系统只有这对天体时全为 0
+     */
+    RegularizedEncounter(double g, double softeningLengthMeters, double[] masses, PhaseSpace s,
+            int first, int second, double timeSeconds, double[] tidalTensor) {
+        this.first = first;
+        this.second = second;
+        this.firstMass = masses[first];
+        this.secondMass = masses[second];
+        this.mu = g * (firstMass + secondMass);
+        this.eps2 = softeningLengthMeters * softeningLengthMeters;
+        double x1 = s.x[second] - s.x[first];
+        double x2 = s.y[second] - s.y[first];
+        double x3 = s.z[second] - s.z[first];
+        double v1 = s.vx[second] - s.vx[first];
+        double v2 = s.vy[second] - s.vy[first];
+        double v3 = s.vz[second] - s.vz[first];
+        double r = Math.sqrt(x1 * x1 + x2 * x2 + x3 * x3);
+        // KS 逆映射有一维自由度，按 x1 的符号选取数值稳定的分支
+        if (x1 >= 0.0) {
+            state[0] = Math.sqrt(0.5 * (r + x1));
+            state[1] = x2 / (2.0 * state[0]);
+            state[2] = x3 / (2.0 * state[0]);
+            state[3] = 0.0;
+        } else {
+            state[1] = Math.sqrt(0.5 * (r - x1));
+            state[0] = x2 / (2.0 * state[1]);
+            state[2] = 0.0;
+            state[3] = x3 / (2.0 * state[1]);
+        }
+        // u' = L^T(u) v / 2
+        transposed(state, v1, v2, v3, force);
+        for (int k = 0; k < 4; k++) {
+            state[4 + k] = 0.5 * force[k];
+        }
+        state[ENERGY] = 0.5 * (v1 * v1 + v2 * v2 + v3 * v3) - mu / Math.sqrt(r * r + eps2);
+        state[TIME] = timeSeconds;
+        System.arraycopy(state, 0, start, 0, STATE_SIZE);
+        System.arraycopy(tidalTensor, 0, tidalStart, 0, 6);
+        System.arraycopy(tidalTensor, 0, tidalEnd, 0, 6);
+        this.startSeconds = timeSeconds;
+        this.endSeconds = timeSeconds;
+    }
+
+    double totalMass() {
+        return firstMass + secondMass;
+    }
+
+    /** 当前两者距离(m)。 */
+    double separation() {
+        return distance(state);
+    }
+
+    /** 当前相对速度大小(m/s)：|v|^2 = 4 |u'|^2 / R。 */
+    double speed() {
+        double w2 = state[4] * state[4] + state[5] * state[5] + state[6] * state[6] + state[7] * state[7];
+        return 2.0 * Math.sqrt(w2 / distance(state));
+    }
+
+    /** 两者正在远离：dR/ds = 2 u · u'。 */
+    boolean receding() {
+        return state[0] * state[4] + state[1] * state[5] + state[2] * state[6] + state[3] * state[7] > 0.0;
+    }
+
+    /**
+     * 其余天体对这对天体的最大扰动比：对每个外部天体 k 取相对潮汐加速度 (m_k / m_p)(Q / d_k)^3
+     * 与四极修正 (Q / d_k)^2 的较大者，d_k 为 k 到成员质心的距离。
+     *
+     * @param extent 两者在正则化期间可能达到的距离 Q
+     */
+    double perturbation(double[] masses, PhaseSpace s, double cx, double cy, double cz, double extent) {
+        return perturbation(masses, s, first, second, firstMass + secondMass, cx, cy, cz, extent);
+    }
+
+    /** 尚未正则化的天体对的扰动比，定义同 {@link #perturbation(double[], PhaseSpace, double, double, double, double)}。 */
+    static double perturbation(double[] masses, PhaseSpace s, int first, int second, double pairMass,
+            double cx, double cy, double cz, double extent) {
+        double worst = 0.0;
+        for (int k = 0; k < masses.length; k++) {
+            if (k == first || k == second) {
+                continue;
+            }
+            double dx = s.x[k] - cx;
+            double dy = s.y[k] - cy;
+            double dz = s.z[k] - cz;
+            double ratio = extent / Math.sqrt(dx * dx + dy * dy + dz * dz);
+            double quadrupole = ratio * ratio;
+            double tidal = masses[k] / pairMass * quadrupole * ratio;
+            worst = Math.max(worst, Math.max(quadrupole, tidal));
+        }
+        return worst;
+    }
+
+    /**
+     * 把正则化状态推进到 timeSeconds，tidalTensor 为该时刻成员质心处的潮汐张量。
+     *
+     * @return 子步数超出上限或出现非有限值时为 false，此时状态不变
+     */
+    boolean advance(double timeSeconds, double[] tidalTensor) {
+        System.arraycopy(state, 0, start, 0, STATE_SIZE);
+        System.arraycopy(tidalEnd, 0, tidalStart, 0, 6);
+        System.arraycopy(tidalTensor, 0, tidalEnd, 0, 6);
+        double previousStart = startSeconds;
+        double previousEnd = endSeconds;
+        startSeconds = state[TIME];
+        endSeconds = timeSeconds;
+        if (!integrate(state, timeSeconds)) {
+            System.arraycopy(start, 0, state, 0, STATE_SIZE);
+            System.arraycopy(tidalStart, 0, tidalEnd, 0, 6);
+            startSeconds = previousStart;
+            endSeconds = previousEnd;
+            return false;
+        }
+        return true;
+    }
+
+    /** 当前相对状态(second - first)写入 out[offset..offset + 5]。 */
+    void relative(double[] out, int offset) {
+        cartesian(state, out, offset);
+    }
+
+    /**
+     * 最近一次全局步内 timeSeconds 时刻的相对状态，从步首状态重新积分得到，不改变当前状态。
+     *
+     * @return 积分失败时为 false，此时 out 不变
+     */
+    boolean relativeAt(double timeSeconds, double[] out, int offset) {
+        System.arraycopy(start, 0, work, 0, STATE_SIZE);
+        if (!integrate(work, timeSeconds)) {
+            return false;
+        }
+        cartesian(work, out, offset);
+        return true;
+    }
+
+    /**
+     * 按相对状态 rel 与质心状态把两个成员写入 target。
+     */
+    void write(PhaseSpace target, double[] rel, int offset,
+            double cx, double cy, double cz, double cvx, double cvy, double cvz) {
+        double total = totalMass();
+        double firstShare = secondMass / total;
+        double secondShare = firstMass / total;
+        target.x[first] = cx - firstShare * rel[offset];
+        target.y[first] = cy - firstShare * rel[offset + 1];
+        target.z[first] = cz - firstShare * rel[offset + 2];
+        target.vx[first] = cvx - firstShare * rel[offset + 3];
+        target.vy[first] = cvy - firstShare * rel[offset + 4];
+        target.vz[first] = cvz - firstShare * rel[offset + 5];
+        target.x[second] = cx + secondShare * rel[offset];
+        target.y[second] = cy + secondShare * rel[offset + 1];
+        target.z[second] = cz + secondShare * rel[offset + 2];
+        target.vx[second] = cvx + secondShare * rel[offset + 3];
+        target.vy[second] = cvy + secondShare * rel[offset + 4];
+        target.vz[second] = cvz + secondShare * rel[offset + 5];
+    }
+
+    /**
+     * 在虚拟时间中积分 y 直到物理时间 timeSeconds。普通子步按频率取 ds；预计越过终点时
+     * 以 ds = 剩余时间 / R 试探，再按 dt/ds = R 做牛顿修正，最后把时间分量钉在终点上。
+     */
+    private boolean integrate(double[] y, double timeSeconds) {
+        double tolerance = LANDING_TOLERANCE * Math.max(Math.abs(endSeconds - startSeconds), Math.ulp(timeSeconds));
+        for (int substep = 0; substep < MAX_SUBSTEPS; substep++) {
+            double remaining = timeSeconds - y[TIME];
+            if (Math.abs(remaining) <= tolerance) {
+                y[TIME] = timeSeconds;
+                return true;
+            }
+            double r = distance(y);
+            double ds = STEP_FACTOR / frequency(y, r);
+            if (!(r * ds < remaining)) {
+                ds = remaining / r;
+                for (int iteration = 0; iteration < LANDING_ITERATIONS; iteration++) {
+                    rk4(y, ds, trial);
+                    double miss = timeSeconds - trial[TIME];
+                    if (!Double.isFinite(miss)) {
+                        return false;
+                    }
+                    if (Math.abs(miss) <= tolerance) {
+                        break;
+                    }
+                    ds += miss / distance(trial);
+                }
+                System.arraycopy(trial, 0, y, 0, STATE_SIZE);
+            } else {
+                rk4(y, ds, y);
+            }
+            if (!Double.isFinite(y[0] + y[1] + y[2] + y[3] + y[4] + y[5] + y[6] + y[7] + y[ENERGY])) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /** 正则方程的特征频率；潮汐项按 |T| R^2 计入，外部扰动较强时自动缩小步长。 */
+    private double frequency(double[] y, double r) {
+        double rho2 = r * r + eps2;
+        double rho3 = rho2 * Math.sqrt(rho2);
+        interpolateTidal(y[TIME]);
+        double norm = Math.abs(tidal[0]) + Math.abs(tidal[1]) + Math.abs(tidal[2])
+                + 2.0 * (Math.abs(tidal[3]) + Math.abs(tidal[4]) + Math.abs(tidal[5]));
+        double omega2 = 0.5 * (Math.abs(y[ENERGY]) + mu * eps2 / rho3 + norm * r * r);
+        // 软化核内方程系数随 R 在 eps 的尺度上变化：R 每个子步的相对变化也要受同一系数限制
+        double speed = Math.sqrt(y[4] * y[4] + y[5] * y[5] + y[6] * y[6] + y[7] * y[7]);
+        double rate = 2.0 * Math.sqrt(r) * speed / Math.sqrt(rho2);
+        return Math.max(Math.sqrt(omega2), rate);
+    }
+
+    private void rk4(double[] y, double ds, double[] out) {
+        derivative(y, k1);
+        for (int k = 0; k < STATE_SIZE; k++) {
+            stage[k] = y[k] + 0.5 * ds * k1[k];
+        }
+        derivative(stage, k2);
+        for (int k = 0; k < STATE_SIZE; k++) {
+            stage[k] = y[k] + 0.5 * ds * k2[k];
+        }
+        derivative(stage, k3);
+        for (int k = 0; k < STATE_SIZE; k++) {
+            stage[k] = y[k] + ds * k3[k];
+        }
+        derivative(stage, k4);
+        for (int k = 0; k < STATE_SIZE; k++) {
+            out[k] = y[k] + ds / 6.0 * (k1[k] + 2.0 * k2[k] + 2.0 * k3[k] + k4[k]);
+        }
+    }
+
+    private void derivative(double[] y, double[] dy) {
+        double u1 = y[0];
+        double u2 = y[1];
+        double u3 = y[2];
+        double u4 = y[3];
+        double r = u1 * u1 + u2 * u2 + u3 * u3 + u4 * u4;
+        double x1 = u1 * u1 - u2 * u2 - u3 * u3 + u4 * u4;
+        double x2 = 2.0 * (u1 * u2 - u3 * u4);
+        double x3 = 2.0 * (u1 * u3 + u2 * u4);
+        interpolateTidal(y[TIME]);
+        double p1 = tidal[0] * x1 + tidal[3] * x2 + tidal[4] * x3;
+        double p2 = tidal[3] * x1 + tidal[1] * x2 + tidal[5] * x3;
+        double p3 = tidal[4] * x1 + tidal[5] * x2 + tidal[2] * x3;
+        transposed(y, p1, p2, p3, force);
+        double rho2 = r * r + eps2;
+        double coefficient = 0.5 * (y[ENERGY] + mu * eps2 / (rho2 * Math.sqrt(rho2)));
+        double power = 0.0;
+        for (int k = 0; k < 4; k++) {
+            dy[k] = y[4 + k];
+            dy[4 + k] = coefficient * y[k] + 0.5 * r * force[k];
+            power += y[4 + k] * force[k];
+        }
+        dy[ENERGY] = 2.0 * power;
+        dy[TIME] = r;
+    }
+
+    /** L^T(u) w，w = (w1, w2, w3, 0)。 */
+    private static void transposed(double[] u, double w1, double w2, double w3, double[] out) {
+        out[0] = u[0] * w1 + u[1] * w2 + u[2] * w3;
+        out[1] = -u[1] * w1 + u[0] * w2 + u[3] * w3;
+        out[2] = -u[2] * w1 - u[3] * w2 + u[0] * w3;
+        out[3] = u[3] * w1 - u[2] * w2 + u[1] * w3;
+    }
+
+    private void interpolateTidal(double timeSeconds) {
+        double span = endSeconds - startSeconds;
+        double fraction = span != 0.0 ? (timeSeconds - startSeconds) / span : 0.0;
+        for (int k = 0; k < 6; k++) {
+            tidal[k] = tidalStart[k] + fraction * (tidalEnd[k] - tidalStart[k]);
+        }
+    }
+
+    private static double distance(double[] y) {
+        return y[0] * y[0] + y[1] * y[1] + y[2] * y[2] + y[3] * y[3];
+    }
+
+    /** x = L(u) u，v = 2 L(u) u' / R。 */
+    private static void cartesian(double[] y, double[] out, int offset) {
+        double u1 = y[0];
+        double u2 = y[1];
+        double u3 = y[2];
+        double u4 = y[3];
+        double w1 = y[4];
+        double w2 = y[5];
+        double w3 = y[6];
+        double w4 = y[7];
+        double r = u1 * u1 + u2 * u2 + u3 * u3 + u4 * u4;
+        out[offset] = u1 * u1 - u2 * u2 - u3 * u3 + u4 * u4;
+        out[offset + 1] = 2.0 * (u1 * u2 - u3 * u4);
+        out[offset + 2] = 2.0 * (u1 * u3 + u2 * u4);
+        double scale = 2.0 / r;
+        out[offset + 3] = scale * (u1 * w1 - u2 * w2 - u3 * w3 + u4 * w4);
+        out[offset + 4] = scale * (u2 * w1 + u1 * w2 - u4 * w3 - u3 * w4);
+        out[offset + 5] = scale * (u3 * w1 + u4 * w2 + u1 * w3 + u2 * w4);
+    }
+
+    /**
+     * 成员质心 (cx, cy, cz) 处的软化潮汐张量 T_ij = sum_k G m_k (3 d_i d_j / rho^5 - δ_ij / rho^3)，
+     * d 为外部天体 k 相对质心的位置，写入 out (xx, yy, zz, xy, xz, yz)。
+     *
+     * @param skip 不计入的槽位(成员本身或代表成员的合成天体)；可为 -1
+     */
+    static void tidalTensor(double g, double eps2, double[] masses, PhaseSpace s, int skip, int skipAlso,
+            double cx, double cy, double cz, double[] out) {
+        Arrays.fill(out, 0.0);
+        for (int k = 0; k < masses.length; k++) {
+            if (k == skip || k == skipAlso) {
+                continue;
+            }
+            double dx = s.x[k] - cx;
+            double dy = s.y[k] - cy;
+            double dz = s.z[k] - cz;
+            double rho2 = dx * dx + dy * dy + dz * dz + eps2;
+            double inv3 = g * masses[k] / (rho2 * Math.sqrt(rho2));
+            double inv5 = 3.0 * inv3 / rho2;
+            out[0] += inv5 * dx * dx - inv3;
+            out[1] += inv5 * dy * dy - inv3;
+            out[2] += inv5 * dz * dz - inv3;
+            out[3] += inv5 * dx * dy;
+            out[4] += inv5 * dx * dz;
+            out[5] += inv5 * dy * dz;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.threebody.core;
+
+/**
+ * 经典四阶 Runge-Kutta：位置导数为速度，速度导数为加速度，每步 4 次力计算。
+ * 运算顺序与历史实现一致，结果逐位相同。
+ *
+ * <p>首级加速度即上一步终点处的加速度：每步结束时在新位置上计算并缓存，下一步直接作为首级使用，
+ * 稳态力计算次数不变，且会话可以直接采用这次计算顺带得到的两两距离。
+ * 终点计算失败时不抛出，留给下一步首级重新计算并按原有步数报告；会话载入新状态或推进失败时经
+ * {@link #reset()} 丢弃缓存。
+ */
+final class Rk4Integrator implements Integrator {
+
+    /** 当前级的位置与速度(pos2/pos3/pos4、vel2/vel3/vel4)。 */
+    private final PhaseSpace stage;
+
+    /** 当前级加速度。 */
+    private final double[] ax;
+    private final double[] ay;
+    private final double[] az;
+
+    /** 按 RK4 权重累加的速度与加速度：vel + 2vel2 + 2vel3 + vel4 与 a1 + 2a2 + 2a3 + a4。 */
+    private final double[] sumVx;
+    private final double[] sumVy;
+    private final double[] sumVz;
+    private final double[] sumAx;
+    private final double[] sumAy;
+    private final double[] sumAz;
+
+    /** ax/ay/az 当前保存的是 current 位置处的加速度。 */
+    private boolean accelerationCached;
+
+    Rk4Integrator(int bodyCount) {
+        this.stage = new PhaseSpace(bodyCount);
+        this.ax = new double[bodyCount];
+        this.ay = new double[bodyCount];
+        this.az = new double[bodyCount];
+        this.sumVx = new double[bodyCount];
+        this.sumVy = new double[bodyCount];
+        this.sumVz = new double[bodyCount];
+        this.sumAx = new double[bodyCount];
+        this.sumAy = new double[bodyCount];
+        this.sumAz = new double[bodyCount];
+    }
+
+    @Override
+    public IntegratorKind kind() {
+        return IntegratorKind.RK4;
+    }
+
+    @Override
+    public double step(PhaseSpace current, PhaseSpace next, ForceField forces, long nextStep, double time, double dt) {
+        int n = current.size();
+        double[] x = current.x;
+        double[] y = current.y;
+        double[] z = current.z;
+        double[] vx = current.vx;
+        double[] vy = current.vy;
+        double[] vz = current.vz;
+        double[] stageX = stage.x;
+        double[] stageY = stage.y;
+        double[] stageZ = stage.z;
+        double[] stageVx = stage.vx;
+        double[] stageVy = stage.vy;
+        double[] stageVz = stage.vz;
+        double half = dt / 2.0;
+
+        if (!accelerationCached) {
+            forces.accelerations(x, y, z, ax, ay, az, nextStep, time);
+        }
+        accelerationCached = false;
+        for (int i = 0; i < n; i++) {
+            sumAx[i] = ax[i];
+            sumAy[i] = ay[i];
+            sumAz[i] = az[i];
+            stageX[i] = x[i] + half * vx[i];
+            stageY[i] = y[i] + half * vy[i];
+            stageZ[i] = z[i] + half * vz[i];
+            stageVx[i] = vx[i] + half * ax[i];
+            stageVy[i] = vy[i] + half * ay[i];
+            stageVz[i] = vz[i] + half * az[i];
+            sumVx[i] = vx[i] + 2 * stageVx[i];
+            sumVy[i] = vy[i] + 2 * stageVy[i];
+            sumVz[i] = vz[i] + 2 * stageVz[i];
+        }
+
+        forces.accelerations(stageX, stageY, stageZ, ax, ay, az, nextStep, time + half);
+        for (int i = 0; i < n; i++) {
+            sumAx[i] += 2 * ax[i];
+            sumAy[i] += 2 * ay[i];
+            sumAz[i] += 2 * az[i];
+            stageX[i] = x[i] + half * stageVx[i];
+            stageY[i] = y[i] + half * stageVy[i];
+            stageZ[i] = z[i] + half * stageVz[i];
+            stageVx[i] = vx[i] + half * ax[i];
+            stageVy[i] = vy[i] + half * ay[i];
+            stageVz[i] = vz[i] + half * az[i];
+            sumVx[i] += 2 * stageVx[i];
+            sumVy[i] += 2 * stageVy[i];
+            sumVz[i] += 2 * stageVz[i];
+        }
+
+        forces.accelerations(stageX, stageY, stageZ, ax, ay, az, nextStep, time + half);
+        for (int i = 0; i < n; i++) {
+            sumAx[i] += 2 * ax[i];
+            sumAy[i] += 2 * ay[i];
+            sumAz[i] += 2 * az[i];
+            stageX[i] = x[i] + dt * stageVx[i];
+            stageY[i] = y[i] + dt * stageVy[i];
+            stageZ[i] = z[i] + dt * stageVz[i];
+            stageVx[i] = vx[i] + dt * ax[i];
+            stageVy[i] = vy[i] + dt * ay[i];
+            stageVz[i] = vz[i] + dt * az[i];
+            sumVx[i] += stageVx[i];
+            sumVy[i] += stageVy[i];
+            sumVz[i] += stageVz[i];
+        }
+
+        forces.accelerations(stageX, stageY, stageZ, ax, ay, az, nextStep, time + dt);
+        double sixth = dt / 6.0;
+        for (int i = 0; i < n; i++) {
+            sumAx[i] += ax[i];
+            sumAy[i] += ay[i];
+            sumAz[i] += az[i];
+            next.x[i] = x[i] + sixth * sumVx[i];
+            next.y[i] = y[i] + sixth * sumVy[i];
+            next.z[i] = z[i] + sixth * sumVz[i];
+            next.vx[i] = vx[i] + sixth * sumAx[i];
+            next.vy[i] = vy[i] + sixth * sumAy[i];
+            next.vz[i] = vz[i] + sixth * sumAz[i];
+        }
+        try {
+            forces.accelerations(next.x, next.y, next.z, ax, ay, az, nextStep + 1, time + dt);
+            accelerationCached = true;
+        } catch (NumericalInstabilityException deferred) {
+            // 留给下一步首级重新计算并抛出
+        }
+        return dt;
+    }
+
+    @Override
+    public void reset() {
+        accelerationCached = false;
+    }
+
+    @Override
+    public boolean finalForcesAtNextPositions() {
+        return accelerationCached;
+    }
+}
@@ -8,12 +8,31 @@ import java.util.OptionalLong;
  * 模拟配置。全部为 SI 单位；maxSteps 与 targetSimulationTimeSeconds 至少提供一个作为结束条件。
  *
  * @param name                        配置名称
- * @param bodies                      2-100 个天体
- * @param timeStepSeconds             时间步长(s)
+ * @param bodies                      至少 2 个天体；直接求和最多 100 个，八叉树与多极子求解最多 10000 个
+ * @param timeStepSeconds             时间步长(s)；自适应积分方案下为步长上限
  * @param gravitationalConstant       引力常数(m^3 kg^-1 s^-2)
  * @param softeningLengthMeters       软化长度 epsilon(m)
  * @param maxSteps                    最大步数结束条件，可为 null
  * @param targetSimulationTimeSeconds 目标模拟时间结束条件(s)，可为 null
+ * @param integrator                  积分方案，null 时为 {@link IntegratorKind#RK4}
+ * @param relativeTolerance           自适应方案的相对误差容差，null 时使用默认值；固定步长方案忽略
+ * @param absoluteTolerance           自适应方案的无量纲绝对容差（乘以初始系统尺度），null 时使用默认值
+ * @param forceSolver                 引力求解方式，null 时为 {@link ForceSolverKind#DIRECT}
+ * @param openingAngle                Barnes-Hut 张角 theta，null 时使用默认值；直接求和忽略
+ * @param expansionOrder              快速多极子展开阶数 p，null 时使用默认值；其他求解方式忽略
+ * @param chaosIndicators             是否同时积分变分方程，给出最大 Lyapunov 指数与 MEGNO；
+ *                                    只支持固定步长积分方案与直接求和引力
+ * @param analyticBinaries            是否用解析开普勒解推进两体配置与动力学孤立的束缚双星；
+ *                                    双星在孤立期间作为复合天体参与其余积分。开普勒历元跨步保留，
+ *                                    从检查点续跑时取自载入的状态，与不中断的运行只差舍入误差
+ * @param escapeRetirementRadiusMeters 逃逸天体的退役半径(m)，null 时不启用：天体相对其余天体非束缚、
+ *                                    向外运动且与其余天体质心的距离超过该值时，改由双曲开普勒轨道解析推进，
+ *                                    不再参与引力与近距离检测
+ * @param regularizedEncounters       是否把进入近距离事件的天体对切换到 KS 正则化坐标积分，
+ *                                    全局步长保持不变；需要正的软化长度
+ * @param pararealSlices              并行时间分片(parareal)的分片数；null 表示逐步串行推进。开启时批量推进按
+ *                                    分片数个时间片组成窗口，粗积分给出各片起点，细积分在各片上并行迭代修正。
+ *                                    结果只在收敛容差内与串行推进一致，从检查点续跑不能逐位复现，实验不接受
  */
 public record SimulationConfig(
         String name,
@@ -22,10 +41,35 @@ public record SimulationConfig(
         double gravitationalConstant,
         double softeningLengthMeters,
         Long maxSteps,
-        Double targetSimulationTimeSeconds) {
+        Double targetSimulationTimeSeconds,
+        IntegratorKind integrator,
+        Double relativeTolerance,
+        Double absoluteTolerance,
+        ForceSolverKind forceSolver,
+        Double openingAngle,
+        Integer expansionOrder,
+        boolean chaosIndicators,
+        boolean analyticBinaries,
+        Double escapeRetirementRadiusMeters,
+        boolean regularizedEncounters,
+        Integer pararealSlices) {
 
     public SimulationConfig {
         bodies = bodies == null ? List.of() : List.copyOf(bodies);
+        integrator = integrator == null ? IntegratorKind.RK4 : integrator;
+        forceSolver = forceSolver == null ? ForceSolverKind.DIRECT : forceSolver;
+    }
+
+    /**
+     * 基线七参数配置：RK4、直接求和，其余选项取默认值。其他选项通过 {@code withX} 方法设置，
+     * 不再为新增字段追加兼容构造器。
+     */
+    public SimulationConfig(String name, List<BodySpec> bodies, double timeStepSeconds,
+            double gravitationalConstant, double softeningLengthMeters, Long maxSteps,
+            Double targetSimulationTimeSeconds) {
+        this(name, bodies, timeStepSeconds, gravitationalConstant, softeningLengthMeters, maxSteps,
+                targetSimulationTimeSeconds, IntegratorKind.RK4, null, null, null, null, null,
+                false, false, null, false, null);
     }
 
     public int bodyCount() {
@@ -49,16 +93,99 @@ public record SimulationConfig(
 
     public SimulationConfig withBodies(List<BodySpec> newBodies) {
         return new SimulationConfig(name, newBodies, timeStepSeconds, gravitationalConstant,
-                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds);
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
     }
 
     public SimulationConfig withName(String newName) {
         return new SimulationConfig(newName, bodies, timeStepSeconds, gravitationalConstant,
-                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds);
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withTimeStepSeconds(double newTimeStepSeconds) {
+        return new SimulationConfig(name, bodies, newTimeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withSofteningLengthMeters(double newSofteningLengthMeters) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                newSofteningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withTolerances(Double newRelativeTolerance, Double newAbsoluteTolerance) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                newRelativeTolerance, newAbsoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withForceSolver(ForceSolverKind newForceSolver, Double newOpeningAngle) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, newForceSolver, newOpeningAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withExpansionOrder(Integer newExpansionOrder) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, newExpansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withIntegrator(IntegratorKind newIntegrator) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, newIntegrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withChaosIndicators(boolean enabled) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder, enabled,
+                analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withAnalyticBinaries(boolean enabled) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, enabled, escapeRetirementRadiusMeters, regularizedEncounters, pararealSlices);
+    }
+
+    public SimulationConfig withEscapeRetirementRadius(Double newEscapeRetirementRadiusMeters) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, newEscapeRetirementRadiusMeters, regularizedEncounters,
+                pararealSlices);
+    }
+
+    public SimulationConfig withRegularizedEncounters(boolean enabled) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, enabled, pararealSlices);
+    }
+
+    public SimulationConfig withPararealSlices(Integer newPararealSlices) {
+        return new SimulationConfig(name, bodies, timeStepSeconds, gravitationalConstant,
+                softeningLengthMeters, maxSteps, targetSimulationTimeSeconds, integrator,
+                relativeTolerance, absoluteTolerance, forceSolver, openingAngle, expansionOrder,
+                chaosIndicators, analyticBinaries, escapeRetirementRadiusMeters, regularizedEncounters,
+                newPararealSlices);
     }
 
     /**
-     * 估算总步数：取两个结束条件中先达到者。
+     * 估算总步数：取两个结束条件中先达到者。自适应积分方案按步长上限估算，是实际步数的下界。
      * maxCandidate 为 maxSteps（缺失时为 Long.MAX_VALUE）；
      * targetCandidate 为 ceil(targetTime / dt)（缺失时为 Long.MAX_VALUE）；
      * 结果为两者较小值。两者都缺失时返回 null，由强制校验拦截。
@@ -0,0 +1,11 @@
+package com.threebody.core;
+
+/**
+ * 稳定性地图的单元结果。
+ *
+ * @param outcome          结局
+ * @param eventTimeSeconds 判定逃逸或碰撞时的模拟时间(s)，精度为检查步距；存活时为 null
+ * @param megno            积分结束(或事件发生)时的平均 MEGNO；未请求或无法给出时为 null
+ */
+public record StabilityCell(StabilityOutcome outcome, Double eventTimeSeconds, Double megno) {
+}
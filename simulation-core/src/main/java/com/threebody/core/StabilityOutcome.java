@@ -0,0 +1,11 @@
+package com.threebody.core;
+
+/** 稳定性地图单元在时限内的结局。 */
+public enum StabilityOutcome {
+    /** 时限内既未逃逸也未碰撞。 */
+    SURVIVED,
+    /** 某天体远离其余天体质心超过逃逸半径且相对其余天体非束缚。 */
+    ESCAPED,
+    /** 某两体间距低于碰撞距离，或积分出现非有限值。 */
+    COLLIDED
+}
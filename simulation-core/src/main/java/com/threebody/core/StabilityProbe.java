@@ -0,0 +1,253 @@
+package com.threebody.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 稳定性地图的批量探针：改写一个天体初始位置或速度的两个分量，对每组取值积分到时限，
+ * 判定逃逸、碰撞或存活。
+ *
+ * <p>不求 MEGNO 时全部取值作为 {@link Ensemble} 成员在同一批量内核中推进；求 MEGNO 时逐个用
+ * {@link IntegrationSession} 同时积分变分方程。碰撞每步直接按缓冲区中的最近两体距离判定，
+ * 逃逸只在每 {@link #CHECK_INTERVAL_STEPS} 步物化状态检查一次；已有结局的单元不再改变。
+ * 解析双星、逃逸退役、KS 正则化与 parareal 对地图无意义，探针一律关闭。</p>
+ */
+public final class StabilityProbe {
+
+    /** 两次逃逸检查之间的步数，也是逃逸时间的精度。 */
+    public static final long CHECK_INTERVAL_STEPS = 8L;
+    /** 默认逃逸半径相对初始系统尺度(各天体到质心的最大距离)的倍数。 */
+    public static final double DEFAULT_ESCAPE_RADIUS_FACTOR = 10.0;
+
+    private final SimulationConfig config;
+    private final SimulationState base;
+    private final int body;
+    private final boolean velocity;
+    private final int uAxis;
+    private final int vAxis;
+    private final long totalSteps;
+    private final double escapeRadius;
+    private final double collisionDistance;
+    private final boolean megno;
+    private final double[] masses;
+
+    /**
+     * @param config                  基础配置；积分方案须为固定步长方案，引力须为直接求和
+     * @param bodyId                  被改写初始条件的天体
+     * @param velocity                true 改写速度分量，false 改写位置分量
+     * @param uAxis                   横轴对应的分量，0/1/2 为 x/y/z
+     * @param vAxis                   纵轴对应的分量，不同于 uAxis
+     * @param horizonSeconds          时限 T(s)
+     * @param escapeRadiusMeters      逃逸半径(m)；null 时取初始系统尺度的 {@link #DEFAULT_ESCAPE_RADIUS_FACTOR} 倍
+     * @param collisionDistanceMeters 碰撞距离(m)；null 时取近距离事件阈值
+     * @param megno                   是否积分变分方程并给出平均 MEGNO
+     * @throws IllegalArgumentException 参数非法或积分方案、引力求解方式不支持
+     */
+    public StabilityProbe(SimulationConfig config, String bodyId, boolean velocity, int uAxis, int vAxis,
+            double horizonSeconds, Double escapeRadiusMeters, Double collisionDistanceMeters, boolean megno) {
+        if (!config.integrator().supportsEnsemble()) {
+            throw new IllegalArgumentException(config.integrator() + " 不支持稳定性地图，请选择固定步长方案");
+        }
+        if (config.forceSolver().resolve(config.bodyCount()) != ForceSolverKind.DIRECT) {
+            throw new IllegalArgumentException("稳定性地图只支持直接求和引力");
+        }
+        if (uAxis < 0 || uAxis > 2 || vAxis < 0 || vAxis > 2 || uAxis == vAxis) {
+            throw new IllegalArgumentException("横纵轴必须是两个不同的分量");
+        }
+        if (!(horizonSeconds > 0.0) || !Double.isFinite(horizonSeconds)) {
+            throw new IllegalArgumentException("时限必须为正的有限值");
+        }
+        int index = -1;
+        for (int i = 0; i < config.bodyCount(); i++) {
+            if (config.bodies().get(i).id().equals(bodyId)) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            throw new IllegalArgumentException("天体不存在：" + bodyId);
+        }
+        this.config = config.withAnalyticBinaries(false).withEscapeRetirementRadius(null)
+                .withRegularizedEncounters(false).withPararealSlices(null).withChaosIndicators(megno);
+        this.base = NBodyIntegrator.initialState(config);
+        this.body = index;
+        this.velocity = velocity;
+        this.uAxis = uAxis;
+        this.vAxis = vAxis;
+        this.totalSteps = (long) Math.ceil(horizonSeconds / config.timeStepSeconds());
+        this.escapeRadius = escapeRadiusMeters != null ? escapeRadiusMeters : defaultEscapeRadius(config);
+        this.collisionDistance = collisionDistanceMeters != null
+                ? collisionDistanceMeters : config.nearEncounterThresholdMeters();
+        if (!(escapeRadius > 0.0) || !Double.isFinite(escapeRadius)) {
+            throw new IllegalArgumentException("逃逸半径必须为正的有限值");
+        }
+        if (!(collisionDistance >= 0.0) || !Double.isFinite(collisionDistance)) {
+            throw new IllegalArgumentException("碰撞距离必须为非负的有限值");
+        }
+        this.megno = megno;
+        this.masses = config.bodies().stream().mapToDouble(BodySpec::massKg).toArray();
+    }
+
+    /** 初始系统尺度(各天体到质心的最大距离)的 {@link #DEFAULT_ESCAPE_RADIUS_FACTOR} 倍。 */
+    public static double defaultEscapeRadius(SimulationConfig config) {
+        double totalMass = 0.0;
+        Vector3 weighted = Vector3.ZERO;
+        for (BodySpec spec : config.bodies()) {
+            totalMass += spec.massKg();
+            weighted = weighted.add(spec.position().multiply(spec.massKg()));
+        }
+        Vector3 center = weighted.multiply(1.0 / totalMass);
+        double size = 0.0;
+        for (BodySpec spec : config.bodies()) {
+            size = Math.max(size, spec.position().subtract(center).length());
+        }
+        return DEFAULT_ESCAPE_RADIUS_FACTOR * size;
+    }
+
+    /** 每个单元积分的步数。 */
+    public long totalSteps() {
+        return totalSteps;
+    }
+
+    /**
+     * 对每组 (u[k], v[k]) 取值积分到时限。
+     *
+     * @param cancelled 每个逃逸检查步距询问一次，返回 true 时放弃
+     * @return 与输入一一对应的单元结果；放弃时为 null
+     */
+    public List<StabilityCell> run(double[] u, double[] v, BooleanSupplier cancelled) {
+        if (u.length != v.length || u.length == 0) {
+            throw new IllegalArgumentException("横纵取值必须等长且非空");
+        }
+        List<SimulationState> members = new ArrayList<>(u.length);
+        for (int k = 0; k < u.length; k++) {
+            members.add(member(u[k], v[k]));
+        }
+        StabilityCell[] cells = megno ? runSessions(members, cancelled) : runEnsemble(members, cancelled);
+        return cells == null ? null : Arrays.asList(cells);
+    }
+
+    private SimulationState member(double u, double v) {
+        List<BodyState> bodies = new ArrayList<>(base.bodies());
+        BodyState b = bodies.get(body);
+        Vector3 changed = withComponent(withComponent(velocity ? b.velocity() : b.position(), uAxis, u), vAxis, v);
+        bodies.set(body, velocity
+                ? new BodyState(b.id(), b.position(), changed)
+                : new BodyState(b.id(), changed, b.velocity()));
+        return new SimulationState(base.step(), base.simulationTimeSeconds(), bodies);
+    }
+
+    private static Vector3 withComponent(Vector3 vector, int axis, double value) {
+        return switch (axis) {
+            case 0 -> new Vector3(value, vector.y(), vector.z());
+            case 1 -> new Vector3(vector.x(), value, vector.z());
+            default -> new Vector3(vector.x(), vector.y(), value);
+        };
+    }
+
+    private StabilityCell[] runEnsemble(List<SimulationState> members, BooleanSupplier cancelled) {
+        Ensemble ensemble = new Ensemble(config, members);
+        StabilityCell[] cells = new StabilityCell[members.size()];
+        int open = cells.length;
+        while (open > 0 && ensemble.step() < totalSteps) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            long checkAt = Math.min(ensemble.step() + CHECK_INTERVAL_STEPS, totalSteps);
+            while (open > 0 && ensemble.step() < checkAt) {
+                ensemble.advance(1L);
+                boolean escapeCheck = ensemble.step() == checkAt;
+                for (int k = 0; k < cells.length; k++) {
+                    if (cells[k] != null) {
+                        continue;
+                    }
+                    if (!ensemble.alive(k)) {
+                        cells[k] = new StabilityCell(StabilityOutcome.COLLIDED,
+                                ensemble.failedStep(k) * config.timeStepSeconds(), null);
+                    } else if (ensemble.minimumPairDistanceMeters(k) < collisionDistance) {
+                        cells[k] = new StabilityCell(StabilityOutcome.COLLIDED, ensemble.simulationTimeSeconds(), null);
+                    } else if (escapeCheck && escaped(ensemble.memberState(k))) {
+                        cells[k] = new StabilityCell(StabilityOutcome.ESCAPED, ensemble.simulationTimeSeconds(), null);
+                    }
+                    if (cells[k] != null) {
+                        open--;
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < cells.length; k++) {
+            if (cells[k] == null) {
+                cells[k] = new StabilityCell(StabilityOutcome.SURVIVED, null, null);
+            }
+        }
+        return cells;
+    }
+
+    private StabilityCell[] runSessions(List<SimulationState> members, BooleanSupplier cancelled) {
+        StabilityCell[] cells = new StabilityCell[members.size()];
+        for (int k = 0; k < cells.length; k++) {
+            IntegrationSession session = new IntegrationSession(config, members.get(k));
+            StabilityOutcome outcome = null;
+            Double eventTime = null;
+            try {
+                while (outcome == null && session.step() < totalSteps) {
+                    if (session.step() % CHECK_INTERVAL_STEPS == 0L && cancelled.getAsBoolean()) {
+                        return null;
+                    }
+                    session.advance();
+                    if (session.minimumPairDistanceMeters() < collisionDistance) {
+                        outcome = StabilityOutcome.COLLIDED;
+                    } else if ((session.step() % CHECK_INTERVAL_STEPS == 0L || session.step() == totalSteps)
+                            && escaped(session.state())) {
+                        outcome = StabilityOutcome.ESCAPED;
+                    }
+                }
+                eventTime = outcome != null ? session.simulationTimeSeconds() : null;
+            } catch (NumericalInstabilityException ex) {
+                outcome = StabilityOutcome.COLLIDED;
+                eventTime = ex.getStep() * config.timeStepSeconds();
+            }
+            double indicator = session.megno();
+            cells[k] = new StabilityCell(outcome != null ? outcome : StabilityOutcome.SURVIVED, eventTime,
+                    Double.isFinite(indicator) ? indicator : null);
+        }
+        return cells;
+    }
+
+    /** 是否有天体远离其余天体质心超过逃逸半径、正在远离且相对其余天体非束缚。 */
+    private boolean escaped(SimulationState state) {
+        List<BodyState> bodies = state.bodies();
+        int n = bodies.size();
+        double totalMass = 0.0;
+        Vector3 momentum = Vector3.ZERO;
+        Vector3 weighted = Vector3.ZERO;
+        for (int i = 0; i < n; i++) {
+            totalMass += masses[i];
+            momentum = momentum.add(bodies.get(i).velocity().multiply(masses[i]));
+            weighted = weighted.add(bodies.get(i).position().multiply(masses[i]));
+        }
+        for (int i = 0; i < n; i++) {
+            BodyState b = bodies.get(i);
+            double restMass = totalMass - masses[i];
+            if (!(restMass > 0.0)) {
+                continue;
+            }
+            // 其余天体的质心位置与速度
+            Vector3 restCenter = weighted.subtract(b.position().multiply(masses[i])).multiply(1.0 / restMass);
+            Vector3 relative = b.position().subtract(restCenter);
+            double r = relative.length();
+            if (r <= escapeRadius) {
+                continue;
+            }
+            Vector3 restVelocity = momentum.subtract(b.velocity().multiply(masses[i])).multiply(1.0 / restMass);
+            Vector3 relativeVelocity = b.velocity().subtract(restVelocity);
+            double specificEnergy = 0.5 * relativeVelocity.squaredLength()
+                    - config.gravitationalConstant() * (masses[i] + restMass) / r;
+            if (specificEnergy > 0.0 && relative.dot(relativeVelocity) > 0.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,39 @@
+package com.threebody.core;
+
+/**
+ * 批量推进观察者。积分内核每步只以原始量询问 {@link #wantsStep}，
+ * 返回 true 时才物化 {@link StepResult} 并回调 {@link #onStep}，
+ * 因此不关心的步不会产生任何对象。
+ */
+public interface StepObserver {
+
+    /** 从不物化中间步的观察者，适用于只需要最终状态的快进。 */
+    StepObserver NONE = new StepObserver() {
+        @Override
+        public boolean wantsStep(long step, double simulationTimeSeconds, boolean nearEncounter) {
+            return false;
+        }
+
+        @Override
+        public boolean onStep(StepResult result) {
+            return true;
+        }
+    };
+
+    /**
+     * 每步推进后调用，实现必须廉价且不得修改积分状态。
+     *
+     * @param step                  刚完成的步数
+     * @param simulationTimeSeconds 刚完成步的模拟时间(s)
+     * @param nearEncounter         本步是否有天体对位于近距离阈值内
+     * @return 是否物化本步并回调 {@link #onStep}
+     */
+    boolean wantsStep(long step, double simulationTimeSeconds, boolean nearEncounter);
+
+    /**
+     * 物化后的回调。
+     *
+     * @return true 继续批量推进；false 在本步后停止
+     */
+    boolean onStep(StepResult result);
+}
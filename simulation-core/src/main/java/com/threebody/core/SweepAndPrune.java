@@ -0,0 +1,131 @@
+package com.threebody.core;
+
+/**
+ * 单轴扫描剪枝(sweep-and-prune)的两两距离遍历，供 {@link PairProximity#scan} 在天体较多时使用。
+ *
+ * <p>天体按跨度最大的坐标轴排序，每个天体只与排序后紧随其后、轴向间隔平方不超过
+ * max(近距离阈值平方, 当前最近距离平方) 的天体比较。轴向间隔平方不大于真实距离平方(舍入单调)，
+ * 因此剪掉的天体对既不是近距离天体对，也不可能成为最近天体对；结果与逐对遍历完全相同。
+ *
+ * <p>排序顺序跨次保留：相邻两步天体移动很小，插入排序接近 O(n)；顺序变化过大或换轴时改用归并排序。
+ * 实例不是线程安全的。
+ */
+final class SweepAndPrune {
+
+    /** 天体数不少于该值时使用扫描剪枝，否则逐对遍历更快。 */
+    static final int MIN_BODIES = 16;
+
+    private int[] order = new int[0];
+    private int[] scratch = new int[0];
+    private int axis = -1;
+
+    /**
+     * 遍历全部天体对并写入 out(调用前已 begin)。
+     *
+     * @return false 表示存在非有限坐标，未写入任何内容，需逐对遍历
+     */
+    boolean scan(double[] x, double[] y, double[] z, int n, PairProximity out) {
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isFinite(x[i]) || !Double.isFinite(y[i]) || !Double.isFinite(z[i])) {
+                return false;
+            }
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+            minZ = Math.min(minZ, z[i]);
+            maxZ = Math.max(maxZ, z[i]);
+        }
+        double spanX = maxX - minX;
+        double spanY = maxY - minY;
+        double spanZ = maxZ - minZ;
+        int chosen = spanX >= spanY && spanX >= spanZ ? 0 : spanY >= spanZ ? 1 : 2;
+        double[] key = chosen == 0 ? x : chosen == 1 ? y : z;
+        sort(key, n, chosen);
+
+        double screen = out.screenSquared();
+        double bestSquared = Double.POSITIVE_INFINITY;
+        for (int s = 0; s < n; s++) {
+            int a = order[s];
+            double ka = key[a];
+            for (int t = s + 1; t < n; t++) {
+                int b = order[t];
+                double gap = key[b] - ka;
+                double gap2 = gap * gap;
+                if (gap2 > bestSquared && gap2 > screen) {
+                    break;
+                }
+                int i = Math.min(a, b);
+                int j = Math.max(a, b);
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double dz = z[j] - z[i];
+                double d2 = dx * dx + dy * dy + dz * dz;
+                if (d2 <= bestSquared) {
+                    bestSquared = d2;
+                    out.offerMinimum(i, j, d2);
+                }
+                out.offerEncounter(i, j, d2);
+            }
+        }
+        return true;
+    }
+
+    /** 按 key 升序整理 order：沿用上次顺序做插入排序，移动过多或换轴时归并排序。 */
+    private void sort(double[] key, int n, int chosen) {
+        if (order.length != n || axis != chosen) {
+            order = new int[n];
+            scratch = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            axis = chosen;
+            mergeSort(key, 0, n);
+            return;
+        }
+        long budget = 4L * n;
+        for (int s = 1; s < n; s++) {
+            int v = order[s];
+            double kv = key[v];
+            int t = s - 1;
+            while (t >= 0 && key[order[t]] > kv) {
+                order[t + 1] = order[t];
+                t--;
+                if (--budget < 0) {
+                    order[t + 1] = v;
+                    mergeSort(key, 0, n);
+                    return;
+                }
+            }
+            order[t + 1] = v;
+        }
+    }
+
+    private void mergeSort(double[] key, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(key, from, middle);
+        mergeSort(key, middle, to);
+        if (key[order[middle - 1]] <= key[order[middle]]) {
+            return;
+        }
+        System.arraycopy(order, from, scratch, from, to - from);
+        int l = from;
+        int r = middle;
+        for (int k = from; k < to; k++) {
+            if (r >= to || l < middle && key[scratch[l]] <= key[scratch[r]]) {
+                order[k] = scratch[l++];
+            } else {
+                order[k] = scratch[r++];
+            }
+        }
+    }
+}
@@ -19,5 +19,16 @@ public enum ValidationCode {
     INITIAL_DISTANCE_TOO_SMALL,
     INITIAL_SPEED_HIGH,
     SOFTENING_TOO_SMALL,
-    SOFTENING_TOO_LARGE
+    SOFTENING_TOO_LARGE,
+    INVALID_INTEGRATOR,
+    INVALID_TOLERANCE,
+    INVALID_FORCE_SOLVER,
+    INVALID_OPENING_ANGLE,
+    INVALID_EXPANSION_ORDER,
+    INVALID_CHAOS_INDICATORS,
+    INVALID_ANALYTIC_BINARIES,
+    INVALID_ESCAPE_RETIREMENT,
+    INVALID_REGULARIZATION,
+    INVALID_PARAREAL,
+    WISDOM_HOLMAN_RECOMMENDED
 }
\ No newline at end of file
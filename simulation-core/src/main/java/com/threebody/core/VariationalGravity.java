@@ -0,0 +1,107 @@
+package com.threebody.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 直接求和软化引力及其变分方程。相空间长度为 2n：前 n 个槽位是天体状态，后 n 个槽位是切向量
+ * (位置偏差 δx 与速度偏差 δv)。切向量的加速度为引力对位置的雅可比矩阵作用于 δx：
+ * δa_i = sum_j G * m_j * [δr_ij / s^3 - 3 * (r_ij · δr_ij) * r_ij / s^5]，s^2 = |r_ij|^2 + eps^2。
+ *
+ * <p>切向量与状态在同一遍两两循环中计算，共享距离、平方根与除法；状态部分的运算顺序与
+ * {@link DirectGravity} 完全相同(含顺带记录的两两距离与势能)，结果逐位一致。
+ */
+final class VariationalGravity implements ForceField {
+
+    private final String[] ids;
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+
+    VariationalGravity(SimulationConfig config) {
+        List<BodySpec> specs = config.bodies();
+        int n = specs.size();
+        this.ids = new String[n];
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = specs.get(i).id();
+            masses[i] = specs.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+    }
+
+    @Override
+    public void accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        compute(px, py, pz, ax, ay, az, atStep, atTime, null);
+    }
+
+    @Override
+    public boolean accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime, PairProximity proximity) {
+        compute(px, py, pz, ax, ay, az, atStep, atTime, proximity);
+        return true;
+    }
+
+    private void compute(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime, PairProximity proximity) {
+        int n = masses.length;
+        Arrays.fill(ax, 0.0);
+        Arrays.fill(ay, 0.0);
+        Arrays.fill(az, 0.0);
+        boolean potential = proximity != null && proximity.potentialRequested();
+        double potentialSum = 0.0;
+        for (int i = 0; i < n; i++) {
+            int ti = n + i;
+            for (int j = i + 1; j < n; j++) {
+                int tj = n + j;
+                double dx = px[j] - px[i];
+                double dy = py[j] - py[i];
+                double dz = pz[j] - pz[i];
+                double d2 = dx * dx + dy * dy + dz * dz;
+                if (proximity != null) {
+                    proximity.offer(i, j, d2);
+                }
+                double r2 = d2 + eps2;
+                if (!Double.isFinite(r2) || r2 <= 1e-300) {
+                    throw new NumericalInstabilityException(
+                            "天体间距过小，无法计算有限引力加速度；请增大软化长度",
+                            atStep, ids[i] + "," + ids[j],
+                            "pairDistanceSquared", atTime,
+                            Double.isFinite(r2) ? Double.toString(r2) : NBodyIntegrator.finiteValueText(r2));
+                }
+                double r = Math.sqrt(r2);
+                if (potential) {
+                    potentialSum -= g * masses[i] * masses[j] / r;
+                }
+                double invR3 = 1.0 / (r2 * r);
+                double factorI = g * masses[j] * invR3;
+                double factorJ = g * masses[i] * invR3;
+                ax[i] += factorI * dx;
+                ay[i] += factorI * dy;
+                az[i] += factorI * dz;
+                ax[j] -= factorJ * dx;
+                ay[j] -= factorJ * dy;
+                az[j] -= factorJ * dz;
+
+                double ddx = px[tj] - px[ti];
+                double ddy = py[tj] - py[ti];
+                double ddz = pz[tj] - pz[ti];
+                double radial = 3.0 * (dx * ddx + dy * ddy + dz * ddz) / r2;
+                double tx = ddx - radial * dx;
+                double ty = ddy - radial * dy;
+                double tz = ddz - radial * dz;
+                ax[ti] += factorI * tx;
+                ay[ti] += factorI * ty;
+                az[ti] += factorI * tz;
+                ax[tj] -= factorJ * tx;
+                ay[tj] -= factorJ * ty;
+                az[tj] -= factorJ * tz;
+            }
+        }
+        if (potential) {
+            proximity.potentialEnergy(potentialSum);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.threebody.core;
+
+import java.util.List;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于 {@code jdk.incubator.vector} 的直接求和软化引力，结果与 {@link DirectGravity} 逐位相同。
+ *
+ * <p>向量的各通道对应连续的目标天体 i，对源天体 j 按升序广播坐标与质量，逐通道累加 a_i。
+ * 每个通道的运算与 {@link ParallelDirectGravity} 的单行求和完全相同：不使用 FMA，开方与除法按
+ * IEEE 754 正确舍入，跳过 j == i，因此与通道数(硬件向量宽度)无关，不同机器上结果一致。
+ *
+ * <p>只有启动参数包含 {@code --add-modules jdk.incubator.vector} 时才会加载本类，
+ * 见 {@link ForceSolverKind#create(SimulationConfig)}；否则使用标量内核。
+ * 出现间距过小时由标量内核重算，抛出与标量实现相同的异常。实例不是线程安全的。
+ *
+ * <p>融合近距离记录时，各通道只登记 j &gt; i 的天体对；最近天体对逐通道保留首个最小值，
+ * 组末按 i 升序合并，近距离天体对由 {@link PairProximity} 整理为字典序，结果与标量遍历相同。
+ * 请求势能时各通道把 j &gt; i 的势能项写入按 (i, j) 字典序排列的三角缓冲区，算完后顺序求和，
+ * 与标量内核的累加顺序相同。
+ */
+public final class VectorDirectGravity implements ForceField {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final DirectGravity scalar;
+    private final double[] masses;
+    private final double g;
+    private final double eps2;
+    /** 按 (i, j) 字典序排列的势能项 G*m_i*m_j/r，首次请求势能时创建。 */
+    private double[] pairPotential;
+
+    public VectorDirectGravity(SimulationConfig config) {
+        List<BodySpec> specs = config.bodies();
+        int n = specs.size();
+        this.scalar = new DirectGravity(config);
+        this.masses = new double[n];
+        for (int i = 0; i < n; i++) {
+            masses[i] = specs.get(i).massKg();
+        }
+        this.g = config.gravitationalConstant();
+        this.eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+    }
+
+    /** 当前硬件的向量通道数。 */
+    static int laneCount() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime) {
+        compute(px, py, pz, ax, ay, az, atStep, atTime, null);
+    }
+
+    @Override
+    public boolean accelerations(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime, PairProximity proximity) {
+        if (!compute(px, py, pz, ax, ay, az, atStep, atTime, proximity)) {
+            proximity.restart();
+            scalar.accelerations(px, py, pz, ax, ay, az, atStep, atTime, proximity);
+        }
+        return true;
+    }
+
+    /** 返回 false 表示遇到间距过小的天体对，结果未写完，需由标量内核重算。 */
+    private boolean compute(double[] px, double[] py, double[] pz,
+            double[] ax, double[] ay, double[] az, long atStep, double atTime, PairProximity proximity) {
+        int n = masses.length;
+        int lanes = SPECIES.length();
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector infinity = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        double screen = proximity != null ? proximity.screenSquared() : -1.0;
+        boolean potential = proximity != null && proximity.potentialRequested();
+        if (potential && pairPotential == null) {
+            pairPotential = new double[n * (n - 1) / 2];
+        }
+        for (int i0 = 0; i0 < n; i0 += lanes) {
+            VectorMask<Double> valid = SPECIES.indexInRange(i0, n);
+            DoubleVector xi = DoubleVector.fromArray(SPECIES, px, i0, valid);
+            DoubleVector yi = DoubleVector.fromArray(SPECIES, py, i0, valid);
+            DoubleVector zi = DoubleVector.fromArray(SPECIES, pz, i0, valid);
+            // g*m_i 与标量内核 g * masses[i] * masses[j] 的前半段相同
+            DoubleVector gmi = potential ? DoubleVector.fromArray(SPECIES, masses, i0, valid).mul(g) : null;
+            DoubleVector sax = DoubleVector.zero(SPECIES);
+            DoubleVector say = DoubleVector.zero(SPECIES);
+            DoubleVector saz = DoubleVector.zero(SPECIES);
+            DoubleVector nearest = infinity;
+            DoubleVector nearestJ = DoubleVector.zero(SPECIES);
+            for (int j = 0; j < n; j++) {
+                // 源天体落在本组通道内时屏蔽其自身通道
+                VectorMask<Double> active = j >= i0 && j < i0 + lanes
+                        ? valid.andNot(VectorMask.fromLong(SPECIES, 1L << (j - i0)))
+                        : valid;
+                DoubleVector dx = DoubleVector.broadcast(SPECIES, px[j]).sub(xi);
+                DoubleVector dy = DoubleVector.broadcast(SPECIES, py[j]).sub(yi);
+                DoubleVector dz = DoubleVector.broadcast(SPECIES, pz[j]).sub(zi);
+                DoubleVector d2 = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+                DoubleVector r2 = d2.add(eps2);
+                VectorMask<Double> bad = r2.test(VectorOperators.IS_FINITE).not()
+                        .or(r2.compare(VectorOperators.LE, 1e-300));
+                if (bad.and(active).anyTrue()) {
+                    if (proximity == null) {
+                        scalar.accelerations(px, py, pz, ax, ay, az, atStep, atTime);
+                    }
+                    return false;
+                }
+                if (proximity != null && j > i0) {
+                    // 只登记 i < j 的天体对：通道序号 i0 + lane 小于 j
+                    VectorMask<Double> upper = j >= i0 + lanes ? active
+                            : active.and(VectorMask.fromLong(SPECIES, (1L << (j - i0)) - 1L));
+                    VectorMask<Double> closer = d2.compare(VectorOperators.LT, nearest).and(upper);
+                    nearest = nearest.blend(d2, closer);
+                    nearestJ = nearestJ.blend((double) j, closer);
+                    VectorMask<Double> close = d2.compare(VectorOperators.LT, screen).and(upper);
+                    if (close.anyTrue()) {
+                        for (int lane = close.firstTrue(); lane < lanes; lane++) {
+                            if (close.laneIsSet(lane)) {
+                                proximity.offerEncounter(i0 + lane, j, d2.lane(lane));
+                            }
+                        }
+                    }
+                }
+                DoubleVector r = r2.lanewise(VectorOperators.SQRT);
+                if (potential && j > i0) {
+                    DoubleVector term = gmi.mul(masses[j]).div(r);
+                    for (int lane = 0; lane < lanes && i0 + lane < j; lane++) {
+                        int i = i0 + lane;
+                        pairPotential[i * n - i * (i + 1) / 2 + j - i - 1] = term.lane(lane);
+                    }
+                }
+                DoubleVector invR3 = one.div(r2.mul(r));
+                DoubleVector factor = invR3.mul(g * masses[j]);
+                sax = sax.add(factor.mul(dx), active);
+                say = say.add(factor.mul(dy), active);
+                saz = saz.add(factor.mul(dz), active);
+            }
+            sax.intoArray(ax, i0, valid);
+            say.intoArray(ay, i0, valid);
+            saz.intoArray(az, i0, valid);
+            if (proximity != null) {
+                for (int lane = 0; lane < lanes && i0 + lane < n; lane++) {
+                    double d2 = nearest.lane(lane);
+                    if (d2 < Double.POSITIVE_INFINITY) {
+                        proximity.offerMinimum(i0 + lane, (int) nearestJ.lane(lane), d2);
+                    }
+                }
+            }
+        }
+        if (potential) {
+            double potentialSum = 0.0;
+            for (int k = 0; k < pairPotential.length; k++) {
+                potentialSum -= pairPotential[k];
+            }
+            proximity.potentialEnergy(potentialSum);
+        }
+        return true;
+    }
+}
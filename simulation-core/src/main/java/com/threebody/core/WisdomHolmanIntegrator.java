@@ -0,0 +1,228 @@
+package com.threebody.core;
+
+import java.util.List;
+
+/**
+ * Wisdom-Holman 混合变量辛积分，采用民主日心坐标(democratic heliocentric)：
+ * 以质量最大的天体为中心天体 c，其余天体用日心位置 Q_i = x_i - x_c 与质心系速度 u_i = v_i - V 描述。
+ * 哈密顿量拆为开普勒部分(各天体绕中心天体的二体运动，mu = G m_c)、相互作用部分与跳跃部分
+ * |sum m_i u_i|^2 / (2 m_c)，每步按
+ * 踢(dt/2)-跳(dt/2)-开普勒漂移(dt)-跳(dt/2)-踢(dt/2) 组合，二阶辛方法。
+ *
+ * <p>相互作用加速度取自配置的 {@link ForceField}：全加速度加回中心天体的未软化开普勒引力
+ * a_i + G m_c Q_i / |Q_i|^3，因此软化与近似引力求解都归入相互作用部分。开普勒漂移由 {@link KeplerDrift}
+ * 精确求解，误差只来自相互作用相对中心引力的比例，中心天体占主导质量时步长可远大于 RK4。
+ * 质心按匀速直线运动推进。
+ *
+ * <p>末端力计算恰在新位置上进行，缓存后作为下一步的起始加速度，稳态每步 1 次力计算；
+ * 会话载入新状态或推进失败时经 {@link #reset()} 丢弃缓存。
+ */
+final class WisdomHolmanIntegrator implements Integrator {
+
+    private final String[] ids;
+    private final double[] masses;
+    private final double totalMass;
+    /** 中心天体下标。 */
+    private final int central;
+    /** 中心天体的开普勒引力参数 G m_c。 */
+    private final double mu;
+    private final KeplerDrift kepler = new KeplerDrift();
+
+    private final double[] ax;
+    private final double[] ay;
+    private final double[] az;
+    /** 日心位置 Q 与质心系速度 u；中心天体槽位不用。 */
+    private final double[] qx;
+    private final double[] qy;
+    private final double[] qz;
+    private final double[] ux;
+    private final double[] uy;
+    private final double[] uz;
+    private boolean accelerationCached;
+
+    WisdomHolmanIntegrator(SimulationConfig config) {
+        List<BodySpec> specs = config.bodies();
+        int n = specs.size();
+        this.ids = new String[n];
+        this.masses = new double[n];
+        double total = 0.0;
+        int heaviest = 0;
+        for (int i = 0; i < n; i++) {
+            ids[i] = specs.get(i).id();
+            masses[i] = specs.get(i).massKg();
+            total += masses[i];
+            if (masses[i] > masses[heaviest]) {
+                heaviest = i;
+            }
+        }
+        this.totalMass = total;
+        this.central = heaviest;
+        this.mu = config.gravitationalConstant() * masses[heaviest];
+        this.ax = new double[n];
+        this.ay = new double[n];
+        this.az = new double[n];
+        this.qx = new double[n];
+        this.qy = new double[n];
+        this.qz = new double[n];
+        this.ux = new double[n];
+        this.uy = new double[n];
+        this.uz = new double[n];
+    }
+
+    @Override
+    public IntegratorKind kind() {
+        return IntegratorKind.WISDOM_HOLMAN;
+    }
+
+    @Override
+    public double step(PhaseSpace current, PhaseSpace next, ForceField forces, long nextStep, double time, double dt) {
+        int n = masses.length;
+        int c = central;
+        if (!accelerationCached) {
+            forces.accelerations(current.x, current.y, current.z, ax, ay, az, nextStep, time);
+        }
+        double cmx = 0.0;
+        double cmy = 0.0;
+        double cmz = 0.0;
+        double cvx = 0.0;
+        double cvy = 0.0;
+        double cvz = 0.0;
+        for (int i = 0; i < n; i++) {
+            double m = masses[i];
+            cmx += m * current.x[i];
+            cmy += m * current.y[i];
+            cmz += m * current.z[i];
+            cvx += m * current.vx[i];
+            cvy += m * current.vy[i];
+            cvz += m * current.vz[i];
+        }
+        cmx /= totalMass;
+        cmy /= totalMass;
+        cmz /= totalMass;
+        cvx /= totalMass;
+        cvy /= totalMass;
+        cvz /= totalMass;
+        for (int i = 0; i < n; i++) {
+            if (i == c) {
+                continue;
+            }
+            qx[i] = current.x[i] - current.x[c];
+            qy[i] = current.y[i] - current.y[c];
+            qz[i] = current.z[i] - current.z[c];
+            ux[i] = current.vx[i] - cvx;
+            uy[i] = current.vy[i] - cvy;
+            uz[i] = current.vz[i] - cvz;
+        }
+
+        double half = dt / 2.0;
+        accelerationCached = false;
+        interactionKick(half);
+        jump(half);
+        for (int i = 0; i < n; i++) {
+            if (i == c) {
+                continue;
+            }
+            if (Double.isNaN(kepler.drift(mu, dt, qx, qy, qz, ux, uy, uz, i))) {
+                throw new NumericalInstabilityException(
+                        "天体 " + ids[i] + " 绕中心天体的开普勒漂移未收敛，请减小时间步长或改用其他积分方案",
+                        nextStep, ids[i], "keplerDrift", time + dt, "NaN");
+            }
+        }
+        jump(half);
+
+        // 由日心位置与匀速运动的质心还原绝对位置：x_c = X - sum m_i Q_i / M
+        double sx = 0.0;
+        double sy = 0.0;
+        double sz = 0.0;
+        for (int i = 0; i < n; i++) {
+            if (i != c) {
+                sx += masses[i] * qx[i];
+                sy += masses[i] * qy[i];
+                sz += masses[i] * qz[i];
+            }
+        }
+        double centralX = cmx + cvx * dt - sx / totalMass;
+        double centralY = cmy + cvy * dt - sy / totalMass;
+        double centralZ = cmz + cvz * dt - sz / totalMass;
+        next.x[c] = centralX;
+        next.y[c] = centralY;
+        next.z[c] = centralZ;
+        for (int i = 0; i < n; i++) {
+            if (i != c) {
+                next.x[i] = qx[i] + centralX;
+                next.y[i] = qy[i] + centralY;
+                next.z[i] = qz[i] + centralZ;
+            }
+        }
+
+        forces.accelerations(next.x, next.y, next.z, ax, ay, az, nextStep, time + dt);
+        interactionKick(half);
+        accelerationCached = true;
+
+        // 中心天体速度由质心系总动量为零给出
+        double px = 0.0;
+        double py = 0.0;
+        double pz = 0.0;
+        for (int i = 0; i < n; i++) {
+            if (i == c) {
+                continue;
+            }
+            px += masses[i] * ux[i];
+            py += masses[i] * uy[i];
+            pz += masses[i] * uz[i];
+            next.vx[i] = ux[i] + cvx;
+            next.vy[i] = uy[i] + cvy;
+            next.vz[i] = uz[i] + cvz;
+        }
+        next.vx[c] = cvx - px / masses[c];
+        next.vy[c] = cvy - py / masses[c];
+        next.vz[c] = cvz - pz / masses[c];
+        return dt;
+    }
+
+    /** 相互作用踢：u_i += h (a_i + mu Q_i / |Q_i|^3)，a 为当前 Q 对应位置上的全加速度。 */
+    private void interactionKick(double h) {
+        for (int i = 0; i < masses.length; i++) {
+            if (i == central) {
+                continue;
+            }
+            double r2 = qx[i] * qx[i] + qy[i] * qy[i] + qz[i] * qz[i];
+            double keplerFactor = mu / (r2 * Math.sqrt(r2));
+            ux[i] += h * (ax[i] + keplerFactor * qx[i]);
+            uy[i] += h * (ay[i] + keplerFactor * qy[i]);
+            uz[i] += h * (az[i] + keplerFactor * qz[i]);
+        }
+    }
+
+    /** 跳跃：Q_i += h sum_j m_j u_j / m_c。 */
+    private void jump(double h) {
+        double px = 0.0;
+        double py = 0.0;
+        double pz = 0.0;
+        for (int i = 0; i < masses.length; i++) {
+            if (i != central) {
+                px += masses[i] * ux[i];
+                py += masses[i] * uy[i];
+                pz += masses[i] * uz[i];
+            }
+        }
+        double scale = h / masses[central];
+        for (int i = 0; i < masses.length; i++) {
+            if (i != central) {
+                qx[i] += scale * px;
+                qy[i] += scale * py;
+                qz[i] += scale * pz;
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        accelerationCached = false;
+    }
+
+    @Override
+    public boolean finalForcesAtNextPositions() {
+        return accelerationCached;
+    }
+}
@@ -0,0 +1,96 @@
+package com.threebody.core;
+
+import static com.threebody.core.GravityFixtures.accelerations;
+import static com.threebody.core.GravityFixtures.maxRelativeDifference;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BarnesHutGravityTest {
+
+    private static SimulationConfig cluster(int count, double openingAngle) {
+        return GravityFixtures.cluster(count).withForceSolver(ForceSolverKind.BARNES_HUT, openingAngle);
+    }
+
+    @Test
+    @DisplayName("张角很小时树算法与直接求和一致，张角增大时误差增大但仍可控")
+    void approachesDirectSumAsOpeningAngleShrinks() {
+        SimulationConfig config = cluster(800, 0.5);
+        double[][] direct = accelerations(new DirectGravity(config), config);
+        double exact = maxRelativeDifference(accelerations(new BarnesHutGravity(config, 1e-6), config), direct);
+        assertTrue(exact < 1e-12, "张角 1e-6 最大相对误差 " + exact);
+
+        double tight = maxRelativeDifference(accelerations(new BarnesHutGravity(config, 0.3), config), direct);
+        double loose = maxRelativeDifference(accelerations(new BarnesHutGravity(config, 0.8), config), direct);
+        assertTrue(tight < loose, "张角 0.3 误差 " + tight + "，0.8 误差 " + loose);
+        assertTrue(tight < 0.05, "张角 0.3 最大相对误差 " + tight);
+    }
+
+    @Test
+    @DisplayName("重复计算复用节点数组，结果逐位一致")
+    void rebuildsDeterministically() {
+        SimulationConfig config = cluster(300, 0.5);
+        BarnesHutGravity tree = new BarnesHutGravity(config);
+        double[][] first = accelerations(tree, config);
+        int nodes = tree.nodeCount();
+        double[][] second = accelerations(tree, config);
+        assertEquals(nodes, tree.nodeCount());
+        for (int c = 0; c < 3; c++) {
+            assertTrue(java.util.Arrays.equals(first[c], second[c]));
+        }
+    }
+
+    @Test
+    @DisplayName("抽样力误差估计随张角增大而增大，指标只对树求解给出估计")
+    void reportsForceErrorEstimateInMetrics() {
+        SimulationConfig config = cluster(500, 0.5);
+        SimulationState state = NBodyIntegrator.initialState(config);
+        double tight = MetricsCalculator.forceErrorEstimate(config.withForceSolver(ForceSolverKind.BARNES_HUT, 0.3),
+                state);
+        double loose = MetricsCalculator.forceErrorEstimate(config.withForceSolver(ForceSolverKind.BARNES_HUT, 1.0),
+                state);
+        assertTrue(tight > 0.0 && tight < loose, "张角 0.3 误差 " + tight + "，1.0 误差 " + loose);
+
+        Metrics metrics = MetricsCalculator.compute(config, state, MetricsCalculator.totalEnergy(config, state));
+        assertNotNull(metrics.forceErrorEstimate());
+        // 会话指标借用会话自己的树求解器，估计与一次性求解器逐位相同
+        assertEquals(metrics.forceErrorEstimate(), new IntegrationSession(config).metrics(
+                metrics.initialTotalEnergyJoules()).forceErrorEstimate());
+        Metrics direct = MetricsCalculator.compute(config.withForceSolver(ForceSolverKind.DIRECT, null), state, 0.0);
+        assertNull(direct.forceErrorEstimate());
+    }
+
+    @Test
+    @DisplayName("位置重合的天体与直接求和一样抛出间距过小异常")
+    void coincidentBodiesFailLikeDirectSum() {
+        SimulationConfig config = new SimulationConfig("重合", List.of(
+                        new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("c", "丙", "#ef476f", 1.0e30, Vector3.of(1.0e11, 0, 0), Vector3.ZERO)),
+                1.0, PhysicalConstants.GRAVITATIONAL_CONSTANT, 0.0, 1L, null)
+                .withForceSolver(ForceSolverKind.BARNES_HUT, null);
+        NumericalInstabilityException failure = assertThrows(NumericalInstabilityException.class,
+                () -> accelerations(new BarnesHutGravity(config), config));
+        assertEquals("a,b", failure.getBodyId());
+    }
+
+    @Test
+    @DisplayName("会话按配置使用树求解，两体轨道与直接求和一致")
+    void sessionUsesConfiguredSolver() {
+        SimulationConfig direct = new SimulationConfig("两体", List.of(
+                        new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e24, Vector3.of(1.0e11, 0, 0),
+                                Vector3.of(0, 2.5e4, 0))),
+                3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT, 0.0, 100L, null);
+        SimulationConfig tree = direct.withForceSolver(ForceSolverKind.BARNES_HUT, 0.5);
+        // 两个天体分处根节点的不同叶子，树算法逐对求和
+        assertEquals(NBodyIntegrator.advance(direct, NBodyIntegrator.initialState(direct), 100L, StepObserver.NONE),
+                NBodyIntegrator.advance(tree, NBodyIntegrator.initialState(tree), 100L, StepObserver.NONE));
+    }
+}
@@ -157,6 +157,158 @@ class ConfigValidatorTest {
         assertEquals(List.of("a", "b"), summary.initialMinimumPairBodyIds());
         assertEquals(2.0e11, summary.initialMinimumPairDistanceMeters());
         assertEquals(5.0e-5, summary.softeningToInitialDistanceRatio());
+        assertEquals(IntegratorKind.RK4, summary.integrator());
+        assertEquals(4, summary.forceEvaluationsPerStep());
+        assertEquals(40_000L, summary.estimatedForceEvaluations());
+    }
+
+    @Test
+    @DisplayName("运行事实摘要按积分方案每步力计算次数估算成本")
+    void summaryReflectsIntegratorCost() {
+        ConfigSummary yoshida6 = ConfigValidator.validate(validConfig().withIntegrator(IntegratorKind.YOSHIDA6))
+                .configSummary();
+        assertEquals(7, yoshida6.forceEvaluationsPerStep());
+        assertEquals(70_000L, yoshida6.estimatedForceEvaluations());
+        ConfigSummary leapfrog = ConfigValidator.validate(validConfig().withIntegrator(IntegratorKind.LEAPFROG))
+                .configSummary();
+        assertEquals(1, leapfrog.forceEvaluationsPerStep());
+        assertEquals(10_000L, leapfrog.estimatedForceEvaluations());
+    }
+
+    @Test
+    @DisplayName("自适应方案校验容差范围，自适应与块时间步方案不对步长上限给出 TIME_STEP_TOO_LARGE")
+    void adaptiveSchemeValidatesTolerances() {
+        SimulationConfig config = new SimulationConfig(
+                "自适应大步长",
+                List.of(
+                        new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(1.0e8, 0, 0), Vector3.ZERO)),
+                3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT, 1.0e6, 10_000L, null)
+                .withIntegrator(IntegratorKind.DOPRI45);
+        ValidationResult result = ConfigValidator.validate(config);
+        assertTrue(result.valid());
+        assertFalse(result.issues().stream().anyMatch(i -> i.code() == ValidationCode.TIME_STEP_TOO_LARGE));
+        assertFalse(ConfigValidator.validate(config.withIntegrator(IntegratorKind.HERMITE)).issues().stream()
+                .anyMatch(i -> i.code() == ValidationCode.TIME_STEP_TOO_LARGE));
+
+        for (double bad : new double[] {0.0, -1e-9, 1.0, Double.NaN}) {
+            ValidationResult invalid = ConfigValidator.validate(config.withTolerances(bad, 1e-9));
+            assertFalse(invalid.valid(), "相对容差 " + bad);
+            assertTrue(invalid.issues().stream().anyMatch(i -> i.code() == ValidationCode.INVALID_TOLERANCE
+                    && "relativeTolerance".equals(i.field())));
+        }
+        assertTrue(ConfigValidator.validate(config.withTolerances(1e-8, 1e-12)).valid());
+    }
+
+    @Test
+    @DisplayName("八叉树求解放宽天体数量上限，并校验张角与积分方案组合")
+    void barnesHutRaisesBodyLimitAndValidatesOpeningAngle() {
+        SimulationConfig overDirectLimit = configWithBodyCount(PhysicalConstants.MAX_BODY_COUNT + 1);
+        assertFalse(ConfigValidator.validate(overDirectLimit).valid());
+        SimulationConfig tree = overDirectLimit.withForceSolver(ForceSolverKind.BARNES_HUT, null);
+        assertTrue(ConfigValidator.validate(tree).valid());
+
+        for (double bad : new double[] {0.0, -0.5, 1.6, Double.NaN}) {
+            ValidationResult invalid = ConfigValidator.validate(tree.withForceSolver(ForceSolverKind.BARNES_HUT, bad));
+            assertTrue(invalid.issues().stream().anyMatch(i -> i.code() == ValidationCode.INVALID_OPENING_ANGLE),
+                    "张角 " + bad);
+        }
+        ValidationResult hermite = ConfigValidator.validate(validConfig()
+                .withIntegrator(IntegratorKind.HERMITE).withForceSolver(ForceSolverKind.BARNES_HUT, 0.5));
+        assertTrue(hermite.issues().stream().anyMatch(i -> i.code() == ValidationCode.INVALID_FORCE_SOLVER));
+    }
+
+    @Test
+    @DisplayName("多极子校验展开阶数，AUTO 按解析结果决定能否与 HERMITE 同用")
+    void fmmValidatesExpansionOrder() {
+        SimulationConfig fmm = configWithBodyCount(PhysicalConstants.MAX_BODY_COUNT + 1)
+                .withForceSolver(ForceSolverKind.FMM, null);
+        assertTrue(ConfigValidator.validate(fmm.withExpansionOrder(ConfigValidator.MAX_EXPANSION_ORDER)).valid());
+        for (int bad : new int[] {0, ConfigValidator.MAX_EXPANSION_ORDER + 1}) {
+            ValidationResult invalid = ConfigValidator.validate(fmm.withExpansionOrder(bad));
+            assertTrue(invalid.issues().stream().anyMatch(i -> i.code() == ValidationCode.INVALID_EXPANSION_ORDER),
+                    "阶数 " + bad);
+        }
+        assertTrue(ConfigValidator.validate(validConfig()
+                .withIntegrator(IntegratorKind.HERMITE).withForceSolver(ForceSolverKind.AUTO, null)).valid());
+    }
+
+    @Test
+    @DisplayName("混沌指标只能与固定步长积分方案和 DIRECT 引力求解同用")
+    void chaosIndicatorsRequireFixedStepDirect() {
+        SimulationConfig chaos = validConfig().withChaosIndicators(true);
+        assertTrue(ConfigValidator.validate(chaos).valid());
+        assertTrue(ConfigValidator.validate(chaos.withIntegrator(IntegratorKind.YOSHIDA4)).valid());
+        for (SimulationConfig invalid : List.of(chaos.withIntegrator(IntegratorKind.DOPRI45),
+                chaos.withIntegrator(IntegratorKind.HERMITE),
+                chaos.withForceSolver(ForceSolverKind.BARNES_HUT, null))) {
+            assertTrue(ConfigValidator.validate(invalid).issues().stream()
+                    .anyMatch(i -> i.code() == ValidationCode.INVALID_CHAOS_INDICATORS), invalid.integrator().name());
+        }
+        assertTrue(ConfigValidator.validate(chaos.withAnalyticBinaries(true)).issues().stream()
+                .anyMatch(i -> i.code() == ValidationCode.INVALID_ANALYTIC_BINARIES));
+        assertTrue(ConfigValidator.validate(validConfig().withAnalyticBinaries(true)).valid());
+        assertTrue(ConfigValidator.validate(chaos.withEscapeRetirementRadius(1.0e13)).issues().stream()
+                .anyMatch(i -> i.code() == ValidationCode.INVALID_ESCAPE_RETIREMENT));
+    }
+
+    @Test
+    @DisplayName("逃逸退役半径必须是大于软化长度的有限值")
+    void escapeRetirementRadiusMustExceedSoftening() {
+        SimulationConfig config = validConfig();
+        assertTrue(ConfigValidator.validate(config.withEscapeRetirementRadius(1.0e13)).valid());
+        for (double radius : new double[] {0.0, -1.0, config.softeningLengthMeters(), Double.POSITIVE_INFINITY}) {
+            assertTrue(ConfigValidator.validate(config.withEscapeRetirementRadius(radius)).issues().stream()
+                    .anyMatch(i -> i.code() == ValidationCode.INVALID_ESCAPE_RETIREMENT
+                            && i.field().equals("escapeRetirementRadiusMeters")), "radius " + radius);
+        }
+    }
+
+    @Test
+    @DisplayName("近距离正则化需要正的软化长度且不能与混沌指标同时开启")
+    void regularizedEncountersNeedSoftening() {
+        SimulationConfig config = validConfig().withRegularizedEncounters(true);
+        assertTrue(ConfigValidator.validate(config).valid());
+        SimulationConfig unsoftened = new SimulationConfig(config.name(), config.bodies(), config.timeStepSeconds(),
+                config.gravitationalConstant(), 0.0, config.maxSteps(), config.targetSimulationTimeSeconds())
+                .withRegularizedEncounters(true);
+        for (SimulationConfig invalid : List.of(unsoftened, config.withChaosIndicators(true))) {
+            assertTrue(ConfigValidator.validate(invalid).issues().stream()
+                    .anyMatch(i -> i.code() == ValidationCode.INVALID_REGULARIZATION
+                            && i.field().equals("regularizedEncounters")));
+        }
+    }
+
+    @Test
+    @DisplayName("并行时间分片需要 2 至 64 片的固定步长积分，且不与混沌指标同时开启")
+    void pararealNeedsFixedStepIntegrator() {
+        SimulationConfig config = validConfig().withPararealSlices(4);
+        assertTrue(ConfigValidator.validate(config).valid());
+        for (SimulationConfig invalid : List.of(config.withPararealSlices(1),
+                config.withPararealSlices(ConfigValidator.MAX_PARAREAL_SLICES + 1),
+                config.withIntegrator(IntegratorKind.DOPRI45), config.withChaosIndicators(true))) {
+            assertTrue(ConfigValidator.validate(invalid).issues().stream()
+                    .anyMatch(i -> i.code() == ValidationCode.INVALID_PARAREAL
+                            && i.field().equals("pararealSlices")));
+        }
+    }
+
+    @Test
+    @DisplayName("单一天体占主导质量时建议改用 Wisdom-Holman")
+    void centralMassRecommendsWisdomHolman() {
+        SimulationConfig solar = Presets.presetE().config();
+        ValidationIssue issue = ConfigValidator.validate(solar).issues().stream()
+                .filter(i -> i.code() == ValidationCode.WISDOM_HOLMAN_RECOMMENDED)
+                .findFirst().orElseThrow();
+        assertEquals("integrator", issue.field());
+        assertEquals(RiskLevel.CAUTION, issue.riskLevel());
+        assertEquals("SWITCH_TO_WISDOM_HOLMAN", issue.guidance().primaryAction().code());
+        assertEquals(List.of("SOL"), issue.guidance().evidence().get(0).bodyIds());
+
+        assertFalse(ConfigValidator.validate(solar.withIntegrator(IntegratorKind.WISDOM_HOLMAN)).issues().stream()
+                .anyMatch(i -> i.code() == ValidationCode.WISDOM_HOLMAN_RECOMMENDED));
+        assertFalse(ConfigValidator.validate(validConfig()).issues().stream()
+                .anyMatch(i -> i.code() == ValidationCode.WISDOM_HOLMAN_RECOMMENDED), "等质量双星不应提示");
     }
 
     @Test
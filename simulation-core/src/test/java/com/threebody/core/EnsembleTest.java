@@ -0,0 +1,85 @@
+package com.threebody.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EnsembleTest {
+
+    @Test
+    @DisplayName("每个成员与单独积分逐位一致")
+    void membersMatchIndependentSessionsBitwise() {
+        SimulationConfig base = Presets.byKey(PresetKey.I).config();
+        for (IntegratorKind kind : List.of(IntegratorKind.RK4, IntegratorKind.LEAPFROG, IntegratorKind.FOREST_RUTH)) {
+            SimulationConfig config = base.withIntegrator(kind);
+            List<SimulationState> members = Ensemble.perturbedMembers(
+                    NBodyIntegrator.initialState(config), 5, 1.0e3, 42L);
+            Ensemble ensemble = new Ensemble(config, members);
+            ensemble.advance(300);
+            for (int k = 0; k < members.size(); k++) {
+                IntegrationSession session = new IntegrationSession(config, members.get(k));
+                session.advance(300, StepObserver.NONE);
+                assertEquals(session.state(), ensemble.memberState(k), kind + " 成员 " + k);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("失效成员冻结在单独积分报错前的状态，不影响其他成员")
+    void failedMemberIsIsolated() {
+        SimulationConfig config = new SimulationConfig("重合",
+                List.of(new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(1.0e9, 0, 0), Vector3.of(0, 3.0e5, 0))),
+                600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT, 0.0, 10_000L, null);
+        SimulationState orbiting = NBodyIntegrator.initialState(config);
+        List<BodyState> coincident = new ArrayList<>(orbiting.bodies());
+        coincident.set(1, new BodyState("b", Vector3.ZERO, Vector3.of(0, 3.0e5, 0)));
+        SimulationState falling = new SimulationState(0L, 0.0, coincident);
+        Ensemble ensemble = new Ensemble(config, List.of(orbiting, falling, orbiting));
+
+        IntegrationSession session = new IntegrationSession(config, falling);
+        NumericalInstabilityException failure = assertThrows(NumericalInstabilityException.class,
+                () -> session.advance(10_000, StepObserver.NONE));
+        ensemble.advance(failure.getStep() + 5);
+
+        assertFalse(ensemble.alive(1));
+        assertEquals(failure.getStep(), ensemble.failedStep(1));
+        assertEquals(session.state(), ensemble.memberState(1));
+        assertTrue(ensemble.alive(0) && ensemble.alive(2));
+        assertEquals(0.0, ensemble.divergenceMeters(2));
+        EnsembleSample sample = ensemble.sample();
+        assertEquals(2, sample.aliveMembers());
+        assertEquals(0.0, sample.maxDivergenceMeters());
+    }
+
+    @Test
+    @DisplayName("混沌预设中微小扰动的发散随时间增长")
+    void divergenceGrowsInChaoticPreset() {
+        SimulationConfig config = Presets.byKey(PresetKey.I).config();
+        Ensemble ensemble = new Ensemble(config,
+                Ensemble.perturbedMembers(NBodyIntegrator.initialState(config), 9, 1.0, 7L));
+        EnsembleSample start = ensemble.sample();
+        ensemble.advance(6_000);
+        EnsembleSample later = ensemble.sample();
+        assertEquals(9, later.aliveMembers());
+        assertTrue(later.meanLogDivergence() > start.meanLogDivergence() + 0.5);
+        assertTrue(later.maxDivergenceMeters() >= later.medianDivergenceMeters());
+    }
+
+    @Test
+    @DisplayName("自适应与块时间步方案不支持批量积分")
+    void rejectsVariableStepIntegrators() {
+        SimulationConfig config = Presets.byKey(PresetKey.I).config();
+        List<SimulationState> members = List.of(NBodyIntegrator.initialState(config));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Ensemble(config.withIntegrator(IntegratorKind.DOPRI45), members));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Ensemble(config.withIntegrator(IntegratorKind.HERMITE), members));
+    }
+}
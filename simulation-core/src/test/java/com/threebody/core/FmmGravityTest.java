@@ -0,0 +1,80 @@
+package com.threebody.core;
+
+import static com.threebody.core.GravityFixtures.accelerations;
+import static com.threebody.core.GravityFixtures.maxRelativeDifference;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FmmGravityTest {
+
+    private static SimulationConfig cluster(int count, Integer expansionOrder) {
+        return GravityFixtures.cluster(count).withForceSolver(ForceSolverKind.FMM, null)
+                .withExpansionOrder(expansionOrder);
+    }
+
+    @Test
+    @DisplayName("展开阶数越高越接近直接求和")
+    void convergesWithExpansionOrder() {
+        SimulationConfig config = cluster(3000, null);
+        double[][] direct = accelerations(new DirectGravity(config), config);
+        double previous = Double.POSITIVE_INFINITY;
+        for (int order : new int[] {1, 2, 4, 6, 8}) {
+            double error = maxRelativeDifference(accelerations(new FmmGravity(config, order), config), direct);
+            assertTrue(error < previous, "阶数 " + order + " 最大相对误差 " + error + "，上一阶 " + previous);
+            previous = error;
+        }
+        assertTrue(previous < 1e-3, "阶数 8 最大相对误差 " + previous);
+        double defaultOrder = maxRelativeDifference(accelerations(new FmmGravity(config), config), direct);
+        assertTrue(defaultOrder < 0.05, "默认阶数最大相对误差 " + defaultOrder);
+    }
+
+    @Test
+    @DisplayName("重复计算复用预分配数组，结果逐位一致")
+    void repeatsDeterministically() {
+        SimulationConfig config = cluster(2500, 3);
+        FmmGravity fmm = new FmmGravity(config);
+        assertEquals(3, fmm.leafLevel());
+        double[][] first = accelerations(fmm, config);
+        double[][] second = accelerations(fmm, config);
+        for (int c = 0; c < 3; c++) {
+            assertArrayEquals(first[c], second[c]);
+        }
+    }
+
+    @Test
+    @DisplayName("AUTO 按天体数量选择直接求和、八叉树或多极子")
+    void autoPicksSolverByBodyCount() {
+        assertEquals(ForceSolverKind.DIRECT, ForceSolverKind.AUTO.resolve(PhysicalConstants.MAX_BODY_COUNT));
+        assertEquals(ForceSolverKind.BARNES_HUT, ForceSolverKind.AUTO.resolve(PhysicalConstants.MAX_BODY_COUNT + 1));
+        assertEquals(ForceSolverKind.BARNES_HUT, ForceSolverKind.AUTO.resolve(ForceSolverKind.AUTO_TREE_MAX_BODIES));
+        assertEquals(ForceSolverKind.FMM, ForceSolverKind.AUTO.resolve(ForceSolverKind.AUTO_TREE_MAX_BODIES + 1));
+        assertEquals(ForceSolverKind.FMM, ForceSolverKind.FMM.resolve(3));
+
+        SimulationConfig config = cluster(ForceSolverKind.AUTO_TREE_MAX_BODIES + 1, null)
+                .withForceSolver(ForceSolverKind.AUTO, null);
+        assertInstanceOf(FmmGravity.class, config.forceSolver().create(config));
+        SimulationConfig small = cluster(50, null).withForceSolver(ForceSolverKind.AUTO, null);
+        assertEquals(ForceSolverKind.DIRECT.create(small).getClass(), small.forceSolver().create(small).getClass());
+        assertEquals(null, MetricsCalculator.forceErrorEstimate(small, NBodyIntegrator.initialState(small)));
+    }
+
+    @Test
+    @DisplayName("指标给出多极子的抽样力误差估计，阶数越高越小")
+    void reportsForceErrorEstimateInMetrics() {
+        SimulationConfig config = cluster(1500, null);
+        SimulationState state = NBodyIntegrator.initialState(config);
+        Double low = MetricsCalculator.forceErrorEstimate(config.withExpansionOrder(2), state);
+        Double high = MetricsCalculator.forceErrorEstimate(config.withExpansionOrder(6), state);
+        assertNotNull(low);
+        assertTrue(high > 0.0 && high < low, "阶数 2 误差 " + low + "，阶数 6 误差 " + high);
+        // 会话指标借用会话自己的多极子求解器，估计与一次性求解器逐位相同
+        assertEquals(MetricsCalculator.forceErrorEstimate(config, state),
+                new IntegrationSession(config).metrics(0.0).forceErrorEstimate());
+    }
+}
@@ -0,0 +1,85 @@
+package com.threebody.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 引力内核测试共用的天体分布与加速度求值工具。
+ */
+final class GravityFixtures {
+
+    private GravityFixtures() {
+    }
+
+    /** 半径 1 pc 的均匀球内随机分布的 count 颗太阳质量恒星，种子固定，使用蛙跳积分；求解方式由调用方指定。 */
+    static SimulationConfig cluster(int count) {
+        Random random = new Random(42L);
+        double radius = 3.0857e16;
+        List<BodySpec> bodies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Vector3 position;
+            do {
+                position = Vector3.of(2 * random.nextDouble() - 1, 2 * random.nextDouble() - 1,
+                        2 * random.nextDouble() - 1);
+            } while (position.length() > 1.0);
+            bodies.add(new BodySpec("s" + i, "恒星" + i, "#ffd166", PhysicalConstants.SOLAR_MASS_KG,
+                    position.multiply(radius), Vector3.ZERO));
+        }
+        return new SimulationConfig("星团", bodies, 3.15e10, PhysicalConstants.GRAVITATIONAL_CONSTANT,
+                1.0e14, 10L, null)
+                .withIntegrator(IntegratorKind.LEAPFROG);
+    }
+
+    /** 质量跨六个量级、位置按 1e11 m 高斯分布的 count 个静止天体。 */
+    static SimulationConfig randomBodies(int count, long seed, double softening) {
+        Random random = new Random(seed);
+        List<BodySpec> bodies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bodies.add(new BodySpec("b" + i, "天体" + i, "#ffd166", 1.0e24 + 1.0e30 * random.nextDouble(),
+                    Vector3.of(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).multiply(1.0e11),
+                    Vector3.ZERO));
+        }
+        return new SimulationConfig("随机", bodies, 3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT,
+                softening, 10L, null);
+    }
+
+    /** 配置初始位置的扁平数组 {x, y, z}。 */
+    static double[][] positions(SimulationConfig config) {
+        int n = config.bodyCount();
+        double[][] p = new double[3][n];
+        for (int i = 0; i < n; i++) {
+            Vector3 v = config.bodies().get(i).position();
+            p[0][i] = v.x();
+            p[1][i] = v.y();
+            p[2][i] = v.z();
+        }
+        return p;
+    }
+
+    static double[][] accelerations(ForceField field, double[][] positions) {
+        int n = positions[0].length;
+        double[][] a = new double[3][n];
+        field.accelerations(positions[0], positions[1], positions[2], a[0], a[1], a[2], 0L, 0.0);
+        return a;
+    }
+
+    /** 配置初始位置处的加速度 {ax, ay, az}。 */
+    static double[][] accelerations(ForceField field, SimulationConfig config) {
+        return accelerations(field, positions(config));
+    }
+
+    /** 各天体加速度相对误差的最大值。 */
+    static double maxRelativeDifference(double[][] actual, double[][] expected) {
+        double max = 0.0;
+        for (int i = 0; i < expected[0].length; i++) {
+            double dx = actual[0][i] - expected[0][i];
+            double dy = actual[1][i] - expected[1][i];
+            double dz = actual[2][i] - expected[2][i];
+            double reference = Math.sqrt(expected[0][i] * expected[0][i] + expected[1][i] * expected[1][i]
+                    + expected[2][i] * expected[2][i]);
+            max = Math.max(max, Math.sqrt(dx * dx + dy * dy + dz * dz) / reference);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,735 @@
+package com.threebody.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IntegrationSessionTest {
+
+    private static SimulationConfig threeBodyConfig() {
+        return new SimulationConfig(
+                "三体",
+                List.of(
+                        new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.ZERO, Vector3.of(0, -1.0e3, 0)),
+                        new BodySpec("b", "乙", "#4d96ff", 5.0e29, Vector3.of(1.0e11, 0, 0), Vector3.of(0, 2.0e4, 0)),
+                        new BodySpec("c", "丙", "#ef476f", 3.0e29, Vector3.of(-8.0e10, 3.0e10, 1.0e9),
+                                Vector3.of(5.0e3, -1.5e4, 0))),
+                3600.0,
+                PhysicalConstants.GRAVITATIONAL_CONSTANT,
+                1.0e7,
+                1000L,
+                null);
+    }
+
+    @Test
+    @DisplayName("会话连续推进与基线 double[n][3] 数组 RK4 逐位一致")
+    void matchesBaselineArrayRk4() {
+        SimulationConfig config = threeBodyConfig();
+        SimulationState expected = NBodyIntegrator.initialState(config);
+        IntegrationSession session = new IntegrationSession(config);
+        for (int i = 0; i < 500; i++) {
+            expected = baselineStep(config, expected);
+            session.advance();
+        }
+        assertEquals(expected, session.state());
+        assertEquals(500L, session.step());
+        assertEquals(expected.simulationTimeSeconds(), session.simulationTimeSeconds());
+    }
+
+    /**
+     * 基线提交中 NBodyIntegrator.step 的原样副本：每次分配 double[n][3] 的无状态 RK4。
+     * NBodyIntegrator.step 现已委托给会话，不能再作为对照。
+     */
+    private static SimulationState baselineStep(SimulationConfig config, SimulationState state) {
+        double dt = config.timeStepSeconds();
+        int n = config.bodyCount();
+        double[] masses = new double[n];
+        double[][] pos = new double[n][3];
+        double[][] vel = new double[n][3];
+        for (int i = 0; i < n; i++) {
+            masses[i] = config.bodies().get(i).massKg();
+            BodyState b = state.bodies().get(i);
+            pos[i][0] = b.position().x();
+            pos[i][1] = b.position().y();
+            pos[i][2] = b.position().z();
+            vel[i][0] = b.velocity().x();
+            vel[i][1] = b.velocity().y();
+            vel[i][2] = b.velocity().z();
+        }
+
+        double[][] a1 = baselineAccelerations(config, masses, pos);
+        double[][] pos2 = baselineAdvance(pos, vel, dt / 2.0);
+        double[][] vel2 = baselineAdvance(vel, a1, dt / 2.0);
+        double[][] a2 = baselineAccelerations(config, masses, pos2);
+        double[][] pos3 = baselineAdvance(pos, vel2, dt / 2.0);
+        double[][] vel3 = baselineAdvance(vel, a2, dt / 2.0);
+        double[][] a3 = baselineAccelerations(config, masses, pos3);
+        double[][] pos4 = baselineAdvance(pos, vel3, dt);
+        double[][] vel4 = baselineAdvance(vel, a3, dt);
+        double[][] a4 = baselineAccelerations(config, masses, pos4);
+
+        double sixth = dt / 6.0;
+        List<BodyState> next = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double[] p = new double[3];
+            double[] v = new double[3];
+            for (int c = 0; c < 3; c++) {
+                p[c] = pos[i][c] + sixth * (vel[i][c] + 2 * vel2[i][c] + 2 * vel3[i][c] + vel4[i][c]);
+                v[c] = vel[i][c] + sixth * (a1[i][c] + 2 * a2[i][c] + 2 * a3[i][c] + a4[i][c]);
+            }
+            next.add(new BodyState(config.bodies().get(i).id(),
+                    new Vector3(p[0], p[1], p[2]), new Vector3(v[0], v[1], v[2])));
+        }
+        return new SimulationState(state.step() + 1, state.simulationTimeSeconds() + dt, next);
+    }
+
+    private static double[][] baselineAccelerations(SimulationConfig config, double[] masses, double[][] pos) {
+        int n = masses.length;
+        double g = config.gravitationalConstant();
+        double eps2 = config.softeningLengthMeters() * config.softeningLengthMeters();
+        double[][] acc = new double[n][3];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double dx = pos[j][0] - pos[i][0];
+                double dy = pos[j][1] - pos[i][1];
+                double dz = pos[j][2] - pos[i][2];
+                double r2 = dx * dx + dy * dy + dz * dz + eps2;
+                double invR3 = 1.0 / (r2 * Math.sqrt(r2));
+                double factorI = g * masses[j] * invR3;
+                double factorJ = g * masses[i] * invR3;
+                acc[i][0] += factorI * dx;
+                acc[i][1] += factorI * dy;
+                acc[i][2] += factorI * dz;
+                acc[j][0] -= factorJ * dx;
+                acc[j][1] -= factorJ * dy;
+                acc[j][2] -= factorJ * dz;
+            }
+        }
+        return acc;
+    }
+
+    private static double[][] baselineAdvance(double[][] base, double[][] derivative, double h) {
+        double[][] out = new double[base.length][3];
+        for (int i = 0; i < base.length; i++) {
+            for (int c = 0; c < 3; c++) {
+                out[i][c] = base[i][c] + h * derivative[i][c];
+            }
+        }
+        return out;
+    }
+
+    @Test
+    @DisplayName("物化状态不推进会话，载入状态后从该状态继续")
+    void materializesAndReloads() {
+        SimulationConfig config = threeBodyConfig();
+        IntegrationSession session = new IntegrationSession(config);
+        for (int i = 0; i < 10; i++) {
+            session.advance();
+        }
+        SimulationState checkpoint = session.state();
+        assertEquals(checkpoint, session.state());
+
+        session.advance();
+        SimulationState afterOne = session.state();
+        session.load(checkpoint);
+        assertEquals(10L, session.step());
+        session.advance();
+        assertEquals(afterOne, session.state());
+    }
+
+    @Test
+    @DisplayName("数值失败时会话保持推进前的状态")
+    void keepsStateOnFailure() {
+        SimulationConfig config = new SimulationConfig(
+                "重合两体",
+                List.of(
+                        new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(1e-160, 0, 0), Vector3.ZERO)),
+                1.0e6,
+                PhysicalConstants.GRAVITATIONAL_CONSTANT,
+                0.0,
+                10L,
+                null);
+        IntegrationSession session = new IntegrationSession(config);
+        SimulationState before = session.state();
+        assertThrows(NumericalInstabilityException.class, session::advance);
+        assertEquals(before, session.state());
+    }
+
+    @Test
+    @DisplayName("近距离检测与 NBodyIntegrator.detectNearEncounters 语义一致")
+    void nearEncountersMatchStatelessDetection() {
+        double softening = 1.0e9;
+        SimulationConfig config = new SimulationConfig(
+                "近距离配置",
+                List.of(
+                        new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(2.0e9, 0, 0), Vector3.ZERO),
+                        new BodySpec("c", "丙", "#ef476f", 1.0e30, Vector3.of(0, 3.0e9, 0), Vector3.ZERO)),
+                1.0,
+                PhysicalConstants.GRAVITATIONAL_CONSTANT,
+                softening,
+                5L,
+                null);
+        IntegrationSession session = new IntegrationSession(config);
+        session.advance();
+        assertEquals(NBodyIntegrator.detectNearEncounters(config, session.state()), session.nearEncounters());
+        assertEquals(3, session.nearEncounters().size());
+    }
+
+    @Test
+    @DisplayName("各积分方案下力计算顺带的近距离与最近天体对和单独遍历一致")
+    void fusedProximityMatchesSeparatePass() {
+        SimulationConfig base = new SimulationConfig(
+                "交会配置",
+                List.of(
+                        new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e28, Vector3.of(6.0e9, 0, 0), Vector3.of(-2.0e4, 3.0e4, 0)),
+                        new BodySpec("c", "丙", "#ef476f", 1.0e28, Vector3.of(0, -9.0e9, 0), Vector3.of(2.5e4, 1.0e4, 0)),
+                        new BodySpec("d", "丁", "#06d6a0", 1.0e27, Vector3.of(1.0e10, 1.0e10, 0), Vector3.ZERO)),
+                600.0,
+                PhysicalConstants.GRAVITATIONAL_CONSTANT,
+                1.0e9,
+                400L,
+                null);
+        for (IntegratorKind kind : IntegratorKind.values()) {
+            SimulationConfig config = base.withIntegrator(kind);
+            IntegrationSession session = new IntegrationSession(config);
+            int encounterSteps = 0;
+            for (int i = 0; i < 400; i++) {
+                session.advance();
+                SimulationState state = session.state();
+                List<NearEncounter> expected = NBodyIntegrator.detectNearEncounters(config, state);
+                assertEquals(expected, session.nearEncounters(), kind + " 第 " + state.step() + " 步");
+                Metrics metrics = MetricsCalculator.compute(config, state, 0.0);
+                assertEquals(metrics.minimumPairDistanceMeters(), session.minimumPairDistanceMeters(), kind.name());
+                assertEquals(metrics.minimumPairBodyIds(), session.minimumPairBodyIds(), kind.name());
+                encounterSteps += expected.isEmpty() ? 0 : 1;
+            }
+            assertTrue(encounterSteps > 0, kind + " 应出现近距离事件");
+        }
+    }
+
+    @Test
+    @DisplayName("单遍指标与逐项计算逐位一致，并复用力计算记录的最近天体对与势能")
+    void metricsMatchSeparatePasses() {
+        SimulationConfig config = threeBodyConfig();
+        for (boolean tracked : new boolean[] {false, true}) {
+            IntegrationSession session = new IntegrationSession(config);
+            session.trackPotentialEnergy(tracked ? step -> step % 3 == 0 : null);
+            double e0 = MetricsCalculator.totalEnergy(config, session.state());
+            for (int i = 0; i < 50; i++) {
+                session.advance();
+                SimulationState state = session.state();
+                Metrics fused = session.metrics(e0);
+                double kinetic = MetricsCalculator.kineticEnergy(config, state);
+                double potential = MetricsCalculator.potentialEnergy(config, state);
+                assertEquals(kinetic, fused.kineticEnergyJoules());
+                assertEquals(potential, fused.potentialEnergyJoules());
+                assertEquals(kinetic + potential, fused.totalEnergyJoules());
+                assertEquals(MetricsCalculator.angularMomentum(config, state), fused.angularMomentum());
+                assertEquals(MetricsCalculator.linearMomentum(config, state), fused.linearMomentum());
+                assertEquals(session.minimumPairDistanceMeters(), fused.minimumPairDistanceMeters());
+                assertEquals(session.minimumPairBodyIds(), fused.minimumPairBodyIds());
+                assertEquals(MetricsCalculator.compute(config, state, e0), fused);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("批量推进与逐步推进逐位一致，只物化观察者要求的步")
+    void batchAdvanceMatchesStepwise() {
+        SimulationConfig config = threeBodyConfig();
+        SimulationState expected = NBodyIntegrator.initialState(config);
+        List<SimulationState> expectedSampled = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            expected = NBodyIntegrator.step(config, expected).state();
+            if (expected.step() % 50L == 0L) {
+                expectedSampled.add(expected);
+            }
+        }
+
+        List<SimulationState> sampled = new ArrayList<>();
+        IntegrationSession session = new IntegrationSession(config);
+        long advanced = session.advance(300L, new StepObserver() {
+            @Override
+            public boolean wantsStep(long step, double simulationTimeSeconds, boolean nearEncounter) {
+                return step % 50L == 0L;
+            }
+
+            @Override
+            public boolean onStep(StepResult result) {
+                sampled.add(result.state());
+                return true;
+            }
+        });
+        assertEquals(300L, advanced);
+        assertEquals(expected, session.state());
+        assertEquals(expectedSampled, sampled);
+        assertEquals(expected, NBodyIntegrator.advance(config, NBodyIntegrator.initialState(config),
+                300L, StepObserver.NONE));
+    }
+
+    @Test
+    @DisplayName("观察者回调返回 false 时批量推进在该步后停止")
+    void batchAdvanceStopsWhenObserverDeclines() {
+        SimulationConfig config = threeBodyConfig();
+        IntegrationSession session = new IntegrationSession(config);
+        long advanced = session.advance(1000L, new StepObserver() {
+            @Override
+            public boolean wantsStep(long step, double simulationTimeSeconds, boolean nearEncounter) {
+                return step == 42L;
+            }
+
+            @Override
+            public boolean onStep(StepResult result) {
+                return false;
+            }
+        });
+        assertEquals(42L, advanced);
+        assertEquals(42L, session.step());
+    }
+
+    @Test
+    @DisplayName("开启混沌指标不改变状态，切向量增长与微小扰动的孪生积分一致")
+    void chaosIndicatorsMatchTwinIntegration() {
+        SimulationConfig config = threeBodyConfig();
+        for (IntegratorKind kind : List.of(IntegratorKind.RK4, IntegratorKind.LEAPFROG, IntegratorKind.YOSHIDA6)) {
+            SimulationConfig plain = config.withIntegrator(kind);
+            IntegrationSession reference = new IntegrationSession(plain);
+            IntegrationSession chaos = new IntegrationSession(plain.withChaosIndicators(true));
+            reference.advance(1000, StepObserver.NONE);
+            chaos.advance(1000, StepObserver.NONE);
+            assertEquals(reference.state(), chaos.state(), kind.name());
+            double e0 = MetricsCalculator.totalEnergy(config, NBodyIntegrator.initialState(config));
+            Metrics metrics = chaos.metrics(e0);
+            assertEquals(reference.metrics(e0).withChaosIndicators(chaos.lyapunovExponentPerSecond(), chaos.megno()),
+                    metrics);
+            assertTrue(metrics.lyapunovExponentPerSecond() > 0.0 && metrics.megno() > 0.0, kind.name());
+        }
+
+        // 与切向量初值相同方向、幅度很小的扰动积分后的发散对数应与切向量累计对数增长一致
+        int n = config.bodyCount();
+        double tau = config.timeStepSeconds();
+        Random random = new Random(0x5eedL);
+        double[] tangent = new double[6 * n];
+        double norm = 0.0;
+        for (int c = 0; c < tangent.length; c++) {
+            tangent[c] = c % 6 < 3 ? random.nextGaussian() : random.nextGaussian() / tau;
+            norm += c % 6 < 3 ? tangent[c] * tangent[c] : tau * tau * tangent[c] * tangent[c];
+        }
+        double scale = 1.0e-3 / Math.sqrt(norm);
+        SimulationState initial = NBodyIntegrator.initialState(config);
+        List<BodyState> perturbed = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            BodyState b = initial.bodies().get(i);
+            perturbed.add(new BodyState(b.id(),
+                    b.position().add(Vector3.of(tangent[6 * i], tangent[6 * i + 1], tangent[6 * i + 2]).multiply(scale)),
+                    b.velocity().add(Vector3.of(tangent[6 * i + 3], tangent[6 * i + 4], tangent[6 * i + 5])
+                            .multiply(scale))));
+        }
+        IntegrationSession chaos = new IntegrationSession(config.withChaosIndicators(true));
+        IntegrationSession twin = new IntegrationSession(config, new SimulationState(0L, 0.0, perturbed));
+        chaos.advance(1000, StepObserver.NONE);
+        twin.advance(1000, StepObserver.NONE);
+        double divergence = 0.0;
+        for (int i = 0; i < n; i++) {
+            Vector3 dp = twin.state().bodies().get(i).position().subtract(chaos.state().bodies().get(i).position());
+            Vector3 dv = twin.state().bodies().get(i).velocity().subtract(chaos.state().bodies().get(i).velocity());
+            divergence += dp.dot(dp) + tau * tau * dv.dot(dv);
+        }
+        assertEquals(Math.log(Math.sqrt(divergence) / 1.0e-3),
+                chaos.lyapunovExponentPerSecond() * chaos.simulationTimeSeconds(), 1.0e-2);
+    }
+
+    @Test
+    @DisplayName("规则的二体轨道 MEGNO 趋于 2")
+    void megnoOfRegularOrbitApproachesTwo() {
+        SimulationConfig config = new SimulationConfig("二体",
+                List.of(new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.of(-1.0e11, 0, 0), Vector3.of(0, -1.3e4, 0)),
+                        new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(1.0e11, 0, 0), Vector3.of(0, 1.3e4, 0))),
+                3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT, 1.0e7, 100_000L, null).withChaosIndicators(true);
+        IntegrationSession session = new IntegrationSession(config);
+        session.advance(100_000, StepObserver.NONE);
+        assertEquals(2.0, session.megno(), 0.5);
+
+        session.load(session.state());
+        assertTrue(Double.isNaN(session.megno()));
+        assertEquals(null, session.metrics(0.0).megno());
+    }
+
+    @Test
+    @DisplayName("两体配置开启解析双星后按开普勒解推进，能量守恒到舍入误差且可稠密输出")
+    void twoBodyConfigPropagatesAnalytically() {
+        SimulationConfig config = Presets.presetF().config().withAnalyticBinaries(true);
+        IntegrationSession session = new IntegrationSession(config);
+        assertEquals(List.of("EM-1", "EM-2"), session.analyticBinaryIds());
+        double e0 = MetricsCalculator.totalEnergy(config, session.state());
+        session.advance(20_000, StepObserver.NONE);
+        double drift = Math.abs(MetricsCalculator.relativeEnergyDrift(e0,
+                MetricsCalculator.totalEnergy(config, session.state())));
+        assertTrue(drift < 1e-12, "能量误差 " + drift);
+
+        // 零软化的细步长高阶参考解
+        SimulationConfig reference = new SimulationConfig(config.name(), config.bodies(), 225.0,
+                config.gravitationalConstant(), 0.0, null, null).withIntegrator(IntegratorKind.YOSHIDA6);
+        IntegrationSession fine = new IntegrationSession(reference);
+        fine.advance(160_000, StepObserver.NONE);
+        double error = session.state().bodies().get(1).position()
+                .subtract(fine.state().bodies().get(1).position()).length();
+        assertTrue(error < 1.0e3, "与参考解相差 " + error + " m");
+
+        // RK4 本身不支持稠密输出，解析推进时步内任意时刻都可以求出
+        SimulationState end = session.state();
+        session.advance();
+        assertEquals(end.bodies(), session.interpolate(end.simulationTimeSeconds()).bodies());
+    }
+
+    @Test
+    @DisplayName("孤立双星作为复合天体积分，外部天体靠近时拆回逐个积分")
+    void isolatedBinaryBecomesCompositeUntilPerturbed() {
+        double g = PhysicalConstants.GRAVITATIONAL_CONSTANT;
+        double separation = 1.0e10;
+        double speed = Math.sqrt(2.0 * g * 1.0e30 / separation) / 2.0;
+        double period = 2.0 * Math.PI * Math.sqrt(separation * separation * separation / (2.0 * g * 1.0e30));
+        List<BodySpec> bodies = List.of(
+                new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.of(-separation / 2.0, 0, 0), Vector3.of(0, -speed, 0)),
+                new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(separation / 2.0, 0, 0), Vector3.of(0, speed, 0)),
+                new BodySpec("c", "丙", "#ef476f", 1.0e30, Vector3.of(2.0e13, 0, 0), Vector3.of(-1.0e5, 2.0e3, 0)));
+        SimulationConfig config = new SimulationConfig("远方来客", bodies, period / 50.0, g, 0.0, 20_000L, null)
+                .withAnalyticBinaries(true);
+        IntegrationSession session = new IntegrationSession(config);
+        assertEquals(List.of("a", "b"), session.analyticBinaryIds());
+        session.advance(2_000, StepObserver.NONE);
+        assertEquals(List.of("a", "b"), session.analyticBinaryIds());
+
+        // 同一时刻的细步长数值参考：复合近似的误差远小于双星间距
+        SimulationConfig reference = new SimulationConfig("参考", bodies, period / 500.0, g, 0.0, null, null)
+                .withIntegrator(IntegratorKind.YOSHIDA6);
+        IntegrationSession fine = new IntegrationSession(reference);
+        fine.advance(20_000, StepObserver.NONE);
+        for (int i = 0; i < 3; i++) {
+            double error = session.state().bodies().get(i).position()
+                    .subtract(fine.state().bodies().get(i).position()).length();
+            assertTrue(error < 1e-6 * separation, bodies.get(i).id() + " 相差 " + error + " m");
+        }
+
+        // 丙约 1.5e8 s 后进入拆分距离
+        session.advance(16_000, StepObserver.NONE);
+        assertEquals(List.of(), session.analyticBinaryIds());
+    }
+
+    @Test
+    @DisplayName("双星按绝对步数检查合并，任意步载入检查点后与不中断的推进在舍入误差内一致")
+    void binaryReloadMatchesOriginalRun() {
+        double g = PhysicalConstants.GRAVITATIONAL_CONSTANT;
+        double separation = 1.0e10;
+        double speed = Math.sqrt(2.0 * g * 1.0e30 / separation) / 2.0;
+        double period = 2.0 * Math.PI * Math.sqrt(separation * separation * separation / (2.0 * g * 1.0e30));
+        List<BodySpec> bodies = List.of(
+                new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.of(-separation / 2.0, 0, 0), Vector3.of(0, -speed, 0)),
+                new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(separation / 2.0, 0, 0), Vector3.of(0, speed, 0)),
+                new BodySpec("c", "丙", "#ef476f", 1.0e30, Vector3.of(2.0e13, 0, 0), Vector3.of(-1.0e5, 2.0e3, 0)));
+        SimulationConfig config = new SimulationConfig("远方来客", bodies, period / 50.0, g, 0.0, 20_000L, null)
+                .withAnalyticBinaries(true);
+        assertReloadCloseToOriginalRun(config, 19_000, 1, 63, 777, 5_001, 17_345, 18_003);
+
+        // 两体整体解析推进时历元同样取自载入的状态
+        assertReloadCloseToOriginalRun(Presets.presetF().config().withAnalyticBinaries(true), 3_000, 1, 65, 1_999);
+    }
+
+    @Test
+    @DisplayName("逃逸天体超出退役半径后沿双曲轨道解析推进，不再参与近距离检测")
+    void escapingBodyRetiresOntoHyperbola() {
+        double g = PhysicalConstants.GRAVITATIONAL_CONSTANT;
+        double separation = 1.0e10;
+        double speed = Math.sqrt(2.0 * g * 1.0e30 / separation) / 2.0;
+        double period = 2.0 * Math.PI * Math.sqrt(separation * separation * separation / (2.0 * g * 1.0e30));
+        double launch = 1.0e11;
+        double escape = Math.sqrt(2.0 * g * 2.1e30 / launch);
+        List<BodySpec> bodies = List.of(
+                new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.of(-separation / 2.0, 0, 0), Vector3.of(0, -speed, 0)),
+                new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(separation / 2.0, 0, 0), Vector3.of(0, speed, 0)),
+                new BodySpec("c", "丙", "#ef476f", 1.0e29, Vector3.of(0, launch, 0),
+                        Vector3.of(0.2 * escape, 1.3 * escape, 0)));
+        SimulationConfig config = new SimulationConfig("逃逸", bodies, period / 200.0, g, 0.0, null, null)
+                .withEscapeRetirementRadius(1.0e12);
+        IntegrationSession session = new IntegrationSession(config);
+        assertEquals(List.of(), session.retiredBodyIds());
+        session.advance(12_000, StepObserver.NONE);
+        assertEquals(List.of("c"), session.retiredBodyIds());
+        assertEquals(List.of("a", "b"), session.minimumPairBodyIds());
+
+        // 细步长数值参考：丙的双曲轨道与双星质心的牵引都保留下来
+        SimulationConfig reference = new SimulationConfig("参考", bodies, period / 1000.0, g, 0.0, null, null)
+                .withIntegrator(IntegratorKind.YOSHIDA6);
+        IntegrationSession fine = new IntegrationSession(reference);
+        fine.advance(60_000, StepObserver.NONE);
+        Vector3 escaper = fine.state().bodies().get(2).position();
+        double escaperError = session.state().bodies().get(2).position().subtract(escaper).length();
+        assertTrue(escaperError < 1e-6 * escaper.length(), "丙相差 " + escaperError + " m");
+        for (int i = 0; i < 2; i++) {
+            double error = session.state().bodies().get(i).position()
+                    .subtract(fine.state().bodies().get(i).position()).length();
+            assertTrue(error < 1e-3 * separation, bodies.get(i).id() + " 相差 " + error + " m");
+        }
+
+        // 重新载入时从当前状态再次判定
+        session.load(session.state());
+        assertEquals(List.of("c"), session.retiredBodyIds());
+        session.load(NBodyIntegrator.initialState(config));
+        assertEquals(List.of(), session.retiredBodyIds());
+    }
+
+    @Test
+    @DisplayName("退役按绝对步数检查，任意步载入检查点后与不中断的推进在舍入误差内一致，退役当步可以稠密输出")
+    void retirementReloadMatchesOriginalRun() {
+        double g = PhysicalConstants.GRAVITATIONAL_CONSTANT;
+        double separation = 1.0e10;
+        double speed = Math.sqrt(2.0 * g * 1.0e30 / separation) / 2.0;
+        double period = 2.0 * Math.PI * Math.sqrt(separation * separation * separation / (2.0 * g * 1.0e30));
+        double launch = 1.0e11;
+        double escape = Math.sqrt(2.0 * g * 2.1e30 / launch);
+        List<BodySpec> bodies = List.of(
+                new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.of(-separation / 2.0, 0, 0), Vector3.of(0, -speed, 0)),
+                new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(separation / 2.0, 0, 0), Vector3.of(0, speed, 0)),
+                new BodySpec("c", "丙", "#ef476f", 1.0e29, Vector3.of(0, launch, 0),
+                        Vector3.of(0.2 * escape, 1.3 * escape, 0)));
+        SimulationConfig config = new SimulationConfig("逃逸", bodies, period / 200.0, g, 0.0, null, null)
+                .withEscapeRetirementRadius(1.0e12);
+
+        IntegrationSession session = new IntegrationSession(config);
+        long retiredAt = firstRetiredStep(session);
+        // 退役在步数为检查间隔整数倍的步开始前判定
+        assertEquals(0L, (retiredAt - 1) % IntegrationSession.BINARY_CHECK_INTERVAL);
+        assertReloadCloseToOriginalRun(config, (int) retiredAt + 500,
+                1, 777, (int) retiredAt - 1, (int) retiredAt, (int) retiredAt + 1, (int) retiredAt + 333);
+
+        // 首次退役的那一步仍可在步内插值：留下的天体取降阶会话的稠密输出
+        IntegrationSession dense = new IntegrationSession(config.withIntegrator(IntegratorKind.DOPRI45));
+        firstRetiredStep(dense);
+        SimulationState end = dense.state();
+        List<BodyState> interpolated = dense.interpolate(end.simulationTimeSeconds()).bodies();
+        for (int i = 0; i < 3; i++) {
+            Vector3 expected = end.bodies().get(i).position();
+            double error = interpolated.get(i).position().subtract(expected).length();
+            assertTrue(error < 1e-12 * expected.length(), bodies.get(i).id() + " 相差 " + error + " m");
+        }
+        dense.interpolate(end.simulationTimeSeconds() - 0.5 * dense.lastStepSeconds());
+
+        // 载入后结构描述的是下一步，尚未推进的步不能插值
+        dense.load(end);
+        assertThrows(IllegalArgumentException.class, () -> dense.interpolate(end.simulationTimeSeconds()));
+    }
+
+    private static long firstRetiredStep(IntegrationSession session) {
+        while (session.retiredBodyIds().isEmpty()) {
+            session.advance();
+        }
+        return session.step();
+    }
+
+    @Test
+    @DisplayName("近距离天体对切换到 KS 正则化坐标，大步长下仍解析穿过软化核的近心点")
+    void closeEncounterIsRegularized() {
+        double g = PhysicalConstants.GRAVITATIONAL_CONSTANT;
+        double softening = 1.0e7;
+        List<BodySpec> bodies = List.of(
+                new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.of(0, 1.0e11, 0), Vector3.of(0, 0, 0)),
+                new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(0, 0, 0), Vector3.of(0, 0, 0)),
+                new BodySpec("c", "丙", "#ef476f", 1.0e29, Vector3.of(-1.0e10, 3.0 * softening, 0),
+                        Vector3.of(3.0e6, 0, 0)));
+        double dt = 100.0;
+        int steps = 67;
+        SimulationConfig plain = new SimulationConfig("飞掠", bodies, dt, g, softening, null, null);
+        IntegrationSession session = new IntegrationSession(plain.withRegularizedEncounters(true));
+        int regularized = 0;
+        for (int k = 0; k < steps; k++) {
+            session.advance();
+            if (!session.regularizedPairIds().isEmpty()) {
+                assertEquals(List.of("b", "c"), session.regularizedPairIds());
+                regularized++;
+            }
+        }
+        assertTrue(regularized > 0 && regularized < steps, "正则化 " + regularized + " 步");
+        assertEquals(List.of(), session.regularizedPairIds());
+
+        // 自适应细积分参考：同样步长的逐步 RK4 一步跨过近心点，偏转完全错误
+        SimulationConfig reference = new SimulationConfig("参考", bodies, dt / 10.0, g, softening, null, steps * dt)
+                .withIntegrator(IntegratorKind.DOPRI45)
+                .withTolerances(1.0e-13, 1.0e-6);
+        IntegrationSession fine = new IntegrationSession(reference);
+        while (fine.simulationTimeSeconds() < steps * dt) {
+            fine.advance();
+        }
+        IntegrationSession unregularized = new IntegrationSession(plain);
+        unregularized.advance(steps, StepObserver.NONE);
+        Vector3 expected = fine.state().bodies().get(2).position();
+        double error = session.state().bodies().get(2).position().subtract(expected).length();
+        double plainError = unregularized.state().bodies().get(2).position().subtract(expected).length();
+        assertTrue(error < 1.0e-6 * expected.length(), "丙相差 " + error + " m");
+        assertTrue(plainError > 1.0e-2 * expected.length(), "未正则化时丙相差 " + plainError + " m");
+    }
+
+    @Test
+    @DisplayName("正则化进出只取决于当前状态，任意步载入检查点后与不中断的推进逐位一致")
+    void encounterReloadMatchesOriginalRun() {
+        double g = PhysicalConstants.GRAVITATIONAL_CONSTANT;
+        double softening = 1.0e7;
+        List<BodySpec> bodies = List.of(
+                new BodySpec("a", "甲", "#ffd166", 1.0e30, Vector3.of(0, 1.0e11, 0), Vector3.of(0, 0, 0)),
+                new BodySpec("b", "乙", "#4d96ff", 1.0e30, Vector3.of(0, 0, 0), Vector3.of(0, 0, 0)),
+                new BodySpec("c", "丙", "#ef476f", 1.0e29, Vector3.of(-1.0e10, 3.0 * softening, 0),
+                        Vector3.of(3.0e6, 0, 0)));
+        SimulationConfig config = new SimulationConfig("飞掠", bodies, 100.0, g, softening, null, null)
+                .withRegularizedEncounters(true);
+        int[] checkpoints = new int[66];
+        for (int k = 0; k < checkpoints.length; k++) {
+            checkpoints[k] = k + 1;
+        }
+        assertReloadMatchesOriginalRun(config, 67, checkpoints);
+    }
+
+    @Test
+    @DisplayName("并行时间分片推进与串行推进一致，逐步报告并给出迭代次数与加速比")
+    void pararealMatchesSerialRun() {
+        SimulationConfig config = Presets.presetB().config().withIntegrator(IntegratorKind.RK4);
+        IntegrationSession serial = new IntegrationSession(config);
+        IntegrationSession parareal = new IntegrationSession(config.withPararealSlices(4));
+        List<Long> seen = new ArrayList<>();
+        StepObserver observer = new StepObserver() {
+            @Override
+            public boolean wantsStep(long step, double simulationTimeSeconds, boolean nearEncounter) {
+                seen.add(step);
+                return step == 1500L;
+            }
+
+            @Override
+            public boolean onStep(StepResult result) {
+                return false;
+            }
+        };
+        // 观察者在窗口中途停止，剩余的步留给下一次批量推进
+        assertEquals(1500L, parareal.advance(4096L, observer));
+        assertEquals(2596L, parareal.advance(2596L, observer));
+        serial.advance(4096L, StepObserver.NONE);
+
+        assertEquals(4096, seen.size());
+        for (int k = 0; k < seen.size(); k++) {
+            assertEquals(k + 1L, seen.get(k));
+        }
+        assertEquals(serial.simulationTimeSeconds(), parareal.simulationTimeSeconds());
+        for (int i = 0; i < 3; i++) {
+            Vector3 expected = serial.state().bodies().get(i).position();
+            double error = parareal.state().bodies().get(i).position().subtract(expected).length();
+            assertTrue(error < 1.0e-9 * 1.0e11, "天体 " + i + " 相差 " + error + " m");
+        }
+        Metrics metrics = parareal.metrics(0.0);
+        assertTrue(metrics.pararealIterations() >= 1 && metrics.pararealIterations() <= 4);
+        assertTrue(metrics.pararealSpeedup() > 0.0);
+        assertThrows(UnsupportedOperationException.class,
+                () -> parareal.interpolate(parareal.simulationTimeSeconds()));
+    }
+
+    @Test
+    @DisplayName("并行时间分片的轨迹缓冲区受上限约束，用满分片数轮才收敛的窗口之后串行退避")
+    void pararealBoundsBuffersAndBacksOff() {
+        // 64 片 × 16 体时每片 256 步的轨迹超过缓冲区上限，每片步数缩短到上限以内
+        Random random = new Random(7);
+        List<BodySpec> many = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            many.add(new BodySpec("b" + i, "体" + i, "#ffffff", 1.0e29,
+                    Vector3.of(random.nextGaussian() * 1.0e11, random.nextGaussian() * 1.0e11, 0),
+                    Vector3.of(random.nextGaussian() * 1.0e3, random.nextGaussian() * 1.0e3, 0)));
+        }
+        SimulationConfig crowded = new SimulationConfig("拥挤", many, 3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT,
+                1.0e7, null, null).withPararealSlices(64);
+        int capped = new Parareal(crowded).sliceSteps(0L, 0.0);
+        assertTrue(capped >= Parareal.MIN_SLICE_STEPS && capped < Parareal.SLICE_STEPS, "每片 " + capped + " 步");
+        assertTrue((long) 64 * capped * 6 * 16 <= Parareal.MAX_BUFFERED_DOUBLES);
+
+        // 两片时粗推进的起点误差远大于容差，第二轮才收敛，每次都用满两轮
+        SimulationConfig config = threeBodyConfig().withPararealSlices(2);
+        Parareal parareal = new Parareal(config);
+        assertEquals(0, parareal.backoffWindows());
+        SimulationState initial = NBodyIntegrator.initialState(config);
+        PhaseSpace start = new PhaseSpace(3);
+        for (int i = 0; i < 3; i++) {
+            BodyState b = initial.bodies().get(i);
+            start.x[i] = b.position().x();
+            start.y[i] = b.position().y();
+            start.z[i] = b.position().z();
+            start.vx[i] = b.velocity().x();
+            start.vy[i] = b.velocity().y();
+            start.vz[i] = b.velocity().z();
+        }
+        int steps = parareal.sliceSteps(0L, 0.0);
+        for (int expected : new int[] {1, 2, 4}) {
+            assertEquals(2 * steps, parareal.solve(start, 0L, 0.0, steps));
+            assertEquals(2, parareal.iterations());
+            assertEquals(expected, parareal.backoffWindows());
+        }
+    }
+
+    /** 不中断地推进 total 步，再从各检查点载入新会话推进剩余步数，末态必须逐位一致。 */
+    /**
+     * 解析双星与退役轨道的历元取自载入的状态：载入后与不中断的推进使用同样的结构，
+     * 状态只差舍入误差(相对 1e-9 以内)。
+     */
+    private static void assertReloadCloseToOriginalRun(SimulationConfig config, int total, int... checkpoints) {
+        IntegrationSession original = new IntegrationSession(config);
+        List<SimulationState> saved = new ArrayList<>();
+        int done = 0;
+        for (int checkpoint : checkpoints) {
+            original.advance(checkpoint - done, StepObserver.NONE);
+            saved.add(original.state());
+            done = checkpoint;
+        }
+        original.advance(total - done, StepObserver.NONE);
+        SimulationState expected = original.state();
+        for (int k = 0; k < checkpoints.length; k++) {
+            IntegrationSession reloaded = new IntegrationSession(config);
+            reloaded.load(saved.get(k));
+            reloaded.advance(total - checkpoints[k], StepObserver.NONE);
+            String label = "第 " + checkpoints[k] + " 步载入后";
+            assertEquals(original.analyticBinaryIds(), reloaded.analyticBinaryIds(), label);
+            assertEquals(original.retiredBodyIds(), reloaded.retiredBodyIds(), label);
+            SimulationState actual = reloaded.state();
+            assertEquals(expected.step(), actual.step(), label);
+            assertEquals(expected.simulationTimeSeconds(), actual.simulationTimeSeconds(), label);
+            for (int i = 0; i < expected.bodies().size(); i++) {
+                Vector3 position = expected.bodies().get(i).position();
+                Vector3 velocity = expected.bodies().get(i).velocity();
+                double positionError = actual.bodies().get(i).position().subtract(position).length();
+                double velocityError = actual.bodies().get(i).velocity().subtract(velocity).length();
+                assertTrue(positionError < 1e-9 * position.length(), label + "位置相差 " + positionError + " m");
+                assertTrue(velocityError < 1e-9 * velocity.length(), label + "速度相差 " + velocityError + " m/s");
+            }
+        }
+    }
+
+    private static void assertReloadMatchesOriginalRun(SimulationConfig config, int total, int... checkpoints) {
+        IntegrationSession original = new IntegrationSession(config);
+        List<SimulationState> saved = new ArrayList<>();
+        int done = 0;
+        for (int checkpoint : checkpoints) {
+            original.advance(checkpoint - done, StepObserver.NONE);
+            saved.add(original.state());
+            done = checkpoint;
+        }
+        original.advance(total - done, StepObserver.NONE);
+        SimulationState expected = original.state();
+        for (int k = 0; k < checkpoints.length; k++) {
+            IntegrationSession reloaded = new IntegrationSession(config);
+            reloaded.load(saved.get(k));
+            reloaded.advance(total - checkpoints[k], StepObserver.NONE);
+            assertEquals(expected, reloaded.state(), "第 " + checkpoints[k] + " 步载入后不一致");
+        }
+    }
+}
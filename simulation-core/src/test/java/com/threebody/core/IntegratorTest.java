@@ -0,0 +1,393 @@
+package com.threebody.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IntegratorTest {
+
+    private static final double CENTRAL_MASS = 1.98892e30;
+    private static final double PLANET_MASS = 5.972e24;
+    private static final double SEMI_MAJOR_AXIS = 1.495978707e11;
+
+    /** 偏心率 0.5 的两体轨道，从远心点出发；步长为周期的 1/400。 */
+    private static SimulationConfig eccentricOrbit(IntegratorKind integrator) {
+        return eccentricOrbit(integrator, 400);
+    }
+
+    /** 偏心率 0.5 的两体轨道，从远心点出发；步长为相对运动周期的 1/stepsPerOrbit。 */
+    private static SimulationConfig eccentricOrbit(IntegratorKind integrator, int stepsPerOrbit) {
+        double g = PhysicalConstants.GRAVITATIONAL_CONSTANT;
+        double e = 0.5;
+        double apocentre = SEMI_MAJOR_AXIS * (1.0 + e);
+        double mu = g * (CENTRAL_MASS + PLANET_MASS);
+        double speed = Math.sqrt(mu * (1.0 - e) / apocentre);
+        double period = 2.0 * Math.PI * Math.sqrt(SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS / mu);
+        return new SimulationConfig(
+                "偏心两体",
+                List.of(
+                        new BodySpec("sun", "中心天体", "#ffd166", CENTRAL_MASS, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("planet", "环绕天体", "#4d96ff", PLANET_MASS,
+                                Vector3.of(apocentre, 0, 0), Vector3.of(0, speed, 0))),
+                period / stepsPerOrbit,
+                g,
+                0.0,
+                40_000L,
+                null).withIntegrator(integrator);
+    }
+
+    @Test
+    @DisplayName("未指定积分方案时默认为 RK4")
+    void defaultsToRk4() {
+        SimulationConfig config = new SimulationConfig("默认", List.of(), 1.0, 1.0, 0.0, 1L, null);
+        assertEquals(IntegratorKind.RK4, config.integrator());
+        assertEquals(IntegratorKind.RK4, eccentricOrbit(IntegratorKind.RK4).withName("改名").integrator());
+        assertEquals(IntegratorKind.LEAPFROG,
+                eccentricOrbit(IntegratorKind.LEAPFROG).withBodies(config.bodies()).integrator());
+    }
+
+    @Test
+    @DisplayName("leapfrog 百圈偏心轨道能量误差有界，不随时间增长")
+    void leapfrogEnergyErrorStaysBounded() {
+        SimulationConfig config = eccentricOrbit(IntegratorKind.LEAPFROG);
+        IntegrationSession session = new IntegrationSession(config);
+        double e0 = MetricsCalculator.totalEnergy(config, session.state());
+        double firstHalfMax = 0.0;
+        double secondHalfMax = 0.0;
+        for (int i = 1; i <= 40_000; i++) {
+            session.advance();
+            if (i % 100 == 0) {
+                double drift = Math.abs(MetricsCalculator.relativeEnergyDrift(e0,
+                        MetricsCalculator.totalEnergy(config, session.state())));
+                if (i <= 20_000) {
+                    firstHalfMax = Math.max(firstHalfMax, drift);
+                } else {
+                    secondHalfMax = Math.max(secondHalfMax, drift);
+                }
+            }
+        }
+        assertTrue(firstHalfMax < 1e-3, "能量误差 " + firstHalfMax);
+        assertTrue(secondHalfMax < 1.5 * firstHalfMax,
+                "后半程最大误差 " + secondHalfMax + " 相对前半程 " + firstHalfMax + " 明显增长");
+    }
+
+    @Test
+    @DisplayName("leapfrog 复用末端加速度，稳态每步只做一次力计算")
+    void leapfrogEvaluatesForcesOncePerStep() {
+        SimulationConfig config = eccentricOrbit(IntegratorKind.LEAPFROG);
+        DirectGravity gravity = new DirectGravity(config);
+        int[] evaluations = {0};
+        ForceField counting = (x, y, z, ax, ay, az, atStep, atTime) -> {
+            evaluations[0]++;
+            gravity.accelerations(x, y, z, ax, ay, az, atStep, atTime);
+        };
+        IntegrationSession session = new IntegrationSession(config, NBodyIntegrator.initialState(config),
+                config.integrator().create(config), counting);
+        for (int i = 0; i < 100; i++) {
+            session.advance();
+        }
+        assertEquals(101, evaluations[0]);
+
+        // 载入新状态后缓存失效，重新计算起始加速度
+        session.load(NBodyIntegrator.initialState(config));
+        session.advance();
+        assertEquals(103, evaluations[0]);
+    }
+
+    @Test
+    @DisplayName("leapfrog 载入状态后的结果与新会话逐位一致")
+    void leapfrogReloadMatchesFreshSession() {
+        SimulationConfig config = eccentricOrbit(IntegratorKind.LEAPFROG);
+        IntegrationSession session = new IntegrationSession(config);
+        for (int i = 0; i < 50; i++) {
+            session.advance();
+        }
+        SimulationState checkpoint = session.state();
+        session.advance(25L, StepObserver.NONE);
+        SimulationState expected = session.state();
+
+        IntegrationSession reloaded = new IntegrationSession(config);
+        reloaded.advance(7L, StepObserver.NONE);
+        reloaded.load(checkpoint);
+        reloaded.advance(25L, StepObserver.NONE);
+        assertEquals(expected, reloaded.state());
+    }
+
+    /** 积分整一个相对运动周期后，相对位置与初始相对位置之差除以半长轴。 */
+    private static double oneOrbitError(IntegratorKind integrator, int stepsPerOrbit) {
+        SimulationConfig config = eccentricOrbit(integrator, stepsPerOrbit);
+        SimulationState initial = NBodyIntegrator.initialState(config);
+        SimulationState end = NBodyIntegrator.advance(config, initial, stepsPerOrbit, StepObserver.NONE);
+        Vector3 start = initial.bodies().get(1).position().subtract(initial.bodies().get(0).position());
+        Vector3 relative = end.bodies().get(1).position().subtract(end.bodies().get(0).position());
+        return relative.subtract(start).length() / SEMI_MAJOR_AXIS;
+    }
+
+    @Test
+    @DisplayName("同等力计算次数下高阶辛方法单周期误差明显小于 RK4")
+    void highOrderBeatsRk4AtEqualCost() {
+        // 每周期 1200 次力计算：RK4 300 步，YOSHIDA6 约 171 步
+        double rk4 = oneOrbitError(IntegratorKind.RK4, 300);
+        double yoshida6 = oneOrbitError(IntegratorKind.YOSHIDA6, 171);
+        assertTrue(yoshida6 < rk4, "YOSHIDA6 " + yoshida6 + "，RK4 " + rk4);
+    }
+
+    @Test
+    @DisplayName("辛方法步长减半时单周期误差按各自阶数收敛")
+    void symplecticMethodsConvergeAtTheirOrder() {
+        for (IntegratorKind kind : IntegratorKind.values()) {
+            if (!kind.symplectic()) {
+                continue;
+            }
+            double coarse = oneOrbitError(kind, 200);
+            double fine = oneOrbitError(kind, 400);
+            double expected = Math.pow(2.0, kind.order());
+            assertTrue(coarse / fine > 0.75 * expected,
+                    kind + " 误差比 " + coarse / fine + "，期望约 " + expected);
+        }
+    }
+
+    /** 偏心率 0.5 的两体轨道，步长上限为周期的 1/20，目标时间为一个相对运动周期。 */
+    private static SimulationConfig adaptiveOrbit() {
+        SimulationConfig base = eccentricOrbit(IntegratorKind.DOPRI45, 20);
+        double period = base.timeStepSeconds() * 20;
+        return new SimulationConfig(base.name(), base.bodies(), base.timeStepSeconds(),
+                base.gravitationalConstant(), base.softeningLengthMeters(), 100_000L, period)
+                .withIntegrator(IntegratorKind.DOPRI45)
+                .withTolerances(1e-10, 1e-10);
+    }
+
+    private static double positionError(SimulationState actual, SimulationState expected) {
+        double max = 0.0;
+        for (int i = 0; i < actual.bodies().size(); i++) {
+            max = Math.max(max, actual.bodies().get(i).position()
+                    .subtract(expected.bodies().get(i).position()).length());
+        }
+        return max / SEMI_MAJOR_AXIS;
+    }
+
+    @Test
+    @DisplayName("DOPRI45 在近心点自动缩小步长，恰好停在目标时间且单周期误差很小")
+    void dormandPrinceAdaptsStepToOrbitPhase() {
+        SimulationConfig config = adaptiveOrbit();
+        double target = config.targetSimulationTimeSeconds();
+        IntegrationSession session = new IntegrationSession(config);
+        SimulationState initial = session.state();
+        double minStep = Double.POSITIVE_INFINITY;
+        double maxStep = 0.0;
+        while (session.simulationTimeSeconds() < target) {
+            session.advance();
+            assertTrue(session.lastStepSeconds() <= config.timeStepSeconds());
+            minStep = Math.min(minStep, session.lastStepSeconds());
+            maxStep = Math.max(maxStep, session.lastStepSeconds());
+        }
+        assertEquals(target, session.simulationTimeSeconds());
+        assertTrue(maxStep > 3.0 * minStep, "步长范围 " + minStep + " ~ " + maxStep);
+        SimulationState end = session.state();
+        Vector3 start = initial.bodies().get(1).position().subtract(initial.bodies().get(0).position());
+        Vector3 relative = end.bodies().get(1).position().subtract(end.bodies().get(0).position());
+        double error = relative.subtract(start).length() / SEMI_MAJOR_AXIS;
+        assertTrue(error < 1e-6, "单周期误差 " + error);
+    }
+
+    @Test
+    @DisplayName("DOPRI45 的步长只由状态决定，载入检查点后与原会话逐位一致")
+    void dormandPrinceReloadMatchesOriginalRun() {
+        SimulationConfig config = adaptiveOrbit();
+        IntegrationSession session = new IntegrationSession(config);
+        session.advance(40L, StepObserver.NONE);
+        SimulationState checkpoint = session.state();
+        session.advance(60L, StepObserver.NONE);
+        SimulationState expected = session.state();
+
+        IntegrationSession reloaded = new IntegrationSession(config);
+        reloaded.advance(13L, StepObserver.NONE);
+        reloaded.load(checkpoint);
+        reloaded.advance(60L, StepObserver.NONE);
+        assertEquals(expected, reloaded.state());
+    }
+
+    @Test
+    @DisplayName("DOPRI45 稠密输出在步端点与状态一致，步内与细步长参考解吻合")
+    void dormandPrinceDenseOutputMatchesReference() {
+        SimulationConfig config = adaptiveOrbit();
+        IntegrationSession session = new IntegrationSession(config);
+        session.advance(30L, StepObserver.NONE);
+        SimulationState start = session.state();
+        session.advance();
+        SimulationState end = session.state();
+        double h = session.lastStepSeconds();
+
+        assertTrue(positionError(session.interpolate(start.simulationTimeSeconds()), start) < 1e-14);
+        assertTrue(positionError(session.interpolate(end.simulationTimeSeconds()), end) < 1e-14);
+
+        double middle = start.simulationTimeSeconds() + 0.4 * h;
+        SimulationConfig fine = new SimulationConfig(config.name(), config.bodies(), 0.4 * h / 1000,
+                config.gravitationalConstant(), config.softeningLengthMeters(), 1000L, null);
+        SimulationState reference = NBodyIntegrator.advance(fine, start, 1000L, StepObserver.NONE);
+        SimulationState interpolated = session.interpolate(middle);
+        assertEquals(middle, interpolated.simulationTimeSeconds());
+        double error = positionError(interpolated, reference);
+        assertTrue(error < 1e-9, "插值误差 " + error);
+        assertEquals(end, session.state(), "插值不改变会话状态");
+    }
+
+    @Test
+    @DisplayName("固定步长方案不支持稠密输出")
+    void fixedStepSchemesRejectInterpolation() {
+        IntegrationSession session = new IntegrationSession(eccentricOrbit(IntegratorKind.RK4));
+        session.advance();
+        assertThrows(UnsupportedOperationException.class,
+                () -> session.interpolate(session.simulationTimeSeconds()));
+    }
+
+    @Test
+    @DisplayName("Hermite 块时间步在大块步长下自动细分，误差远小于同步长 RK4")
+    void hermiteSubdividesLargeBlockStep() {
+        double hermite = oneOrbitError(IntegratorKind.HERMITE, 10);
+        double rk4 = oneOrbitError(IntegratorKind.RK4, 10);
+        assertTrue(hermite < 1e-4, "单周期误差 " + hermite);
+        assertTrue(hermite * 1000 < rk4, "Hermite " + hermite + "，RK4 " + rk4);
+    }
+
+    @Test
+    @DisplayName("Hermite 只重算到期天体：远处天体的力计算次数远少于紧密双星")
+    void hermiteEvaluatesOnlyDueBodies() {
+        double g = PhysicalConstants.GRAVITATIONAL_CONSTANT;
+        double separation = 1.0e10;
+        double binarySpeed = Math.sqrt(g * CENTRAL_MASS / (2.0 * separation));
+        double distance = 1.0e13;
+        double outerSpeed = Math.sqrt(g * 2.0 * CENTRAL_MASS / distance);
+        double binaryPeriod = 2.0 * Math.PI * Math.sqrt(separation * separation * separation
+                / (2.0 * g * CENTRAL_MASS));
+        SimulationConfig config = new SimulationConfig(
+                "层级三体",
+                List.of(
+                        new BodySpec("a", "双星甲", "#ffd166", CENTRAL_MASS,
+                                Vector3.of(-separation / 2.0, 0, 0), Vector3.of(0, -binarySpeed, 0)),
+                        new BodySpec("b", "双星乙", "#4d96ff", CENTRAL_MASS,
+                                Vector3.of(separation / 2.0, 0, 0), Vector3.of(0, binarySpeed, 0)),
+                        new BodySpec("c", "远伴星", "#ef476f", CENTRAL_MASS,
+                                Vector3.of(distance, 0, 0), Vector3.of(0, outerSpeed, 0))),
+                4.0 * binaryPeriod,
+                g,
+                0.0,
+                10L,
+                null).withIntegrator(IntegratorKind.HERMITE);
+        HermiteIntegrator hermite = (HermiteIntegrator) config.integrator().create(config);
+        IntegrationSession session = new IntegrationSession(config, NBodyIntegrator.initialState(config),
+                hermite, new DirectGravity(config));
+        double e0 = MetricsCalculator.totalEnergy(config, session.state());
+        session.advance(10L, StepObserver.NONE);
+
+        assertTrue(hermite.evaluations(2) * 20 < hermite.evaluations(0),
+                "远伴星 " + hermite.evaluations(2) + " 次，双星 " + hermite.evaluations(0) + " 次");
+        assertEquals(hermite.evaluations(0), hermite.evaluations(1));
+        double drift = Math.abs(MetricsCalculator.relativeEnergyDrift(e0,
+                MetricsCalculator.totalEnergy(config, session.state())));
+        assertTrue(drift < 1e-4, "能量误差 " + drift);
+    }
+
+    @Test
+    @DisplayName("Hermite 每个块周期只从同步状态起步，载入检查点后与原会话逐位一致")
+    void hermiteReloadMatchesOriginalRun() {
+        SimulationConfig config = eccentricOrbit(IntegratorKind.HERMITE, 20);
+        IntegrationSession session = new IntegrationSession(config);
+        session.advance(7L, StepObserver.NONE);
+        SimulationState checkpoint = session.state();
+        session.advance(9L, StepObserver.NONE);
+        SimulationState expected = session.state();
+
+        IntegrationSession reloaded = new IntegrationSession(config);
+        reloaded.advance(3L, StepObserver.NONE);
+        reloaded.load(checkpoint);
+        reloaded.advance(9L, StepObserver.NONE);
+        assertEquals(expected, reloaded.state());
+    }
+
+    @Test
+    @DisplayName("开普勒漂移整周期回到起点，双曲轨道能量守恒")
+    void keplerDriftIsExactOnConics() {
+        double mu = PhysicalConstants.GRAVITATIONAL_CONSTANT * CENTRAL_MASS;
+        double e = 0.5;
+        double apocentre = SEMI_MAJOR_AXIS * (1.0 + e);
+        double period = 2.0 * Math.PI * Math.sqrt(SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS / mu);
+        double[] x = {apocentre};
+        double[] y = {0.0};
+        double[] z = {0.0};
+        double[] vx = {0.0};
+        double[] vy = {Math.sqrt(mu * (1.0 - e) / apocentre)};
+        double[] vz = {0.0};
+        KeplerDrift kepler = new KeplerDrift();
+        for (int k = 0; k < 7; k++) {
+            assertTrue(Double.isFinite(kepler.drift(mu, period / 7.0, x, y, z, vx, vy, vz, 0)));
+        }
+        assertEquals(apocentre, x[0], 1e-9 * SEMI_MAJOR_AXIS);
+        assertEquals(0.0, y[0], 1e-9 * SEMI_MAJOR_AXIS);
+
+        double[] hx = {SEMI_MAJOR_AXIS};
+        double[] hy = {0.0};
+        double[] hz = {0.0};
+        double[] hvx = {0.0};
+        double[] hvy = {2.0 * Math.sqrt(mu / SEMI_MAJOR_AXIS)};
+        double[] hvz = {0.0};
+        double energy = 0.5 * hvy[0] * hvy[0] - mu / SEMI_MAJOR_AXIS;
+        assertTrue(Double.isFinite(kepler.drift(mu, period, hx, hy, hz, hvx, hvy, hvz, 0)));
+        double r = Math.sqrt(hx[0] * hx[0] + hy[0] * hy[0]);
+        double after = 0.5 * (hvx[0] * hvx[0] + hvy[0] * hvy[0]) - mu / r;
+        assertEquals(energy, after, 1e-12 * Math.abs(energy));
+        assertTrue(r > 5.0 * SEMI_MAJOR_AXIS, "双曲轨道应远离中心，r=" + r);
+    }
+
+    @Test
+    @DisplayName("Wisdom-Holman 在中心天体主导的轨道上大步长误差远小于 RK4")
+    void wisdomHolmanBeatsRk4OnCentralOrbit() {
+        double wisdomHolman = oneOrbitError(IntegratorKind.WISDOM_HOLMAN, 20);
+        double rk4 = oneOrbitError(IntegratorKind.RK4, 20);
+        assertTrue(wisdomHolman * 1000 < rk4, "Wisdom-Holman " + wisdomHolman + "，RK4 " + rk4);
+    }
+
+    @Test
+    @DisplayName("Wisdom-Holman 以十倍步长积分太阳系，能量误差仍远小于 RK4")
+    void wisdomHolmanHandlesSolarSystemAtLargeStep() {
+        SimulationConfig preset = Presets.presetE().config();
+        double dt = preset.timeStepSeconds() * 10.0;
+        double[] drift = new double[2];
+        IntegratorKind[] kinds = {IntegratorKind.WISDOM_HOLMAN, IntegratorKind.RK4};
+        for (int k = 0; k < kinds.length; k++) {
+            SimulationConfig config = new SimulationConfig(preset.name(), preset.bodies(), dt,
+                    preset.gravitationalConstant(), preset.softeningLengthMeters(), 2000L, null)
+                    .withIntegrator(kinds[k]);
+            IntegrationSession session = new IntegrationSession(config);
+            double e0 = MetricsCalculator.totalEnergy(config, session.state());
+            for (int i = 0; i < 20; i++) {
+                session.advance(100L, StepObserver.NONE);
+                drift[k] = Math.max(drift[k], Math.abs(MetricsCalculator.relativeEnergyDrift(e0,
+                        MetricsCalculator.totalEnergy(config, session.state()))));
+            }
+        }
+        assertTrue(drift[0] < 1e-7, "Wisdom-Holman 能量误差 " + drift[0]);
+        assertTrue(drift[0] * 100 < drift[1], "Wisdom-Holman " + drift[0] + "，RK4 " + drift[1]);
+    }
+
+    @Test
+    @DisplayName("Wisdom-Holman 载入检查点后与原会话逐位一致")
+    void wisdomHolmanReloadMatchesOriginalRun() {
+        SimulationConfig config = eccentricOrbit(IntegratorKind.WISDOM_HOLMAN, 20);
+        IntegrationSession session = new IntegrationSession(config);
+        session.advance(7L, StepObserver.NONE);
+        SimulationState checkpoint = session.state();
+        session.advance(9L, StepObserver.NONE);
+        SimulationState expected = session.state();
+
+        IntegrationSession reloaded = new IntegrationSession(config);
+        reloaded.advance(3L, StepObserver.NONE);
+        reloaded.load(checkpoint);
+        reloaded.advance(9L, StepObserver.NONE);
+        assertEquals(expected, reloaded.state());
+    }
+}
@@ -0,0 +1,116 @@
+package com.threebody.core;
+
+import static com.threebody.core.GravityFixtures.accelerations;
+import static com.threebody.core.GravityFixtures.positions;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ParallelDirectGravityTest {
+
+    private static SimulationConfig randomBodies(int count) {
+        return GravityFixtures.randomBodies(count, 7L, 1.0e6);
+    }
+
+    @Test
+    @DisplayName("任意线程数下与串行直接求和逐位一致")
+    void matchesSerialKernelBitwiseForAnyThreadCount() {
+        SimulationConfig config = randomBodies(PhysicalConstants.MAX_BODY_COUNT);
+        double[][] p = positions(config);
+        double[][] expected = accelerations(new DirectGravity(config), p);
+        for (int threads : new int[] {2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                double[][] actual = accelerations(new ParallelDirectGravity(config, 0, pool), p);
+                for (int c = 0; c < 3; c++) {
+                    assertArrayEquals(expected[c], actual[c], threads + " 线程");
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("融合重载记录的距离与势能与串行内核逐位一致")
+    void fusedProximityMatchesSerialKernelBitwise() {
+        SimulationConfig config = randomBodies(PhysicalConstants.MAX_BODY_COUNT);
+        double[][] p = positions(config);
+        // 选一个能覆盖若干天体对的阈值
+        double threshold = 3.0e10;
+        PairProximity expected = new PairProximity();
+        expected.requestPotentialEnergy(true);
+        expected.begin(threshold);
+        double[][] a = new double[3][config.bodyCount()];
+        new DirectGravity(config).accelerations(p[0], p[1], p[2], a[0], a[1], a[2], 0L, 0.0, expected);
+        assertTrue(expected.encounterCount() > 1);
+        for (int threads : new int[] {2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                PairProximity actual = new PairProximity();
+                actual.requestPotentialEnergy(true);
+                actual.begin(threshold);
+                double[][] b = new double[3][config.bodyCount()];
+                assertTrue(new ParallelDirectGravity(config, 0, pool)
+                        .accelerations(p[0], p[1], p[2], b[0], b[1], b[2], 0L, 0.0, actual));
+                for (int c = 0; c < 3; c++) {
+                    assertArrayEquals(a[c], b[c], threads + " 线程");
+                }
+                assertEquals(expected.minimumFirst(), actual.minimumFirst());
+                assertEquals(expected.minimumSecond(), actual.minimumSecond());
+                assertEquals(expected.minimumDistance(), actual.minimumDistance());
+                assertEquals(expected.potentialEnergy(), actual.potentialEnergy());
+                assertEquals(expected.encounterCount(), actual.encounterCount());
+                for (int k = 0; k < expected.encounterCount(); k++) {
+                    assertEquals(expected.encounterFirst(k), actual.encounterFirst(k));
+                    assertEquals(expected.encounterSecond(k), actual.encounterSecond(k));
+                    assertEquals(expected.encounterDistance(k), actual.encounterDistance(k));
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("间距过小时抛出与串行内核相同的异常")
+    void coincidentBodiesFailLikeSerialKernel() {
+        List<BodySpec> bodies = new ArrayList<>(randomBodies(40).bodies());
+        bodies.set(25, new BodySpec("c", "重合", "#4d96ff", 1.0e30, bodies.get(31).position(), Vector3.ZERO));
+        SimulationConfig config = new SimulationConfig("重合", bodies, 3600.0,
+                PhysicalConstants.GRAVITATIONAL_CONSTANT, 0.0, 10L, null);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            NumericalInstabilityException failure = assertThrows(NumericalInstabilityException.class,
+                    () -> accelerations(new ParallelDirectGravity(config, 0, pool), positions(config)));
+            assertEquals("c,b31", failure.getBodyId());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("并行度报告线程池大小，低于阈值或单线程池时为 1，供调用方按核申请许可")
+    void parallelismMatchesPoolWhenEnabled() {
+        SimulationConfig config = randomBodies(40);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            assertEquals(3, new ParallelDirectGravity(config, 0, pool).parallelism());
+            assertEquals(1, new ParallelDirectGravity(config, 41, pool).parallelism());
+            assertEquals(1, new ParallelDirectGravity(config, 0, single).parallelism());
+        } finally {
+            pool.shutdown();
+            single.shutdown();
+        }
+        assertEquals(1, new IntegrationSession(Presets.presetB().config()).parallelism());
+        assertEquals(4, new IntegrationSession(Presets.presetB().config().withPararealSlices(4)).parallelism());
+    }
+}
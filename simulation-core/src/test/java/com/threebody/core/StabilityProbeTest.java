@@ -0,0 +1,63 @@
+package com.threebody.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StabilityProbeTest {
+
+    private static SimulationConfig sunEarth() {
+        return new SimulationConfig("日地",
+                List.of(new BodySpec("sun", "太阳", "#ffd166", 1.98892e30, Vector3.ZERO, Vector3.ZERO),
+                        new BodySpec("earth", "地球", "#4d96ff", 5.972e24,
+                                Vector3.of(1.496e11, 0, 0), Vector3.of(0, 29_783, 0))),
+                3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT, 1.0e7, 1_000L, null);
+    }
+
+    @Test
+    @DisplayName("按初始速度区分存活、逃逸与碰撞，批量与逐个积分结局一致")
+    void classifiesVelocityPlane() {
+        double[] vx = {0.0, 0.0, 0.0};
+        double[] vy = {29_783.0, 60_000.0, 0.0};
+        for (boolean megno : List.of(false, true)) {
+            StabilityProbe probe = new StabilityProbe(sunEarth(), "earth", true, 0, 1,
+                    1.0e8, null, 3.0e10, megno);
+            List<StabilityCell> cells = probe.run(vx, vy, () -> false);
+
+            assertEquals(StabilityOutcome.SURVIVED, cells.get(0).outcome(), "MEGNO=" + megno);
+            assertNull(cells.get(0).eventTimeSeconds());
+            assertEquals(StabilityOutcome.ESCAPED, cells.get(1).outcome(), "MEGNO=" + megno);
+            assertTrue(cells.get(1).eventTimeSeconds() > 0.0 && cells.get(1).eventTimeSeconds() <= 1.0e8);
+            assertEquals(StabilityOutcome.COLLIDED, cells.get(2).outcome(), "MEGNO=" + megno);
+            // 自由落体时间约 65 天
+            assertEquals(5.6e6, cells.get(2).eventTimeSeconds(), 0.5e6);
+            if (megno) {
+                assertNotNull(cells.get(0).megno());
+                assertTrue(cells.get(0).megno() < 3.0, "规则轨道的 MEGNO 应接近 2");
+            } else {
+                assertNull(cells.get(0).megno());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("取消时放弃整块，非法参数直接拒绝")
+    void cancelsAndRejects() {
+        StabilityProbe probe = new StabilityProbe(sunEarth(), "earth", false, 0, 1, 1.0e8, null, null, false);
+        assertNull(probe.run(new double[] {1.496e11}, new double[] {0.0}, () -> true));
+        assertEquals(27_778L, probe.totalSteps());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new StabilityProbe(sunEarth(), "moon", false, 0, 1, 1.0e8, null, null, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StabilityProbe(sunEarth(), "earth", false, 1, 1, 1.0e8, null, null, false));
+        assertThrows(IllegalArgumentException.class, () -> new StabilityProbe(
+                sunEarth().withIntegrator(IntegratorKind.DOPRI45), "earth", false, 0, 1, 1.0e8, null, null, false));
+    }
+}
@@ -0,0 +1,131 @@
+package com.threebody.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SweepAndPruneTest {
+
+    /** 逐对遍历的参照结果：近距离天体对(字典序)与最近天体对。 */
+    private static List<String> bruteForce(double[] x, double[] y, double[] z, int n, double threshold) {
+        List<String> rows = new ArrayList<>();
+        double best = Double.POSITIVE_INFINITY;
+        String bestPair = "";
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double dx = x[j] - x[i];
+                double dy = y[j] - y[i];
+                double dz = z[j] - z[i];
+                double d2 = dx * dx + dy * dy + dz * dz;
+                if (d2 < best) {
+                    best = d2;
+                    bestPair = i + "," + j;
+                }
+                double distance = Math.sqrt(d2);
+                if (distance < threshold) {
+                    rows.add(i + "," + j + "=" + distance);
+                }
+            }
+        }
+        rows.add("min " + bestPair + "=" + Math.sqrt(best));
+        return rows;
+    }
+
+    private static List<String> rows(PairProximity p) {
+        List<String> rows = new ArrayList<>();
+        for (int k = 0; k < p.encounterCount(); k++) {
+            rows.add(p.encounterFirst(k) + "," + p.encounterSecond(k) + "=" + p.encounterDistance(k));
+        }
+        rows.add("min " + p.minimumFirst() + "," + p.minimumSecond() + "=" + p.minimumDistance());
+        return rows;
+    }
+
+    @Test
+    @DisplayName("扫描剪枝跨步复用排序，结果与逐对遍历完全相同")
+    void matchesBruteForceAcrossSteps() {
+        int n = 600;
+        Random random = new Random(11L);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        double[] vx = new double[n];
+        double[] vy = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextGaussian() * 1.0e11;
+            y[i] = random.nextGaussian() * 4.0e10;
+            z[i] = random.nextGaussian() * 1.0e9;
+            vx[i] = random.nextGaussian() * 1.0e9;
+            vy[i] = random.nextGaussian() * 1.0e9;
+        }
+        double threshold = 3.0e9;
+        PairProximity proximity = new PairProximity();
+        int encounters = 0;
+        for (int step = 0; step < 30; step++) {
+            proximity.scan(x, y, z, n, threshold);
+            List<String> expected = bruteForce(x, y, z, n, threshold);
+            assertEquals(expected, rows(proximity), "第 " + step + " 步");
+            encounters += expected.size() - 1;
+            for (int i = 0; i < n; i++) {
+                x[i] += vx[i];
+                // 后半程 y 跨度超过 x，触发换轴
+                y[i] += step < 15 ? vy[i] : 20.0 * vy[i];
+            }
+        }
+        assertTrue(encounters > 30);
+    }
+
+    @Test
+    @DisplayName("等距格点上最近天体对取字典序在前者，非有限坐标退回逐对遍历")
+    void breaksTiesLikeBruteForceAndToleratesNonFinite() {
+        int side = 7;
+        int n = side * side * side;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] z = new double[n];
+        // 逆序编号，使排序顺序与编号顺序不同
+        for (int k = 0; k < n; k++) {
+            int c = n - 1 - k;
+            x[k] = (c % side) * 1.0e9;
+            y[k] = (c / side % side) * 1.0e9;
+            z[k] = (c / side / side) * 1.0e9;
+        }
+        PairProximity proximity = new PairProximity();
+        proximity.scan(x, y, z, n, 1.5e9);
+        assertEquals(bruteForce(x, y, z, n, 1.5e9), rows(proximity));
+
+        x[5] = Double.NaN;
+        proximity.scan(x, y, z, n, 1.5e9);
+        assertEquals(bruteForce(x, y, z, n, 1.5e9), rows(proximity));
+    }
+
+    @Test
+    @DisplayName("大量天体时无状态近距离检测与逐对遍历一致")
+    void statelessDetectionMatchesBruteForce() {
+        Random random = new Random(3L);
+        List<BodySpec> bodies = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            bodies.add(new BodySpec("b" + i, "天体" + i, "#ffd166", 1.0e24,
+                    Vector3.of(random.nextGaussian(), random.nextGaussian(), 0.0).multiply(1.0e10), Vector3.ZERO));
+        }
+        SimulationConfig config = new SimulationConfig("随机", bodies, 3600.0, PhysicalConstants.GRAVITATIONAL_CONSTANT,
+                2.0e8, 10L, null);
+        SimulationState state = NBodyIntegrator.initialState(config);
+        double threshold = config.nearEncounterThresholdMeters();
+        List<NearEncounter> expected = new ArrayList<>();
+        for (int i = 0; i < bodies.size(); i++) {
+            for (int j = i + 1; j < bodies.size(); j++) {
+                double distance = Math.sqrt(bodies.get(j).position().subtract(bodies.get(i).position()).squaredLength());
+                if (distance < threshold) {
+                    expected.add(new NearEncounter("b" + i, "b" + j, distance, threshold));
+                }
+            }
+        }
+        assertTrue(expected.size() > 1);
+        assertEquals(expected, NBodyIntegrator.detectNearEncounters(config, state));
+    }
+}
@@ -0,0 +1,97 @@
+package com.threebody.core;
+
+import static com.threebody.core.GravityFixtures.accelerations;
+import static com.threebody.core.GravityFixtures.positions;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class VectorDirectGravityTest {
+
+    @BeforeAll
+    static void requireVectorModule() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                "未加入 jdk.incubator.vector 模块");
+    }
+
+    private static SimulationConfig randomBodies(int count, double softening) {
+        return GravityFixtures.randomBodies(count, 11L, softening);
+    }
+
+    @Test
+    @DisplayName("向量内核与标量内核逐位一致，含不足一组通道的尾部")
+    void matchesScalarKernelBitwise() {
+        int lanes = VectorDirectGravity.laneCount();
+        for (int count : new int[] {2, 3, lanes + 1, 37, PhysicalConstants.MAX_BODY_COUNT}) {
+            for (double softening : new double[] {0.0, 1.0e9}) {
+                SimulationConfig config = randomBodies(count, softening);
+                double[][] expected = accelerations(new DirectGravity(config), config);
+                double[][] actual = accelerations(new VectorDirectGravity(config), config);
+                for (int c = 0; c < 3; c++) {
+                    assertArrayEquals(expected[c], actual[c], count + " 个天体，软化 " + softening);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("向量内核顺带记录的近距离、最近天体对与势能和标量内核一致")
+    void recordsProximityLikeScalarKernel() {
+        SimulationConfig config = randomBodies(PhysicalConstants.MAX_BODY_COUNT, 0.0);
+        double[][] p = positions(config);
+        double[][] a = new double[3][config.bodyCount()];
+        PairProximity scalar = new PairProximity();
+        PairProximity vector = new PairProximity();
+        scalar.requestPotentialEnergy(true);
+        vector.requestPotentialEnergy(true);
+        scalar.begin(5.0e10);
+        vector.begin(5.0e10);
+        new DirectGravity(config).accelerations(p[0], p[1], p[2], a[0], a[1], a[2], 0L, 0.0, scalar);
+        new VectorDirectGravity(config).accelerations(p[0], p[1], p[2], a[0], a[1], a[2], 0L, 0.0, vector);
+        assertEquals(MetricsCalculator.potentialEnergy(config, NBodyIntegrator.initialState(config)),
+                vector.potentialEnergy());
+        assertEquals(scalar.potentialEnergy(), vector.potentialEnergy());
+        assertEquals(scalar.minimumDistance(), vector.minimumDistance());
+        assertEquals(scalar.minimumFirst(), vector.minimumFirst());
+        assertEquals(scalar.minimumSecond(), vector.minimumSecond());
+        assertTrue(scalar.encounterCount() > 1);
+        assertEquals(scalar.encounterCount(), vector.encounterCount());
+        for (int k = 0; k < scalar.encounterCount(); k++) {
+            assertEquals(scalar.encounterFirst(k), vector.encounterFirst(k));
+            assertEquals(scalar.encounterSecond(k), vector.encounterSecond(k));
+            assertEquals(scalar.encounterDistance(k), vector.encounterDistance(k));
+        }
+    }
+
+    @Test
+    @DisplayName("间距过小时抛出与标量内核相同的异常")
+    void coincidentBodiesFailLikeScalarKernel() {
+        List<BodySpec> bodies = new ArrayList<>(randomBodies(20, 0.0).bodies());
+        bodies.set(3, new BodySpec("c", "重合", "#4d96ff", 1.0e30, bodies.get(17).position(), Vector3.ZERO));
+        SimulationConfig config = new SimulationConfig("重合", bodies, 3600.0,
+                PhysicalConstants.GRAVITATIONAL_CONSTANT, 0.0, 10L, null);
+        NumericalInstabilityException failure = assertThrows(NumericalInstabilityException.class,
+                () -> accelerations(new VectorDirectGravity(config), config));
+        assertEquals("c,b17", failure.getBodyId());
+    }
+
+    @Test
+    @DisplayName("模块可用时直接求和按天体数量选择向量内核")
+    void selectedWhenModuleAvailable() {
+        SimulationConfig small = randomBodies(3, 0.0);
+        assertInstanceOf(DirectGravity.class, ForceSolverKind.DIRECT.create(small));
+        SimulationConfig larger = randomBodies(ForceSolverKind.VECTOR_MIN_BODIES, 0.0);
+        if (!ParallelDirectGravity.worthwhile(larger.bodyCount())) {
+            assertInstanceOf(VectorDirectGravity.class, ForceSolverKind.DIRECT.create(larger));
+        }
+    }
+}
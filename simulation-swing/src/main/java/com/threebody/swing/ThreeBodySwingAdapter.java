@@ -3,9 +3,9 @@ package com.threebody.swing;
 import com.threebody.core.BodySpec;
 import com.threebody.core.BodyState;
 import com.threebody.core.ConfigValidator;
+import com.threebody.core.IntegrationSession;
 import com.threebody.core.Metrics;
 import com.threebody.core.MetricsCalculator;
-import com.threebody.core.NBodyIntegrator;
 import com.threebody.core.NearEncounter;
 import com.threebody.core.NumericalInstabilityException;
 import com.threebody.core.Preset;
@@ -13,7 +13,6 @@ import com.threebody.core.PresetKey;
 import com.threebody.core.Presets;
 import com.threebody.core.SimulationConfig;
 import com.threebody.core.SimulationState;
-import com.threebody.core.StepResult;
 import com.threebody.core.Vector3;
 
 import javax.swing.*;
@@ -28,8 +27,8 @@ import java.util.Random;
  * 三体运动模拟 Swing 适配器 —— 渲染与输入控制。
  *
  * <p>
- * 物理计算全部委托 {@link NBodyIntegrator} 与 {@link MetricsCalculator}；
- * 不再保留重复的 RK4 或引力逻辑。
+ * 物理计算全部委托 {@link IntegrationSession} 与 {@link MetricsCalculator}；
+ * 不再保留重复的 RK4 或引力逻辑。会话在切换方案时重建，定时器每拍只推进一步，不再重建缓冲区。
  * </p>
  */
 public final class ThreeBodySwingAdapter extends JPanel {
@@ -39,6 +38,7 @@ public final class ThreeBodySwingAdapter extends JPanel {
 
     // ============================ 当前模拟状态 ============================
     private SimulationConfig config;
+    private IntegrationSession session;
     private SimulationState state;
     private List<List<Point>> trails;
     private int stepCount;
@@ -89,7 +89,8 @@ public final class ThreeBodySwingAdapter extends JPanel {
         } else {
             config = raw;
         }
-        state = NBodyIntegrator.initialState(config);
+        session = new IntegrationSession(config);
+        state = session.state();
         stepCount = 0;
         if (trails == null) trails = new ArrayList<>();
         else trails.clear();
@@ -103,8 +104,8 @@ public final class ThreeBodySwingAdapter extends JPanel {
 
     private void tick() {
         try {
-            StepResult result = NBodyIntegrator.step(config, state);
-            state = result.state();
+            session.advance();
+            state = session.state();
             stepCount++;
             appendTrails(state);
             updateParticles();
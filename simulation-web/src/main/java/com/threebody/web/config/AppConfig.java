@@ -1,12 +1,19 @@
 package com.threebody.web.config;
 
+import com.threebody.app.service.CpuPermits;
+import com.threebody.app.service.EnsembleService;
 import com.threebody.app.service.ExperimentRepository;
 import com.threebody.app.service.ExperimentService;
 import com.threebody.app.service.ReplayService;
+import com.threebody.app.service.StabilityMapService;
+import com.threebody.app.service.SweepService;
 import com.threebody.app.service.persistence.FileExperimentRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+
 @Configuration
 public class AppConfig {
 
@@ -15,9 +22,16 @@ public class AppConfig {
         return new FileExperimentRepository();
     }
 
+    /** 实验、参数扫描与稳定性地图共用的 CPU 许可。 */
+    @Bean
+    public CpuPermits cpuPermits(@Value("${threebody.experiments.cpu-permits:0}") int cpuPermits) {
+        return cpuPermits > 0 ? new CpuPermits(cpuPermits) : CpuPermits.ofProcessors();
+    }
+
     @Bean
-    public ExperimentService experimentService(ExperimentRepository repository) {
-        ExperimentService service = new ExperimentService(repository);
+    public ExperimentService experimentService(ExperimentRepository repository,
+            @Value("${threebody.experiments.workers:1}") int workers, CpuPermits cpuPermits) {
+        ExperimentService service = new ExperimentService(repository, workers, cpuPermits);
         service.initialize();
         return service;
     }
@@ -27,4 +41,26 @@ public class AppConfig {
             ExperimentRepository repository) {
         return new ReplayService(experimentService, repository);
     }
+
+    @Bean
+    public EnsembleService ensembleService(CpuPermits cpuPermits) {
+        return new EnsembleService(cpuPermits);
+    }
+
+    @Bean
+    public SweepService sweepService(@Value("${threebody.sweeps.workers:0}") int workers,
+            CpuPermits cpuPermits) {
+        return new SweepService(workers > 0 ? workers : cpuPermits.size(), cpuPermits);
+    }
+
+    @Bean
+    public StabilityMapService stabilityMapService(ExperimentRepository repository,
+            @Value("${threebody.stability-maps.cache-dir:}") String cacheDir,
+            @Value("${threebody.stability-maps.workers:0}") int workers, CpuPermits cpuPermits) {
+        Path dir = !cacheDir.isBlank() ? Path.of(cacheDir)
+                : repository instanceof FileExperimentRepository files
+                        ? files.dataDir().resolve("stability-maps")
+                        : Path.of(System.getProperty("java.io.tmpdir"), "threebody-stability-maps");
+        return new StabilityMapService(dir, workers > 0 ? workers : cpuPermits.size(), cpuPermits);
+    }
 }
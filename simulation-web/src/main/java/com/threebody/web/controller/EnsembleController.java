@@ -0,0 +1,126 @@
+package com.threebody.web.controller;
+
+import com.threebody.app.domain.EnsembleJob;
+import com.threebody.app.service.ConfigValidationException;
+import com.threebody.app.service.EnsembleService;
+import com.threebody.core.EnsembleSample;
+import com.threebody.web.dto.ApiError;
+import com.threebody.web.dto.ConfigRequestMapper;
+import com.threebody.web.dto.EnsembleJobCreateRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 集合积分任务接口。POST 返回 202/QUEUED，结果通过 GET 轮询。
+ */
+@RestController
+@RequestMapping("/api/v1/ensemble-jobs")
+public class EnsembleController {
+
+    private final EnsembleService ensembleService;
+
+    public EnsembleController(EnsembleService ensembleService) {
+        this.ensembleService = ensembleService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@RequestBody EnsembleJobCreateRequest body) {
+        if (body == null || body.members() == null || body.perturbationMeters() == null) {
+            throw new ReplayController.MalformedRequestException("缺少 members 或 perturbationMeters 字段");
+        }
+        ConfigRequestMapper.MappedConfig mapped = ConfigRequestMapper.map(body.config());
+        if (!mapped.complete()) {
+            throw new ConfigValidationException(mapped.issues());
+        }
+        EnsembleJob job = ensembleService.create(mapped.config(), body.members(), body.perturbationMeters(),
+                body.steps(), body.sampleIntervalSteps(), body.seed());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toEnsembleJobDto(job));
+    }
+
+    @GetMapping("/{jobId}")
+    public Map<String, Object> get(@PathVariable("jobId") String jobId) {
+        return toEnsembleJobDto(ensembleService.get(jobId));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> delete(@PathVariable("jobId") String jobId) {
+        ensembleService.delete(jobId);
+        return ResponseEntity.noContent().build();
+    }
+
+    static Map<String, Object> toEnsembleJobDto(EnsembleJob job) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("jobId", job.jobId());
+        dto.put("configName", job.config().name());
+        dto.put("memberCount", job.memberCount());
+        dto.put("perturbationMeters", job.perturbationMeters());
+        dto.put("seed", job.seed());
+        dto.put("sampleIntervalSteps", job.sampleIntervalSteps());
+        dto.put("status", job.status().name());
+        dto.put("completedSteps", job.completedSteps());
+        dto.put("totalSteps", job.totalSteps());
+        dto.put("progress", job.progress());
+        dto.put("samples", job.samples().stream().map(EnsembleController::toSampleDto).toList());
+        dto.put("failedMembers", job.failedMembers());
+        dto.put("lyapunovEstimatePerSecond", job.lyapunovEstimatePerSecond());
+        dto.put("error", job.error());
+        dto.put("createdAt", job.createdAt().toString());
+        dto.put("updatedAt", job.updatedAt().toString());
+        dto.put("expiresAt", job.expiresAt() != null ? job.expiresAt().toString() : null);
+        return dto;
+    }
+
+    private static Map<String, Object> toSampleDto(EnsembleSample sample) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("step", sample.step());
+        dto.put("simulationTimeSeconds", sample.simulationTimeSeconds());
+        dto.put("aliveMembers", sample.aliveMembers());
+        dto.put("meanLogDivergence", finiteOrNull(sample.meanLogDivergence()));
+        dto.put("medianDivergenceMeters", finiteOrNull(sample.medianDivergenceMeters()));
+        dto.put("maxDivergenceMeters", finiteOrNull(sample.maxDivergenceMeters()));
+        return dto;
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    @ExceptionHandler(ConfigValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleValidationFailed(ConfigValidationException ex) {
+        return new ApiError("VALIDATION_FAILED", ex.getMessage(), ex.issues().stream()
+                .map(issue -> new ApiError.ValidationIssueDto(issue.field(), issue.code().name(), issue.message(),
+                        issue.severity().name(), issue.riskLevel() != null ? issue.riskLevel().name() : null))
+                .toList());
+    }
+
+    @ExceptionHandler(EnsembleService.EnsembleQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ApiError handleQueueFull(EnsembleService.EnsembleQueueFullException ex) {
+        return new ApiError("ENSEMBLE_QUEUE_FULL", ex.getMessage());
+    }
+
+    @ExceptionHandler(EnsembleService.EnsembleJobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ApiError handleJobNotFound(EnsembleService.EnsembleJobNotFoundException ex) {
+        return new ApiError("ENSEMBLE_JOB_NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, ReplayController.MalformedRequestException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleMalformed(RuntimeException ex) {
+        return new ApiError("MALFORMED_REQUEST", ex.getMessage());
+    }
+}
@@ -240,6 +240,25 @@ public class ExperimentController {
         return toExperimentDto(e, service.getQueuePosition(id), service.getStorageBytes(id));
     }
 
+    @PutMapping("/experiments/{id}/turbo")
+    public Map<String, Object> setTurbo(@PathVariable("id") String id, @RequestBody Map<String, Object> body) {
+        Object enabled = body != null ? body.get("enabled") : null;
+        if (!(enabled instanceof Boolean)) throw new MalformedRequestException("缺少布尔 enabled 字段");
+        if (service.getExperiment(id) == null) throw new ExperimentNotFoundException(id);
+
+        try {
+            service.setTurbo(id, (Boolean) enabled);
+        } catch (ExperimentService.ExperimentNotFoundException ex) {
+            throw new ExperimentNotFoundException(id);
+        }
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("id", id);
+        dto.put("turbo", service.isTurbo(id));
+        dto.put("turboRequested", service.isTurboRequested(id));
+        dto.put("viewers", service.viewerCount(id));
+        return dto;
+    }
+
     // ============================ 队列 ============================
 
     @PatchMapping("/queue")
@@ -470,6 +489,17 @@ public class ExperimentController {
         dto.put("softeningLengthMeters", config.softeningLengthMeters());
         dto.put("maxSteps", config.maxSteps());
         dto.put("targetSimulationTimeSeconds", config.targetSimulationTimeSeconds());
+        dto.put("integrator", config.integrator().name());
+        dto.put("relativeTolerance", config.relativeTolerance());
+        dto.put("absoluteTolerance", config.absoluteTolerance());
+        dto.put("forceSolver", config.forceSolver().name());
+        dto.put("openingAngle", config.openingAngle());
+        dto.put("expansionOrder", config.expansionOrder());
+        dto.put("chaosIndicators", config.chaosIndicators());
+        dto.put("analyticBinaries", config.analyticBinaries());
+        dto.put("escapeRetirementRadiusMeters", config.escapeRetirementRadiusMeters());
+        dto.put("regularizedEncounters", config.regularizedEncounters());
+        dto.put("pararealSlices", config.pararealSlices());
         return dto;
     }
 
@@ -588,6 +618,9 @@ public class ExperimentController {
         dto.put("allTimeMinimumPairDistanceStep", m.allTimeMinimumPairDistanceStep());
         dto.put("stepsPerSecond", m.stepsPerSecond());
         dto.put("elapsedWallClockSeconds", m.elapsedWallClockSeconds());
+        dto.put("forceErrorEstimate", m.forceErrorEstimate());
+        dto.put("lyapunovExponentPerSecond", m.lyapunovExponentPerSecond());
+        dto.put("megno", m.megno());
         return dto;
     }
 
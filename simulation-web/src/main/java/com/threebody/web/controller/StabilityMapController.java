@@ -0,0 +1,181 @@
+package com.threebody.web.controller;
+
+import com.threebody.app.domain.StabilityMapDefinition;
+import com.threebody.app.domain.StabilityMapJob;
+import com.threebody.app.domain.StabilityMapPlane;
+import com.threebody.app.domain.StabilityMapQuantity;
+import com.threebody.app.domain.StabilityTile;
+import com.threebody.app.service.ConfigValidationException;
+import com.threebody.app.service.StabilityMapService;
+import com.threebody.core.StabilityCell;
+import com.threebody.web.dto.ApiError;
+import com.threebody.web.dto.ConfigRequestMapper;
+import com.threebody.web.dto.StabilityMapJobCreateRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 稳定性地图接口。POST 返回 202/QUEUED，轮询任务得到新完成的瓦片坐标，再按坐标读取瓦片；
+ * 瓦片缓存在磁盘上，同一定义再次请求时直接复用。
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class StabilityMapController {
+
+    private final StabilityMapService stabilityMapService;
+
+    public StabilityMapController(StabilityMapService stabilityMapService) {
+        this.stabilityMapService = stabilityMapService;
+    }
+
+    @PostMapping("/stability-map-jobs")
+    public ResponseEntity<Map<String, Object>> create(@RequestBody StabilityMapJobCreateRequest body) {
+        if (body == null || body.config() == null) {
+            throw new ReplayController.MalformedRequestException("缺少 config 字段");
+        }
+        if (body.bodyId() == null || body.quantity() == null || body.plane() == null || body.uMin() == null
+                || body.uMax() == null || body.vMin() == null || body.vMax() == null
+                || body.horizonSeconds() == null) {
+            throw new ReplayController.MalformedRequestException(
+                    "bodyId、quantity、plane、uMin、uMax、vMin、vMax 与 horizonSeconds 必填");
+        }
+        StabilityMapQuantity quantity;
+        StabilityMapPlane plane;
+        try {
+            quantity = StabilityMapQuantity.valueOf(body.quantity().toUpperCase());
+            plane = StabilityMapPlane.valueOf(body.plane().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new ReplayController.MalformedRequestException("quantity 只能为 POSITION 或 VELOCITY，"
+                    + "plane 只能为 XY、XZ 或 YZ");
+        }
+        ConfigRequestMapper.MappedConfig mapped = ConfigRequestMapper.map(body.config());
+        if (!mapped.complete()) {
+            throw new ConfigValidationException(mapped.issues());
+        }
+        StabilityMapDefinition definition = new StabilityMapDefinition(mapped.config(), body.bodyId(), quantity,
+                plane, body.uMin(), body.uMax(), body.vMin(), body.vMax(), body.horizonSeconds(),
+                body.escapeRadiusMeters(), body.collisionDistanceMeters(), Boolean.TRUE.equals(body.megno()));
+        StabilityMapJob job = stabilityMapService.create(definition, body.zoom() != null ? body.zoom() : 0,
+                body.xMin(), body.xMax(), body.yMin(), body.yMax());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toJobDto(job));
+    }
+
+    @GetMapping("/stability-map-jobs/{jobId}")
+    public Map<String, Object> get(@PathVariable("jobId") String jobId) {
+        return toJobDto(stabilityMapService.get(jobId));
+    }
+
+    @DeleteMapping("/stability-map-jobs/{jobId}")
+    public ResponseEntity<Void> delete(@PathVariable("jobId") String jobId) {
+        stabilityMapService.delete(jobId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/stability-maps/{mapId}/tiles/{z}/{x}/{y}")
+    public Map<String, Object> tile(@PathVariable("mapId") String mapId, @PathVariable("z") int zoom,
+            @PathVariable("x") int x, @PathVariable("y") int y) {
+        return toTileDto(stabilityMapService.tile(mapId, zoom, x, y));
+    }
+
+    static Map<String, Object> toJobDto(StabilityMapJob job) {
+        StabilityMapDefinition definition = job.definition();
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("jobId", job.jobId());
+        dto.put("mapId", job.mapId());
+        dto.put("configName", definition.config().name());
+        dto.put("bodyId", definition.bodyId());
+        dto.put("quantity", definition.quantity().name());
+        dto.put("plane", definition.plane().name());
+        dto.put("uMin", definition.uMin());
+        dto.put("uMax", definition.uMax());
+        dto.put("vMin", definition.vMin());
+        dto.put("vMax", definition.vMax());
+        dto.put("horizonSeconds", definition.horizonSeconds());
+        dto.put("megno", definition.megno());
+        dto.put("zoom", job.zoom());
+        dto.put("tileSize", StabilityMapService.TILE_SIZE);
+        dto.put("xMin", job.xMin());
+        dto.put("xMax", job.xMax());
+        dto.put("yMin", job.yMin());
+        dto.put("yMax", job.yMax());
+        dto.put("status", job.status().name());
+        dto.put("completedTiles", job.completedTiles());
+        dto.put("cachedTiles", job.cachedTiles());
+        dto.put("totalTiles", job.totalTiles());
+        dto.put("progress", job.progress());
+        dto.put("tiles", job.tiles());
+        dto.put("error", job.error());
+        dto.put("createdAt", job.createdAt().toString());
+        dto.put("updatedAt", job.updatedAt().toString());
+        dto.put("expiresAt", job.expiresAt() != null ? job.expiresAt().toString() : null);
+        return dto;
+    }
+
+    private static Map<String, Object> toTileDto(StabilityTile tile) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("mapId", tile.mapId());
+        dto.put("zoom", tile.zoom());
+        dto.put("x", tile.x());
+        dto.put("y", tile.y());
+        dto.put("size", tile.size());
+        dto.put("uMin", tile.uMin());
+        dto.put("uMax", tile.uMax());
+        dto.put("vMin", tile.vMin());
+        dto.put("vMax", tile.vMax());
+        dto.put("cells", tile.cells().stream().map(StabilityMapController::toCellDto).toList());
+        return dto;
+    }
+
+    private static Map<String, Object> toCellDto(StabilityCell cell) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("outcome", cell.outcome().name());
+        dto.put("eventTimeSeconds", cell.eventTimeSeconds());
+        dto.put("megno", cell.megno());
+        return dto;
+    }
+
+    @ExceptionHandler(ConfigValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleValidationFailed(ConfigValidationException ex) {
+        return new ApiError("VALIDATION_FAILED", ex.getMessage(), ex.issues().stream()
+                .map(issue -> new ApiError.ValidationIssueDto(issue.field(), issue.code().name(), issue.message(),
+                        issue.severity().name(), issue.riskLevel() != null ? issue.riskLevel().name() : null))
+                .toList());
+    }
+
+    @ExceptionHandler(StabilityMapService.StabilityMapQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ApiError handleQueueFull(StabilityMapService.StabilityMapQueueFullException ex) {
+        return new ApiError("STABILITY_MAP_QUEUE_FULL", ex.getMessage());
+    }
+
+    @ExceptionHandler(StabilityMapService.StabilityMapJobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ApiError handleJobNotFound(StabilityMapService.StabilityMapJobNotFoundException ex) {
+        return new ApiError("STABILITY_MAP_JOB_NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler(StabilityMapService.StabilityTileNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ApiError handleTileNotFound(StabilityMapService.StabilityTileNotFoundException ex) {
+        return new ApiError("STABILITY_TILE_NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, ReplayController.MalformedRequestException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleMalformed(RuntimeException ex) {
+        return new ApiError("MALFORMED_REQUEST", ex.getMessage());
+    }
+}
@@ -0,0 +1,188 @@
+package com.threebody.web.controller;
+
+import com.threebody.app.domain.SweepJob;
+import com.threebody.app.domain.SweepPointOutcome;
+import com.threebody.app.domain.SweepPointResult;
+import com.threebody.app.service.ConfigValidationException;
+import com.threebody.app.service.SweepService;
+import com.threebody.web.dto.ApiError;
+import com.threebody.web.dto.ConfigRequestMapper;
+import com.threebody.web.dto.SweepJobCreateRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 参数扫描任务接口。POST 返回 202/QUEUED，进度通过 GET 轮询，结果表可排序、筛选并直接导出 CSV。
+ */
+@RestController
+@RequestMapping("/api/v1/sweep-jobs")
+public class SweepController {
+
+    private static final String CSV_HEADER = "index,timeStepSeconds,softeningLengthMeters,outcome,steps,"
+            + "simulationTimeSeconds,finalRelativeEnergyDrift,minimumPairDistanceMeters,wallTimeSeconds,"
+            + "failureStep,error,pararealIterations,pararealSpeedup\n";
+
+    private final SweepService sweepService;
+
+    public SweepController(SweepService sweepService) {
+        this.sweepService = sweepService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@RequestBody SweepJobCreateRequest body) {
+        if (body == null || body.config() == null) {
+            throw new ReplayController.MalformedRequestException("缺少 config 字段");
+        }
+        ConfigRequestMapper.MappedConfig mapped = ConfigRequestMapper.map(body.config());
+        if (!mapped.complete()) {
+            throw new ConfigValidationException(mapped.issues());
+        }
+        SweepJob job = sweepService.create(mapped.config(), body.timeStepsSeconds(), body.softeningLengthsMeters());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toSweepJobDto(job));
+    }
+
+    @GetMapping("/{jobId}")
+    public Map<String, Object> get(@PathVariable("jobId") String jobId) {
+        return toSweepJobDto(sweepService.get(jobId));
+    }
+
+    /** 结果表：format=csv 时以附件返回同样排序、筛选后的行。 */
+    @GetMapping("/{jobId}/results")
+    public ResponseEntity<?> results(@PathVariable("jobId") String jobId,
+            @RequestParam(name = "sortBy", required = false) String sortBy,
+            @RequestParam(name = "order", defaultValue = "asc") String order,
+            @RequestParam(name = "outcome", required = false) String outcome,
+            @RequestParam(name = "format", defaultValue = "json") String format) {
+        if (!order.equals("asc") && !order.equals("desc")) {
+            throw new ReplayController.MalformedRequestException("order 只能为 asc 或 desc");
+        }
+        SweepPointOutcome outcomeFilter;
+        try {
+            outcomeFilter = outcome != null ? SweepPointOutcome.valueOf(outcome.toUpperCase()) : null;
+        } catch (IllegalArgumentException ex) {
+            throw new ReplayController.MalformedRequestException("未知结局：" + outcome);
+        }
+        List<SweepPointResult> rows = sweepService.results(jobId, sortBy, order.equals("desc"), outcomeFilter);
+        return switch (format) {
+            case "json" -> ResponseEntity.ok(rows.stream().map(SweepController::toResultDto).toList());
+            case "csv" -> ResponseEntity.ok()
+                    .header("Content-Disposition", "attachment; filename=sweep-" + jobId + ".csv")
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .body(toCsv(rows));
+            default -> throw new ReplayController.MalformedRequestException("format 只能为 json 或 csv");
+        };
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> delete(@PathVariable("jobId") String jobId) {
+        sweepService.delete(jobId);
+        return ResponseEntity.noContent().build();
+    }
+
+    static Map<String, Object> toSweepJobDto(SweepJob job) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("jobId", job.jobId());
+        dto.put("configName", job.config().name());
+        dto.put("timeStepsSeconds", job.timeStepsSeconds());
+        dto.put("softeningLengthsMeters", job.softeningLengthsMeters());
+        dto.put("status", job.status().name());
+        dto.put("completedPoints", job.completedPoints());
+        dto.put("totalPoints", job.totalPoints());
+        dto.put("progress", job.progress());
+        dto.put("results", job.results().stream().map(SweepController::toResultDto).toList());
+        dto.put("error", job.error());
+        dto.put("createdAt", job.createdAt().toString());
+        dto.put("updatedAt", job.updatedAt().toString());
+        dto.put("expiresAt", job.expiresAt() != null ? job.expiresAt().toString() : null);
+        return dto;
+    }
+
+    private static Map<String, Object> toResultDto(SweepPointResult row) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("index", row.index());
+        dto.put("timeStepSeconds", row.timeStepSeconds());
+        dto.put("softeningLengthMeters", row.softeningLengthMeters());
+        dto.put("outcome", row.outcome().name());
+        dto.put("steps", row.steps());
+        dto.put("simulationTimeSeconds", row.simulationTimeSeconds());
+        dto.put("finalRelativeEnergyDrift", row.finalRelativeEnergyDrift());
+        dto.put("minimumPairDistanceMeters", row.minimumPairDistanceMeters());
+        dto.put("wallTimeSeconds", row.wallTimeSeconds());
+        dto.put("failureStep", row.failureStep());
+        dto.put("error", row.error());
+        dto.put("pararealIterations", row.pararealIterations());
+        dto.put("pararealSpeedup", row.pararealSpeedup());
+        return dto;
+    }
+
+    private static String toCsv(List<SweepPointResult> rows) {
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        for (SweepPointResult row : rows) {
+            csv.append(row.index()).append(',')
+                    .append(row.timeStepSeconds()).append(',')
+                    .append(row.softeningLengthMeters()).append(',')
+                    .append(row.outcome().name()).append(',')
+                    .append(row.steps()).append(',')
+                    .append(row.simulationTimeSeconds()).append(',')
+                    .append(row.finalRelativeEnergyDrift() != null ? row.finalRelativeEnergyDrift() : "").append(',')
+                    .append(row.minimumPairDistanceMeters()).append(',')
+                    .append(row.wallTimeSeconds()).append(',')
+                    .append(row.failureStep() != null ? row.failureStep() : "").append(',')
+                    .append(escapeCsv(row.error())).append(',')
+                    .append(row.pararealIterations() != null ? row.pararealIterations() : "").append(',')
+                    .append(row.pararealSpeedup() != null ? row.pararealSpeedup() : "").append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    @ExceptionHandler(ConfigValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleValidationFailed(ConfigValidationException ex) {
+        return new ApiError("VALIDATION_FAILED", ex.getMessage(), ex.issues().stream()
+                .map(issue -> new ApiError.ValidationIssueDto(issue.field(), issue.code().name(), issue.message(),
+                        issue.severity().name(), issue.riskLevel() != null ? issue.riskLevel().name() : null))
+                .toList());
+    }
+
+    @ExceptionHandler(SweepService.SweepQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ApiError handleQueueFull(SweepService.SweepQueueFullException ex) {
+        return new ApiError("SWEEP_QUEUE_FULL", ex.getMessage());
+    }
+
+    @ExceptionHandler(SweepService.SweepJobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ApiError handleJobNotFound(SweepService.SweepJobNotFoundException ex) {
+        return new ApiError("SWEEP_JOB_NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, ReplayController.MalformedRequestException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleMalformed(RuntimeException ex) {
+        return new ApiError("MALFORMED_REQUEST", ex.getMessage());
+    }
+}
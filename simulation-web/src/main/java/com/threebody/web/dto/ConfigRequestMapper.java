@@ -1,6 +1,8 @@
 package com.threebody.web.dto;
 
 import com.threebody.core.BodySpec;
+import com.threebody.core.ForceSolverKind;
+import com.threebody.core.IntegratorKind;
 import com.threebody.core.SimulationConfig;
 import com.threebody.core.ValidationCode;
 import com.threebody.core.ValidationIssue;
@@ -50,6 +52,16 @@ public final class ConfigRequestMapper {
             issues.add(ValidationIssue.error("config.softeningLengthMeters",
                     ValidationCode.INVALID_SOFTENING_LENGTH, "缺少 softeningLengthMeters 字段"));
         }
+        IntegratorKind integrator = IntegratorKind.fromName(request.integrator());
+        if (integrator == null) {
+            issues.add(ValidationIssue.error("config.integrator", ValidationCode.INVALID_INTEGRATOR,
+                    "不支持的积分方案：" + request.integrator()));
+        }
+        ForceSolverKind forceSolver = ForceSolverKind.fromName(request.forceSolver());
+        if (forceSolver == null) {
+            issues.add(ValidationIssue.error("config.forceSolver", ValidationCode.INVALID_FORCE_SOLVER,
+                    "不支持的引力求解方式：" + request.forceSolver()));
+        }
 
         List<BodySpec> bodies = new ArrayList<>();
         for (int i = 0; i < request.bodies().size(); i++) {
@@ -83,7 +95,18 @@ public final class ConfigRequestMapper {
                 request.gravitationalConstant(),
                 request.softeningLengthMeters(),
                 request.maxSteps(),
-                request.targetSimulationTimeSeconds());
+                request.targetSimulationTimeSeconds(),
+                integrator,
+                request.relativeTolerance(),
+                request.absoluteTolerance(),
+                forceSolver,
+                request.openingAngle(),
+                request.expansionOrder(),
+                Boolean.TRUE.equals(request.chaosIndicators()),
+                Boolean.TRUE.equals(request.analyticBinaries()),
+                request.escapeRetirementRadiusMeters(),
+                Boolean.TRUE.equals(request.regularizedEncounters()),
+                request.pararealSlices());
         return new MappedConfig(config, issues);
     }
 
@@ -0,0 +1,20 @@
+package com.threebody.web.dto;
+
+/**
+ * 集合积分任务创建请求。
+ *
+ * @param config              基础配置，必填
+ * @param members             成员数量，含未扰动的参照成员，必填
+ * @param perturbationMeters  位置扰动每个分量的标准差(m)，必填
+ * @param steps               积分步数，可空
+ * @param sampleIntervalSteps 发散统计的采样步距，可空
+ * @param seed                扰动随机种子，可空
+ */
+public record EnsembleJobCreateRequest(
+        SimulationConfigRequest config,
+        Integer members,
+        Double perturbationMeters,
+        Long steps,
+        Long sampleIntervalSteps,
+        Long seed) {
+}
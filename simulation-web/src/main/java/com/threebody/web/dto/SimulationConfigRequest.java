@@ -4,7 +4,12 @@ import java.util.List;
 
 /**
  * 模拟配置请求。数值字段使用可空包装类型以区分缺失与 0；
- * maxSteps 与 targetSimulationTimeSeconds 本身就是可空结束条件。
+ * maxSteps 与 targetSimulationTimeSeconds 本身就是可空结束条件；integrator 缺失时使用 RK4；
+ * 两个误差容差只对自适应积分方案生效，缺失时使用默认值；
+ * forceSolver 缺失时使用 DIRECT，openingAngle 只对 BARNES_HUT 生效，expansionOrder 只对 FMM 生效；
+ * chaosIndicators 缺失时不积分变分方程；analyticBinaries 缺失时不启用解析双星推进；
+ * escapeRetirementRadiusMeters 缺失时不退役逃逸天体；regularizedEncounters 缺失时不正则化近距离天体对；
+ * pararealSlices 缺失时逐步串行推进。
  */
 public record SimulationConfigRequest(
         String name,
@@ -13,5 +18,16 @@ public record SimulationConfigRequest(
         Double gravitationalConstant,
         Double softeningLengthMeters,
         Long maxSteps,
-        Double targetSimulationTimeSeconds) {
+        Double targetSimulationTimeSeconds,
+        String integrator,
+        Double relativeTolerance,
+        Double absoluteTolerance,
+        String forceSolver,
+        Double openingAngle,
+        Integer expansionOrder,
+        Boolean chaosIndicators,
+        Boolean analyticBinaries,
+        Double escapeRetirementRadiusMeters,
+        Boolean regularizedEncounters,
+        Integer pararealSlices) {
 }
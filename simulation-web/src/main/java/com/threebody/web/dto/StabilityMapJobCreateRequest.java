@@ -0,0 +1,42 @@
+package com.threebody.web.dto;
+
+/**
+ * 稳定性地图任务创建请求。
+ *
+ * @param config                  基础配置，必填；积分方案须为固定步长方案
+ * @param bodyId                  被改写初始条件的天体，必填
+ * @param quantity                POSITION 或 VELOCITY，必填
+ * @param plane                   XY、XZ 或 YZ，必填
+ * @param uMin                    横轴下界，必填
+ * @param uMax                    横轴上界，必填
+ * @param vMin                    纵轴下界，必填
+ * @param vMax                    纵轴上界，必填
+ * @param horizonSeconds          每个单元积分的时限(s)，必填
+ * @param escapeRadiusMeters      逃逸半径(m)，可空
+ * @param collisionDistanceMeters 碰撞距离(m)，可空
+ * @param megno                   是否计算平均 MEGNO，缺省 false
+ * @param zoom                    缩放级别，缺省 0
+ * @param xMin                    瓦片列号下界，可空
+ * @param xMax                    瓦片列号上界，可空
+ * @param yMin                    瓦片行号下界，可空
+ * @param yMax                    瓦片行号上界，可空
+ */
+public record StabilityMapJobCreateRequest(
+        SimulationConfigRequest config,
+        String bodyId,
+        String quantity,
+        String plane,
+        Double uMin,
+        Double uMax,
+        Double vMin,
+        Double vMax,
+        Double horizonSeconds,
+        Double escapeRadiusMeters,
+        Double collisionDistanceMeters,
+        Boolean megno,
+        Integer zoom,
+        Integer xMin,
+        Integer xMax,
+        Integer yMin,
+        Integer yMax) {
+}
@@ -0,0 +1,16 @@
+package com.threebody.web.dto;
+
+import java.util.List;
+
+/**
+ * 参数扫描任务创建请求。
+ *
+ * @param config                 基础配置，必填
+ * @param timeStepsSeconds       时间步长网格(s)，可空
+ * @param softeningLengthsMeters 软化长度网格(m)，可空
+ */
+public record SweepJobCreateRequest(
+        SimulationConfigRequest config,
+        List<Double> timeStepsSeconds,
+        List<Double> softeningLengthsMeters) {
+}
@@ -76,6 +76,7 @@ public class ExperimentWebSocketHandler extends TextWebSocketHandler implements
             return thread;
         });
         service.addEventListener(this);
+        service.trackViewers();
     }
 
     @Override
@@ -95,6 +96,8 @@ public class ExperimentWebSocketHandler extends TextWebSocketHandler implements
         senders.put(session.getId(), sender);
         subscriptions.computeIfAbsent(experimentId, ignored -> new CopyOnWriteArraySet<>())
                 .add(session.getId());
+        // 先登记订阅再计数：turbo 运行切回展示时补发的权威状态能送达本连接
+        service.viewerAttached(experimentId);
         log.info("WebSocket 已连接：experiment={} session={}", experimentId, session.getId());
     }
 
@@ -139,7 +142,9 @@ public class ExperimentWebSocketHandler extends TextWebSocketHandler implements
         if (experimentId != null) {
             Set<String> subscribed = subscriptions.get(experimentId);
             if (subscribed != null) {
-                subscribed.remove(session.getId());
+                if (subscribed.remove(session.getId())) {
+                    service.viewerDetached(experimentId);
+                }
                 if (subscribed.isEmpty()) {
                     subscriptions.remove(experimentId, subscribed);
                 }
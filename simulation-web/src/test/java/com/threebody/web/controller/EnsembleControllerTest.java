@@ -0,0 +1,95 @@
+package com.threebody.web.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.threebody.app.domain.EnsembleJob;
+import com.threebody.app.domain.EnsembleJobStatus;
+import com.threebody.app.service.EnsembleService;
+import com.threebody.core.EnsembleSample;
+import com.threebody.core.PresetKey;
+import com.threebody.core.Presets;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class EnsembleControllerTest {
+
+    private static final String BODY = """
+            {"config":{"name":"集合","timeStepSeconds":3600,"gravitationalConstant":6.674e-11,
+              "softeningLengthMeters":1.0e7,"maxSteps":100,
+              "bodies":[
+                {"id":"a","name":"甲","color":"#ffd166","massKg":1.0e30,
+                 "position":{"x":-1.0e11,"y":0,"z":0},"velocity":{"x":0,"y":-1.3e4,"z":0}},
+                {"id":"b","name":"乙","color":"#4d96ff","massKg":1.0e30,
+                 "position":{"x":1.0e11,"y":0,"z":0},"velocity":{"x":0,"y":1.3e4,"z":0}}]},
+             "members":8,"perturbationMeters":1000.0}
+            """;
+
+    private static EnsembleJob job(EnsembleJobStatus status) {
+        Instant now = Instant.now();
+        List<EnsembleSample> samples = List.of(
+                new EnsembleSample(0L, 0.0, 8, Double.NaN, Double.NaN, Double.NaN),
+                new EnsembleSample(100L, 360_000.0, 8, 7.5, 1800.0, 2400.0));
+        return new EnsembleJob("job-1", Presets.byKey(PresetKey.I).config(), 8, 1000.0, 7L, 100L, status,
+                100L, 100L, 1.0, samples, 0, 1.0e-6, null, now, now, now.plusSeconds(600));
+    }
+
+    @Test
+    void postReturns202() throws Exception {
+        EnsembleService service = mock(EnsembleService.class);
+        when(service.create(any(), anyInt(), anyDouble(), any(), any(), any()))
+                .thenReturn(job(EnsembleJobStatus.QUEUED));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new EnsembleController(service)).build();
+
+        mvc.perform(post("/api/v1/ensemble-jobs").contentType("application/json").content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.memberCount").value(8));
+    }
+
+    @Test
+    void getJobReturnsSamples() throws Exception {
+        EnsembleService service = mock(EnsembleService.class);
+        when(service.get("job-1")).thenReturn(job(EnsembleJobStatus.COMPLETED));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new EnsembleController(service)).build();
+
+        mvc.perform(get("/api/v1/ensemble-jobs/{jobId}", "job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.samples[0].meanLogDivergence").doesNotExist())
+                .andExpect(jsonPath("$.samples[1].maxDivergenceMeters").value(2400.0))
+                .andExpect(jsonPath("$.lyapunovEstimatePerSecond").value(1.0e-6));
+    }
+
+    @Test
+    void deleteJobReturns204() throws Exception {
+        EnsembleService service = mock(EnsembleService.class);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new EnsembleController(service)).build();
+
+        mvc.perform(delete("/api/v1/ensemble-jobs/{jobId}", "job-1"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void queueFullReturns429() throws Exception {
+        EnsembleService service = mock(EnsembleService.class);
+        when(service.create(any(), eq(8), anyDouble(), any(), any(), any()))
+                .thenThrow(new EnsembleService.EnsembleQueueFullException("集合积分队列已满"));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new EnsembleController(service)).build();
+
+        mvc.perform(post("/api/v1/ensemble-jobs").contentType("application/json").content(BODY))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.code").value("ENSEMBLE_QUEUE_FULL"));
+    }
+}
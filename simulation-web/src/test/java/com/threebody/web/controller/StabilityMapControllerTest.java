@@ -0,0 +1,97 @@
+package com.threebody.web.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.threebody.app.domain.StabilityMapDefinition;
+import com.threebody.app.domain.StabilityMapJob;
+import com.threebody.app.domain.StabilityMapJobStatus;
+import com.threebody.app.domain.StabilityMapPlane;
+import com.threebody.app.domain.StabilityMapQuantity;
+import com.threebody.app.domain.StabilityTile;
+import com.threebody.app.service.StabilityMapService;
+import com.threebody.core.PresetKey;
+import com.threebody.core.Presets;
+import com.threebody.core.StabilityCell;
+import com.threebody.core.StabilityOutcome;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class StabilityMapControllerTest {
+
+    private static final String MAP_ID = "0123456789abcdef0123456789abcdef";
+
+    private static final String BODY = """
+            {"config":{"name":"地图","timeStepSeconds":3600,"gravitationalConstant":6.674e-11,
+              "softeningLengthMeters":1.0e7,"maxSteps":100,
+              "bodies":[
+                {"id":"a","name":"甲","color":"#ffd166","massKg":1.0e30,
+                 "position":{"x":-1.0e11,"y":0,"z":0},"velocity":{"x":0,"y":-1.3e4,"z":0}},
+                {"id":"b","name":"乙","color":"#4d96ff","massKg":1.0e30,
+                 "position":{"x":1.0e11,"y":0,"z":0},"velocity":{"x":0,"y":1.3e4,"z":0}}]},
+             "bodyId":"b","quantity":"velocity","plane":"XY","uMin":-5000,"uMax":5000,
+             "vMin":0,"vMax":30000,"horizonSeconds":1.0e8,"zoom":2,"xMin":1,"xMax":2}
+            """;
+
+    private static StabilityMapJob job(StabilityMapJobStatus status) {
+        Instant now = Instant.now();
+        StabilityMapDefinition definition = new StabilityMapDefinition(Presets.byKey(PresetKey.I).config(), "b",
+                StabilityMapQuantity.VELOCITY, StabilityMapPlane.XY, -5_000.0, 5_000.0, 0.0, 30_000.0, 1.0e8,
+                null, null, false);
+        return new StabilityMapJob("job-1", MAP_ID, definition, 2, 1, 2, 0, 3, status, 1, 1, 8, 0.125,
+                List.of("2/1/0"), null, now, now, null);
+    }
+
+    @Test
+    void postReturns202() throws Exception {
+        StabilityMapService service = mock(StabilityMapService.class);
+        when(service.create(any(), eq(2), eq(1), eq(2), eq(null), eq(null)))
+                .thenReturn(job(StabilityMapJobStatus.QUEUED));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new StabilityMapController(service)).build();
+
+        mvc.perform(post("/api/v1/stability-map-jobs").contentType("application/json").content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.mapId").value(MAP_ID))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.tiles[0]").value("2/1/0"));
+    }
+
+    @Test
+    void tileReturnsCellsOr404() throws Exception {
+        StabilityMapService service = mock(StabilityMapService.class);
+        when(service.tile(MAP_ID, 2, 1, 0)).thenReturn(new StabilityTile(MAP_ID, 2, 1, 0, 16,
+                -2_500.0, 0.0, 22_500.0, 30_000.0,
+                List.of(new StabilityCell(StabilityOutcome.ESCAPED, 3.2e7, null))));
+        when(service.tile(MAP_ID, 2, 0, 0))
+                .thenThrow(new StabilityMapService.StabilityTileNotFoundException("瓦片尚未计算：2/0/0"));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new StabilityMapController(service)).build();
+
+        mvc.perform(get("/api/v1/stability-maps/{mapId}/tiles/{z}/{x}/{y}", MAP_ID, 2, 1, 0))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cells[0].outcome").value("ESCAPED"))
+                .andExpect(jsonPath("$.cells[0].eventTimeSeconds").value(3.2e7));
+        mvc.perform(get("/api/v1/stability-maps/{mapId}/tiles/{z}/{x}/{y}", MAP_ID, 2, 0, 0))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("STABILITY_TILE_NOT_FOUND"));
+    }
+
+    @Test
+    void postRejectsUnknownPlane() throws Exception {
+        StabilityMapService service = mock(StabilityMapService.class);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new StabilityMapController(service)).build();
+
+        mvc.perform(post("/api/v1/stability-map-jobs").contentType("application/json")
+                        .content(BODY.replace("\"XY\"", "\"XW\"")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("MALFORMED_REQUEST"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.threebody.web.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.threebody.app.domain.SweepJob;
+import com.threebody.app.domain.SweepJobStatus;
+import com.threebody.app.domain.SweepPointOutcome;
+import com.threebody.app.domain.SweepPointResult;
+import com.threebody.app.service.SweepService;
+import com.threebody.core.PresetKey;
+import com.threebody.core.Presets;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class SweepControllerTest {
+
+    private static final String BODY = """
+            {"config":{"name":"扫描","timeStepSeconds":3600,"gravitationalConstant":6.674e-11,
+              "softeningLengthMeters":1.0e7,"maxSteps":100,
+              "bodies":[
+                {"id":"a","name":"甲","color":"#ffd166","massKg":1.0e30,
+                 "position":{"x":-1.0e11,"y":0,"z":0},"velocity":{"x":0,"y":-1.3e4,"z":0}},
+                {"id":"b","name":"乙","color":"#4d96ff","massKg":1.0e30,
+                 "position":{"x":1.0e11,"y":0,"z":0},"velocity":{"x":0,"y":1.3e4,"z":0}}]},
+             "timeStepsSeconds":[1800,3600],"softeningLengthsMeters":[1.0e7]}
+            """;
+
+    private static final List<SweepPointResult> ROWS = List.of(
+            new SweepPointResult(0, 1800.0, 1.0e7, SweepPointOutcome.COMPLETED, 100L, 180_000.0,
+                    -2.0e-9, 1.9e11, 0.01, null, null, null, null),
+            new SweepPointResult(1, 3600.0, 1.0e7, SweepPointOutcome.FAILED, 41L, 147_600.0,
+                    null, 1.0e3, 0.02, 42L, "非有限值, 位置 x", 3, 2.5));
+
+    private static SweepJob job(SweepJobStatus status) {
+        Instant now = Instant.now();
+        return new SweepJob("job-1", Presets.byKey(PresetKey.I).config(), List.of(1800.0, 3600.0),
+                List.of(1.0e7), status, 2, 2, 1.0, ROWS, null, now, now, now.plusSeconds(600));
+    }
+
+    @Test
+    void postReturns202() throws Exception {
+        SweepService service = mock(SweepService.class);
+        when(service.create(any(), eq(List.of(1800.0, 3600.0)), eq(List.of(1.0e7))))
+                .thenReturn(job(SweepJobStatus.QUEUED));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new SweepController(service)).build();
+
+        mvc.perform(post("/api/v1/sweep-jobs").contentType("application/json").content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.totalPoints").value(2));
+    }
+
+    @Test
+    void resultsExportAsCsv() throws Exception {
+        SweepService service = mock(SweepService.class);
+        when(service.results("job-1", "failureStep", true, SweepPointOutcome.FAILED)).thenReturn(ROWS.subList(1, 2));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new SweepController(service)).build();
+
+        mvc.perform(get("/api/v1/sweep-jobs/{jobId}/results", "job-1")
+                        .param("sortBy", "failureStep").param("order", "desc").param("outcome", "failed")
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=sweep-job-1.csv"))
+                .andExpect(content().string(org.hamcrest.Matchers.endsWith(
+                        "1,3600.0,1.0E7,FAILED,41,147600.0,,1000.0,0.02,42,\"非有限值, 位置 x\",3,2.5\n")));
+    }
+
+    @Test
+    void resultsRejectUnknownFormat() throws Exception {
+        SweepService service = mock(SweepService.class);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new SweepController(service)).build();
+
+        mvc.perform(get("/api/v1/sweep-jobs/{jobId}/results", "job-1").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("MALFORMED_REQUEST"));
+    }
+}